@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import javax.annotation.Nonnull;
+
+import org.openepics.discs.ccdb.jaxb.DeviceType;
+import org.openepics.discs.ccdb.jaxb.InstallationSlot;
+import org.openepics.discs.ccdb.jaxb.InstallationSlotNames;
+import org.openepics.discs.ccdb.jaxrs.DeviceTypeResource;
+import org.openepics.discs.ccdb.jaxrs.InstallationSlotNameResource;
+import org.openepics.discs.ccdb.jaxrs.InstallationSlotResource;
+
+/**
+ * The asynchronous variants of the CCDB service client methods. Each request is run by the executor of the
+ * {@link CCDBClient}, so at most as many requests run at once as there are connections in the pool, and the rest
+ * wait for a free connection. The returned stages complete exceptionally with a
+ * {@link org.openepics.discs.client.impl.ResponseException} if the data couldn't be retrieved.
+ */
+public class CCDBAsyncClient {
+    @Nonnull private final Supplier<? extends Executor> executor;
+    @Nonnull private final DeviceTypeResource deviceTypeResource;
+    @Nonnull private final InstallationSlotResource installationSlotResource;
+    @Nonnull private final InstallationSlotNameResource installationSlotNameResource;
+
+    CCDBAsyncClient(CCDBClient client) {
+        this(client::getExecutor, client.createDeviceTypeResource(), client.createInstallationSlotResource(),
+                client.createInstallationSlotNameResource());
+    }
+
+    /**
+     * @param executor supplies the executor that runs the requests
+     * @param deviceTypeResource the device type resource
+     * @param installationSlotResource the installation slot resource
+     * @param installationSlotNameResource the installation slot name resource
+     */
+    CCDBAsyncClient(Supplier<? extends Executor> executor, DeviceTypeResource deviceTypeResource,
+            InstallationSlotResource installationSlotResource,
+            InstallationSlotNameResource installationSlotNameResource) {
+        this.executor = executor;
+        this.deviceTypeResource = deviceTypeResource;
+        this.installationSlotResource = installationSlotResource;
+        this.installationSlotNameResource = installationSlotNameResource;
+    }
+
+    /**
+     * @return all device types
+     * @see DeviceTypeResource#getAllDeviceTypes()
+     */
+    public CompletionStage<List<DeviceType>> getAllDeviceTypes() {
+        return supplyAsync(deviceTypeResource::getAllDeviceTypes);
+    }
+
+    /**
+     * @param name the name of the device type
+     * @return the device type
+     * @see DeviceTypeResource#getDeviceType(String)
+     */
+    public CompletionStage<DeviceType> getDeviceType(String name) {
+        return supplyAsync(() -> deviceTypeResource.getDeviceType(name));
+    }
+
+    /**
+     * @param deviceTypeName optional (can be null) device type to filter the slots
+     * @return the names of the installation slots
+     * @see InstallationSlotNameResource#getAllInstallationSlotNames(String)
+     */
+    public CompletionStage<InstallationSlotNames> getAllInstallationSlotNames(String deviceTypeName) {
+        return supplyAsync(() -> installationSlotNameResource.getAllInstallationSlotNames(deviceTypeName));
+    }
+
+    /**
+     * @param deviceType optional (can be null) device type to filter the slots
+     * @return the installation slots
+     * @see InstallationSlotResource#getInstallationSlots(String)
+     */
+    public CompletionStage<List<InstallationSlot>> getInstallationSlots(String deviceType) {
+        return supplyAsync(() -> installationSlotResource.getInstallationSlots(deviceType));
+    }
+
+    /**
+     * @param name the name of the installation slot
+     * @return the installation slot, <code>null</code> if there is no such slot
+     * @see InstallationSlotResource#getInstallationSlot(String)
+     */
+    public CompletionStage<InstallationSlot> getInstallationSlot(String name) {
+        return supplyAsync(() -> installationSlotResource.getInstallationSlot(name));
+    }
+
+    /**
+     * Requests several installation slots by name. The requests are sent concurrently over the pooled connections.
+     *
+     * @param names the names of the installation slots
+     * @return the installation slots in the order of the names, without the slots that do not exist
+     */
+    public CompletionStage<List<InstallationSlot>> getInstallationSlots(Collection<String> names) {
+        final List<CompletableFuture<InstallationSlot>> slots = new ArrayList<>(names.size());
+        for (final String name : names) {
+            slots.add(supplyAsync(() -> installationSlotResource.getInstallationSlot(name)));
+        }
+        return CompletableFuture.allOf(slots.toArray(new CompletableFuture<?>[slots.size()])).
+                thenApply(done -> slots.stream().
+                        map(CompletableFuture::join).
+                        filter(Objects::nonNull).
+                        collect(Collectors.toList()));
+    }
+
+    private <T> CompletableFuture<T> supplyAsync(Supplier<T> request) {
+        return CompletableFuture.supplyAsync(request, executor.get());
+    }
+}
@@ -22,23 +22,35 @@ package org.openepics.discs.client;
 import java.io.IOException;
 import java.io.InputStream;
 import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Properties;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import javax.annotation.Nonnull;
 import javax.annotation.Nullable;
 import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.HttpHeaders;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.MultivaluedHashMap;
 import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.core.Response;
 import javax.ws.rs.core.UriBuilder;
 
+import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
 import org.openepics.discs.client.impl.CCDBClientConfigException;
 import org.openepics.discs.client.impl.ClosableResponse;
+import org.openepics.discs.ccdb.jaxrs.ChangeResource;
 import org.openepics.discs.ccdb.jaxrs.DeviceTypeResource;
 import org.openepics.discs.ccdb.jaxrs.InstallationSlotNameResource;
 import org.openepics.discs.ccdb.jaxrs.InstallationSlotResource;
@@ -50,7 +62,7 @@ import org.openepics.discs.ccdb.jaxrs.InstallationSlotResource;
  * @author <a href="mailto:miroslav.pavleski@cosylab.com">Miroslav Pavleski</a>
  */
 
-public class CCDBClient {
+public class CCDBClient implements AutoCloseable {
     private static final Logger LOGGER = Logger.getLogger(CCDBClient.class.getName());
 
     /** Name of the Base REST service URL property */
@@ -59,16 +71,41 @@ public class CCDBClient {
     public static final String PROPERTY_NAME_USERNAME = "CCDB.UserName";
     /** Name of the password property */
     public static final String PROPERTY_NAME_PASSWORD = "CCDB.Password";
+    /** Name of the property setting the maximum number of concurrent connections to the service */
+    public static final String PROPERTY_NAME_MAX_CONNECTIONS = "CCDB.maxConnections";
+    /** Name of the property setting the connect timeout in milliseconds */
+    public static final String PROPERTY_NAME_CONNECT_TIMEOUT = "CCDB.connectTimeout";
+    /** Name of the property setting the read timeout in milliseconds */
+    public static final String PROPERTY_NAME_READ_TIMEOUT = "CCDB.readTimeout";
+    /** Name of the property enabling the cache of the entities read from the service */
+    public static final String PROPERTY_NAME_CACHE_ENABLED = "CCDB.cache.enabled";
+    /** Name of the property setting the maximum number of cached entities */
+    public static final String PROPERTY_NAME_CACHE_MAX_ENTRIES = "CCDB.cache.maxEntries";
+    /**
+     * Name of the property setting the time in milliseconds a cached entity is used without revalidation. The time
+     * for a specific resource is set by appending its path, e.g. <code>CCDB.cache.ttl.deviceType</code>.
+     */
+    public static final String PROPERTY_NAME_CACHE_TTL = "CCDB.cache.ttl";
     /** Name of the properties file */
     public static final String PROPERTIES_FILENAME = "CCDB.properties";
+    private static final String DEFAULT_MAX_CONNECTIONS = "10";
+    private static final String DEFAULT_CONNECT_TIMEOUT = "10000";
+    private static final String DEFAULT_READ_TIMEOUT = "60000";
+    private static final String DEFAULT_CACHE_MAX_ENTRIES = "1000";
+    private static final String DEFAULT_CACHE_TTL = "60000";
     /** Path separator */
     private static final String PATH_SEPARATOR = "/";
 
     @Nonnull final private String baseUrl;
     @Nonnull final private String username;
     @Nonnull final private String password;
+    final private int maxConnections;
 
-    @Nonnull final Client client = ClientBuilder.newClient();
+    @Nonnull final Client client;
+    /** The cache of the entities, <code>null</code> if caching is disabled */
+    @Nullable final private ResponseCache cache;
+    /** Runs the asynchronous requests, created when first needed */
+    @Nullable private ExecutorService executor;
 
     /**
      * <p>
@@ -77,7 +114,10 @@ public class CCDBClient {
      * loaded.
      * </p><p>
      * Configurable properties are {@link CCDBClient#PROPERTY_NAME_BASE_URL}, {@link CCDBClient#PROPERTY_NAME_USERNAME},
-     * {@link CCDBClient#PROPERTY_NAME_PASSWORD}
+     * {@link CCDBClient#PROPERTY_NAME_PASSWORD}, and optionally {@link CCDBClient#PROPERTY_NAME_MAX_CONNECTIONS},
+     * {@link CCDBClient#PROPERTY_NAME_CONNECT_TIMEOUT}, {@link CCDBClient#PROPERTY_NAME_READ_TIMEOUT},
+     * {@link CCDBClient#PROPERTY_NAME_CACHE_ENABLED}, {@link CCDBClient#PROPERTY_NAME_CACHE_MAX_ENTRIES} and
+     * {@link CCDBClient#PROPERTY_NAME_CACHE_TTL}
      * </p>
      * @param userProperties optional (can be <code>null</code>) properties file that contains configurable properties
      *
@@ -88,6 +128,13 @@ public class CCDBClient {
         baseUrl = getProperty(properties, PROPERTY_NAME_BASE_URL);
         username = getProperty(properties, PROPERTY_NAME_USERNAME);
         password = getProperty(properties, PROPERTY_NAME_PASSWORD);
+        maxConnections = Integer.parseInt(getProperty(properties, PROPERTY_NAME_MAX_CONNECTIONS,
+                                                                                DEFAULT_MAX_CONNECTIONS));
+        client = createClient(maxConnections,
+                Integer.parseInt(getProperty(properties, PROPERTY_NAME_CONNECT_TIMEOUT, DEFAULT_CONNECT_TIMEOUT)),
+                Integer.parseInt(getProperty(properties, PROPERTY_NAME_READ_TIMEOUT, DEFAULT_READ_TIMEOUT)));
+        cache = Boolean.parseBoolean(getProperty(properties, PROPERTY_NAME_CACHE_ENABLED, "false")) ?
+                createCache(properties) : null;
         LOGGER.log(Level.FINE, PROPERTY_NAME_BASE_URL + ": " + baseUrl);
         LOGGER.log(Level.FINE, PROPERTY_NAME_USERNAME + ": " + username);
         LOGGER.log(Level.FINE, PROPERTY_NAME_PASSWORD + ": " + password);
@@ -119,6 +166,102 @@ public class CCDBClient {
         return new ClosableResponse(client.target(ub).request(MediaType.APPLICATION_JSON_TYPE).get());
     }
 
+    /**
+     * Requests JSON type data from URL and reads the entity from the response. If the cache is enabled, a fresh
+     * cached entity is returned without contacting the service, and a stale one is revalidated with a conditional
+     * request.
+     *
+     * <p>Method is thread-safe.</p>
+     *
+     * @param url
+     *            to send request
+     * @param queryParameters
+     *            optional list of query parameters to use in request
+     * @param entityType
+     *            the type of the entity
+     * @param <T> the type of the entity
+     *
+     * @return the entity, possibly shared with the other callers if the cache is enabled
+     */
+    public <T> T getEntity(final String url, @Nullable final MultivaluedMap<String, Object> queryParameters,
+                                                                                    final GenericType<T> entityType) {
+        if (cache == null) {
+            try (final ClosableResponse response = getResponse(url, queryParameters)) {
+                return response.readEntity(entityType);
+            }
+        }
+
+        final UriBuilder ub = UriBuilder.fromUri(url);
+        if (queryParameters != null) {
+            for (Entry<String, List<Object>> entry : queryParameters.entrySet()) {
+                ub.queryParam(entry.getKey(), entry.getValue().toArray());
+            }
+        }
+        final String key = ub.build().toString();
+        final ResponseCache.CachedEntity cached = cache.get(key);
+        final String resource = getResourcePath(url);
+        if (cached != null && cached.isFresh()) {
+            cache.hit();
+            @SuppressWarnings("unchecked")
+            final T entity = (T) cached.getEntity();
+            return entity;
+        }
+
+        final Invocation.Builder request = client.target(ub).request(MediaType.APPLICATION_JSON_TYPE);
+        if (cached != null && cached.hasValidators()) {
+            if (cached.getEntityTag() != null) {
+                request.header(HttpHeaders.IF_NONE_MATCH, cached.getEntityTag());
+            }
+            if (cached.getLastModified() != null) {
+                request.header(HttpHeaders.IF_MODIFIED_SINCE, cached.getLastModified());
+            }
+        }
+        try (final ClosableResponse response = new ClosableResponse(request.get())) {
+            if (cached != null && response.getStatus() == Response.Status.NOT_MODIFIED.getStatusCode()) {
+                cache.revalidated(cached, resource);
+                @SuppressWarnings("unchecked")
+                final T entity = (T) cached.getEntity();
+                return entity;
+            }
+            cache.miss();
+            final T entity = response.readEntity(entityType);
+            if (entity != null && response.getStatus() == Response.Status.OK.getStatusCode()) {
+                cache.put(key, resource, entity, response.getEntityTag(), response.getLastModified());
+            }
+            return entity;
+        }
+    }
+
+    /**
+     * @see #getEntity(String, MultivaluedMap, GenericType)
+     *
+     * @param url
+     *            to send request
+     * @param entityType
+     *            the type of the entity
+     * @param <T> the type of the entity
+     *
+     * @return the entity, possibly shared with the other callers if the cache is enabled
+     */
+    public <T> T getEntity(final String url, final Class<T> entityType) {
+        return getEntity(url, null, new GenericType<T>(entityType));
+    }
+
+    /** @return the cache of the entities, <code>null</code> if caching is disabled */
+    @Nullable public ResponseCache getCache() {
+        return cache;
+    }
+
+    /**
+     * @param url the URL of a request
+     * @return the path of the resource the URL belongs to, the first path segment after the base URL
+     */
+    private String getResourcePath(final String url) {
+        final String path = url.startsWith(baseUrl + PATH_SEPARATOR) ? url.substring(baseUrl.length() + 1) : url;
+        final int separator = path.indexOf(PATH_SEPARATOR);
+        return separator < 0 ? path : path.substring(0, separator);
+    }
+
     /**
      * Requests JSON type data from URL.
      *
@@ -231,6 +374,81 @@ public class CCDBClient {
         return propValue;
     }
 
+    /**
+     * Gets an optional property from a {@link Properties} or if not found, from the system properties
+     *
+     * @param defaults
+     * @param key
+     * @param defaultValue the value used if the property is not set
+     * @return the property value
+     */
+    private static String getProperty(final Properties defaults, final String key, final String defaultValue) {
+        return System.getProperties().getProperty(key, defaults.getProperty(key, defaultValue));
+    }
+
+    private static ResponseCache createCache(final Properties properties) {
+        final String resourcePrefix = PROPERTY_NAME_CACHE_TTL + '.';
+        final Map<String, Long> timesToLive = new HashMap<>();
+        final Set<String> propertyNames = new HashSet<>(properties.stringPropertyNames());
+        propertyNames.addAll(System.getProperties().stringPropertyNames());
+        for (final String propertyName : propertyNames) {
+            if (propertyName.startsWith(resourcePrefix)) {
+                timesToLive.put(propertyName.substring(resourcePrefix.length()),
+                        Long.parseLong(getProperty(properties, propertyName)));
+            }
+        }
+        return new ResponseCache(
+                Integer.parseInt(getProperty(properties, PROPERTY_NAME_CACHE_MAX_ENTRIES, DEFAULT_CACHE_MAX_ENTRIES)),
+                Long.parseLong(getProperty(properties, PROPERTY_NAME_CACHE_TTL, DEFAULT_CACHE_TTL)),
+                timesToLive);
+    }
+
+    /**
+     * Creates the RESTEasy client with a pool of connections that are kept alive between the requests. Without the
+     * pool the RESTEasy client has a single connection and can not be used from several threads.
+     *
+     * @param maxConnections the maximum number of connections
+     * @param connectTimeout the connect timeout in milliseconds
+     * @param readTimeout the read timeout in milliseconds
+     * @return the client
+     */
+    static Client createClient(int maxConnections, int connectTimeout, int readTimeout) {
+        return new ResteasyClientBuilder().
+                connectionPoolSize(maxConnections).
+                maxPooledPerRoute(maxConnections).
+                establishConnectionTimeout(connectTimeout, TimeUnit.MILLISECONDS).
+                socketTimeout(readTimeout, TimeUnit.MILLISECONDS).
+                build();
+    }
+
+    /**
+     * Returns the executor for the asynchronous requests. It runs at most as many requests at once as there are
+     * connections in the pool.
+     *
+     * @return the executor
+     */
+    synchronized ExecutorService getExecutor() {
+        if (executor == null) {
+            executor = Executors.newFixedThreadPool(maxConnections, runnable -> {
+                final Thread thread = new Thread(runnable, "ccdb-client");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    /**
+     * Releases the connections and the threads of the client. The client can not be used after it is closed.
+     */
+    @Override
+    public synchronized void close() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+        client.close();
+    }
+
     /* FACTORY METHODS */
     public DeviceTypeResource createDeviceTypeResource() {
         return new DeviceTypeClient(this);
@@ -243,4 +461,12 @@ public class CCDBClient {
     public InstallationSlotResource createInstallationSlotResource() {
         return new InstallationSlotClient(this);
     }
+
+    public ChangeResource createChangeResource() {
+        return new ChangeClient(this);
+    }
+
+    public CCDBAsyncClient createAsyncClient() {
+        return new CCDBAsyncClient(this);
+    }
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import java.util.List;
+import java.util.logging.Logger;
+
+import javax.annotation.Nonnull;
+import javax.ws.rs.core.GenericType;
+import javax.ws.rs.core.MultivaluedHashMap;
+
+import org.openepics.discs.client.impl.ClosableResponse;
+import org.openepics.discs.client.impl.ResponseException;
+import org.openepics.discs.ccdb.jaxb.ChangeEvent;
+import org.openepics.discs.ccdb.jaxrs.ChangeResource;
+
+/**
+ * This is CCDB service client for the change feed.
+ */
+class ChangeClient implements ChangeResource {
+    private static final Logger LOG = Logger.getLogger(ChangeClient.class.getName());
+
+    private static final String PATH_CHANGES = "changes";
+
+    @Nonnull private final CCDBClient client;
+
+    ChangeClient(CCDBClient client) { this.client = client; }
+
+    /**
+     * Requests the changes after the given cursor from the REST service.
+     *
+     * @param since the audit id of the last change already known
+     * @param limit the maximum number of changes to return
+     *
+     * @throws ResponseException if data couldn't be retrieved
+     *
+     * @return {@link List} of the {@link ChangeEvent}s
+     */
+    @Override
+    public List<ChangeEvent> getChanges(long since, int limit) {
+        LOG.fine("Invoking getChanges");
+
+        final String url = client.buildUrl(PATH_CHANGES);
+        final MultivaluedHashMap<String, Object> queryParams = new MultivaluedHashMap<>();
+        queryParams.putSingle("since", since);
+        queryParams.putSingle("limit", limit);
+        try (final ClosableResponse response = client.getResponse(url, queryParams)) {
+            return response.readEntity(new GenericType<List<ChangeEvent>>() {});
+        } catch (Exception e) {
+            throw new ResponseException("Couldn't retrieve data from service at " + url + ".", e);
+        }
+    }
+}
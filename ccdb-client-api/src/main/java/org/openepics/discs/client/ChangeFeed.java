@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.annotation.Nonnull;
+
+import org.openepics.discs.ccdb.jaxb.ChangeEvent;
+import org.openepics.discs.ccdb.jaxrs.ChangeResource;
+
+/**
+ * Reads the CCDB change feed and replays the changes to a {@link ChangeHandler}. The feed keeps the cursor, the audit
+ * id of the last change replayed, so each call of {@link #replay(ChangeHandler)} continues where the previous one
+ * stopped. The cursor can be stored by the caller and used to create the feed again later.
+ * <p>
+ * Only the last change of each entity in a page is replayed, since the handler is expected to read the current
+ * state of the entity anyway.
+ * </p>
+ * <p>The class is not thread-safe.</p>
+ */
+public class ChangeFeed {
+    /** The number of changes requested at once */
+    private static final int PAGE_SIZE = 1000;
+
+    /** Applies a change to the local copy of the data */
+    @FunctionalInterface
+    public interface ChangeHandler {
+        /**
+         * @param change the change to apply
+         */
+        public void apply(ChangeEvent change);
+    }
+
+    @Nonnull private final ChangeResource changeResource;
+    private long cursor;
+
+    /**
+     * @param client the client to read the changes with
+     * @param cursor the audit id of the last change already applied, <code>0</code> to replay all the changes
+     */
+    public ChangeFeed(CCDBClient client, long cursor) {
+        this(client.createChangeResource(), cursor);
+    }
+
+    ChangeFeed(ChangeResource changeResource, long cursor) {
+        this.changeResource = changeResource;
+        this.cursor = cursor;
+    }
+
+    /** @return the audit id of the last change replayed */
+    public long getCursor() {
+        return cursor;
+    }
+
+    /**
+     * Replays all the changes after the cursor. The cursor is advanced after each page, so if the handler fails,
+     * the next call repeats only the changes of the failed page.
+     *
+     * @param handler the handler to apply the changes to
+     * @return the number of changes replayed
+     */
+    public int replay(ChangeHandler handler) {
+        int replayed = 0;
+        List<ChangeEvent> page;
+        do {
+            page = changeResource.getChanges(cursor, PAGE_SIZE);
+            final Map<String, ChangeEvent> lastChanges = new LinkedHashMap<>();
+            for (final ChangeEvent change : page) {
+                final String entityKey = change.getEntityType() + ':' + Objects.toString(change.getEntityId());
+                // keeps the changes in the order of the last change of each entity
+                lastChanges.remove(entityKey);
+                lastChanges.put(entityKey, change);
+            }
+            lastChanges.values().forEach(handler::apply);
+            replayed += lastChanges.size();
+            if (!page.isEmpty()) {
+                cursor = page.get(page.size() - 1).getAuditId();
+            }
+        } while (page.size() == PAGE_SIZE);
+        return replayed;
+    }
+}
@@ -25,7 +25,6 @@ import java.util.logging.Logger;
 import javax.annotation.Nonnull;
 import javax.ws.rs.core.GenericType;
 
-import org.openepics.discs.client.impl.ClosableResponse;
 import org.openepics.discs.client.impl.ResponseException;
 import org.openepics.discs.ccdb.jaxb.DeviceType;
 import org.openepics.discs.ccdb.jaxrs.DeviceTypeResource;
@@ -63,8 +62,8 @@ class DeviceTypeClient
         LOG.fine("Invoking getAllDeviceTypes");
 
         final String url = client.buildUrl(PATH_DEVICE_TYPES);
-        try (final ClosableResponse response = client.getResponse(url)) {
-            return response.readEntity(new GenericType<List<DeviceType>>() {});
+        try {
+            return client.getEntity(url, null, new GenericType<List<DeviceType>>() {});
         } catch (Exception e) {
             throw new ResponseException("Couldn't retrieve data from service at " + url + ".", e);
         }
@@ -84,8 +83,8 @@ class DeviceTypeClient
         LOG.fine("Invoking getDeviceType");
 
         final String url = client.buildUrl(PATH_DEVICE_TYPES, name);
-        try (final ClosableResponse response = client.getResponse(url)) {
-            return response.readEntity(DeviceType.class);
+        try {
+            return client.getEntity(url, DeviceType.class);
         } catch (Exception e) {
             throw new ResponseException("Couldn't retrieve data from service at " + url + ".", e);
         }
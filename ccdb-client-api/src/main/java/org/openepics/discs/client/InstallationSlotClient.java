@@ -27,8 +27,8 @@ import java.util.logging.Logger;
 import javax.annotation.Nonnull;
 import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.Response;
 
-import org.openepics.discs.client.impl.ClosableResponse;
 import org.openepics.discs.client.impl.ResponseException;
 import org.openepics.discs.ccdb.jaxb.InstallationSlot;
 import org.openepics.discs.ccdb.jaxb.InstallationSlotNames;
@@ -47,19 +47,26 @@ class InstallationSlotClient implements
     private static final Logger LOG = Logger.getLogger(InstallationSlot.class.getName());
 
     private static final String PATH_SLOTS = "slot";
+    private static final String PATH_STREAM = "stream";
     
     @Nonnull private final CCDBClient client;
 
     InstallationSlotClient(CCDBClient client) { this.client = client; }
 
     /**
-     * Gets either all installation slots, or filtered by the deviceType parameter
-     * 
+     * Requests a page of installation slots. The caller reads the list from the response and must close the
+     * response. If the page is full, the {@value InstallationSlotResource#NEXT_AFTER_HEADER} header of the response
+     * holds the <code>after</code> cursor of the next page.
+     *
      * @param deviceType optional (can be null) device type to filter the slots
-     * @return list of InstallationSlot
+     * @param after optional (can be null) id of the last slot of the previous page
+     * @param offset the number of slots to skip
+     * @param limit the maximum number of slots to return, <code>0</code> for all
+     * @param fields optional (can be null) comma separated list of the fields to return
+     * @return the response with the list of installation slots
      */
     @Override
-    public List<InstallationSlot> getInstallationSlots(String deviceType) {        
+    public Response getInstallationSlots(String deviceType, Long after, int offset, int limit, String fields) {
         LOG.fine("Invoking getInstallationSlots");
 
         final String url = client.buildUrl(PATH_SLOTS);
@@ -68,20 +75,69 @@ class InstallationSlotClient implements
         if (deviceType!=null) {
             queryParams.put("deviceType", Arrays.asList(deviceType));
         }
-        try (final ClosableResponse response = client.getResponse(url, queryParams)) {
-            return response.readEntity(new GenericType<List<InstallationSlot>>(){});
+        if (after != null) {
+            queryParams.put("after", Arrays.asList(after));
+        }
+        if (offset > 0) {
+            queryParams.put("offset", Arrays.asList(offset));
+        }
+        if (limit > 0) {
+            queryParams.put("limit", Arrays.asList(limit));
+        }
+        if (fields != null) {
+            queryParams.put("fields", Arrays.asList(fields));
+        }
+        return client.getResponse(url, queryParams).getResponse();
+    }
+
+    @Override
+    public List<InstallationSlot> getInstallationSlots(String deviceType) {
+        LOG.fine("Invoking getInstallationSlots");
+
+        final String url = client.buildUrl(PATH_SLOTS);
+
+        MultivaluedHashMap queryParams = new MultivaluedHashMap();
+        if (deviceType!=null) {
+            queryParams.put("deviceType", Arrays.asList(deviceType));
+        }
+        try {
+            return client.getEntity(url, queryParams, new GenericType<List<InstallationSlot>>(){});
         } catch (Exception e) {
             throw new ResponseException("Couldn't retrieve data from service at " + url + ".", e);
         }
     }
 
+    /**
+     * Requests the streamed JSON array of installation slots. The caller reads the array from the entity stream
+     * of the response and must close the response.
+     *
+     * @param deviceType optional (can be null) device type to filter the slots
+     * @param fields optional (can be null) comma separated list of the fields to return
+     * @return the response with the JSON array of installation slots
+     */
+    @Override
+    public Response streamInstallationSlots(String deviceType, String fields) {
+        LOG.fine("Invoking streamInstallationSlots");
+
+        final String url = client.buildUrl(PATH_SLOTS, PATH_STREAM);
+
+        MultivaluedHashMap queryParams = new MultivaluedHashMap();
+        if (deviceType!=null) {
+            queryParams.put("deviceType", Arrays.asList(deviceType));
+        }
+        if (fields != null) {
+            queryParams.put("fields", Arrays.asList(fields));
+        }
+        return client.getResponse(url, queryParams).getResponse();
+    }
+
     @Override
     public InstallationSlot getInstallationSlot(String name) {
         LOG.fine("Invoking getInstallationSlot");
 
         final String url = client.buildUrl(PATH_SLOTS, name);
-        try (final ClosableResponse response = client.getResponse(url)) {
-            return response.readEntity(InstallationSlot.class);
+        try {
+            return client.getEntity(url, InstallationSlot.class);
         } catch (Exception e) {
             throw new ResponseException("Couldn't retrieve data from service at " + url + ".", e);
         }
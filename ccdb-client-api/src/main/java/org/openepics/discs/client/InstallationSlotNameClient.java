@@ -7,7 +7,6 @@ package org.openepics.discs.client;
 
 import java.util.logging.Logger;
 import javax.annotation.Nonnull;
-import org.openepics.discs.client.impl.ClosableResponse;
 import org.openepics.discs.client.impl.ResponseException;
 import org.openepics.discs.ccdb.jaxb.InstallationSlotNames;
 import org.openepics.discs.ccdb.jaxrs.InstallationSlotNameResource;
@@ -34,8 +33,8 @@ class InstallationSlotNameClient implements
         final String url = deviceTypeName != null ? 
                 client.buildUrl(PATH_SLOT_NAMES, deviceTypeName) : 
                 client.buildUrl(PATH_SLOT_NAMES);
-        try (final ClosableResponse response = client.getResponse(url)) {
-            return response.readEntity(InstallationSlotNames.class);
+        try {
+            return client.getEntity(url, InstallationSlotNames.class);
         } catch (Exception e) {
             throw new ResponseException("Couldn't retrieve data from service at " + url + ".", e);
         }
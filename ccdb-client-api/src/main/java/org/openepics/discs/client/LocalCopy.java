@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.Function;
+
+import javax.annotation.Nonnull;
+
+import org.openepics.discs.ccdb.jaxb.ChangeEvent;
+
+/**
+ * A local copy of the CCDB entities of one type, kept up to date by replaying the {@link ChangeFeed} to it. The
+ * entities are stored by their database id. When an entity is created or changed, its current state is read from
+ * the service by its name, and when it is deleted, it is removed from the copy.
+ * <p>
+ * For example, a local copy of the installation slots:
+ * </p>
+ * <pre>
+ * final InstallationSlotResource slots = client.createInstallationSlotResource();
+ * final LocalCopy&lt;InstallationSlot&gt; copy = new LocalCopy&lt;&gt;("SLOT", slots::getInstallationSlot);
+ * final ChangeFeed feed = new ChangeFeed(client, 0);
+ * feed.replay(copy);
+ * </pre>
+ *
+ * @param <T> the type of the entity data transfer objects
+ */
+public class LocalCopy<T> implements ChangeFeed.ChangeHandler {
+    private static final String OPERATION_DELETE = "DELETE";
+
+    @Nonnull private final String entityType;
+    @Nonnull private final Function<String, T> loader;
+    private final Map<Long, T> entities = new HashMap<>();
+
+    /**
+     * @param entityType the type of the entities, as reported by {@link ChangeEvent#getEntityType()}
+     * @param loader reads the current state of an entity from the service by its name
+     */
+    public LocalCopy(String entityType, Function<String, T> loader) {
+        this.entityType = entityType;
+        this.loader = loader;
+    }
+
+    @Override
+    public void apply(ChangeEvent change) {
+        if (!entityType.equals(change.getEntityType()) || change.getEntityId() == null) {
+            return;
+        }
+        final T entity = OPERATION_DELETE.equals(change.getOperation()) ? null : loader.apply(change.getName());
+        if (entity == null) {
+            entities.remove(change.getEntityId());
+        } else {
+            entities.put(change.getEntityId(), entity);
+        }
+    }
+
+    /**
+     * @param id the database id of the entity
+     * @return the local copy of the entity, <code>null</code> if the entity does not exist
+     */
+    public T get(long id) {
+        return entities.get(id);
+    }
+
+    /** @return the local copies of all the entities */
+    public Collection<T> getAll() {
+        return Collections.unmodifiableCollection(entities.values());
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Nullable;
+import javax.ws.rs.core.EntityTag;
+
+/**
+ * A cache of the entities read from the CCDB service, keyed by the request URI. The cache holds at most the
+ * configured number of entries and evicts the least recently used ones. An entry is fresh for the time to live of
+ * its resource. A stale entry is not dropped, but revalidated with a conditional request, so the entity is only
+ * downloaded again if it changed on the server.
+ * <p>
+ * The cached entities are shared between the callers and must not be modified.
+ * </p>
+ * <p>The class is thread-safe.</p>
+ */
+public class ResponseCache {
+    /** A cached entity and its validators */
+    static class CachedEntity {
+        private final Object entity;
+        @Nullable private final EntityTag entityTag;
+        @Nullable private final Date lastModified;
+        private volatile long expiresAt;
+
+        private CachedEntity(Object entity, @Nullable EntityTag entityTag, @Nullable Date lastModified,
+                long expiresAt) {
+            this.entity = entity;
+            this.entityTag = entityTag;
+            this.lastModified = lastModified;
+            this.expiresAt = expiresAt;
+        }
+
+        Object getEntity() {
+            return entity;
+        }
+
+        @Nullable EntityTag getEntityTag() {
+            return entityTag;
+        }
+
+        @Nullable Date getLastModified() {
+            return lastModified;
+        }
+
+        boolean isFresh() {
+            return System.currentTimeMillis() < expiresAt;
+        }
+
+        /** @return <code>true</code> if the entry can be revalidated with a conditional request */
+        boolean hasValidators() {
+            return entityTag != null || lastModified != null;
+        }
+    }
+
+    private final int maxEntries;
+    private final long defaultTimeToLive;
+    private final Map<String, Long> timesToLive;
+    private final Map<String, CachedEntity> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+    private final AtomicLong misses = new AtomicLong();
+    private final AtomicLong revalidations = new AtomicLong();
+
+    /**
+     * @param maxEntries the maximum number of cached entities
+     * @param defaultTimeToLive the time in milliseconds an entity is fresh, if not set for its resource
+     * @param timesToLive the times to live of the entities of specific resources, by the resource path
+     */
+    ResponseCache(final int maxEntries, long defaultTimeToLive, Map<String, Long> timesToLive) {
+        this.maxEntries = maxEntries;
+        this.defaultTimeToLive = defaultTimeToLive;
+        this.timesToLive = timesToLive;
+        this.entries = new LinkedHashMap<String, CachedEntity>(16, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CachedEntity> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * @param key the request URI
+     * @return the cached entry, fresh or stale, <code>null</code> if there is none
+     */
+    @Nullable synchronized CachedEntity get(String key) {
+        return entries.get(key);
+    }
+
+    /**
+     * Stores the entity read from the service.
+     *
+     * @param key the request URI
+     * @param resource the path of the resource, used to find its time to live
+     * @param entity the entity
+     * @param entityTag the entity tag of the response, if any
+     * @param lastModified the last modification time of the response, if any
+     */
+    void put(String key, String resource, Object entity, @Nullable EntityTag entityTag,
+            @Nullable Date lastModified) {
+        final CachedEntity entry = new CachedEntity(entity, entityTag, lastModified, expiresAt(resource));
+        synchronized (this) {
+            entries.put(key, entry);
+        }
+    }
+
+    /**
+     * Marks a stale entry as fresh again, after the service confirmed it did not change.
+     *
+     * @param entry the entry
+     * @param resource the path of the resource, used to find its time to live
+     */
+    void revalidated(CachedEntity entry, String resource) {
+        entry.expiresAt = expiresAt(resource);
+        revalidations.incrementAndGet();
+    }
+
+    void hit() {
+        hits.incrementAndGet();
+    }
+
+    void miss() {
+        misses.incrementAndGet();
+    }
+
+    private long expiresAt(String resource) {
+        return System.currentTimeMillis() + timesToLive.getOrDefault(resource, defaultTimeToLive);
+    }
+
+    /** Removes all the cached entities. */
+    public synchronized void clear() {
+        entries.clear();
+    }
+
+    /** @return the number of requests answered from the cache without contacting the service */
+    public long getHits() {
+        return hits.get();
+    }
+
+    /** @return the number of requests the entities were downloaded for */
+    public long getMisses() {
+        return misses.get();
+    }
+
+    /** @return the number of stale entries the service confirmed as unchanged */
+    public long getRevalidations() {
+        return revalidations.get();
+    }
+
+    /** @return the number of cached entities */
+    public synchronized int getSize() {
+        return entries.size();
+    }
+
+    /** @return the maximum number of cached entities */
+    public int getMaxEntries() {
+        return maxEntries;
+    }
+}
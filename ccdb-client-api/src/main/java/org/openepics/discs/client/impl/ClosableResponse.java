@@ -31,6 +31,11 @@ public class ClosableResponse implements AutoCloseable {
         this.response = response;
     }
 
+    /** @return the wrapped response, for the callers that read its entity stream themselves */
+    public Response getResponse() {
+        return response;
+    }
+
     @Override
     public int hashCode() {
         return response.hashCode();
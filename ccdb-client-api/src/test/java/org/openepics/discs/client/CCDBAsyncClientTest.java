@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import javax.ws.rs.core.Response;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.openepics.discs.ccdb.jaxb.InstallationSlot;
+import org.openepics.discs.ccdb.jaxrs.InstallationSlotResource;
+import org.openepics.discs.client.impl.ResponseException;
+
+/**
+ * Checks that the bulk requests of {@link CCDBAsyncClient} return the results in the order of the requests, however
+ * the concurrent requests complete.
+ */
+public class CCDBAsyncClientTest {
+    private static final String MISSING = "FE_MISSING";
+    private static final String FAILING = "FE_FAILING";
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        executor = Executors.newCachedThreadPool();
+    }
+
+    @After
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void bulkResultsInRequestOrder() throws InterruptedException, ExecutionException {
+        final List<String> names = Arrays.asList("FE_SRC", "FE_LEBT", MISSING, "FE_RFQ", "FE_MEBT");
+        final ReversedSlotResource resource = new ReversedSlotResource(names);
+
+        final List<InstallationSlot> slots = createAsyncClient(resource).getInstallationSlots(names).
+                toCompletableFuture().get(10, TimeUnit.SECONDS);
+
+        final List<String> reversedNames = new ArrayList<>(names);
+        Collections.reverse(reversedNames);
+        assertEquals(reversedNames, resource.completed);
+        assertEquals(Arrays.asList("FE_SRC", "FE_LEBT", "FE_RFQ", "FE_MEBT"),
+                slots.stream().map(InstallationSlot::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void bulkFailsIfOneRequestFails() throws InterruptedException {
+        final List<String> names = Arrays.asList("FE_SRC", FAILING, "FE_RFQ");
+        try {
+            createAsyncClient(new ReversedSlotResource(names)).getInstallationSlots(names).
+                    toCompletableFuture().get(10, TimeUnit.SECONDS);
+            fail("The bulk request did not fail");
+        } catch (ExecutionException e) {
+            assertTrue(e.getCause() instanceof ResponseException);
+        }
+    }
+
+    @Test
+    public void emptyBulk() throws InterruptedException, ExecutionException {
+        assertTrue(createAsyncClient(new ReversedSlotResource(Collections.emptyList())).
+                getInstallationSlots(Collections.emptyList()).toCompletableFuture().get().isEmpty());
+    }
+
+    private CCDBAsyncClient createAsyncClient(InstallationSlotResource resource) {
+        return new CCDBAsyncClient(() -> executor, null, resource, null);
+    }
+
+    /**
+     * Answers the request for each slot only after the request for the next slot has been answered, so the requests
+     * complete in the reverse order.
+     */
+    private static class ReversedSlotResource implements InstallationSlotResource {
+        private final List<String> names;
+        private final Map<String, CountDownLatch> answered = new ConcurrentHashMap<>();
+        private final List<String> completed = Collections.synchronizedList(new ArrayList<>());
+
+        private ReversedSlotResource(List<String> names) {
+            this.names = names;
+            names.forEach(name -> answered.put(name, new CountDownLatch(1)));
+        }
+
+        @Override
+        public InstallationSlot getInstallationSlot(String name) {
+            try {
+                final int index = names.indexOf(name);
+                if (index + 1 < names.size()
+                        && !answered.get(names.get(index + 1)).await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("The request for " + names.get(index + 1) + " was not sent");
+                }
+                completed.add(name);
+                if (FAILING.equals(name)) {
+                    throw new ResponseException("Couldn't retrieve data from service at " + name + ".");
+                }
+                if (MISSING.equals(name)) {
+                    return null;
+                }
+                final InstallationSlot slot = new InstallationSlot();
+                slot.setName(name);
+                return slot;
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IllegalStateException(e);
+            } finally {
+                answered.get(name).countDown();
+            }
+        }
+
+        @Override
+        public Response getInstallationSlots(String deviceType, Long after, int offset, int limit, String fields) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Response streamInstallationSlots(String deviceType, String fields) {
+            throw new UnsupportedOperationException();
+        }
+    }
+}
@@ -0,0 +1,131 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Properties;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import javax.ws.rs.client.Client;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+import org.apache.http.impl.conn.PoolingClientConnectionManager;
+import org.jboss.resteasy.client.jaxrs.ResteasyClient;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient4Engine;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * Checks that the client sends the requests over a pool of connections of the configured size, and that the cached
+ * entities are revalidated with conditional requests.
+ */
+public class CCDBClientTest {
+    private static final String ENTITY = "{\"name\":\"FE_SRC\"}";
+
+    private HttpServer server;
+    /** The entity tag of the entity on the server */
+    private final AtomicReference<String> entityTag = new AtomicReference<>("\"1\"");
+    private final AtomicInteger requests = new AtomicInteger();
+    private final AtomicInteger notModified = new AtomicInteger();
+
+    @Before
+    public void setUp() throws IOException {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/rest/slot", exchange -> {
+            requests.incrementAndGet();
+            if (entityTag.get().equals(exchange.getRequestHeaders().getFirst(HttpHeaders.IF_NONE_MATCH))) {
+                notModified.incrementAndGet();
+                exchange.sendResponseHeaders(Response.Status.NOT_MODIFIED.getStatusCode(), -1);
+            } else {
+                final byte[] body = ENTITY.getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().add(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_JSON);
+                exchange.getResponseHeaders().add(HttpHeaders.ETAG, entityTag.get());
+                exchange.sendResponseHeaders(Response.Status.OK.getStatusCode(), body.length);
+                exchange.getResponseBody().write(body);
+            }
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() {
+        server.stop(0);
+    }
+    @Test
+    @SuppressWarnings("deprecation")
+    public void pooledConnections() {
+        final Client client = CCDBClient.createClient(7, 1000, 2000);
+        try {
+            final ApacheHttpClient4Engine engine = (ApacheHttpClient4Engine) ((ResteasyClient) client).httpEngine();
+            final PoolingClientConnectionManager connectionManager =
+                    (PoolingClientConnectionManager) engine.getHttpClient().getConnectionManager();
+            assertEquals(7, connectionManager.getMaxTotal());
+            assertEquals(7, connectionManager.getDefaultMaxPerRoute());
+        } finally {
+            client.close();
+        }
+    }
+
+    @Test
+    public void revalidatesStaleEntity() {
+        final Properties properties = new Properties();
+        properties.setProperty(CCDBClient.PROPERTY_NAME_BASE_URL,
+                "http://127.0.0.1:" + server.getAddress().getPort() + "/rest");
+        properties.setProperty(CCDBClient.PROPERTY_NAME_USERNAME, "test");
+        properties.setProperty(CCDBClient.PROPERTY_NAME_PASSWORD, "test");
+        properties.setProperty(CCDBClient.PROPERTY_NAME_CACHE_ENABLED, "true");
+        // every cached entity is stale at once, so every request is sent to the server
+        properties.setProperty(CCDBClient.PROPERTY_NAME_CACHE_TTL, "0");
+
+        try (final CCDBClient client = new CCDBClient(properties)) {
+            final String url = client.buildUrl("slot", "FE_SRC");
+            final String first = client.getEntity(url, String.class);
+            assertEquals(ENTITY, first);
+
+            // not modified, the cached entity is returned
+            assertSame(first, client.getEntity(url, String.class));
+            assertEquals(1, notModified.get());
+            assertEquals(1, client.getCache().getRevalidations());
+
+            // modified, the entity is downloaded again
+            entityTag.set("\"2\"");
+            final String second = client.getEntity(url, String.class);
+            assertEquals(ENTITY, second);
+            assertNotSame(first, second);
+            assertEquals(1, notModified.get());
+            assertEquals(3, requests.get());
+            assertEquals(2, client.getCache().getMisses());
+        }
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import org.junit.Test;
+import org.openepics.discs.ccdb.jaxb.ChangeEvent;
+import org.openepics.discs.ccdb.jaxrs.ChangeResource;
+
+/**
+ * Checks that the {@link ChangeFeed} replays the last change of each entity and continues from its cursor.
+ */
+public class ChangeFeedTest {
+    /** A change resource returning the changes of a list */
+    static class ListChangeResource implements ChangeResource {
+        final List<ChangeEvent> changes = new ArrayList<>();
+        int requests;
+
+        void add(String entityType, long entityId, String name, String operation) {
+            final ChangeEvent change = new ChangeEvent();
+            change.setAuditId(changes.size() + 1);
+            change.setEntityType(entityType);
+            change.setEntityId(entityId);
+            change.setName(name);
+            change.setOperation(operation);
+            changes.add(change);
+        }
+
+        @Override
+        public List<ChangeEvent> getChanges(long since, int limit) {
+            requests++;
+            return changes.stream().
+                    filter(change -> change.getAuditId() > since).
+                    limit(limit).
+                    collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    public void replaysLastChangeOfEachEntity() {
+        final ListChangeResource resource = new ListChangeResource();
+        resource.add("SLOT", 10, "FE_SRC", "CREATE");
+        resource.add("SLOT", 11, "FE_LEBT", "CREATE");
+        resource.add("SLOT", 10, "FE_SRC", "UPDATE");
+        resource.add("DEVICE", 10, "SRC-01", "CREATE");
+
+        final List<ChangeEvent> replayed = new ArrayList<>();
+        final ChangeFeed feed = new ChangeFeed(resource, 0);
+
+        assertEquals(3, feed.replay(replayed::add));
+        // in the order of the last change of each entity
+        assertEquals(Arrays.asList(2L, 3L, 4L), auditIds(replayed));
+        assertEquals(4, feed.getCursor());
+    }
+
+    @Test
+    public void continuesFromCursor() {
+        final ListChangeResource resource = new ListChangeResource();
+        resource.add("SLOT", 10, "FE_SRC", "CREATE");
+        resource.add("SLOT", 11, "FE_LEBT", "CREATE");
+        final ChangeFeed feed = new ChangeFeed(resource, 1);
+
+        final List<ChangeEvent> replayed = new ArrayList<>();
+        feed.replay(replayed::add);
+        assertEquals(Arrays.asList(2L), auditIds(replayed));
+
+        replayed.clear();
+        assertEquals(0, feed.replay(replayed::add));
+        assertEquals(2, feed.getCursor());
+
+        resource.add("SLOT", 10, "FE_SRC", "DELETE");
+        feed.replay(replayed::add);
+        assertEquals(Arrays.asList(3L), auditIds(replayed));
+        assertEquals(3, feed.getCursor());
+    }
+
+    @Test
+    public void readsAllPages() {
+        final ListChangeResource resource = new ListChangeResource();
+        for (int i = 0; i < 1500; i++) {
+            resource.add("SLOT", i, "SLOT" + i, "CREATE");
+        }
+
+        assertEquals(1500, new ChangeFeed(resource, 0).replay(change -> { }));
+        // a full page and the rest
+        assertEquals(2, resource.requests);
+    }
+
+    @Test
+    public void failedPageIsRepeated() {
+        final ListChangeResource resource = new ListChangeResource();
+        resource.add("SLOT", 10, "FE_SRC", "CREATE");
+        final ChangeFeed feed = new ChangeFeed(resource, 0);
+
+        try {
+            feed.replay(change -> {
+                throw new IllegalStateException();
+            });
+        } catch (IllegalStateException e) {
+            assertEquals(0, feed.getCursor());
+        }
+
+        final List<ChangeEvent> replayed = new ArrayList<>();
+        feed.replay(replayed::add);
+        assertEquals(Arrays.asList(1L), auditIds(replayed));
+    }
+
+    private static List<Long> auditIds(List<ChangeEvent> changes) {
+        return changes.stream().map(ChangeEvent::getAuditId).collect(Collectors.toList());
+    }
+}
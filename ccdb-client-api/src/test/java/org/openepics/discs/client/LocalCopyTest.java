@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openepics.discs.ccdb.jaxb.ChangeEvent;
+
+/**
+ * Checks that a {@link LocalCopy} follows the state of the service when the changes are replayed to it, including
+ * the deletes and the changes that arrive out of order.
+ */
+public class LocalCopyTest {
+    /** The current state of the installation slots on the service, by name */
+    private final Map<String, String> service = new HashMap<>();
+    private LocalCopy<String> copy;
+
+    @Before
+    public void setUp() {
+        copy = new LocalCopy<>("SLOT", service::get);
+    }
+
+    @Test
+    public void createUpdateDelete() {
+        service.put("FE_SRC", "FE_SRC v1");
+        copy.apply(change(10, "FE_SRC", "CREATE"));
+        assertEquals("FE_SRC v1", copy.get(10));
+
+        service.put("FE_SRC", "FE_SRC v2");
+        copy.apply(change(10, "FE_SRC", "UPDATE"));
+        assertEquals("FE_SRC v2", copy.get(10));
+
+        copy.apply(change(10, "FE_SRC", "DELETE"));
+        assertNull(copy.get(10));
+        assertEquals(0, copy.getAll().size());
+    }
+
+    @Test
+    public void ignoresOtherEntityTypes() {
+        service.put("FE_SRC", "FE_SRC v1");
+        final ChangeEvent change = change(10, "FE_SRC", "CREATE");
+        change.setEntityType("DEVICE");
+        copy.apply(change);
+
+        assertNull(copy.get(10));
+    }
+
+    @Test
+    public void updateAfterDelete() {
+        // the entity was deleted on the service, and the update arrives after the delete
+        copy.apply(change(10, "FE_SRC", "DELETE"));
+        copy.apply(change(10, "FE_SRC", "UPDATE"));
+
+        assertNull(copy.get(10));
+    }
+
+    @Test
+    public void updateBeforeCreate() {
+        service.put("FE_SRC", "FE_SRC v2");
+        copy.apply(change(10, "FE_SRC", "UPDATE"));
+        copy.apply(change(10, "FE_SRC", "CREATE"));
+
+        assertEquals("FE_SRC v2", copy.get(10));
+    }
+
+    @Test
+    public void renamed() {
+        service.put("FE_SRC", "FE_SRC v1");
+        copy.apply(change(10, "FE_SRC", "CREATE"));
+
+        service.remove("FE_SRC");
+        service.put("FE_ISRC", "FE_ISRC v2");
+        copy.apply(change(10, "FE_ISRC", "UPDATE"));
+
+        assertEquals("FE_ISRC v2", copy.get(10));
+        assertEquals(1, copy.getAll().size());
+    }
+
+    @Test
+    public void replayFeed() {
+        final ChangeFeedTest.ListChangeResource resource = new ChangeFeedTest.ListChangeResource();
+        resource.add("SLOT", 10, "FE_SRC", "CREATE");
+        resource.add("SLOT", 11, "FE_LEBT", "CREATE");
+        resource.add("SLOT", 10, "FE_SRC", "UPDATE");
+        resource.add("SLOT", 11, "FE_LEBT", "DELETE");
+        service.put("FE_SRC", "FE_SRC v2");
+
+        new ChangeFeed(resource, 0).replay(copy);
+
+        assertEquals("FE_SRC v2", copy.get(10));
+        assertNull(copy.get(11));
+        assertEquals(1, copy.getAll().size());
+    }
+
+    private static ChangeEvent change(long entityId, String name, String operation) {
+        final ChangeEvent change = new ChangeEvent();
+        change.setEntityType("SLOT");
+        change.setEntityId(entityId);
+        change.setName(name);
+        change.setOperation(operation);
+        return change;
+    }
+}
@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.client;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+import java.util.Date;
+
+import javax.ws.rs.core.EntityTag;
+
+import org.junit.Test;
+
+/**
+ * Checks the eviction order and the expiry of the {@link ResponseCache} entries.
+ */
+public class ResponseCacheTest {
+    private static final String SLOT = "slot";
+    private static final String DEVICE_TYPE = "deviceType";
+
+    @Test
+    public void evictsLeastRecentlyUsed() {
+        final ResponseCache cache = new ResponseCache(2, 60000, Collections.emptyMap());
+        cache.put("slot/FE_SRC", SLOT, "FE_SRC", null, null);
+        cache.put("slot/FE_LEBT", SLOT, "FE_LEBT", null, null);
+        // reading the first entry makes the second one the least recently used
+        assertNotNull(cache.get("slot/FE_SRC"));
+        cache.put("slot/FE_RFQ", SLOT, "FE_RFQ", null, null);
+
+        assertEquals(2, cache.getSize());
+        assertNull(cache.get("slot/FE_LEBT"));
+        assertEquals("FE_SRC", cache.get("slot/FE_SRC").getEntity());
+        assertEquals("FE_RFQ", cache.get("slot/FE_RFQ").getEntity());
+    }
+
+    @Test
+    public void replacedEntryIsNotEvicted() {
+        final ResponseCache cache = new ResponseCache(2, 60000, Collections.emptyMap());
+        cache.put("slot/FE_SRC", SLOT, "FE_SRC", null, null);
+        cache.put("slot/FE_LEBT", SLOT, "FE_LEBT", null, null);
+        cache.put("slot/FE_SRC", SLOT, "FE_SRC changed", null, null);
+        cache.put("slot/FE_RFQ", SLOT, "FE_RFQ", null, null);
+
+        assertNull(cache.get("slot/FE_LEBT"));
+        assertEquals("FE_SRC changed", cache.get("slot/FE_SRC").getEntity());
+    }
+
+    @Test
+    public void timeToLiveOfResource() {
+        final ResponseCache cache = new ResponseCache(10, 60000, Collections.singletonMap(SLOT, 0L));
+        cache.put("slot/FE_SRC", SLOT, "FE_SRC", null, null);
+        cache.put("deviceType/SRC", DEVICE_TYPE, "SRC", null, null);
+
+        assertFalse(cache.get("slot/FE_SRC").isFresh());
+        assertTrue(cache.get("deviceType/SRC").isFresh());
+    }
+
+    @Test
+    public void expiresAfterTimeToLive() throws InterruptedException {
+        final ResponseCache cache = new ResponseCache(10, 50, Collections.emptyMap());
+        cache.put("slot/FE_SRC", SLOT, "FE_SRC", new EntityTag("1"), null);
+        final ResponseCache.CachedEntity entry = cache.get("slot/FE_SRC");
+        assertTrue(entry.isFresh());
+
+        Thread.sleep(100);
+        // a stale entry is kept for the revalidation
+        assertFalse(entry.isFresh());
+        assertEquals(1, cache.getSize());
+
+        cache.revalidated(entry, SLOT);
+        assertTrue(entry.isFresh());
+        assertEquals(1, cache.getRevalidations());
+    }
+
+    @Test
+    public void validators() {
+        final ResponseCache cache = new ResponseCache(10, 60000, Collections.emptyMap());
+        cache.put("slot/FE_SRC", SLOT, "FE_SRC", null, null);
+        cache.put("slot/FE_LEBT", SLOT, "FE_LEBT", new EntityTag("1"), null);
+        cache.put("slot/FE_RFQ", SLOT, "FE_RFQ", null, new Date());
+
+        assertFalse(cache.get("slot/FE_SRC").hasValidators());
+        assertTrue(cache.get("slot/FE_LEBT").hasValidators());
+        assertTrue(cache.get("slot/FE_RFQ").hasValidators());
+    }
+
+    @Test
+    public void clear() {
+        final ResponseCache cache = new ResponseCache(10, 60000, Collections.emptyMap());
+        cache.put("slot/FE_SRC", SLOT, "FE_SRC", null, null);
+        cache.clear();
+
+        assertEquals(0, cache.getSize());
+        assertNull(cache.get("slot/FE_SRC"));
+    }
+}
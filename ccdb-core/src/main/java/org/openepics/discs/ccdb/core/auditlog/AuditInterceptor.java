@@ -26,10 +26,10 @@ import javax.inject.Inject;
 import javax.interceptor.AroundInvoke;
 import javax.interceptor.Interceptor;
 import javax.interceptor.InvocationContext;
-import javax.persistence.EntityManager;
-import javax.persistence.PersistenceContext;
 
+import org.openepics.discs.ccdb.core.ejb.HierarchySnapshot;
 import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
 import org.openepics.discs.ccdb.core.security.SecurityPolicy;
 import org.openepics.discs.ccdb.core.util.CRUDOperation;
 import org.openepics.discs.ccdb.core.util.ParentEntityResolver;
@@ -44,9 +44,10 @@ import org.openepics.discs.ccdb.core.util.ParentEntityResolver;
 @Audit
 @Interceptor
 public class AuditInterceptor {
-    @PersistenceContext private EntityManager em;
     @Inject private AuditLogEntryCreator auditLogEntryCreator;
+    @Inject private AuditLogWriter auditLogWriter;
     @Inject private SecurityPolicy securityPolicy;
+    @Inject private HierarchySnapshot hierarchySnapshot;
 
     /**
      * Creates audit log after the method annotated with this interceptor has finished executing.
@@ -65,17 +66,17 @@ public class AuditInterceptor {
 
             final String username = securityPolicy.getUserId();
             final Date now = new Date();
+            final EntityTypeOperation operation = context.getMethod().getAnnotation(CRUDOperation.class).operation();
 
             final List<AuditRecord> auditRecords = auditLogEntryCreator.auditRecords(
-                    ParentEntityResolver.resolveParentEntity(entity),
-                    context.getMethod().getAnnotation(CRUDOperation.class).operation());
+                    ParentEntityResolver.resolveParentEntity(entity), operation);
 
             for (AuditRecord auditRecord : auditRecords) {
                 auditRecord.setUser(username);
                 auditRecord.setLogTime(now);
-
-                em.persist(auditRecord);
             }
+            auditLogWriter.write(auditRecords);
+            hierarchySnapshot.entityModified(entity, operation);
         }
         return returnContext;
     }
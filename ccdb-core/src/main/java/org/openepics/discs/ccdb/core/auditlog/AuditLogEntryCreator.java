@@ -24,6 +24,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 
+import javax.ejb.Lock;
+import javax.ejb.LockType;
 import javax.ejb.Singleton;
 import javax.ejb.Startup;
 import javax.enterprise.inject.Any;
@@ -35,13 +37,15 @@ import org.openepics.discs.ccdb.model.EntityTypeOperation;
 
 /**
  * Use this class to serialize Object contents to JSON for the Entry string in the AuditRecord
- * The class is EJB Singleton, initialized at startup and reused at Injection points.
+ * The class is EJB Singleton, initialized at startup and reused at Injection points. The loggers are only read
+ * after the construction, so the entries are created concurrently.
  *
  * @author <a href="mailto:miroslav.pavleski@cosylab.com">Miroslav Pavleski</a>
  *
  */
 @Singleton
 @Startup
+@Lock(LockType.READ)
 public class AuditLogEntryCreator {
     private Map<Class<?>, EntityLogger<?>> loggers = new ConcurrentHashMap<Class<?>, EntityLogger<?>>();
 
@@ -19,7 +19,8 @@
  */
 package org.openepics.discs.ccdb.core.auditlog;
 
-import java.util.Collection;
+import java.io.IOException;
+import java.io.StringWriter;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
@@ -29,62 +30,83 @@ import org.openepics.discs.ccdb.model.EntityType;
 import org.openepics.discs.ccdb.model.EntityTypeOperation;
 import org.openepics.discs.ccdb.core.util.CCDBRuntimeException;
 
-import com.fasterxml.jackson.annotation.JsonInclude.Include;
-import com.fasterxml.jackson.databind.ObjectMapper;
-import com.fasterxml.jackson.databind.SerializationFeature;
-import com.fasterxml.jackson.databind.node.ArrayNode;
-import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
 
 /**
- * Helper class that is used to serialize to JSON removing unnecessary properties dynamically
+ * Helper class that is used to serialize the audit log entry of an entity to JSON. The properties are written
+ * directly to a {@link JsonGenerator} in the order they are added, so only the fields needed in the audit log are
+ * ever serialized. Empty values are not written.
  *
  * @author <a href="mailto:miroslav.pavleski@cosylab.com">Miroslav Pavleski</a>
  *
  */
 public class AuditLogUtil {
-    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final String SERIALIZATION_FAILED = "AuditLogUtil serialization to JSon failed";
 
-    static {
-        // Configure Jackson to always order entries see, http://stackoverflow.com/a/18993481
-        MAPPER.setSerializationInclusion(Include.NON_EMPTY);
-        MAPPER.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
-        MAPPER.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
-    }
+    private final StringWriter writer = new StringWriter();
+    private final JsonGenerator generator;
 
-    private ObjectNode node = null;
+    /**
+     * Constructs the helper class and starts the JSON object
+     */
+    public AuditLogUtil() {
+        try {
+            generator = JSON_FACTORY.createGenerator(writer);
+            generator.writeStartObject();
+        } catch (IOException e) {
+            throw new CCDBRuntimeException(SERIALIZATION_FAILED, e);
+        }
+    }
 
     /**
-     * Constructs the helper class
+     * Adds a String property to the JSON
      *
-     * @param entity an Entity object to be serialized to JSon
+     * @param key key-name
+     * @param value value-name
+     * @return a reference to this instance of {@link AuditLogUtil}
      */
-    public AuditLogUtil(Object entity) {
-        node = MAPPER.valueToTree(entity);
+    public AuditLogUtil addStringProperty(String key, String value) {
+        // Only add non-empty stuff
+        if (value != null && !value.isEmpty()) {
+            try {
+                generator.writeStringField(key, value);
+            } catch (IOException e) {
+                throw new CCDBRuntimeException(SERIALIZATION_FAILED, e);
+            }
+        }
+        return this;
     }
 
-
     /**
-     * Given a set of property names, those will be removed from the serialized output
+     * Adds a boolean property to the JSON
      *
-     * @param fieldNames field names
-     * @return This class, with updated state (removed properties)
+     * @param key key-name
+     * @param value the value
+     * @return a reference to this instance of {@link AuditLogUtil}
      */
-    public AuditLogUtil removeTopProperties(final Collection<String> fieldNames) {
-        node.remove(fieldNames);
+    public AuditLogUtil addBooleanProperty(String key, boolean value) {
+        try {
+            generator.writeBooleanField(key, value);
+        } catch (IOException e) {
+            throw new CCDBRuntimeException(SERIALIZATION_FAILED, e);
+        }
         return this;
     }
 
     /**
-     * Adds a String property to the JSON
+     * Adds a number property to the JSON
      *
      * @param key key-name
-     * @param value value-name
+     * @param value the value
      * @return a reference to this instance of {@link AuditLogUtil}
      */
-    public AuditLogUtil addStringProperty(String key, String value) {
-        // Only add non-null stuff
-        if (value != null) {
-            node.put(key, value);
+    public AuditLogUtil addNumberProperty(String key, long value) {
+        try {
+            generator.writeNumberField(key, value);
+        } catch (IOException e) {
+            throw new CCDBRuntimeException(SERIALIZATION_FAILED, e);
         }
         return this;
     }
@@ -102,14 +124,21 @@ public class AuditLogUtil {
             return this;
         }
 
-        final ArrayNode arrayNode = MAPPER.createArrayNode();
-
-        for (Entry<String, ?> entry : keyValuePairs.entrySet()) {
-            final ObjectNode arrayObjectNode = MAPPER.createObjectNode();
-            arrayObjectNode.put(entry.getKey(), entry.getValue() != null ? entry.getValue().toString() : null);
-            arrayNode.add(arrayObjectNode);
+        try {
+            generator.writeArrayFieldStart(key);
+            for (Entry<String, ?> entry : keyValuePairs.entrySet()) {
+                generator.writeStartObject();
+                if (entry.getValue() != null) {
+                    generator.writeStringField(entry.getKey(), entry.getValue().toString());
+                } else {
+                    generator.writeNullField(entry.getKey());
+                }
+                generator.writeEndObject();
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new CCDBRuntimeException(SERIALIZATION_FAILED, e);
         }
-        node.set(key, arrayNode);
         return this;
     }
 
@@ -126,24 +155,30 @@ public class AuditLogUtil {
             return this;
         }
 
-        final ArrayNode arrayNode = MAPPER.createArrayNode();
-        for (String value : arrayValues) {
-            arrayNode.add(value);
+        try {
+            generator.writeArrayFieldStart(key);
+            for (String value : arrayValues) {
+                generator.writeString(value);
+            }
+            generator.writeEndArray();
+        } catch (IOException e) {
+            throw new CCDBRuntimeException(SERIALIZATION_FAILED, e);
         }
-        node.set(key, arrayNode);
         return this;
     }
 
     /**
-     * Dumps the internal object with optionally removed properties to a String
+     * Closes the JSON object and returns it as a String
      *
      * @return Serialized JSON string
      */
     private String serialize() {
         try {
-            return MAPPER.writeValueAsString(node);
-        } catch (Exception e) {
-            throw new CCDBRuntimeException("AuditLogUtil serialization to JSon failed", e);
+            generator.writeEndObject();
+            generator.close();
+            return writer.toString();
+        } catch (IOException e) {
+            throw new CCDBRuntimeException(SERIALIZATION_FAILED, e);
         }
     }
 
@@ -0,0 +1,391 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.auditlog;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.Startup;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.openepics.discs.ccdb.core.util.AppProperties;
+import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.QuarantinedAuditRecord;
+
+/**
+ * Writes the {@link AuditRecord}s created by the {@link AuditInterceptor} to the database.
+ * <p>
+ * By default the audit records are persisted immediately, as part of the transaction that modified the entities.
+ * If the {@link AppProperties#AUDIT_LOG_ASYNC} property is set to <code>true</code>, the audit records of a
+ * transaction are handed to a bounded queue once the transaction commits, and written to the database in batches
+ * by a timer in a separate transaction. The audit records of a rolled back transaction are discarded.
+ * </p>
+ * <p>
+ * The committing transaction never waits for the queue. The audit records that do not fit into a full queue are
+ * written at once in a new transaction. A batch that cannot be written is split in halves, which are written
+ * separately, down to single audit records. An audit record that cannot be written on its own is moved to the
+ * {@link QuarantinedAuditRecord} table, so that it does not block the records queued after it. The audit records
+ * that could not be written at all, because the database failed, are kept and written again by the timer before
+ * any other queued record.
+ * </p>
+ * <p>
+ * The depth and lag of the queue and the number of written and quarantined audit records are logged every minute
+ * while the audit log is active.
+ * </p>
+ * <p>
+ * The queued audit records are written before the application is stopped, but are lost if the server fails
+ * before they are written.
+ * </p>
+ */
+@Singleton
+@Startup
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class AuditLogWriter {
+    private static final Logger LOGGER = Logger.getLogger(AuditLogWriter.class.getCanonicalName());
+
+    private static final int QUEUE_CAPACITY = 10000;
+    private static final int BATCH_SIZE = 500;
+
+    private static final String TRANSACTION_RECORDS_KEY = AuditLogWriter.class.getName() + ".records";
+
+    @PersistenceContext private EntityManager em;
+    @Resource private TransactionSynchronizationRegistry transactionRegistry;
+    @Resource private SessionContext sessionContext;
+    @Inject private AppProperties properties;
+
+    private final BlockingQueue<QueuedAuditRecord> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    /** The audit records whose writing failed, written again before the queued ones */
+    private final Queue<QueuedAuditRecord> failedRecords = new ConcurrentLinkedQueue<>();
+    private final Lock flushLock = new ReentrantLock();
+    private final AtomicLong writtenRecords = new AtomicLong();
+    private final AtomicLong quarantinedRecords = new AtomicLong();
+    private long loggedWrittenRecords;
+    private long loggedQuarantinedRecords;
+    private boolean asynchronous;
+
+    private static class QueuedAuditRecord {
+        private final AuditRecord auditRecord;
+        private final long queuedAt;
+
+        private QueuedAuditRecord(AuditRecord auditRecord) {
+            this.auditRecord = auditRecord;
+            this.queuedAt = System.currentTimeMillis();
+        }
+    }
+
+    private static List<AuditRecord> auditRecordsOf(List<QueuedAuditRecord> queuedRecords) {
+        final List<AuditRecord> auditRecords = new ArrayList<>(queuedRecords.size());
+        for (final QueuedAuditRecord queuedRecord : queuedRecords) {
+            auditRecords.add(queuedRecord.auditRecord);
+        }
+        return auditRecords;
+    }
+
+    /** Reads the audit log writing mode from the application properties. */
+    @PostConstruct
+    public void init() {
+        asynchronous = "TRUE".equalsIgnoreCase(properties.getProperty(AppProperties.AUDIT_LOG_ASYNC));
+        if (asynchronous) {
+            LOGGER.log(Level.INFO, "Audit log records are written asynchronously.");
+        }
+    }
+
+    /**
+     * Writes the audit records created in the current transaction.
+     *
+     * @param auditRecords the {@link AuditRecord}s to write
+     */
+    public void write(List<AuditRecord> auditRecords) {
+        if (!asynchronous || transactionRegistry.getTransactionKey() == null) {
+            for (final AuditRecord auditRecord : auditRecords) {
+                em.persist(auditRecord);
+            }
+            return;
+        }
+
+        @SuppressWarnings("unchecked")
+        List<AuditRecord> transactionRecords = (List<AuditRecord>) transactionRegistry.getResource(
+                                                                                        TRANSACTION_RECORDS_KEY);
+        if (transactionRecords == null) {
+            transactionRecords = new ArrayList<>();
+            transactionRegistry.putResource(TRANSACTION_RECORDS_KEY, transactionRecords);
+            final List<AuditRecord> committedRecords = transactionRecords;
+            // the business object is not available outside of the invocation of this bean
+            final AuditLogWriter writer = sessionContext.getBusinessObject(AuditLogWriter.class);
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // the records are only queued after the transaction commits
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        writer.enqueue(committedRecords);
+                    }
+                }
+            });
+        }
+        transactionRecords.addAll(auditRecords);
+    }
+
+    /**
+     * Queues the audit records of a committed transaction. The audit records that do not fit into the queue are
+     * written immediately in a new transaction.
+     *
+     * @param auditRecords the audit records
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void enqueue(List<AuditRecord> auditRecords) {
+        final List<QueuedAuditRecord> overflow = new ArrayList<>();
+        for (final AuditRecord auditRecord : auditRecords) {
+            final QueuedAuditRecord queuedRecord = new QueuedAuditRecord(auditRecord);
+            if (!overflow.isEmpty() || !queue.offer(queuedRecord)) {
+                overflow.add(queuedRecord);
+            }
+        }
+        if (overflow.isEmpty()) {
+            return;
+        }
+
+        LOGGER.log(Level.WARNING, "Audit log queue is full. Writing " + overflow.size() + " audit records directly.");
+        for (int i = 0; i < overflow.size(); i += BATCH_SIZE) {
+            final int end = Math.min(i + BATCH_SIZE, overflow.size());
+            if (!writeQueuedRecords(overflow.subList(i, end))) {
+                failedRecords.addAll(overflow.subList(end, overflow.size()));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Writes all the queued audit records to the database in batches. Each batch is written in its own transaction.
+     */
+    @Schedule(hour = "*", minute = "*", second = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void flush() {
+        if ((queue.isEmpty() && failedRecords.isEmpty()) || !flushLock.tryLock()) {
+            return;
+        }
+        try {
+            final List<QueuedAuditRecord> batch = new ArrayList<>(BATCH_SIZE);
+            while (!failedRecords.isEmpty()) {
+                QueuedAuditRecord failedRecord;
+                while (batch.size() < BATCH_SIZE && (failedRecord = failedRecords.poll()) != null) {
+                    batch.add(failedRecord);
+                }
+                if (!writeQueuedRecords(batch)) {
+                    // the database is still failing, try again with the next timeout
+                    return;
+                }
+                batch.clear();
+            }
+            while (queue.drainTo(batch, BATCH_SIZE) > 0) {
+                if (!writeQueuedRecords(batch)) {
+                    return;
+                }
+                batch.clear();
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    /**
+     * Writes the queued audit records. If the batch cannot be written, its halves are written separately, and an
+     * audit record that cannot be written on its own is quarantined.
+     *
+     * @param records the queued audit records
+     * @return <code>true</code> if all the audit records were written or quarantined, <code>false</code> if the
+     *         database failed. In that case the audit records that were not written are added to the failed records.
+     */
+    private boolean writeQueuedRecords(List<QueuedAuditRecord> records) {
+        final RuntimeException error = writeQueuedBatch(records);
+        if (error == null) {
+            return true;
+        }
+        if (records.size() == 1) {
+            if (!quarantine(records.get(0), error)) {
+                failedRecords.add(records.get(0));
+                return false;
+            }
+            return true;
+        }
+
+        final int half = records.size() / 2;
+        if (!writeQueuedRecords(records.subList(0, half))) {
+            failedRecords.addAll(records.subList(half, records.size()));
+            return false;
+        }
+        return writeQueuedRecords(records.subList(half, records.size()));
+    }
+
+    /**
+     * Writes a batch of queued audit records in a new transaction.
+     *
+     * @param batch the queued audit records
+     * @return <code>null</code> if the audit records were written, the cause of the failure otherwise
+     */
+    private RuntimeException writeQueuedBatch(List<QueuedAuditRecord> batch) {
+        final long lag = System.currentTimeMillis() - batch.get(0).queuedAt;
+        try {
+            sessionContext.getBusinessObject(AuditLogWriter.class).writeBatch(auditRecordsOf(batch));
+            writtenRecords.addAndGet(batch.size());
+            LOGGER.log(Level.FINE, "Wrote " + batch.size() + " audit records, lag " + lag + " ms, "
+                    + queue.size() + " remaining in the queue.");
+            return null;
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Writing " + batch.size() + " audit records failed.", e);
+            return e;
+        }
+    }
+
+    /**
+     * Moves an audit record that could not be written to the quarantine table.
+     *
+     * @param queuedRecord the queued audit record
+     * @param error the cause of the failure
+     * @return <code>true</code> if the audit record was quarantined, <code>false</code> if the database failed
+     */
+    private boolean quarantine(QueuedAuditRecord queuedRecord, RuntimeException error) {
+        final AuditRecord auditRecord = queuedRecord.auditRecord;
+        Throwable cause = error;
+        while (cause.getCause() != null) {
+            cause = cause.getCause();
+        }
+        try {
+            sessionContext.getBusinessObject(AuditLogWriter.class).writeQuarantined(
+                    new QuarantinedAuditRecord(auditRecord, cause.toString()));
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Quarantining the audit record failed, will be retried.", e);
+            return false;
+        }
+        quarantinedRecords.incrementAndGet();
+        LOGGER.log(Level.SEVERE, "Audit record quarantined: " + auditRecord.getOper() + " "
+                + auditRecord.getEntityType() + " " + auditRecord.getEntityKey() + " (" + auditRecord.getEntityId()
+                + ") by " + auditRecord.getUser() + ", " + cause);
+        return true;
+    }
+
+    /**
+     * Persists a batch of audit records in a new transaction. The inserts are grouped into JDBC batches by the
+     * <code>hibernate.jdbc.batch_size</code> setting of the persistence unit.
+     *
+     * @param auditRecords the audit records
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void writeBatch(List<AuditRecord> auditRecords) {
+        for (final AuditRecord auditRecord : auditRecords) {
+            // a copy is persisted, the records keep the ids assigned by a failed attempt
+            final AuditRecord copy = new AuditRecord(auditRecord.getOper(), auditRecord.getEntry(),
+                                                        auditRecord.getEntityId());
+            copy.setLogTime(auditRecord.getLogTime());
+            copy.setUser(auditRecord.getUser());
+            copy.setEntityType(auditRecord.getEntityType());
+            copy.setEntityKey(auditRecord.getEntityKey());
+            em.persist(copy);
+        }
+    }
+
+    /**
+     * Persists a quarantined audit record in a new transaction.
+     *
+     * @param quarantinedRecord the quarantined audit record
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public void writeQuarantined(QuarantinedAuditRecord quarantinedRecord) {
+        em.persist(quarantinedRecord);
+    }
+
+    /** Logs the state of the asynchronous audit log, if any audit records were queued since the last time. */
+    @Schedule(hour = "*", minute = "*", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void logStatus() {
+        final long written = getWrittenRecords();
+        final long quarantined = getQuarantinedRecords();
+        final int queueDepth = getQueueDepth();
+        if (!asynchronous || (queueDepth == 0 && written == loggedWrittenRecords
+                && quarantined == loggedQuarantinedRecords)) {
+            return;
+        }
+        LOGGER.log(Level.INFO, "Audit log: " + queueDepth + " audit records queued, lag " + getLag() + " ms, "
+                + (written - loggedWrittenRecords) + " written and " + (quarantined - loggedQuarantinedRecords)
+                + " quarantined in the last minute, " + written + " written and " + quarantined
+                + " quarantined in total.");
+        loggedWrittenRecords = written;
+        loggedQuarantinedRecords = quarantined;
+    }
+
+    /** Writes the audit records remaining in the queue before the application is stopped. */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /** @return <code>true</code> if the audit records are written asynchronously, <code>false</code> otherwise */
+    public boolean isAsynchronous() {
+        return asynchronous;
+    }
+
+    /** @return the number of audit records waiting to be written, including the ones whose writing failed */
+    public int getQueueDepth() {
+        return queue.size() + failedRecords.size();
+    }
+
+    /** @return the time in milliseconds the oldest queued audit record has been waiting, 0 if the queue is empty */
+    public long getLag() {
+        final QueuedAuditRecord oldest = queue.peek();
+        return oldest == null ? 0 : System.currentTimeMillis() - oldest.queuedAt;
+    }
+
+    /** @return the number of audit records written asynchronously since the application was started */
+    public long getWrittenRecords() {
+        return writtenRecords.get();
+    }
+
+    /** @return the number of audit records quarantined since the application was started */
+    public long getQuarantinedRecords() {
+        return quarantinedRecords.get();
+    }
+}
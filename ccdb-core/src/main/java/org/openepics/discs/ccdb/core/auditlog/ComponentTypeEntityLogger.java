@@ -19,7 +19,6 @@
  */
 package org.openepics.discs.ccdb.core.auditlog;
 
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -65,8 +64,10 @@ public class ComponentTypeEntityLogger implements EntityLogger<ComponentType> {
             }
         }
 
-        return ImmutableList.of(new AuditLogUtil(compType)
-                                .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy", "version", "name"))
+        return ImmutableList.of(new AuditLogUtil()
+                                .addStringProperty("description", compType.getDescription())
+                                .addStringProperty("superComponentType", compType.getSuperComponentType() != null
+                                        ? compType.getSuperComponentType().getName() : null)
                                 .addArrayOfMappedProperties("comptypePropertyList", propertiesMap)
                                 .addArrayOfMappedProperties("comptypeArtifactList", artifactsMap)
                                 .addArrayOfProperties("tagsList", EntityLoggerUtil.getTagNamesFromTagsSet(compType.getTags()))
@@ -19,7 +19,6 @@
  */
 package org.openepics.discs.ccdb.core.auditlog;
 
-import java.util.Arrays;
 import java.util.List;
 
 import org.openepics.discs.ccdb.model.AuditRecord;
@@ -46,8 +45,10 @@ public class DataTypeEntityLogger implements EntityLogger<DataType> {
     public List<AuditRecord> auditEntries(Object value, EntityTypeOperation operation) {
         DataType dt = (DataType) value;
 
-        return ImmutableList.of(new AuditLogUtil(dt)
-                                .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy", "version", "name"))
+        return ImmutableList.of(new AuditLogUtil()
+                                .addStringProperty("description", dt.getDescription())
+                                .addBooleanProperty("scalar", dt.isScalar())
+                                .addStringProperty("definition", dt.getDefinition())
                                 .auditEntry(operation, EntityType.DATA_TYPE, dt.getName(), dt.getId()));
     }
 }
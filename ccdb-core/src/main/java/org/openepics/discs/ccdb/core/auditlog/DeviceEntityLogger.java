@@ -20,7 +20,6 @@
 package org.openepics.discs.ccdb.core.auditlog;
 
 import java.text.SimpleDateFormat;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -91,9 +90,11 @@ public class DeviceEntityLogger implements EntityLogger<Device> {
             }
         }
 
-        return ImmutableList.of(new AuditLogUtil(device)
-                                .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy",
-                                        "version", "serialNumber", "componentType", "name"))
+        return ImmutableList.of(new AuditLogUtil()
+                                .addStringProperty("assemblyPosition", device.getAssemblyPosition())
+                                .addStringProperty("assemblyDescription", device.getAssemblyDescription())
+                                .addStringProperty("assemblyParent", device.getAssemblyParent() != null
+                                        ? device.getAssemblyParent().getSerialNumber() : null)
                                 .addStringProperty("componentType",
                                         device.getComponentType() != null ? device.getComponentType().getName() : null)
                                 .addArrayOfMappedProperties("installation", installationSlotMap)
@@ -19,7 +19,6 @@
  */
 package org.openepics.discs.ccdb.core.auditlog;
 
-import java.util.Arrays;
 import java.util.List;
 
 import org.openepics.discs.ccdb.model.AuditRecord;
@@ -46,9 +45,10 @@ public class PropertyEntityLogger implements EntityLogger<Property> {
     public List<AuditRecord> auditEntries(Object value, EntityTypeOperation operation) {
         final Property prop = (Property) value;
 
-        return ImmutableList.of(new AuditLogUtil(prop)
-                                .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy",
-                                        "version", "name", "dataType", "unit", "associationAll", "associationNone"))
+        return ImmutableList.of(new AuditLogUtil()
+                                .addStringProperty("description", prop.getDescription())
+                                .addStringProperty("valueUniqueness",
+                                        prop.getValueUniqueness() != null ? prop.getValueUniqueness().name() : null)
                                 .addStringProperty("dataType",
                                         prop.getDataType() != null ? prop.getDataType().getName() : null)
                                 .addStringProperty("unit", prop.getUnit() != null ? prop.getUnit().getName() : null)
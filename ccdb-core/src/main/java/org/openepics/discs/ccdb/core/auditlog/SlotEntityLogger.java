@@ -19,9 +19,10 @@
  */
 package org.openepics.discs.ccdb.core.auditlog;
 
+import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 import java.util.TreeMap;
@@ -34,17 +35,40 @@ import org.openepics.discs.ccdb.model.Slot;
 import org.openepics.discs.ccdb.model.SlotArtifact;
 import org.openepics.discs.ccdb.model.SlotPair;
 import org.openepics.discs.ccdb.model.SlotPropertyValue;
+import org.openepics.discs.ccdb.core.util.AppProperties;
 import org.openepics.discs.ccdb.core.util.Conversion;
 
 import com.google.common.collect.ArrayListMultimap;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Multimap;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
 /**
+ * {@link AuditRecord} maker for {@link Slot}
+ *
+ * When the {@link AppProperties#AUDIT_LOG_CHILDREN_SUMMARY} system property is set to <code>true</code>, the
+ * children of a slot are not listed in the audit log. Only their number and a hash of the names and relationships
+ * are written, which keeps the entries of slots with many children small.
+ *
  * @author <a href="mailto:andraz.pozar@cosylab.com">Andraž Požar</a>
  *
  */
 public class SlotEntityLogger implements EntityLogger<Slot> {
+    private final boolean childrenSummary;
+
+    /** Constructs the logger, reading the children summary setting from the system properties. */
+    public SlotEntityLogger() {
+        this(Boolean.getBoolean(AppProperties.AUDIT_LOG_CHILDREN_SUMMARY));
+    }
+
+    /**
+     * @param childrenSummary <code>true</code> if only the number and the hash of the children should be logged
+     */
+    SlotEntityLogger(boolean childrenSummary) {
+        this.childrenSummary = childrenSummary;
+    }
+
     @Override
     public Class<Slot> getType() {
         return Slot.class;
@@ -123,17 +147,45 @@ public class SlotEntityLogger implements EntityLogger<Slot> {
             }
         }
 
-        final AuditLogUtil logUtil = new AuditLogUtil(slot)
-                        .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy", "version",
-                                "name", "componentType"))
-                        .addStringProperty("componentType", slot.getComponentType().getName())
+        final AuditLogUtil logUtil = new AuditLogUtil()
+                        .addStringProperty("description", slot.getDescription())
+                        .addStringProperty("comment", slot.getComment())
+                        .addBooleanProperty("hostingSlot", slot.isHostingSlot())
+                        .addStringProperty("assemblyComment", slot.getAssemblyComment())
+                        .addStringProperty("assemblyPosition", slot.getAssemblyPosition())
+                        .addStringProperty("assemblySlot",
+                                slot.getAssemblySlot() != null ? slot.getAssemblySlot().getName() : null)
+                        .addStringProperty("componentType",
+                                slot.getComponentType() != null ? slot.getComponentType().getName() : null)
                         .addArrayOfMappedProperties("slotPropertyList", propertiesMap)
-                        .addArrayOfMappedProperties("slotArtifactList", artifactsMap)
-                        .addArrayOfMappedProperties("childrenSlots", childrenMap.asMap())
-                        .addArrayOfMappedProperties("parentSlots", parentsMap.asMap())
-                        .addArrayOfMappedProperties("installation", installationDeviceMap)
-                        .addArrayOfProperties("tagsList", EntityLoggerUtil.getTagNamesFromTagsSet(slot.getTags()));
+                        .addArrayOfMappedProperties("slotArtifactList", artifactsMap);
+        if (childrenSummary) {
+            if (!childrenMap.isEmpty()) {
+                logUtil.addNumberProperty("childrenCount", childrenMap.size())
+                        .addStringProperty("childrenHash", childrenHash(childrenMap));
+            }
+        } else {
+            logUtil.addArrayOfMappedProperties("childrenSlots", childrenMap.asMap());
+        }
+        logUtil.addArrayOfMappedProperties("parentSlots", parentsMap.asMap())
+                .addArrayOfMappedProperties("installation", installationDeviceMap)
+                .addArrayOfProperties("tagsList", EntityLoggerUtil.getTagNamesFromTagsSet(slot.getTags()));
 
         return ImmutableList.of(logUtil.auditEntry(operation, EntityType.SLOT, slot.getName(), slot.getId()));
     }
+
+    /** @return the hash of the sorted "child name:relationship" entries, independent of the order of the pairs */
+    private static String childrenHash(Multimap<String, String> childrenMap) {
+        final List<String> entries = new ArrayList<>(childrenMap.size());
+        for (Map.Entry<String, String> entry : childrenMap.entries()) {
+            entries.add(entry.getKey() + ':' + entry.getValue());
+        }
+        Collections.sort(entries);
+
+        final Hasher hasher = Hashing.murmur3_128().newHasher();
+        for (String entry : entries) {
+            hasher.putString(entry, StandardCharsets.UTF_8).putByte((byte) 0);
+        }
+        return hasher.hash().toString();
+    }
 }
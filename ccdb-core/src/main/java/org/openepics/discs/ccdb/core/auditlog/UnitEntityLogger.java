@@ -19,7 +19,6 @@
  */
 package org.openepics.discs.ccdb.core.auditlog;
 
-import java.util.Arrays;
 import java.util.List;
 
 import org.openepics.discs.ccdb.model.AuditRecord;
@@ -45,8 +44,9 @@ public class UnitEntityLogger implements EntityLogger<Unit> {
     @Override
     public List<AuditRecord> auditEntries(Object value, EntityTypeOperation operation) {
         final Unit unit = (Unit) value;
-        return ImmutableList.of((new AuditLogUtil(value))
-                                .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy", "version", "name"))
+        return ImmutableList.of(new AuditLogUtil()
+                                .addStringProperty("symbol", unit.getSymbol())
+                                .addStringProperty("description", unit.getDescription())
                                 .auditEntry(operation, EntityType.UNIT, unit.getName(), unit.getId()));
     }
 }
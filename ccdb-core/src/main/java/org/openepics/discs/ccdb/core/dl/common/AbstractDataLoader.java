@@ -19,17 +19,27 @@
  */
 package org.openepics.discs.ccdb.core.dl.common;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
 import org.apache.commons.lang3.tuple.Pair;
+import org.openepics.discs.ccdb.core.ejb.ReadOnlyDAO;
 import org.openepics.discs.ccdb.core.util.ImportFileStatistics;
+import org.openepics.discs.ccdb.model.NamedEntity;
 
 import com.google.common.base.Preconditions;
 
@@ -67,6 +77,24 @@ public abstract class AbstractDataLoader implements DataLoader {
     /** The command parsed for the current row. */
     private String command;
 
+    /** In batch mode, the rows of the batch being loaded, used to resolve the referenced names */
+    private List<Pair<Integer, List<String>>> batchRows;
+
+    /** The distinct values of the columns of the current batch already scanned for the referenced names */
+    private Map<Integer, Set<String>> columnValues;
+
+    /** The number of rows after which the persistence context is flushed and cleared. 0 disables the batch mode. */
+    private int batchSize;
+
+    /** Set once the END command is found, the rows following it are ignored */
+    private boolean endReached;
+    private int dataRows;
+    private int createRows;
+    private int updateRows;
+    private int deleteRows;
+
+    @PersistenceContext private EntityManager em;
+
     @Override
     public int getImportDataStartIndex() {
         return DEFAULT_EXCEL_TAMPLATE_DATA_START_ROW;
@@ -88,89 +116,143 @@ public abstract class AbstractDataLoader implements DataLoader {
     @Override
     public DataLoaderResult loadDataToDatabase(List<Pair<Integer, List<String>>> inputRows,
             Map<String, Object> contextualData) {
+        return loadDataToDatabase(inputRows::forEach, contextualData);
+    }
+
+    /**
+     * Loads data from the rows of strings passed by inputRows, into the database, gracefully handling errors.
+     * Potential error messages and state are returned in the return value. Each row is loaded as soon as it is
+     * received, or as soon as its batch is complete in the batch mode.
+     *
+     * @param inputRows the source of the {@link Pair}s consisting of an integer representing excel row number
+     * in left-hand position and a list of strings representing the cells for each column in that row
+     * @param contextualData optional map of objects passed with string keys
+     *
+     * @return {@link DataLoaderResult} which represents error state &amp; information (or lack of)
+     */
+    @Override
+    public DataLoaderResult loadDataToDatabase(ImportRowSource inputRows, Map<String, Object> contextualData) {
 
         if (contextualData == null) {
             this.contextualData = new HashMap<>();
         } else {
             this.contextualData = contextualData;
         }
+        final Object batchSizeValue = this.contextualData.get(DataLoader.CTX_BATCH_SIZE);
+        batchSize = batchSizeValue instanceof Integer ? Math.max((Integer) batchSizeValue, 0) : 0;
+        batchRows = new ArrayList<>();
+        endReached = false;
+        dataRows = 0;
+        createRows = 0;
+        updateRows = 0;
+        deleteRows = 0;
 
         init();
 
-        int dataRows = 0;
-        int createRows = 0;
-        int updateRows = 0;
-        int deleteRows = 0;
-
         currentRowData = null;
-        for (Pair<Integer, List<String>> row : inputRows) {
-            result.resetRowError();
+        inputRows.forEachRow(this::acceptRow);
+        if (!batchRows.isEmpty()) {
+            loadBatch();
+        }
+        result.setImportFileStatistics(new ImportFileStatistics(dataRows, createRows, updateRows, deleteRows));
+        return result;
+    }
 
-            result.setCurrentRowNumber(row.getLeft());
-            currentRowData = row.getRight();
+    private void acceptRow(Pair<Integer, List<String>> row) {
+        if (endReached) {
+            return;
+        }
+        if (DataLoader.CMD_END.equals(row.getRight().get(COL_INDEX_OPERATION))) {
+            endReached = true;
+        } else if (isBatchMode()) {
+            batchRows.add(row);
+            if (batchRows.size() == batchSize) {
+                loadBatch();
+            }
+        } else {
+            loadRow(row);
+        }
+    }
 
-            if (DataLoader.CMD_END.equals(currentRowData.get(COL_INDEX_OPERATION))) {
-                break;
-            } else {
-                ++dataRows;
+    /**
+     * Loads the rows of a batch. The changes of the previous batch are written to the database and the persistence
+     * context is cleared first, so that the memory used by the import does not grow with the number of imported
+     * rows. The changes are still part of the same transaction. Only the entities referenced by the rows of this
+     * batch are prefetched, so the cost of the prefetch does not grow with the size of the import either.
+     */
+    private void loadBatch() {
+        if (dataRows > 0) {
+            em.flush();
+            em.clear();
+        }
+        columnValues = new HashMap<>();
+        prefetchReferencedEntities();
+        for (final Pair<Integer, List<String>> row : batchRows) {
+            loadRow(row);
+        }
+        batchRows.clear();
+    }
 
-                command = checkCommandAndRequiredFields();
-                if (command == null) {
-                    continue;
-                }
+    private void loadRow(Pair<Integer, List<String>> row) {
+        result.resetRowError();
 
-                assignMembersForCurrentRow();
-                if (result.isRowError()) {
-                    continue;
-                }
+        result.setCurrentRowNumber(row.getLeft());
+        currentRowData = row.getRight();
+        ++dataRows;
 
-                switch (command) {
-                    case DataLoader.CMD_UPDATE:
-                    case DataLoader.CMD_UPDATE_DEVICE:
-                    case DataLoader.CMD_UPDATE_PROPERTY:
-                    case DataLoader.CMD_UPDATE_DEVICE_TYPE:
-                    case DataLoader.CMD_UPDATE_ENTITY:
-                        handleUpdate(command);
-                        ++updateRows;
-                        break;
-                    case DataLoader.CMD_DELETE:
-                    case DataLoader.CMD_DELETE_DEVICE:
-                    case DataLoader.CMD_DELETE_PROPERTY:
-                    case DataLoader.CMD_DELETE_DEVICE_TYPE:
-                    case DataLoader.CMD_DELETE_ENTITY:
-                    case DataLoader.CMD_DELETE_ENTITY_AND_CHILDREN:
-                    case DataLoader.CMD_DELETE_RELATION:
-                    case DataLoader.CMD_UNINSTALL:
-                        handleDelete(command);
-                        ++deleteRows;
-                        break;
-                    case DataLoader.CMD_CREATE:
-                    case DataLoader.CMD_CREATE_DEVICE:
-                    case DataLoader.CMD_CREATE_DEVICE_TYPE:
-                    case DataLoader.CMD_CREATE_PROPERTY:
-                    case DataLoader.CMD_CREATE_ENTITY:
-                    case DataLoader.CMD_CREATE_RELATION:
-                    case DataLoader.CMD_INSTALL:
-                        handleCreate(command);
-                        ++createRows;
-                        break;
-                    default:
-                        result.addRowMessage(ErrorMessage.COMMAND_NOT_VALID, HDR_OPERATION, command);
-                }
-            }
+        command = checkCommandAndRequiredFields();
+        if (command == null) {
+            return;
+        }
+
+        assignMembersForCurrentRow();
+        if (result.isRowError()) {
+            return;
+        }
+
+        switch (command) {
+            case DataLoader.CMD_UPDATE:
+            case DataLoader.CMD_UPDATE_DEVICE:
+            case DataLoader.CMD_UPDATE_PROPERTY:
+            case DataLoader.CMD_UPDATE_DEVICE_TYPE:
+            case DataLoader.CMD_UPDATE_ENTITY:
+                handleUpdate(command);
+                ++updateRows;
+                break;
+            case DataLoader.CMD_DELETE:
+            case DataLoader.CMD_DELETE_DEVICE:
+            case DataLoader.CMD_DELETE_PROPERTY:
+            case DataLoader.CMD_DELETE_DEVICE_TYPE:
+            case DataLoader.CMD_DELETE_ENTITY:
+            case DataLoader.CMD_DELETE_ENTITY_AND_CHILDREN:
+            case DataLoader.CMD_DELETE_RELATION:
+            case DataLoader.CMD_UNINSTALL:
+                handleDelete(command);
+                ++deleteRows;
+                break;
+            case DataLoader.CMD_CREATE:
+            case DataLoader.CMD_CREATE_DEVICE:
+            case DataLoader.CMD_CREATE_DEVICE_TYPE:
+            case DataLoader.CMD_CREATE_PROPERTY:
+            case DataLoader.CMD_CREATE_ENTITY:
+            case DataLoader.CMD_CREATE_RELATION:
+            case DataLoader.CMD_INSTALL:
+                handleCreate(command);
+                ++createRows;
+                break;
+            default:
+                result.addRowMessage(ErrorMessage.COMMAND_NOT_VALID, HDR_OPERATION, command);
         }
-        result.setImportFileStatistics(new ImportFileStatistics(dataRows, createRows, updateRows, deleteRows));
-        return result;
     }
 
     /**
      * <p>
-     * An method invoked from {@link #loadDataToDatabase(List, Map)} prior data-loading
+     * An method invoked from {@link #loadDataToDatabase(ImportRowSource, Map)} prior data-loading
      * is initiated.
      * </p>
      * <p>
      * Should be used by sub-classes to initialize shared state. In sub-classes {@link #getFromContext(String)} can
-     * be called to get context-specific objects passed in {@link #loadDataToDatabase(List, Map)}
+     * be called to get context-specific objects passed in {@link #loadDataToDatabase(ImportRowSource, Map)}
      * </p>
      */
     protected void init() {
@@ -178,6 +260,74 @@ public abstract class AbstractDataLoader implements DataLoader {
         setUpIndexesForFields();
     }
 
+    /**
+     * <p>
+     * Invoked in batch mode before the rows of each batch are processed, after the persistence context is cleared.
+     * </p>
+     * <p>
+     * Sub-classes should use this to look up all the entities referenced by name in the rows of the batch with as
+     * few queries as possible (see {@link #findReferencedEntities(ReadOnlyDAO, int, Predicate)}). Any entities
+     * cached for the previous batch are detached and must be looked up again.
+     * </p>
+     */
+    protected void prefetchReferencedEntities() {
+        // no entities to prefetch by default
+    }
+
+    /** @return <code>true</code> if the data is loaded in batches, <code>false</code> otherwise */
+    protected boolean isBatchMode() {
+        return batchSize > 0;
+    }
+
+    /**
+     * Finds all the entities whose names appear in a column of the current batch with a single pass over its rows.
+     *
+     * @param dao the DAO to query
+     * @param columnIndex the index of the column containing the names
+     * @param filter only the entities satisfying the filter are returned, e.g. installation slots only
+     * @param <T> the entity type
+     * @return a {@link Map} from the entity name to the entity
+     */
+    protected <T extends NamedEntity> Map<String, T> findReferencedEntities(ReadOnlyDAO<T> dao, int columnIndex,
+                                                                                            Predicate<T> filter) {
+        final Set<String> names = columnValues.computeIfAbsent(columnIndex, this::readColumnValues);
+        return dao.findByNames(names).stream().filter(filter).
+                        collect(Collectors.toMap(NamedEntity::getName, Function.identity(), (first, other) -> first));
+    }
+
+    /**
+     * Returns the entity with the given name from the prefetched entities, or looks it up in the database if it was
+     * not prefetched. Entities found in the database are added to the prefetched entities.
+     *
+     * @param prefetched the prefetched entities by their names
+     * @param name the name of the entity
+     * @param lookup the database lookup of the entity by name
+     * @param <T> the entity type
+     * @return the entity or <code>null</code> if it does not exist
+     */
+    protected <T> T findByName(Map<String, T> prefetched, String name, Function<String, T> lookup) {
+        final T entity = prefetched.get(name);
+        if (entity != null) {
+            return entity;
+        }
+        final T entityFromDb = lookup.apply(name);
+        if (entityFromDb != null && isBatchMode()) {
+            prefetched.put(name, entityFromDb);
+        }
+        return entityFromDb;
+    }
+
+    private Set<String> readColumnValues(int columnIndex) {
+        final Set<String> values = new HashSet<>();
+        for (final Pair<Integer, List<String>> row : batchRows) {
+            final String value = row.getRight().get(columnIndex);
+            if (value != null && !value.trim().isEmpty()) {
+                values.add(value.trim());
+            }
+        }
+        return values;
+    }
+
     /**
      * Sub-classes should implement this abstract method to define the name of the unique column (a column used do
      * uniquely identify a data row, for example a column containing entity names or serial numbers)
@@ -192,7 +342,7 @@ public abstract class AbstractDataLoader implements DataLoader {
 
 
     /**
-     * Invoked by {@link #loadDataToDatabase(List, Map)} for sub-classes to initialize row-bound
+     * Invoked by {@link #loadDataToDatabase(ImportRowSource, Map)} for sub-classes to initialize row-bound
      * state (class fields) from row-data.
      */
     protected abstract void assignMembersForCurrentRow();
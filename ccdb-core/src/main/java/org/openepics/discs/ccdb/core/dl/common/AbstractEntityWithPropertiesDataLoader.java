@@ -19,7 +19,9 @@
  */
 package org.openepics.discs.ccdb.core.dl.common;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.annotation.Nullable;
 import javax.inject.Inject;
@@ -44,6 +46,24 @@ import com.google.common.base.Preconditions;
 public abstract class AbstractEntityWithPropertiesDataLoader<S extends PropertyValue> extends AbstractDataLoader {
     @Inject protected PropertyEJB propertyEJB;
 
+    /** The properties referenced by the import data by their names. Only prefetched in batch mode. */
+    protected Map<String, Property> propertyByName;
+
+    @Override
+    protected void init() {
+        super.init();
+        propertyByName = new HashMap<>();
+    }
+
+    /**
+     * @param propertyName the name of the {@link Property}
+     * @return the prefetched {@link Property}, or the one from the database if it was not prefetched.
+     * <code>null</code> if there is no such property.
+     */
+    protected @Nullable Property findPropertyByName(String propertyName) {
+        return findByName(propertyByName, propertyName, propertyEJB::findByName);
+    }
+
     /**
      * Used by sub-classes to update properties.
      * Updates the {@link DataLoaderResult} in case of {@link ErrorMessage#ENTITY_NOT_FOUND} error
@@ -84,7 +104,7 @@ public abstract class AbstractEntityWithPropertiesDataLoader<S extends PropertyV
         // TODO push this search for property value into EntityWithProperties
         final List<PropertyValue> propertyList = entity.getEntityPropertyList();
 
-        final @Nullable Property property = propertyEJB.findByName(propertyName);
+        final @Nullable Property property = findPropertyByName(propertyName);
         if (property == null) {
             result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, propNameHeader, propertyName);
             return null;
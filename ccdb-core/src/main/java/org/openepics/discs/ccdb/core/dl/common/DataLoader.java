@@ -69,6 +69,13 @@ public interface DataLoader {
 
     public static final String PATH_SEPARATOR_PATTERN = ">>";
 
+    /**
+     * A key for the contextual data holding the {@link Integer} number of rows after which the pending changes are
+     * written to the database and the persistence context is cleared. If the key is not present, the rows are not
+     * processed in batches.
+     */
+    public static final String CTX_BATCH_SIZE = "CTX_BATCH_SIZE";
+
     /**
      * Saves data read from input file to the database
      *
@@ -80,6 +87,17 @@ public interface DataLoader {
     public DataLoaderResult loadDataToDatabase(List<Pair<Integer, List<String>>> inputRows,
             Map<String, Object> contextualData);
 
+    /**
+     * Saves data read from input file to the database. Each row is loaded as soon as the source passes it on, so
+     * the rows that were already loaded are not kept in memory.
+     *
+     * @param inputRows the source of the rows containing data from input file
+     * @param contextualData optional map of objects passed with string keys
+     *
+     * @return {@link DataLoaderResult} describing the outcome of the data loading
+     */
+    public DataLoaderResult loadDataToDatabase(ImportRowSource inputRows, Map<String, Object> contextualData);
+
     /**
      * The index is defined by the import data template and is returned by the method because different data types
      * could have a different template and the data could start at a different index.
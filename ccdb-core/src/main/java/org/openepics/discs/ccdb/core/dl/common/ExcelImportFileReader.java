@@ -21,22 +21,40 @@ package org.openepics.discs.ccdb.core.dl.common;
 
 import java.io.IOException;
 import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.function.Consumer;
+
+import javax.xml.parsers.ParserConfigurationException;
+import javax.xml.parsers.SAXParserFactory;
 
 import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
-import org.apache.poi.ss.usermodel.Row;
-import org.apache.poi.xssf.usermodel.XSSFSheet;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.openxml4j.exceptions.OpenXML4JException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.ss.util.CellReference;
+import org.apache.poi.xssf.eventusermodel.ReadOnlySharedStringsTable;
+import org.apache.poi.xssf.eventusermodel.XSSFReader;
 import org.openepics.discs.ccdb.core.util.ExcelCell;
-
-import com.google.common.base.Strings;
+import org.openepics.discs.ccdb.core.util.UnhandledCaseException;
+import org.xml.sax.Attributes;
+import org.xml.sax.InputSource;
+import org.xml.sax.SAXException;
+import org.xml.sax.XMLReader;
+import org.xml.sax.helpers.DefaultHandler;
 
 /**
  * This class returns the excel spreadsheet as a list of rows. The first
  * element in each row is a row number, followed by the values of all columns.
  *
+ * The worksheet is parsed with the XSSF event model, so the memory used does not depend on the size of the
+ * workbook, only on the size of the shared strings table and the rows kept by the caller.
+ *
  * @author <a href="mailto:andraz.pozar@cosylab.com">Andraž Požar</a>
  *
  */
@@ -48,7 +66,9 @@ public class ExcelImportFileReader {
 
     /**
      * This method returns the contents of the first worksheet found in the
-     * Excel workbook file.
+     * Excel workbook file. All the rows are kept in memory; to load the rows
+     * into the database use {@link #readExcelFile(InputStream, int, int, Consumer)}
+     * as an {@link ImportRowSource}.
      *
      * @param inputStream
      *              the Excel file to parse. Only Excel file version &gt;=12.0
@@ -64,30 +84,195 @@ public class ExcelImportFileReader {
      */
     public static List<Pair<Integer, List<String>>> importExcelFile(InputStream inputStream, int dataStartIndex,
                                                                                         final int dataRowLength) {
-        final List<Pair<Integer, List<String>>> result= new ArrayList<>();
+        final List<Pair<Integer, List<String>>> result = new ArrayList<>();
+        readExcelFile(inputStream, dataStartIndex, dataRowLength, result::add);
+        return result;
+    }
 
+    /**
+     * This method reads the first worksheet found in the Excel workbook file and passes its rows to the
+     * <code>rowHandler</code> one by one, in the same form as {@link #importExcelFile(InputStream, int, int)}
+     * returns them. The rows are not kept in memory once they are handled.
+     *
+     * @param inputStream
+     *              the Excel file to parse. Only Excel file version &gt;=12.0
+     *              supported (.xslx).
+     * @param dataStartIndex
+     *              the index of the row where to start parsing the import data.
+     * @param dataRowLength
+     *              the length of each row if it contains all the data. This length is usually defined by the Excel
+     *              template.
+     * @param rowHandler
+     *              called for each line containing a value in the first cell, in the order of the lines
+     */
+    public static void readExcelFile(InputStream inputStream, int dataStartIndex, final int dataRowLength,
+                                                                    Consumer<Pair<Integer, List<String>>> rowHandler) {
+        Path workbookFile = null;
+        OPCPackage workbookPackage = null;
         try {
-            final XSSFWorkbook workbook = new XSSFWorkbook(inputStream);
-            final XSSFSheet sheet = workbook.getSheetAt(0);
-
-            for (Row excelRow : sheet) {
-                if (excelRow.getRowNum() < dataStartIndex) {
-                    continue;
-                }
-                final String firstColumnValue = Strings.emptyToNull(ExcelCell.asStringOrNull(excelRow.getCell(0), workbook));
-                if (firstColumnValue != null && !firstColumnValue.trim().isEmpty()) {
-                    final List<String> row = new ArrayList<>();
-                    final int rowNumber = excelRow.getRowNum() + 1;
-                    final int lastCellIndex = dataRowLength > excelRow.getLastCellNum() ? dataRowLength : excelRow.getLastCellNum();
-                    for (int i = 0; i < lastCellIndex; i++) {
-                        row.add(ExcelCell.asStringOrNull(excelRow.getCell(i), workbook));
-                    }
-                    result.add(new ImmutablePair<Integer, List<String>>(rowNumber, row));
-                }
+            // opening the package from a file does not buffer all the worksheets in memory
+            workbookFile = Files.createTempFile("ccdb-import", ".xlsx");
+            Files.copy(inputStream, workbookFile, StandardCopyOption.REPLACE_EXISTING);
+            workbookPackage = OPCPackage.open(workbookFile.toString(), PackageAccess.READ);
+
+            final XSSFReader reader = new XSSFReader(workbookPackage);
+            final ReadOnlySharedStringsTable sharedStrings = new ReadOnlySharedStringsTable(workbookPackage);
+            final Iterator<InputStream> sheets = reader.getSheetsData();
+            if (!sheets.hasNext()) {
+                return;
+            }
+
+            final SAXParserFactory parserFactory = SAXParserFactory.newInstance();
+            parserFactory.setNamespaceAware(true);
+            parserFactory.setFeature("http://apache.org/xml/features/disallow-doctype-decl", true);
+            final XMLReader xmlReader = parserFactory.newSAXParser().getXMLReader();
+            xmlReader.setContentHandler(new SheetHandler(sharedStrings, dataStartIndex, dataRowLength, rowHandler));
+
+            try (final InputStream sheet = sheets.next()) {
+                xmlReader.parse(new InputSource(sheet));
             }
-        } catch (IOException e) {
+        } catch (IOException | OpenXML4JException | SAXException | ParserConfigurationException e) {
             throw new RuntimeException(e);
+        } finally {
+            if (workbookPackage != null) {
+                workbookPackage.revert();
+            }
+            if (workbookFile != null) {
+                workbookFile.toFile().delete();
+            }
+        }
+    }
+
+    /**
+     * Converts the SAX events of a worksheet into rows. The cell values are converted to strings the same way as
+     * {@link ExcelCell#asStringOrNull(org.apache.poi.ss.usermodel.Cell, org.apache.poi.ss.usermodel.Workbook)}
+     * does it, except that the cached results of formulas are used instead of evaluating them.
+     */
+    private static class SheetHandler extends DefaultHandler {
+        private final ReadOnlySharedStringsTable sharedStrings;
+        private final int dataStartIndex;
+        private final int dataRowLength;
+        private final Consumer<Pair<Integer, List<String>>> rowHandler;
+
+        private int rowIndex = -1;
+        private int columnIndex;
+        /** The cells of the current row, <code>null</code> if the row is not part of the import data */
+        private List<String> rowCells;
+
+        private String cellType;
+        private boolean isFormula;
+        private boolean hasValue;
+        private boolean isInValue;
+        private boolean isInPhonetic;
+        private final StringBuilder value = new StringBuilder();
+
+        private SheetHandler(ReadOnlySharedStringsTable sharedStrings, int dataStartIndex, int dataRowLength,
+                                                                    Consumer<Pair<Integer, List<String>>> rowHandler) {
+            this.sharedStrings = sharedStrings;
+            this.dataStartIndex = dataStartIndex;
+            this.dataRowLength = dataRowLength;
+            this.rowHandler = rowHandler;
+        }
+
+        @Override
+        public void startElement(String uri, String localName, String qName, Attributes attributes) {
+            switch (localName) {
+                case "row":
+                    final String rowReference = attributes.getValue("r");
+                    rowIndex = rowReference != null ? Integer.parseInt(rowReference) - 1 : rowIndex + 1;
+                    columnIndex = -1;
+                    rowCells = rowIndex >= dataStartIndex ? new ArrayList<>() : null;
+                    break;
+                case "c":
+                    final String cellReference = attributes.getValue("r");
+                    columnIndex = cellReference != null ? new CellReference(cellReference).getCol() : columnIndex + 1;
+                    cellType = attributes.getValue("t");
+                    isFormula = false;
+                    hasValue = false;
+                    value.setLength(0);
+                    break;
+                case "f":
+                    isFormula = true;
+                    break;
+                case "rPh":
+                    isInPhonetic = true;
+                    break;
+                case "v":
+                case "t":
+                    if (!isInPhonetic) {
+                        isInValue = true;
+                        hasValue = true;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void endElement(String uri, String localName, String qName) {
+            switch (localName) {
+                case "v":
+                case "t":
+                    isInValue = false;
+                    break;
+                case "rPh":
+                    isInPhonetic = false;
+                    break;
+                case "c":
+                    if (rowCells != null) {
+                        while (rowCells.size() <= columnIndex) {
+                            rowCells.add(null);
+                        }
+                        rowCells.set(columnIndex, cellValue());
+                    }
+                    break;
+                case "row":
+                    if (rowCells != null) {
+                        final String firstColumnValue = rowCells.isEmpty() ? null : rowCells.get(0);
+                        if (firstColumnValue != null && !firstColumnValue.trim().isEmpty()) {
+                            while (rowCells.size() < dataRowLength) {
+                                rowCells.add(null);
+                            }
+                            rowHandler.accept(new ImmutablePair<Integer, List<String>>(rowIndex + 1, rowCells));
+                        }
+                        rowCells = null;
+                    }
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        @Override
+        public void characters(char[] ch, int start, int length) {
+            if (isInValue && rowCells != null) {
+                value.append(ch, start, length);
+            }
+        }
+
+        private String cellValue() {
+            if (!hasValue) {
+                return null;
+            }
+            final String rawValue = value.toString();
+            if (cellType == null || "n".equals(cellType)) {
+                final double numericValue = Double.parseDouble(rawValue);
+                return isFormula ? Double.toString(numericValue) : ExcelCell.numberAsString(numericValue);
+            }
+            switch (cellType) {
+                case "s":
+                    return sharedStrings.getEntryAt(Integer.parseInt(rawValue));
+                case "inlineStr":
+                case "str":
+                    return rawValue;
+                case "b":
+                    return String.valueOf("1".equals(rawValue));
+                case "e":
+                    return null;
+                default:
+                    throw new UnhandledCaseException();
+            }
         }
-        return result;
     }
 }
@@ -0,0 +1,39 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.dl.common;
+
+import java.util.List;
+import java.util.function.Consumer;
+
+import org.apache.commons.lang3.tuple.Pair;
+
+/**
+ * A source of the import data rows, for example a worksheet being parsed. The rows are pushed to the data loader
+ * one by one, so the import data does not have to be held in memory.
+ */
+@FunctionalInterface
+public interface ImportRowSource {
+    /**
+     * Passes all the rows of the import data to the <code>rowHandler</code>, in the order of the rows.
+     *
+     * @param rowHandler called for each row with the pair of the row number and the list of the cell values
+     */
+    public void forEachRow(Consumer<Pair<Integer, List<String>>> rowHandler);
+}
@@ -20,12 +20,25 @@
 package org.openepics.discs.ccdb.core.ejb;
 
 import java.util.ArrayList;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Consumer;
 
+import javax.annotation.Nullable;
 import javax.ejb.Stateless;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.CacheStoreMode;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Subquery;
 
 import org.openepics.discs.ccdb.model.AuditRecord;
 import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
 
 /**
  * DAO Service for accessing {@link AuditRecord}s
@@ -35,6 +48,9 @@ import org.openepics.discs.ccdb.model.EntityType;
  */
 @Stateless
 public class AuditRecordEJB extends ReadOnlyDAO<AuditRecord> {
+    /** The number of audit records {@link #forEach(AuditRecordFilter, Consumer)} reads with a single query */
+    private static final int READ_BATCH_SIZE = 1000;
+
     /**
      * Queries for list of {@link AuditRecord}s by Entity Id and Entity Type
      *
@@ -51,6 +67,36 @@ public class AuditRecordEJB extends ReadOnlyDAO<AuditRecord> {
         return auditRecords == null ? new ArrayList<AuditRecord>() : auditRecords;
     }
 
+    /**
+     * Queries for the changes recorded after the given audit record, in the order of the transactions that wrote
+     * them.
+     * <p>
+     * The ids are allocated before the transactions commit, so a record with a lower id can become visible after a
+     * record with a higher one. The records are therefore ordered by the id of the PostgreSQL transaction that
+     * wrote them, and only the records of the transactions older than the oldest transaction still in progress are
+     * returned. Every record that becomes visible later belongs to a younger transaction, and is ordered after the
+     * returned ones, so a client that continues after the last returned record does not miss it. A long running
+     * transaction holds back the changes committed after it started until it completes.
+     * </p>
+     *
+     * @param lastId the id of the last audit record already known, <code>0</code> for all the changes
+     * @param maxResults the maximum number of changes to return
+     * @return the list of changes, each an array of the audit record id, {@link EntityType} name, entity id, entity
+     *          key and {@link EntityTypeOperation} name
+     */
+    public List<Object[]> findChangesAfter(long lastId, int maxResults) {
+        @SuppressWarnings("unchecked")
+        final List<Object[]> changes = em.createNativeQuery("SELECT a.id, a.entity_type, a.entity_id, "
+                    + "a.entity_key, a.oper FROM audit_record a "
+                    + "WHERE (a.tx_id, a.id) > (COALESCE((SELECT l.tx_id FROM audit_record l WHERE l.id = ?), 0), ?) "
+                    + "AND a.tx_id < txid_snapshot_xmin(txid_current_snapshot()) "
+                    + "ORDER BY a.tx_id, a.id").
+                setParameter(1, lastId).
+                setParameter(2, lastId).
+                setMaxResults(maxResults).getResultList();
+        return changes;
+    }
+
     @Override
     public AuditRecord findByName(String name) {
         throw new UnsupportedOperationException("findByName method not aplicable to AuditRecord class");
@@ -61,11 +107,100 @@ public class AuditRecordEJB extends ReadOnlyDAO<AuditRecord> {
         return AuditRecord.class;
     }
 
-    /** @return A list of all {@link AuditRecord}s in the database ordered by creation date */
-    public List<AuditRecord> findAllOrdered() {
-        final List<AuditRecord> auditRecords = em.createNamedQuery("AuditRecord.findAll", AuditRecord.class)
-                .getResultList();
+    /**
+     * Queries for a page of the {@link AuditRecord}s, the newest first. The page is located by the id of the last
+     * record of the previous page, so the database does not have to skip all the records before the page.
+     * <p>
+     * The records are ordered by the descending id. If the filter limits the log time, they are ordered by the
+     * descending log time and id instead, so the database reads the records of the time range in the order of the
+     * log time index. The page then starts after the log time and the id of the <code>beforeId</code> record.
+     * </p>
+     *
+     * @param filter the conditions the audit records must meet
+     * @param beforeId the database id before which the page starts, <code>null</code> to start with the newest record
+     * @param offset the number of records to skip before the <code>beforeId</code>
+     * @param maxResults the maximum number of records to return
+     * @return the list of {@link AuditRecord}s, the newest first
+     */
+    public List<AuditRecord> findPage(final AuditRecordFilter filter, final @Nullable Long beforeId,
+            final int offset, final int maxResults) {
+        return createPageQuery(filter, beforeId).setFirstResult(offset).setMaxResults(maxResults).getResultList();
+    }
+
+    /**
+     * Passes all the {@link AuditRecord}s matching the filter to the <code>consumer</code>, the newest first.
+     * <p>
+     * The records are read in batches with the same query as {@link #findPage(AuditRecordFilter, Long, int, int)}
+     * uses, each batch fetched in a single round trip. The method does not run in a transaction, so the records are
+     * detached as soon as their batch is read, and they are not stored in the shared cache. The memory used does not
+     * depend on the number of the records, and a long export is not limited by the transaction timeout.
+     * </p>
+     *
+     * @param filter the conditions the audit records must meet
+     * @param consumer called for each audit record
+     */
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void forEach(final AuditRecordFilter filter, final Consumer<AuditRecord> consumer) {
+        Long beforeId = null;
+        List<AuditRecord> batch;
+        do {
+            batch = createPageQuery(filter, beforeId).
+                    setHint("javax.persistence.cache.storeMode", CacheStoreMode.BYPASS).
+                    setMaxResults(READ_BATCH_SIZE).getResultList();
+            for (final AuditRecord record : batch) {
+                consumer.accept(record);
+                beforeId = record.getId();
+            }
+        } while (batch.size() == READ_BATCH_SIZE);
+    }
 
-        return auditRecords == null ? new ArrayList<AuditRecord>() : auditRecords;
+    private TypedQuery<AuditRecord> createPageQuery(final AuditRecordFilter filter, final @Nullable Long beforeId) {
+        final CriteriaBuilder cb = em.getCriteriaBuilder();
+        final CriteriaQuery<AuditRecord> cq = cb.createQuery(AuditRecord.class);
+        final Root<AuditRecord> root = cq.from(AuditRecord.class);
+
+        final boolean byLogTime = filter.getFrom() != null || filter.getTo() != null;
+        final List<Predicate> predicates = new ArrayList<>();
+        if (beforeId != null && byLogTime) {
+            final Subquery<Date> beforeLogTime = cq.subquery(Date.class);
+            final Root<AuditRecord> before = beforeLogTime.from(AuditRecord.class);
+            beforeLogTime.select(before.<Date>get("logTime")).where(cb.equal(before.get("id"), beforeId));
+            predicates.add(cb.or(cb.lessThan(root.<Date>get("logTime"), beforeLogTime),
+                    cb.and(cb.equal(root.get("logTime"), beforeLogTime),
+                            cb.lessThan(root.<Long>get("id"), beforeId))));
+        } else if (beforeId != null) {
+            predicates.add(cb.lessThan(root.<Long>get("id"), beforeId));
+        }
+        if (filter.getUser() != null) {
+            predicates.add(cb.equal(root.get("user"), filter.getUser()));
+        }
+        if (filter.getOper() != null) {
+            predicates.add(cb.equal(root.get("oper"), filter.getOper()));
+        }
+        if (filter.getEntityType() != null) {
+            predicates.add(cb.equal(root.get("entityType"), filter.getEntityType()));
+        }
+        if (filter.getEntityId() != null) {
+            predicates.add(cb.equal(root.get("entityId"), filter.getEntityId()));
+        }
+        if (filter.getEntityKey() != null) {
+            final String pattern = "%" + filter.getEntityKey().toUpperCase().replace("\\", "\\\\").replace("%", "\\%")
+                    .replace("_", "\\_") + "%";
+            predicates.add(cb.like(cb.upper(root.<String>get("entityKey")), pattern, '\\'));
+        }
+        if (filter.getFrom() != null) {
+            predicates.add(cb.greaterThanOrEqualTo(root.<Date>get("logTime"), filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            predicates.add(cb.lessThan(root.<Date>get("logTime"), filter.getTo()));
+        }
+
+        cq.where(predicates.toArray(new Predicate[predicates.size()]));
+        if (byLogTime) {
+            cq.orderBy(cb.desc(root.get("logTime")), cb.desc(root.get("id")));
+        } else {
+            cq.orderBy(cb.desc(root.get("id")));
+        }
+        return em.createQuery(cq);
     }
 }
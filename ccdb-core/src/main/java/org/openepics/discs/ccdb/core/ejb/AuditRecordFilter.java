@@ -0,0 +1,117 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import java.io.Serializable;
+import java.util.Date;
+import java.util.Objects;
+
+import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
+
+/**
+ * The conditions the {@link AuditRecord}s returned by {@link AuditRecordEJB#findPage(AuditRecordFilter, Long, int,
+ * int)} must meet. A <code>null</code> condition is not applied. Except for the entity name, each condition can be
+ * answered from an index of the <code>audit_record</code> table.
+ */
+public class AuditRecordFilter implements Serializable {
+    private static final long serialVersionUID = 2954380297106377461L;
+
+    private String user;
+    private EntityTypeOperation oper;
+    private EntityType entityType;
+    private Long entityId;
+    private String entityKey;
+    private Date from;
+    private Date to;
+
+    /** @return the exact name of the user who made the change */
+    public String getUser() {
+        return user;
+    }
+    public void setUser(String user) {
+        this.user = user;
+    }
+
+    /** @return the operation */
+    public EntityTypeOperation getOper() {
+        return oper;
+    }
+    public void setOper(EntityTypeOperation oper) {
+        this.oper = oper;
+    }
+
+    /** @return the type of the changed entity */
+    public EntityType getEntityType() {
+        return entityType;
+    }
+    public void setEntityType(EntityType entityType) {
+        this.entityType = entityType;
+    }
+
+    /** @return the database id of the changed entity */
+    public Long getEntityId() {
+        return entityId;
+    }
+    public void setEntityId(Long entityId) {
+        this.entityId = entityId;
+    }
+
+    /** @return a part of the name of the changed entity, case insensitive */
+    public String getEntityKey() {
+        return entityKey;
+    }
+    public void setEntityKey(String entityKey) {
+        this.entityKey = entityKey;
+    }
+
+    /** @return the earliest time of the change, inclusive */
+    public Date getFrom() {
+        return from;
+    }
+    public void setFrom(Date from) {
+        this.from = from;
+    }
+
+    /** @return the latest time of the change, exclusive */
+    public Date getTo() {
+        return to;
+    }
+    public void setTo(Date to) {
+        this.to = to;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(user, oper, entityType, entityId, entityKey, from, to);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof AuditRecordFilter)) {
+            return false;
+        }
+        final AuditRecordFilter other = (AuditRecordFilter) object;
+        return Objects.equals(user, other.user) && oper == other.oper && entityType == other.entityType
+                && Objects.equals(entityId, other.entityId) && Objects.equals(entityKey, other.entityKey)
+                && Objects.equals(from, other.from) && Objects.equals(to, other.to);
+    }
+}
@@ -23,6 +23,7 @@ import java.util.Date;
 import java.util.List;
 
 import javax.inject.Inject;
+import javax.persistence.Query;
 
 import org.openepics.discs.ccdb.core.auditlog.Audit;
 import org.openepics.discs.ccdb.core.auditlog.AuditLogEntryCreator;
@@ -33,6 +34,7 @@ import org.openepics.discs.ccdb.model.EntityWithArtifacts;
 import org.openepics.discs.ccdb.model.EntityWithProperties;
 import org.openepics.discs.ccdb.model.Property;
 import org.openepics.discs.ccdb.model.PropertyValue;
+import org.openepics.discs.ccdb.model.valueconverters.SedsConverters;
 import org.openepics.discs.ccdb.model.values.Value;
 import org.openepics.discs.ccdb.core.security.Authorized;
 import org.openepics.discs.ccdb.core.util.CRUDOperation;
@@ -53,10 +55,11 @@ import com.google.common.base.Preconditions;
  * @param <T> The entity type for which this DAO is defined.
  */
 public abstract class DAO<T> extends ReadOnlyDAO<T> {
-    private static final String PROPERTY_PARAM = "property";
-    private static final String PROPERTY_VALUE_PARAM = "propValue";
+    private static final String SAME_PROPERTY_VALUE_QUERY = "SELECT id FROM %s "
+            + "WHERE property = ? AND prop_value IN (?, ?) LIMIT 2";
 
     @Inject private AuditLogEntryCreator auditLogEntryCreator;
+    @Inject private HierarchySnapshot hierarchySnapshot;
 
     /**
      * Adds a new entity to the database
@@ -228,27 +231,39 @@ public abstract class DAO<T> extends ReadOnlyDAO<T> {
             return true;
         }
 
-        List<PropertyValue> results = em.createNamedQuery("ComptypePropertyValue.findSamePropertyValue",
-                                                        PropertyValue.class)
-                    .setParameter(PROPERTY_PARAM, property)
-                    .setParameter(PROPERTY_VALUE_PARAM, value).setMaxResults(2).getResultList();
-        // value is unique if there is no property value with the same value, or the only one found us the entity itself
-        boolean valueUnique = (results.size() < 2) && (results.isEmpty() || results.get(0).equals(child));
-        if (valueUnique) {
-            results = em.createNamedQuery("SlotPropertyValue.findSamePropertyValue", PropertyValue.class)
-                        .setParameter(PROPERTY_PARAM, property)
-                        .setParameter(PROPERTY_VALUE_PARAM, value).setMaxResults(2).getResultList();
-            // value is unique if there is no same property value, or the only one found us the entity itself
-            valueUnique = (results.size() < 2) && (results.isEmpty() || results.get(0).equals(child));
-        }
-        if (valueUnique) {
-            results = em.createNamedQuery("DevicePropertyValue.findSamePropertyValue", PropertyValue.class)
-                        .setParameter(PROPERTY_PARAM, property)
-                        .setParameter(PROPERTY_VALUE_PARAM, value).setMaxResults(2).getResultList();
-            // value is unique if there is no same property value, or the only one found us the entity itself
-            valueUnique = (results.size() < 2) && (results.isEmpty() || results.get(0).equals(child));
+        return isOnlyPropertyValue(child, String.format(SAME_PROPERTY_VALUE_QUERY, "comptype_property_value"),
+                                        property.getId())
+                && isOnlyPropertyValue(child, String.format(SAME_PROPERTY_VALUE_QUERY, "slot_property_value"),
+                                        property.getId())
+                && isOnlyPropertyValue(child, String.format(SAME_PROPERTY_VALUE_QUERY, "device_property_value"),
+                                        property.getId());
+    }
+
+    /**
+     * Checks whether the property value is the only one with its value found by a native query. The value is matched
+     * in all the formats it can be stored in, since the rows stored as SEDS are only rewritten in the binary format
+     * after it is enabled, see {@link SedsConverters#convertToDatabaseColumns(Value)}.
+     *
+     * @param child the property value to check, with a non-<code>null</code> value
+     * @param sql the native query selecting the ids of at most two rows, ending with a
+     * <code>prop_value IN (?, ?)</code> condition
+     * @param parameters the values of the query parameters before the <code>prop_value</code> ones
+     * @return <code>true</code> if no row holds the same value, or the only one found is the entity itself
+     */
+    protected boolean isOnlyPropertyValue(PropertyValue child, String sql, Object... parameters) {
+        final List<String> encodedValues = SedsConverters.convertToDatabaseColumns(child.getPropValue());
+        final Query query = em.createNativeQuery(sql);
+        int position = 1;
+        for (final Object parameter : parameters) {
+            query.setParameter(position++, parameter);
         }
-        return valueUnique;
+        query.setParameter(position++, encodedValues.get(0));
+        query.setParameter(position, encodedValues.get(encodedValues.size() - 1));
+
+        final List<?> ids = query.getResultList();
+        // value is unique if there is no property value with the same value, or the only one found us the entity itself
+        return ids.size() < 2 && (ids.isEmpty()
+                                    || child.getId() != null && ((Number) ids.get(0)).longValue() == child.getId());
     }
 
     /** Create an explicit audit log entry for the database entity.
@@ -265,5 +280,6 @@ public abstract class DAO<T> extends ReadOnlyDAO<T> {
 
             em.persist(auditRecord);
         }
+        hierarchySnapshot.entityModified(entity, operation);
     }
 }
@@ -0,0 +1,141 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Date;
+
+import javax.annotation.Nullable;
+
+import org.openepics.discs.ccdb.model.ConfigurationEntity;
+import org.openepics.discs.ccdb.model.SlotPair;
+
+import com.google.common.hash.Hashing;
+
+/**
+ * The version of a part of the database, as computed by {@link DataVersionEJB} for whole tables, or by the
+ * {@link Builder} from the entities of a single item. It is used to validate the copies of the data that clients
+ * already have, for instance with the HTTP conditional requests.
+ */
+public class DataVersion {
+    private final Date lastModified;
+    private final long count;
+    private final long stamp;
+
+    /**
+     * @param lastModified the time of the last modification, <code>null</code> if the data was never modified
+     * @param count the number of entities
+     * @param stamp a number that changes with every change of the data, e.g. the id of the last audit record
+     */
+    public DataVersion(@Nullable Date lastModified, long count, long stamp) {
+        // the HTTP dates have the precision of a second
+        this.lastModified = new Date(lastModified == null ? 0L : lastModified.getTime() / 1000L * 1000L);
+        this.count = count;
+        this.stamp = stamp;
+    }
+
+    /** @return the time of the last modification, truncated to seconds */
+    public Date getLastModified() {
+        return new Date(lastModified.getTime());
+    }
+
+    /** @return the number of entities */
+    public long getCount() {
+        return count;
+    }
+
+    /** @return the number that changes with every change of the data */
+    public long getStamp() {
+        return stamp;
+    }
+
+    /**
+     * Computes a tag identifying this version of the data in a specific representation, e.g. a response to a
+     * specific request.
+     *
+     * @param variant the identification of the representation of the data
+     * @return the tag, different for each version and variant
+     */
+    public String getTag(String variant) {
+        return Hashing.murmur3_128().newHasher().
+                    putString(variant, StandardCharsets.UTF_8).
+                    putLong(lastModified.getTime()).
+                    putLong(count).
+                    putLong(stamp).
+                    hash().toString();
+    }
+
+    /**
+     * Computes the version of a single item from the entities it is built from, without querying the whole tables.
+     * Every update of an entity increments its optimistic locking version, and an added or removed entity changes
+     * the set of the ids, so both change the stamp. The stamp does not depend on the order of the entities.
+     */
+    public static class Builder {
+        private long lastModified;
+        private long count;
+        private long stamp;
+
+        /**
+         * @param entity an entity the item is built from, ignored if <code>null</code>
+         * @return this builder
+         */
+        public Builder add(@Nullable ConfigurationEntity entity) {
+            if (entity != null) {
+                lastModified = Math.max(lastModified, entity.getModifiedAt().getTime());
+                addStamp(entity.getId(), entity.getVersion());
+            }
+            return this;
+        }
+
+        /**
+         * @param entities the entities the item is built from
+         * @return this builder
+         */
+        public Builder addAll(Collection<? extends ConfigurationEntity> entities) {
+            entities.forEach(this::add);
+            return this;
+        }
+
+        /**
+         * @param pair a relationship the item is built from, ignored if <code>null</code>
+         * @return this builder
+         */
+        public Builder add(@Nullable SlotPair pair) {
+            if (pair != null) {
+                addStamp(pair.getId(), pair.getVersion());
+            }
+            return this;
+        }
+
+        private void addStamp(Long id, Long version) {
+            count++;
+            stamp += Hashing.murmur3_128().newHasher().
+                        putLong(id == null ? 0L : id).
+                        putLong(version == null ? 0L : version).
+                        hash().asLong();
+        }
+
+        /** @return the version of the added entities */
+        public DataVersion build() {
+            return new DataVersion(count > 0 ? new Date(lastModified) : null, count, stamp);
+        }
+    }
+}
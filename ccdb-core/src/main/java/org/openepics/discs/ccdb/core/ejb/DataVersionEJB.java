@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import java.util.Date;
+
+import javax.annotation.Nullable;
+import javax.ejb.Stateless;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.ConfigurationEntity;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Computes the {@link DataVersion} of the database entities. The version is computed with aggregate queries only,
+ * so it is much cheaper to obtain than the entities themselves.
+ */
+@Stateless
+public class DataVersionEJB {
+    @PersistenceContext private EntityManager em;
+
+    /**
+     * Computes the version of the data of the given entity types. The version changes when an entity of the given
+     * types is added, modified or removed, and also with every change recorded in the audit log.
+     *
+     * @param entityClasses the types of the entities the data consists of
+     * @return the version of the data
+     */
+    public DataVersion getDataVersion(Class<?>... entityClasses) {
+        Preconditions.checkArgument(entityClasses.length > 0);
+        Date lastModified = null;
+        long count = 0;
+        for (final Class<?> entityClass : entityClasses) {
+            Preconditions.checkArgument(ConfigurationEntity.class.isAssignableFrom(entityClass));
+            final Object[] summary = em.createQuery("SELECT MAX(e.modifiedAt), COUNT(e) FROM "
+                                        + entityClass.getSimpleName() + " e", Object[].class).getSingleResult();
+            lastModified = later(lastModified, (Date) summary[0]);
+            count += ((Number) summary[1]).longValue();
+        }
+
+        final Object[] lastAudit = em.createQuery("SELECT MAX(a.id), MAX(a.logTime) FROM "
+                                        + AuditRecord.class.getSimpleName() + " a", Object[].class).getSingleResult();
+        lastModified = later(lastModified, (Date) lastAudit[1]);
+        return new DataVersion(lastModified, count, lastAudit[0] != null ? (Long) lastAudit[0] : 0L);
+    }
+
+    private static Date later(@Nullable Date first, @Nullable Date second) {
+        if (first == null) {
+            return second;
+        }
+        return second != null && second.after(first) ? second : first;
+    }
+}
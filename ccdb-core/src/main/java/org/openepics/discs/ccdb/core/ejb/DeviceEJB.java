@@ -262,12 +262,8 @@ public class DeviceEJB extends DAO<Device> {
         if (value == null) {
             return true;
         }
-        final List<PropertyValue> results = em.createNamedQuery("DevicePropertyValue.findSamePropertyValueByType",
-                                                        PropertyValue.class)
-                    .setParameter("componentType", parent.getComponentType())
-                    .setParameter("property", child.getProperty())
-                    .setParameter("propValue", value).setMaxResults(2).getResultList();
-        // value is unique if there is no property value with the same value, or the only one found us the entity itself
-        return (results.size() < 2) && (results.isEmpty() || results.get(0).equals(child));
+        return isOnlyPropertyValue(child, "SELECT v.id FROM device_property_value v JOIN device p ON p.id = v.device "
+                + "WHERE p.component_type = ? AND v.property = ? AND v.prop_value IN (?, ?) LIMIT 2",
+                parent.getComponentType().getId(), child.getProperty().getId());
     }
 }
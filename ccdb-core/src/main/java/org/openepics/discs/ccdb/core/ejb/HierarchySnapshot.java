@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Singleton;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.FlushModeType;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.openepics.discs.ccdb.model.Artifact;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
+import org.openepics.discs.ccdb.model.InstallationRecord;
+import org.openepics.discs.ccdb.model.PropertyValue;
+import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotPair;
+import org.openepics.discs.ccdb.model.SlotRelationName;
+
+/**
+ * An application wide, versioned snapshot of the slot hierarchies. It holds the immutable {@link SlotSummary} lists
+ * of the children of each slot, loaded on demand by {@link SlotEJB#findChildSummaries(Long, SlotRelationName)} and
+ * shared by all the views, so a level of a hierarchy is loaded once per change instead of once per view.
+ * <p>
+ * The DAOs report every modification through {@link #entityModified(Object, EntityTypeOperation)}. When the
+ * transaction commits, the levels showing the modified slots or the child counts of their parents are removed from
+ * the snapshot and the version is increased. A level is also reloaded after {@link #LEVEL_TIME_TO_LIVE}, which
+ * covers the modifications made outside this application instance.
+ * </p>
+ * The {@link SlotSummary} objects, including the installed devices they reference, are shared and must not be
+ * modified.
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class HierarchySnapshot {
+    /** The time in milliseconds after which a level is reloaded from the database */
+    public static final long LEVEL_TIME_TO_LIVE = 60000L;
+
+    private static final String TRANSACTION_CHANGES_KEY = HierarchySnapshot.class.getName() + ".changes";
+
+    @PersistenceContext private EntityManager em;
+    @Resource private TransactionSynchronizationRegistry transactionRegistry;
+    @Inject private SlotEJB slotEJB;
+
+    private final Map<SlotRelationName, ConcurrentMap<Long, Level>> levels = new ConcurrentHashMap<>();
+    private final AtomicLong version = new AtomicLong();
+
+    private static class Level {
+        private final List<SlotSummary> children;
+        private final long loadedAt;
+
+        private Level(List<SlotSummary> children) {
+            this.children = children;
+            this.loadedAt = System.currentTimeMillis();
+        }
+
+        private boolean isFresh() {
+            return System.currentTimeMillis() - loadedAt < LEVEL_TIME_TO_LIVE;
+        }
+    }
+
+    /** The changes of the snapshot recorded in a transaction, applied when the transaction commits */
+    private static class TransactionChanges {
+        private final Set<Long> slotIds = new HashSet<>();
+        private boolean clearAll;
+    }
+
+    /**
+     * Returns the summaries of the children of a slot in the given hierarchy, loading them if they are not in the
+     * snapshot.
+     *
+     * @param parentId the database id of the parent {@link Slot}
+     * @param relationName the hierarchy
+     * @return the unmodifiable list of the summaries of the children, in the order of the relationships
+     */
+    public List<SlotSummary> getChildSummaries(final Long parentId, final SlotRelationName relationName) {
+        final ConcurrentMap<Long, Level> relationLevels = levels.computeIfAbsent(relationName,
+                                                                        name -> new ConcurrentHashMap<>());
+        final Level level = relationLevels.get(parentId);
+        if (level != null && level.isFresh()) {
+            return level.children;
+        }
+
+        // a level loaded while a modification is being committed may already be stale, so it is not kept
+        final long loadedVersion = version.get();
+        final List<SlotSummary> children = Collections.unmodifiableList(
+                                                        slotEJB.findChildSummaries(parentId, relationName));
+        if (version.get() == loadedVersion) {
+            relationLevels.put(parentId, new Level(children));
+        }
+        return children;
+    }
+
+    /**
+     * Records a modification made in the current transaction. The affected levels are removed from the snapshot
+     * once the transaction commits: the children of the modified slots and the levels in which the modified slots
+     * are shown. The modifications of the property values and artifacts do not affect the snapshot, and any other
+     * modification the affected levels can not be determined for clears the whole snapshot, also only once the
+     * transaction commits. Outside of a transaction the modification is already committed and the whole snapshot is
+     * cleared at once.
+     *
+     * @param entity the modified entity
+     * @param operation the type of the modification
+     */
+    public void entityModified(final Object entity, final EntityTypeOperation operation) {
+        if (entity instanceof PropertyValue || entity instanceof Artifact) {
+            return;
+        }
+
+        final Set<Long> slotIds = new HashSet<>();
+        if (entity instanceof Slot && operation != EntityTypeOperation.DELETE) {
+            slotIds.add(((Slot) entity).getId());
+        } else if (entity instanceof SlotPair) {
+            slotIds.add(((SlotPair) entity).getParentSlot().getId());
+            slotIds.add(((SlotPair) entity).getChildSlot().getId());
+        } else if (entity instanceof InstallationRecord && ((InstallationRecord) entity).getSlot() != null) {
+            slotIds.add(((InstallationRecord) entity).getSlot().getId());
+        }
+
+        if (transactionRegistry.getTransactionKey() == null) {
+            clear();
+            return;
+        }
+
+        final TransactionChanges changes = getTransactionChanges();
+        if (slotIds.isEmpty()) {
+            changes.clearAll = true;
+        }
+        if (changes.clearAll) {
+            return;
+        }
+        // the parents show the modified slots, and the grandparents show the child counts of the parents
+        final Set<Long> parentIds = findParentIds(slotIds);
+        slotIds.addAll(parentIds);
+        slotIds.addAll(findParentIds(parentIds));
+        changes.slotIds.addAll(slotIds);
+    }
+
+    private TransactionChanges getTransactionChanges() {
+        TransactionChanges changes = (TransactionChanges) transactionRegistry.getResource(TRANSACTION_CHANGES_KEY);
+        if (changes == null) {
+            changes = new TransactionChanges();
+            transactionRegistry.putResource(TRANSACTION_CHANGES_KEY, changes);
+            final TransactionChanges committedChanges = changes;
+            transactionRegistry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // the snapshot is only changed after the transaction commits
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != Status.STATUS_COMMITTED) {
+                        return;
+                    }
+                    if (committedChanges.clearAll) {
+                        clear();
+                    } else {
+                        invalidate(committedChanges.slotIds);
+                    }
+                }
+            });
+        }
+        return changes;
+    }
+
+    /**
+     * Finds the parents of the slots in the database. The query does not flush the persistence context, so it does
+     * not write the entities in the middle of the operation that is being recorded. The relationships created in the
+     * current transaction and not flushed yet are not found, but they are recorded by their own modifications.
+     */
+    private Set<Long> findParentIds(final Set<Long> slotIds) {
+        if (slotIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        return new HashSet<>(em.createNamedQuery("SlotPair.findParentIdsOfSlots", Long.class).
+                                                        setParameter("slotIds", slotIds).
+                                                        setFlushMode(FlushModeType.COMMIT).getResultList());
+    }
+
+    private void invalidate(final Set<Long> parentIds) {
+        version.incrementAndGet();
+        for (final ConcurrentMap<Long, Level> relationLevels : levels.values()) {
+            relationLevels.keySet().removeAll(parentIds);
+        }
+    }
+
+    /** Removes all the levels from the snapshot. */
+    public void clear() {
+        version.incrementAndGet();
+        levels.clear();
+    }
+
+    /** @return the version of the snapshot, increased on every change */
+    public long getVersion() {
+        return version.get();
+    }
+
+    /** @return the number of levels in the snapshot */
+    public int getSize() {
+        int size = 0;
+        for (final ConcurrentMap<Long, Level> relationLevels : levels.values()) {
+            size += relationLevels.size();
+        }
+        return size;
+    }
+}
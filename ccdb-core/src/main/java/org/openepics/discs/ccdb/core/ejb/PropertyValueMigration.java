@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import javax.annotation.Resource;
+import javax.ejb.ConcurrencyManagement;
+import javax.ejb.ConcurrencyManagementType;
+import javax.ejb.Schedule;
+import javax.ejb.SessionContext;
+import javax.ejb.Singleton;
+import javax.ejb.TransactionAttribute;
+import javax.ejb.TransactionAttributeType;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.openepics.discs.ccdb.model.PropertyValue;
+import org.openepics.discs.ccdb.model.valueconverters.SedsConverters;
+import org.openepics.discs.ccdb.model.valueconverters.ValueConverter;
+import org.openepics.discs.ccdb.model.values.Value;
+
+/**
+ * Rewrites the {@link PropertyValue}s stored as SEDS JSON in the compact binary format, while the application is
+ * running.
+ * <p>
+ * The migration only runs if the values are stored in the {@link ValueConverter.StorageFormat#BINARY} format. A timer
+ * rewrites the remaining SEDS rows of all the property value tables in batches, each batch in its own transaction.
+ * A row is only rewritten if it was not modified since it was read, a row modified in the meantime is already stored
+ * in the binary format. The rewritten values are equal to the old ones, so no audit records are created.
+ * </p>
+ * <p>
+ * The rows whose SEDS text is shorter than the binary encoding are left as they are. A row that can not be decoded
+ * is left as it is as well, and its id is recorded in {@link #getFailedRows()}, so the migration continues with the
+ * next row instead of failing the batch on the same row every time it runs.
+ * </p>
+ */
+@Singleton
+@ConcurrencyManagement(ConcurrencyManagementType.BEAN)
+public class PropertyValueMigration {
+    private static final Logger LOGGER = Logger.getLogger(PropertyValueMigration.class.getCanonicalName());
+
+    private static final int BATCH_SIZE = 500;
+    private static final String[] TABLES = { "comptype_property_value", "slot_property_value",
+                                                "device_property_value", "alignment_property_value" };
+
+    @PersistenceContext private EntityManager em;
+    @Resource private SessionContext sessionContext;
+
+    private final Lock migrationLock = new ReentrantLock();
+    private final AtomicLong migratedRows = new AtomicLong();
+    private final Set<String> failedRows = ConcurrentHashMap.newKeySet();
+    private volatile boolean completed;
+
+    /**
+     * Rewrites all the remaining SEDS encoded property values in the binary format. Does nothing if the values are
+     * stored as SEDS, if the migration already completed or if it is already running.
+     */
+    @Schedule(hour = "*", minute = "*/5", persistent = false)
+    @TransactionAttribute(TransactionAttributeType.NOT_SUPPORTED)
+    public void migrate() {
+        if (completed || ValueConverter.getStorageFormat() != ValueConverter.StorageFormat.BINARY
+                || !migrationLock.tryLock()) {
+            return;
+        }
+        try {
+            final PropertyValueMigration migration = sessionContext.getBusinessObject(PropertyValueMigration.class);
+            for (final String table : TABLES) {
+                final long previouslyMigrated = migratedRows.get();
+                long lastId = 0;
+                long batchLastId;
+                while ((batchLastId = migration.migrateBatch(table, lastId)) > lastId) {
+                    lastId = batchLastId;
+                }
+                final long tableRows = migratedRows.get() - previouslyMigrated;
+                if (tableRows > 0) {
+                    LOGGER.log(Level.INFO, tableRows + " property values in '" + table
+                                                            + "' rewritten in the binary format.");
+                }
+            }
+            completed = true;
+            LOGGER.log(Level.INFO, "Property value migration completed, " + migratedRows.get() + " rows rewritten, "
+                                                            + failedRows.size() + " rows could not be decoded.");
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Property value migration failed, it will be retried.", e);
+        } finally {
+            migrationLock.unlock();
+        }
+    }
+
+    /**
+     * Rewrites a batch of SEDS encoded property values in a new transaction.
+     *
+     * @param table the name of the property value table
+     * @param afterId only the rows with a greater database id are rewritten
+     * @return the database id of the last row in the batch, or <code>afterId</code> if there are no rows left
+     */
+    @TransactionAttribute(TransactionAttributeType.REQUIRES_NEW)
+    public long migrateBatch(String table, long afterId) {
+        @SuppressWarnings("unchecked")
+        final List<Object[]> rows = em.createNativeQuery("SELECT id, prop_value FROM " + table
+                + " WHERE id > ? AND prop_value LIKE '{%' ORDER BY id LIMIT " + BATCH_SIZE)
+                .setParameter(1, afterId).getResultList();
+
+        long lastId = afterId;
+        for (final Object[] row : rows) {
+            final long id = ((Number) row[0]).longValue();
+            final String sedsData = (String) row[1];
+            lastId = id;
+            final String dbData;
+            try {
+                final Value value = ValueConverter.convertToEntityAttribute(sedsData);
+                dbData = SedsConverters.convertToDatabaseColumn(value);
+            } catch (RuntimeException e) {
+                failedRows.add(table + ':' + id);
+                LOGGER.log(Level.WARNING, "Property value " + id + " in '" + table + "' could not be decoded, "
+                                                                                        + "it is left unchanged.", e);
+                continue;
+            }
+            if (dbData.equals(sedsData)) {
+                continue;
+            }
+            final int updated = em.createNativeQuery("UPDATE " + table + " SET prop_value = ? "
+                    + "WHERE id = ? AND prop_value = ?")
+                    .setParameter(1, dbData)
+                    .setParameter(2, id)
+                    .setParameter(3, sedsData).executeUpdate();
+            migratedRows.addAndGet(updated);
+        }
+        return lastId;
+    }
+
+    /** @return <code>true</code> if the migration went through all the property values */
+    public boolean isCompleted() {
+        return completed;
+    }
+
+    /**
+     * @return the property values that could not be decoded, as the table name and the database id separated by
+     *          <code>:</code>
+     */
+    public Set<String> getFailedRows() {
+        return Collections.unmodifiableSet(failedRows);
+    }
+
+    /** @return the number of property values rewritten since the application was started */
+    public long getMigratedRows() {
+        return migratedRows.get();
+    }
+}
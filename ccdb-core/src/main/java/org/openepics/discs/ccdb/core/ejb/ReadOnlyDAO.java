@@ -20,6 +20,7 @@
 package org.openepics.discs.ccdb.core.ejb;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 
 import javax.inject.Inject;
@@ -27,6 +28,9 @@ import javax.persistence.EntityManager;
 import javax.persistence.NoResultException;
 import javax.persistence.PersistenceContext;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+
+import com.google.common.collect.Iterables;
 
 /**
  * Abstract generic DAO used for all entities.
@@ -37,6 +41,9 @@ import javax.persistence.criteria.CriteriaQuery;
  * @param <T> The entity type for which this DAO is defined.
  */
 public abstract class ReadOnlyDAO<T> {
+    /** The maximum number of names in a single <code>IN</code> clause */
+    private static final int NAMES_QUERY_BATCH_SIZE = 1000;
+
     @Inject protected ConfigurationEntityUtility entityUtility;
     @PersistenceContext protected EntityManager em;
 
@@ -71,6 +78,24 @@ public abstract class ReadOnlyDAO<T> {
         }
     }
 
+    /**
+     * Finds all entities with any of the given names in as few queries as possible. The entity must have a
+     * <code>name</code> attribute.
+     *
+     * @param names the names of the searched entities
+     * @return the {@link List} of entities found. Names without a matching entity are ignored.
+     */
+    public List<T> findByNames(Collection<String> names) {
+        final List<T> result = new ArrayList<>();
+        for (final List<String> namesBatch : Iterables.partition(names, NAMES_QUERY_BATCH_SIZE)) {
+            final CriteriaQuery<T> cq = em.getCriteriaBuilder().createQuery(getEntityClass());
+            final Root<T> root = cq.from(getEntityClass());
+            cq.where(root.get("name").in(namesBatch));
+            result.addAll(em.createQuery(cq).getResultList());
+        }
+        return result;
+    }
+
     /**
      * Returns all entities of the type in the database
      *
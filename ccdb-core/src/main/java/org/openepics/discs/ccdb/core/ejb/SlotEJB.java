@@ -22,14 +22,17 @@ package org.openepics.discs.ccdb.core.ejb;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 import javax.annotation.Nullable;
 import javax.ejb.Stateless;
 import javax.inject.Inject;
 import javax.persistence.PersistenceException;
+import javax.persistence.TypedQuery;
 
 import org.openepics.discs.ccdb.core.auditlog.Audit;
 import org.openepics.discs.conf.dl.SlotsDataLoader;
@@ -39,9 +42,11 @@ import org.openepics.discs.ccdb.model.Artifact;
 import org.openepics.discs.ccdb.model.ComponentType;
 import org.openepics.discs.ccdb.model.ComptypeArtifact;
 import org.openepics.discs.ccdb.model.ComptypePropertyValue;
+import org.openepics.discs.ccdb.model.Device;
 import org.openepics.discs.ccdb.model.DeviceArtifact;
 import org.openepics.discs.ccdb.model.DevicePropertyValue;
 import org.openepics.discs.ccdb.model.EntityTypeOperation;
+import org.openepics.discs.ccdb.model.InstallationRecord;
 import org.openepics.discs.ccdb.model.Property;
 import org.openepics.discs.ccdb.model.PropertyValue;
 import org.openepics.discs.ccdb.model.PropertyValueUniqueness;
@@ -98,7 +103,7 @@ public class SlotEJB extends DAO<Slot> {
      * @return the implicit root {@link Slot} of the contains hierarchy
      */
     public Slot getRootNode() {
-        ComponentType rootComponentType = comptypeEJB.findByName(ROOT_COMPONENT_TYPE);
+        final ComponentType rootComponentType = comptypeEJB.findByName(ROOT_COMPONENT_TYPE);
         return em.createNamedQuery("Slot.findByComponentType", Slot.class)
                 .setParameter("componentType", rootComponentType).getSingleResult();
     }
@@ -128,6 +133,178 @@ public class SlotEJB extends DAO<Slot> {
                 .setParameter("componentType", componentType).getResultList();
     }
 
+    /**
+     * A page of the installation {@link Slot}s ordered by their database id. The page starts after the
+     * <code>lastId</code>, so the caller can continue from the last slot of the previous page without the database
+     * having to skip over all the preceding rows.
+     *
+     * @param componentType if not <code>null</code>, only the slots of this {@link ComponentType} are returned,
+     *          otherwise all the hosting slots
+     * @param lastId the database id after which the page starts, <code>null</code> to start at the beginning
+     * @param offset the number of slots to skip after the <code>lastId</code>
+     * @param maxResults the maximum number of slots to return
+     * @return the page of slots, an empty list if there are no more slots
+     */
+    public List<Slot> findHostingSlotsPage(final @Nullable ComponentType componentType, final @Nullable Long lastId,
+            final int offset, final int maxResults) {
+        final TypedQuery<Slot> query;
+        if (componentType == null) {
+            query = em.createNamedQuery("Slot.findHostingAfterId", Slot.class);
+        } else {
+            query = em.createNamedQuery("Slot.findByComponentTypeAfterId", Slot.class).
+                        setParameter("componentType", componentType);
+        }
+        return query.setParameter("lastId", lastId != null ? lastId : Long.MIN_VALUE).
+                    setFirstResult(offset).setMaxResults(maxResults).getResultList();
+    }
+
+    /**
+     * A page of the installation {@link Slot}s, as returned by
+     * {@link #findHostingSlotsPage(ComponentType, Long, int, int)}, together with the data fetched by
+     * {@link #fetchPage(List, boolean, boolean)}. Both are fetched in the same transaction, so the references
+     * between the fetched entities are resolved without additional queries.
+     *
+     * @param componentType if not <code>null</code>, only the slots of this {@link ComponentType} are returned,
+     *          otherwise all the hosting slots
+     * @param lastId the database id after which the page starts, <code>null</code> to start at the beginning
+     * @param offset the number of slots to skip after the <code>lastId</code>
+     * @param maxResults the maximum number of slots to return
+     * @param withRelations <code>true</code> if the relationships of the slots should be fetched
+     * @param withProperties <code>true</code> if the property values should be fetched
+     * @return the page with the fetched data
+     */
+    public SlotPage findHostingSlotsPage(final @Nullable ComponentType componentType, final @Nullable Long lastId,
+            final int offset, final int maxResults, final boolean withRelations, final boolean withProperties) {
+        return fetchPage(findHostingSlotsPage(componentType, lastId, offset, maxResults), withRelations,
+                withProperties);
+    }
+
+    /**
+     * Fetches the relationships, property values and active installation records of a page of slots with a fixed
+     * number of bulk queries, independent of the number of slots in the page: one for the relationships, and four
+     * for the slot property values, the device type property values, the active installation records and the
+     * property values of the installed devices.
+     *
+     * @param slots the slots of the page
+     * @param withRelations <code>true</code> if the relationships of the slots should be fetched
+     * @param withProperties <code>true</code> if the property values should be fetched
+     * @return the page with the fetched data
+     */
+    public SlotPage fetchPage(final List<Slot> slots, final boolean withRelations, final boolean withProperties) {
+        final SlotPage page = new SlotPage(slots);
+        if (slots.isEmpty()) {
+            return page;
+        }
+
+        if (withRelations) {
+            for (final SlotPair pair : em.createNamedQuery("SlotPair.findPairsOfSlots", SlotPair.class).
+                                            setParameter("slots", slots).getResultList()) {
+                page.getPairsByParent().computeIfAbsent(pair.getParentSlot().getId(), id -> new ArrayList<>()).
+                                            add(pair);
+                page.getPairsByChild().computeIfAbsent(pair.getChildSlot().getId(), id -> new ArrayList<>()).
+                                            add(pair);
+            }
+        }
+
+        if (withProperties) {
+            for (final SlotPropertyValue value : em.createNamedQuery("SlotPropertyValue.findBySlots",
+                                    SlotPropertyValue.class).setParameter("slots", slots).getResultList()) {
+                page.getSlotPropertiesBySlot().computeIfAbsent(value.getSlot().getId(), id -> new ArrayList<>()).
+                                            add(value);
+            }
+
+            final List<ComponentType> componentTypes = slots.stream().map(Slot::getComponentType).distinct().
+                                            collect(Collectors.toList());
+            for (final ComptypePropertyValue value : em.createNamedQuery(
+                                    "ComptypePropertyValue.findValuesByComponentTypes", ComptypePropertyValue.class).
+                                    setParameter("componentTypes", componentTypes).getResultList()) {
+                page.getTypePropertiesByType().computeIfAbsent(value.getComponentType().getId(),
+                                            id -> new ArrayList<>()).add(value);
+            }
+
+            final List<Device> devices = new ArrayList<>();
+            for (final InstallationRecord record : em.createNamedQuery("InstallationRecord.activeRecordsForSlots",
+                                    InstallationRecord.class).setParameter("slots", slots).getResultList()) {
+                page.getInstallationsBySlot().put(record.getSlot().getId(), record);
+                devices.add(record.getDevice());
+            }
+
+            if (!devices.isEmpty()) {
+                for (final DevicePropertyValue value : em.createNamedQuery("DevicePropertyValue.findByDevices",
+                                    DevicePropertyValue.class).setParameter("devices", devices).getResultList()) {
+                    page.getDevicePropertiesByDevice().computeIfAbsent(value.getDevice().getId(),
+                                            id -> new ArrayList<>()).add(value);
+                }
+            }
+        }
+        return page;
+    }
+
+    /**
+     * Loads the summaries of all the children of a slot in the given hierarchy with three queries, independent of
+     * the number of children: one for the children, one for the number of their own children and one for their
+     * installed devices.
+     *
+     * @param parentId the database id of the parent {@link Slot}
+     * @param relationName the hierarchy to load the children for
+     * @return the summaries of the children, in the order of the relationships
+     */
+    public List<SlotSummary> findChildSummaries(final Long parentId, final SlotRelationName relationName) {
+        final List<Object[]> children = em.createNamedQuery("SlotPair.findChildSummaries", Object[].class).
+                                    setParameter("parentId", parentId).
+                                    setParameter("relationName", relationName).getResultList();
+        if (children.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        final Map<Long, Long> childCounts = new HashMap<>();
+        for (final Object[] row : em.createNamedQuery("SlotPair.countGrandchildren", Object[].class).
+                                    setParameter("parentId", parentId).
+                                    setParameter("relationName", relationName).getResultList()) {
+            childCounts.put((Long) row[0], ((Number) row[1]).longValue());
+        }
+
+        final Map<Long, Device> installedDevices = new HashMap<>();
+        for (final Object[] row : em.createNamedQuery("InstallationRecord.activeDevicesForChildren",
+                                    Object[].class).setParameter("parentId", parentId).
+                                    setParameter("relationName", relationName).getResultList()) {
+            installedDevices.put((Long) row[0], (Device) row[1]);
+        }
+
+        final List<SlotSummary> summaries = new ArrayList<>(children.size());
+        for (final Object[] row : children) {
+            final Long id = (Long) row[0];
+            summaries.add(new SlotSummary(id, (String) row[1], (String) row[2], (Boolean) row[3], (String) row[4],
+                                    row[5] != null ? (Integer) row[5] : 0, installedDevices.get(id),
+                                    childCounts.getOrDefault(id, 0L)));
+        }
+        return summaries;
+    }
+
+    /**
+     * Finds the installation {@link Slot}s with the name containing the filter, together with all their ancestors
+     * in the {@link SlotRelationName#CONTAINS} hierarchy. These are exactly the slots that are displayed when the
+     * hierarchy is filtered, and they are found without traversing the hierarchy.
+     * <p>
+     * The names are matched with the trigram index on <code>upper(name)</code> (see <code>slot_update3.sql</code>),
+     * so the slot table is not scanned. A filter shorter than three characters cannot use the index.
+     * </p>
+     *
+     * @param filter the part of the name to search for, the case is ignored
+     * @return the database ids of the matching slots and their ancestors
+     */
+    public Set<Long> findFilteredSlotIds(final String filter) {
+        final String namePart = "%" + filter.toUpperCase().replace("\\", "\\\\").replace("%", "\\%").
+                                    replace("_", "\\_") + "%";
+        final Set<Long> ids = new HashSet<>(em.createNamedQuery("Slot.findHostingIdsByName", Long.class).
+                                    setParameter("namePart", namePart).getResultList());
+        if (!ids.isEmpty()) {
+            ids.addAll(em.createNamedQuery("SlotClosure.findAncestorsOfHostingByName", Long.class).
+                                    setParameter("namePart", namePart).getResultList());
+        }
+        return ids;
+    }
+
     /**
      * All hosting or non-hosting {@link Slot}s.
      *
@@ -313,7 +490,8 @@ public class SlotEJB extends DAO<Slot> {
     }
 
     /**
-     * Checks whether a new container can have the requested name.
+     * Checks whether a new container can have the requested name. Only the children the parent
+     * {@link SlotRelationName#CONTAINS} are checked, with a single query.
      *
      * @param newContainerName the name of the container we're about to add to the parent
      * @param parentSlot the parent for the new container
@@ -325,13 +503,57 @@ public class SlotEJB extends DAO<Slot> {
             final @Nullable Slot slotToRename) {
         Preconditions.checkNotNull(newContainerName);
         final Slot actualParentSlot = (parentSlot != null) ? parentSlot : getRootNode();
-        final long equalyNamedSiblings = actualParentSlot.getPairsInWhichThisSlotIsAParentList().stream().
-                                            filter(e -> !e.getChildSlot().equals(slotToRename)
-                                                    && e.getChildSlot().getName().equals(newContainerName)).
-                                            count();
+        // a new slot does not have an id yet, and database ids are always positive
+        final Long excludedSlotId = (slotToRename != null && slotToRename.getId() != null) ? slotToRename.getId()
+                                                                                                : Long.valueOf(-1);
+        final long equalyNamedSiblings = em.createNamedQuery("SlotPair.countChildrenByName", Long.class)
+                .setParameter("childName", newContainerName)
+                .setParameter("parentSlot", actualParentSlot)
+                .setParameter("relationName", SlotRelationName.CONTAINS)
+                .setParameter("excludedSlotId", excludedSlotId).getSingleResult();
         return equalyNamedSiblings == 0;
     }
 
+    @Override
+    @CRUDOperation(operation=EntityTypeOperation.DELETE)
+    @Audit
+    @Authorized
+    public void delete(Slot entity) {
+        Preconditions.checkNotNull(entity);
+        slotPairEJB.removeFromHierarchy(entity);
+        super.delete(entity);
+    }
+
+    /**
+     * The method generates the path from the requested slot to the root of the contains hierarchy. If an element has
+     * multiple parents, this method always chooses the first parent it encounters. All the relationships needed are
+     * retrieved with a single query.
+     *
+     * @param slot the slot to find the path for
+     * @return the path from requested slot (first element) to the root of the hierarchy (last element).
+     */
+    public List<Slot> getPathToRoot(final Slot slot) {
+        Preconditions.checkNotNull(slot);
+        final Map<Slot, Slot> childToParent = new HashMap<>();
+        for (final SlotPair pair : slotPairEJB.findContainsPairsToRoot(slot)) {
+            childToParent.putIfAbsent(pair.getChildSlot(), pair.getParentSlot());
+        }
+
+        final List<Slot> path = Lists.newArrayList();
+        final Slot rootSlot = getRootNode();
+        Slot slotOnPath = slot;
+        path.add(slotOnPath);
+        while (!rootSlot.equals(slotOnPath)) {
+            final Slot parentSlot = childToParent.get(slotOnPath);
+            if (parentSlot == null) {
+                throw new IllegalStateException("Slot " + slotOnPath.getName() + " does not have a CONTAINS parent.");
+            }
+            slotOnPath = parentSlot;
+            path.add(slotOnPath);
+        }
+        return path;
+    }
+
     @Override
     protected Class<Slot> getEntityClass() {
         return Slot.class;
@@ -345,13 +567,9 @@ public class SlotEJB extends DAO<Slot> {
         if (value == null) {
             return true;
         }
-        final List<PropertyValue> results = em.createNamedQuery("SlotPropertyValue.findSamePropertyValueByType",
-                                                        PropertyValue.class)
-                    .setParameter("componentType", parent.getComponentType())
-                    .setParameter("property", child.getProperty())
-                    .setParameter("propValue", value).setMaxResults(2).getResultList();
-        // value is unique if there is no property value with the same value, or the only one found us the entity itself
-        return (results.size() < 2) && (results.isEmpty() || results.get(0).equals(child));
+        return isOnlyPropertyValue(child, "SELECT v.id FROM slot_property_value v JOIN slot p ON p.id = v.slot "
+                + "WHERE p.component_type = ? AND v.property = ? AND v.prop_value IN (?, ?) LIMIT 2",
+                parent.getComponentType().getId(), child.getProperty().getId());
     }
 
     /**
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openepics.discs.ccdb.model.ComptypePropertyValue;
+import org.openepics.discs.ccdb.model.DevicePropertyValue;
+import org.openepics.discs.ccdb.model.InstallationRecord;
+import org.openepics.discs.ccdb.model.Property;
+import org.openepics.discs.ccdb.model.PropertyValue;
+import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotPair;
+import org.openepics.discs.ccdb.model.SlotPropertyValue;
+
+/**
+ * A page of installation {@link Slot}s together with their relationships, property values and active installation
+ * records. The data is fetched by {@link SlotEJB#fetchPage(List, boolean, boolean)} with a fixed number of bulk
+ * queries and kept in maps keyed by the database ids, so the lazy relationships of the slots do not have to be
+ * traversed when the page is processed.
+ */
+public class SlotPage {
+    private final List<Slot> slots;
+    private final Map<Long, List<SlotPair>> pairsByParent = new HashMap<>();
+    private final Map<Long, List<SlotPair>> pairsByChild = new HashMap<>();
+    private final Map<Long, List<SlotPropertyValue>> slotPropertiesBySlot = new HashMap<>();
+    private final Map<Long, List<ComptypePropertyValue>> typePropertiesByType = new HashMap<>();
+    private final Map<Long, InstallationRecord> installationsBySlot = new HashMap<>();
+    private final Map<Long, List<DevicePropertyValue>> devicePropertiesByDevice = new HashMap<>();
+
+    SlotPage(List<Slot> slots) {
+        this.slots = slots;
+    }
+
+    /** @return the slots of the page */
+    public List<Slot> getSlots() {
+        return slots;
+    }
+
+    /**
+     * @param slot a slot of the page
+     * @return the pairs in which the slot is the parent, empty if the relationships were not fetched
+     */
+    public List<SlotPair> getPairsAsParent(Slot slot) {
+        return pairsByParent.getOrDefault(slot.getId(), Collections.emptyList());
+    }
+
+    /**
+     * @param slot a slot of the page
+     * @return the pairs in which the slot is the child, empty if the relationships were not fetched
+     */
+    public List<SlotPair> getPairsAsChild(Slot slot) {
+        return pairsByChild.getOrDefault(slot.getId(), Collections.emptyList());
+    }
+
+    /**
+     * @param slot a slot of the page
+     * @return the property values of the slot, empty if the property values were not fetched
+     */
+    public List<SlotPropertyValue> getSlotProperties(Slot slot) {
+        return slotPropertiesBySlot.getOrDefault(slot.getId(), Collections.emptyList());
+    }
+
+    /**
+     * @param slot a slot of the page
+     * @return the property values of the slot's device type that are not property definitions, empty if the
+     *          property values were not fetched
+     */
+    public List<ComptypePropertyValue> getTypeProperties(Slot slot) {
+        return typePropertiesByType.getOrDefault(slot.getComponentType().getId(), Collections.emptyList());
+    }
+
+    /**
+     * @param slot a slot of the page
+     * @return the active installation record of the slot, <code>null</code> if no device is installed in the slot
+     *          or the property values were not fetched
+     */
+    public InstallationRecord getActiveInstallation(Slot slot) {
+        return installationsBySlot.get(slot.getId());
+    }
+
+    /**
+     * @param slot a slot of the page
+     * @return the property values of the device installed in the slot, empty if there is no such device or the
+     *          property values were not fetched
+     */
+    public List<DevicePropertyValue> getDeviceProperties(Slot slot) {
+        final InstallationRecord installation = getActiveInstallation(slot);
+        return installation == null ? Collections.emptyList()
+                    : devicePropertiesByDevice.getOrDefault(installation.getDevice().getId(), Collections.emptyList());
+    }
+
+    /**
+     * Computes the version of a slot from the entities of the page it is described with: the slot, its device type,
+     * the related slots, the property values with their properties, and the installed device.
+     *
+     * @param slot a slot of the page
+     * @return the version of the slot's data
+     */
+    public DataVersion getDataVersion(Slot slot) {
+        final DataVersion.Builder version = new DataVersion.Builder().add(slot).add(slot.getComponentType());
+        for (final SlotPair pair : getPairsAsParent(slot)) {
+            version.add(pair).add(pair.getChildSlot());
+        }
+        for (final SlotPair pair : getPairsAsChild(slot)) {
+            version.add(pair).add(pair.getParentSlot());
+        }
+        addPropertyValues(version, getSlotProperties(slot));
+        addPropertyValues(version, getTypeProperties(slot));
+        addPropertyValues(version, getDeviceProperties(slot));
+        final InstallationRecord installation = getActiveInstallation(slot);
+        if (installation != null) {
+            version.add(installation).add(installation.getDevice());
+        }
+        return version.build();
+    }
+
+    private static void addPropertyValues(DataVersion.Builder version, List<? extends PropertyValue> values) {
+        for (final PropertyValue value : values) {
+            final Property property = value.getProperty();
+            version.add(value).add(property).add(property.getDataType()).add(property.getUnit());
+        }
+    }
+
+    Map<Long, List<SlotPair>> getPairsByParent() {
+        return pairsByParent;
+    }
+
+    Map<Long, List<SlotPair>> getPairsByChild() {
+        return pairsByChild;
+    }
+
+    Map<Long, List<SlotPropertyValue>> getSlotPropertiesBySlot() {
+        return slotPropertiesBySlot;
+    }
+
+    Map<Long, List<ComptypePropertyValue>> getTypePropertiesByType() {
+        return typePropertiesByType;
+    }
+
+    Map<Long, InstallationRecord> getInstallationsBySlot() {
+        return installationsBySlot;
+    }
+
+    Map<Long, List<DevicePropertyValue>> getDevicePropertiesByDevice() {
+        return devicePropertiesByDevice;
+    }
+}
@@ -19,13 +19,17 @@
  */
 package org.openepics.discs.ccdb.core.ejb;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ejb.Stateless;
+import javax.persistence.FlushModeType;
 
 import org.openepics.discs.ccdb.core.auditlog.Audit;
 import org.openepics.discs.ccdb.model.EntityTypeOperation;
 import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotClosure;
 import org.openepics.discs.ccdb.model.SlotPair;
 import org.openepics.discs.ccdb.model.SlotRelationName;
 import org.openepics.discs.ccdb.core.security.Authorized;
@@ -36,6 +40,9 @@ import com.google.common.base.Preconditions;
 /**
  * DAO Service for accessing slots in a relation {@link SlotPair}
  *
+ * All modifications of {@link SlotRelationName#CONTAINS} relationships also keep the {@link SlotClosure} table up to
+ * date, so that the ancestors and descendants of a slot can be retrieved with a single query.
+ *
  * @author <a href="mailto:miroslav.pavleski@cosylab.com">Miroslav Pavleski</a>
  *
  */
@@ -83,6 +90,9 @@ public class SlotPairEJB extends DAO<SlotPair> {
     @Authorized
     public void delete(SlotPair entity) {
         Preconditions.checkNotNull(entity);
+        if (entity.getSlotRelation().getName() == SlotRelationName.CONTAINS) {
+            updateHierarchy(entity.getParentSlot(), entity.getChildSlot(), -1);
+        }
         entity.getChildSlot().getPairsInWhichThisSlotIsAChildList().remove(entity);
         entity.getParentSlot().getPairsInWhichThisSlotIsAParentList().remove(entity);
         em.merge(entity.getChildSlot());
@@ -101,6 +111,10 @@ public class SlotPairEJB extends DAO<SlotPair> {
         final Slot childSlot = em.find(Slot.class, entity.getChildSlot().getId());
         entity.setParentSlot(parentSlot);
         entity.setChildSlot(childSlot);
+        if (slotPairCreatesLoop(entity, childSlot)) {
+            throw new IllegalArgumentException("Adding " + childSlot.getName() + " to " + parentSlot.getName()
+                    + " would create a loop in the CONTAINS hierarchy.");
+        }
         final int highestOrderNumberForNewPair;
         final Integer maxResult = em.createNamedQuery("SlotPair.findMaxPairOrder", Integer.class)
                 .setParameter("parentSlot", parentSlot).getSingleResult();
@@ -113,6 +127,29 @@ public class SlotPairEJB extends DAO<SlotPair> {
         childSlot.getPairsInWhichThisSlotIsAChildList().add(entity);
         parentSlot.getPairsInWhichThisSlotIsAParentList().add(entity);
         super.add(entity);
+        if (entity.getSlotRelation().getName() == SlotRelationName.CONTAINS) {
+            updateHierarchy(parentSlot, childSlot, 1);
+        }
+    }
+
+    @Override
+    @CRUDOperation(operation=EntityTypeOperation.UPDATE)
+    @Audit
+    @Authorized
+    public void save(SlotPair entity) {
+        Preconditions.checkNotNull(entity);
+        if (entity.getId() != null) {
+            // the entity may already be modified in the persistence context, the hierarchy needs the stored values
+            final Object[] storedPair = em.createNamedQuery("SlotPair.findStoredRelation", Object[].class)
+                    .setParameter("id", entity.getId()).setFlushMode(FlushModeType.COMMIT).getSingleResult();
+            if (storedPair[2] == SlotRelationName.CONTAINS) {
+                updateHierarchy((Slot) storedPair[0], (Slot) storedPair[1], -1);
+            }
+        }
+        super.save(entity);
+        if (entity.getSlotRelation().getName() == SlotRelationName.CONTAINS) {
+            updateHierarchy(entity.getParentSlot(), entity.getChildSlot(), 1);
+        }
     }
 
     /**
@@ -134,22 +171,67 @@ public class SlotPairEJB extends DAO<SlotPair> {
      * @return {@link Boolean} true if by adding this {@link SlotPair} loop will be created, false otherwise
      */
     public boolean slotPairCreatesLoop(SlotPair slotPair, Slot childSlot) {
-        final boolean loopDetected;
-        if (slotPair.getSlotRelation().getName() == SlotRelationName.CONTAINS) {
-            if (slotPair.getParentSlot().equals(childSlot)) {
-                loopDetected = true;
-            } else {
-                for (SlotPair parentSlotPair : slotPair.getParentSlot().getPairsInWhichThisSlotIsAChildList()) {
-                    if (slotPairCreatesLoop(parentSlotPair, childSlot)) {
-                        return true;
-                    }
-                }
-                loopDetected = false;
-            }
-        } else {
-            loopDetected = false;
+        if (slotPair.getSlotRelation().getName() != SlotRelationName.CONTAINS) {
+            return false;
+        }
+        return slotPair.getParentSlot().equals(childSlot) || isAncestor(childSlot, slotPair.getParentSlot());
+    }
+
+    /**
+     * @param ancestor the potential ancestor {@link Slot}
+     * @param descendant the potential descendant {@link Slot}
+     * @return <code>true</code> if the <code>descendant</code> is (directly or indirectly) contained in the
+     * <code>ancestor</code>, <code>false</code> otherwise
+     */
+    public boolean isAncestor(Slot ancestor, Slot descendant) {
+        Preconditions.checkNotNull(ancestor);
+        Preconditions.checkNotNull(descendant);
+        return em.createNamedQuery("SlotClosure.countPaths", Long.class)
+                .setParameter("ancestorId", ancestor.getId())
+                .setParameter("descendantId", descendant.getId()).getSingleResult() > 0;
+    }
+
+    /**
+     * @param slot the {@link Slot} to find the descendants for
+     * @return {@link List} of all {@link Slot}s that are (directly or indirectly) contained in the <code>slot</code>
+     */
+    public List<Slot> findDescendants(Slot slot) {
+        Preconditions.checkNotNull(slot);
+        return em.createNamedQuery("SlotClosure.findDescendants", Slot.class)
+                .setParameter("slotId", slot.getId()).getResultList();
+    }
+
+    /**
+     * Returns all {@link SlotRelationName#CONTAINS} relationships on all paths from the <code>slot</code> to the root
+     * of the hierarchy.
+     *
+     * @param slot the {@link Slot} to find the relationships for
+     * @return {@link List} of {@link SlotPair}s where the child is either the <code>slot</code> or one of its ancestors
+     */
+    public List<SlotPair> findContainsPairsToRoot(Slot slot) {
+        Preconditions.checkNotNull(slot);
+        return em.createNamedQuery("SlotPair.findContainsPairsToRoot", SlotPair.class)
+                .setParameter("relationName", SlotRelationName.CONTAINS)
+                .setParameter("slot", slot)
+                .setParameter("slotId", slot.getId()).getResultList();
+    }
+
+    /**
+     * Removes all {@link SlotRelationName#CONTAINS} paths leading to and from the <code>slot</code> from the
+     * hierarchy closure. Must be called before the {@link Slot} is deleted, since deleting a slot also removes
+     * all its relationships.
+     *
+     * @param slot the {@link Slot} that is about to be deleted
+     */
+    public void removeFromHierarchy(Slot slot) {
+        Preconditions.checkNotNull(slot);
+        final List<SlotPair> containsPairs = em.createNamedQuery("SlotPair.findSlotRelationsByRelation",
+                                                                                            SlotPair.class)
+                .setParameter("slot", slot)
+                .setParameter("relationName", SlotRelationName.CONTAINS).getResultList();
+        for (final SlotPair pair : containsPairs) {
+            updateHierarchy(pair.getParentSlot(), pair.getChildSlot(), -1);
         }
-        return loopDetected;
     }
 
     /**
@@ -229,7 +311,9 @@ public class SlotPairEJB extends DAO<SlotPair> {
         mySlotPair.setSlotOrder(swapPairOrder);
     }
 
-    /** Changes the parent in all relationship to point to the new parent in a single transaction.
+    /** Changes the parent in all relationship to point to the new parent in a single transaction. Moving a slot
+     * under itself or one of its descendants is rejected with an {@link IllegalArgumentException}, and none of the
+     * slots are moved.
      * @param relationships the {@link List} of relationships to change the parent for
      * @param parent the new parent slot
      */
@@ -244,4 +328,61 @@ public class SlotPairEJB extends DAO<SlotPair> {
             explicitAuditLog(freshPair, EntityTypeOperation.UPDATE);
         }
     }
+
+    /**
+     * Adds or removes all paths going through the <code>parentSlot</code> - <code>childSlot</code> relationship to or
+     * from the hierarchy closure. Every ancestor of the parent (including the parent itself) gains or loses a path to
+     * every descendant of the child (including the child itself). The number of such paths is the product of the
+     * number of paths on each side of the relationship.
+     *
+     * @param parentSlot the parent of the relationship
+     * @param childSlot the child of the relationship
+     * @param direction <code>1</code> if the relationship was added, <code>-1</code> if it was removed
+     */
+    private void updateHierarchy(final Slot parentSlot, final Slot childSlot, final int direction) {
+        final Map<Long, Long> ancestorPaths = getPathCounts("SlotClosure.findAncestorPaths", parentSlot.getId());
+        final Map<Long, Long> descendantPaths = getPathCounts("SlotClosure.findDescendantPaths", childSlot.getId());
+
+        final Map<Long, Map<Long, SlotClosure>> existingPaths = new HashMap<>();
+        for (final SlotClosure closure : em.createNamedQuery("SlotClosure.findPathsThroughRelation",
+                                                                                            SlotClosure.class)
+                                            .setParameter("parentId", parentSlot.getId())
+                                            .setParameter("childId", childSlot.getId()).getResultList()) {
+            existingPaths.computeIfAbsent(closure.getAncestor(), k -> new HashMap<>())
+                    .put(closure.getDescendant(), closure);
+        }
+
+        for (final Map.Entry<Long, Long> ancestor : ancestorPaths.entrySet()) {
+            final Map<Long, SlotClosure> ancestorClosures = existingPaths.get(ancestor.getKey());
+            for (final Map.Entry<Long, Long> descendant : descendantPaths.entrySet()) {
+                final long pathDelta = direction * ancestor.getValue() * descendant.getValue();
+                final SlotClosure closure = ancestorClosures != null ? ancestorClosures.get(descendant.getKey()) : null;
+                if (closure == null) {
+                    if (pathDelta > 0) {
+                        em.persist(new SlotClosure(ancestor.getKey(), descendant.getKey(), pathDelta));
+                    }
+                } else if (closure.getPathCount() + pathDelta > 0) {
+                    closure.setPathCount(closure.getPathCount() + pathDelta);
+                } else {
+                    em.remove(closure);
+                }
+            }
+        }
+    }
+
+    /**
+     * @param queryName the {@link SlotClosure} query returning (slot id, path count) tuples
+     * @param slotId the database id of the slot at one end of the paths
+     * @return a map from the slot at the other end of the paths to the number of paths. The map also contains the
+     * slot itself with a single (empty) path.
+     */
+    private Map<Long, Long> getPathCounts(final String queryName, final Long slotId) {
+        final Map<Long, Long> pathCounts = new HashMap<>();
+        pathCounts.put(slotId, 1L);
+        for (final Object[] path : em.createNamedQuery(queryName, Object[].class)
+                                        .setParameter("slotId", slotId).getResultList()) {
+            pathCounts.put((Long) path[0], (Long) path[1]);
+        }
+        return pathCounts;
+    }
 }
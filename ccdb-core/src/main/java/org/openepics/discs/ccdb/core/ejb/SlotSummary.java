@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import java.io.Serializable;
+
+import javax.annotation.Nullable;
+
+import org.openepics.discs.ccdb.model.Device;
+import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotRelationName;
+
+/**
+ * An immutable projection of a child {@link Slot} in one of the hierarchies, holding only the data needed to show the
+ * slot as a tree node. The summaries of all the children of a slot are loaded together by
+ * {@link SlotEJB#findChildSummaries(Long, SlotRelationName)}, so the {@link Slot} entities do not have to be loaded
+ * to render the tree.
+ */
+public class SlotSummary implements Serializable {
+    private static final long serialVersionUID = 6470941863125712854L;
+
+    private final Long id;
+    private final String name;
+    private final String description;
+    private final boolean isHostingSlot;
+    private final String componentTypeName;
+    private final int order;
+    private final Device installedDevice;
+    private final long childCount;
+
+    SlotSummary(Long id, String name, String description, boolean isHostingSlot, String componentTypeName,
+                                    int order, @Nullable Device installedDevice, long childCount) {
+        this.id = id;
+        this.name = name;
+        this.description = description;
+        this.isHostingSlot = isHostingSlot;
+        this.componentTypeName = componentTypeName;
+        this.order = order;
+        this.installedDevice = installedDevice;
+        this.childCount = childCount;
+    }
+
+    /** @return the database id of the slot */
+    public Long getId() {
+        return id;
+    }
+
+    /** @return the name of the slot */
+    public String getName() {
+        return name;
+    }
+
+    /** @return the description of the slot */
+    public String getDescription() {
+        return description;
+    }
+
+    /** @return <code>true</code> if this is an installation slot, <code>false</code> for a container */
+    public boolean isHostingSlot() {
+        return isHostingSlot;
+    }
+
+    /** @return the name of the device type of the slot */
+    public String getComponentTypeName() {
+        return componentTypeName;
+    }
+
+    /** @return the order of the slot among the children of its parent */
+    public int getOrder() {
+        return order;
+    }
+
+    /** @return the device installed in the slot, <code>null</code> if there is none */
+    @Nullable public Device getInstalledDevice() {
+        return installedDevice;
+    }
+
+    /** @return the number of children of the slot in the same hierarchy */
+    public long getChildCount() {
+        return childCount;
+    }
+}
@@ -20,7 +20,11 @@
 package org.openepics.discs.ccdb.core.security;
 
 import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -34,14 +38,18 @@ import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
 import javax.servlet.http.HttpServletRequest;
 
+import org.openepics.discs.ccdb.core.util.AppProperties;
 import org.openepics.discs.ccdb.model.EntityType;
 import org.openepics.discs.ccdb.model.EntityTypeOperation;
 import org.openepics.discs.ccdb.model.Privilege;
+import org.openepics.discs.ccdb.model.PrivilegeChangeListener;
 
 /**
  * Implementation of simple security policy (checking for entity-type access only) using the DB {@link Privilege} table
  * and the Java EE security module, as was in Configuration Module v. 1.0.
  *
+ * The privileges of the user are loaded with a single query and cached in the {@link UserPrivileges} of the session.
+ *
  * @author <a href="mailto:miroslav.pavleski@cosylab.com">Miroslav Pavleski</a>
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  */
@@ -55,9 +63,14 @@ public class DBTableEntityTypeSecurityPolicy extends AbstractEnityTypeSecurityPo
 
     private static final Logger LOGGER = Logger.getLogger(DBTableEntityTypeSecurityPolicy.class.getCanonicalName());
 
+    /** The default time in seconds after which the cached privileges are loaded from the database again */
+    private static final long DEFAULT_PRIVILEGE_CACHE_TTL = 300;
+
     @PersistenceContext private transient EntityManager em;
 
     @Inject private transient HttpServletRequest servletRequest;
+    @Inject private UserPrivileges userPrivileges;
+    @Inject private AppProperties properties;
 
     /** Default no-params constructor */
     public DBTableEntityTypeSecurityPolicy() {}
@@ -77,6 +90,7 @@ public class DBTableEntityTypeSecurityPolicy extends AbstractEnityTypeSecurityPo
     @Override
     public void logout() {
         try {
+            userPrivileges.invalidate();
             servletRequest.logout();
             servletRequest.getSession().invalidate();
         } catch (Exception e) {
@@ -96,18 +110,40 @@ public class DBTableEntityTypeSecurityPolicy extends AbstractEnityTypeSecurityPo
             return false;
         }
 
+        if (!userPrivileges.isValidFor(principal)) {
+            loadPrivileges(principal);
+        }
+        return userPrivileges.hasPermission(entityType, operationType);
+    }
+
+    private void loadPrivileges(String principal) {
+        // read before the query, so that concurrent modifications invalidate the loaded privileges
+        final long modificationCount = PrivilegeChangeListener.getModificationCount();
         final List<Privilege> privs = em.createQuery(
                 "SELECT p FROM UserRole ur JOIN ur.role r JOIN r.privilegeList p " +
-                "WHERE ur.user.userId = :user AND p.resource = :entityType", Privilege.class).
-                setParameter("user", principal).setParameter("entityType", entityType).getResultList();
+                "WHERE ur.user.userId = :user", Privilege.class).
+                setParameter("user", principal).getResultList();
         LOGGER.log(Level.FINE, "Found privileges for user \"" + principal + "\": " + privs);
 
+        final Map<EntityType, EnumSet<EntityTypeOperation>> privileges = new EnumMap<>(EntityType.class);
         for (Privilege p : privs) {
-            if (p.getOper() == operationType) {
-                return true;
+            privileges.computeIfAbsent(p.getResource(), resource -> EnumSet.noneOf(EntityTypeOperation.class)).
+                    add(p.getOper());
+        }
+        userPrivileges.update(principal, privileges, modificationCount,
+                TimeUnit.SECONDS.toMillis(getPrivilegeCacheTtl()));
+    }
+
+    private long getPrivilegeCacheTtl() {
+        final String ttl = properties.getProperty(AppProperties.PRIVILEGE_CACHE_TTL);
+        if (ttl != null) {
+            try {
+                return Long.parseLong(ttl.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.WARNING, AppProperties.PRIVILEGE_CACHE_TTL + " is not a number: " + ttl);
             }
         }
-        return false;
+        return DEFAULT_PRIVILEGE_CACHE_TTL;
     }
 
     @Override
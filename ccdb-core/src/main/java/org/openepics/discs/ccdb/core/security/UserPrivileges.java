@@ -0,0 +1,92 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.security;
+
+import java.io.Serializable;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Objects;
+
+import javax.enterprise.context.SessionScoped;
+
+import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
+import org.openepics.discs.ccdb.model.PrivilegeChangeListener;
+
+/**
+ * The privileges of the user logged into the session, cached by the {@link DBTableEntityTypeSecurityPolicy}. The
+ * privileges are valid until they expire, or until any of the privilege defining entities is modified (see
+ * {@link PrivilegeChangeListener}).
+ */
+@SessionScoped
+public class UserPrivileges implements Serializable {
+    private static final long serialVersionUID = -2405226233040232718L;
+
+    private String userId;
+    private Map<EntityType, EnumSet<EntityTypeOperation>> privileges = new EnumMap<>(EntityType.class);
+    private long modificationCount;
+    private long expirationTime;
+
+    /**
+     * @param userId the id of the user logged into the session
+     * @return <code>true</code> if the cached privileges belong to the user and are still valid,
+     * <code>false</code> otherwise
+     */
+    public boolean isValidFor(String userId) {
+        return Objects.equals(this.userId, userId)
+                && modificationCount == PrivilegeChangeListener.getModificationCount()
+                && System.currentTimeMillis() < expirationTime;
+    }
+
+    /**
+     * Replaces the cached privileges.
+     *
+     * @param userId the id of the user the privileges belong to
+     * @param privileges the operations the user can perform on each {@link EntityType}
+     * @param modificationCount the {@link PrivilegeChangeListener#getModificationCount()} read before the
+     * privileges were loaded from the database
+     * @param timeToLive the time in milliseconds after which the privileges expire
+     */
+    public void update(String userId, Map<EntityType, EnumSet<EntityTypeOperation>> privileges,
+                                                                    long modificationCount, long timeToLive) {
+        this.userId = userId;
+        this.privileges = new EnumMap<>(EntityType.class);
+        this.privileges.putAll(privileges);
+        this.modificationCount = modificationCount;
+        this.expirationTime = System.currentTimeMillis() + timeToLive;
+    }
+
+    /**
+     * @param entityType the {@link EntityType} for which to check for
+     * @param operationType the {@link EntityTypeOperation} for which to check for
+     * @return <code>true</code> if the cached privileges contain the permission, <code>false</code> otherwise
+     */
+    public boolean hasPermission(EntityType entityType, EntityTypeOperation operationType) {
+        final EnumSet<EntityTypeOperation> operations = privileges.get(entityType);
+        return operations != null && operations.contains(operationType);
+    }
+
+    /** Discards the cached privileges */
+    public void invalidate() {
+        userId = null;
+        privileges = new EnumMap<>(EntityType.class);
+    }
+}
@@ -53,6 +53,10 @@ public class AppProperties {
     public static final String RESTRICT_TO_CONVENTION_NAMES = "org.openepics.discs.conf.props.restrictToConventionNames";
     public static final String CABLEDB_STATUS = "org.openepics.discs.conf.props.cableDBStatus";
     public static final String CABLEDB_APPLICATION_URL = "org.openepics.discs.conf.props.cableDBAppURL";
+    public static final String IMPORT_BATCH_SIZE = "org.openepics.discs.conf.props.importBatchSize";
+    public static final String PRIVILEGE_CACHE_TTL = "org.openepics.discs.conf.props.privilegeCacheTtl";
+    public static final String AUDIT_LOG_ASYNC = "org.openepics.discs.conf.props.asyncAuditLog";
+    public static final String AUDIT_LOG_CHILDREN_SUMMARY = "org.openepics.discs.conf.props.auditLogChildrenSummary";
 
     /**
      * Retrieves the string property with the given key-name
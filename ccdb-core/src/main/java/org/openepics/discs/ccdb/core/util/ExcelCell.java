@@ -47,12 +47,7 @@ public class ExcelCell {
         final String stringValue;
         if (cell != null) {
             if (cell.getCellType() == Cell.CELL_TYPE_NUMERIC) {
-                final double numericCellValue = cell.getNumericCellValue();
-                if (numericCellValue == (int)numericCellValue) {
-                    stringValue = String.valueOf((int)numericCellValue);
-                } else {
-                    stringValue = String.valueOf(numericCellValue);
-                }
+                stringValue = numberAsString(cell.getNumericCellValue());
             } else if (cell.getCellType() == Cell.CELL_TYPE_STRING) {
                 stringValue = cell.getStringCellValue() != null ? cell.getStringCellValue() : null;
             } else if (cell.getCellType() == Cell.CELL_TYPE_BLANK) {
@@ -81,6 +76,20 @@ public class ExcelCell {
         return stringValue;
     }
 
+    /**
+     * Creating a String from a numeric Excel cell value. Whole numbers are written without the decimal part.
+     *
+     * @param numericCellValue the numeric value of the cell
+     *
+     * @return the {@link String} result
+     */
+    public static String numberAsString(double numericCellValue) {
+        if (numericCellValue == (int)numericCellValue) {
+            return String.valueOf((int)numericCellValue);
+        } else {
+            return String.valueOf(numericCellValue);
+        }
+    }
 
     /**
      * Reading Excel file cell with numeric value and returning its value
@@ -75,6 +75,11 @@ public class ComponentTypesDataLoader extends AbstractEntityWithPropertiesDataLo
 
     @Inject private ComptypeEJB comptypeEJB;
 
+    @Override
+    protected void prefetchReferencedEntities() {
+        propertyByName = findReferencedEntities(propertyEJB, COL_INDEX_PROP_NAME, property -> true);
+    }
+
     @Override
     protected @Nullable Integer getUniqueColumnIndex() {
         return COL_INDEX_NAME;
@@ -223,7 +228,7 @@ public class ComponentTypesDataLoader extends AbstractEntityWithPropertiesDataLo
         }
 
         // does property exist
-        final @Nullable Property property = propertyEJB.findByName(propNameFld);
+        final @Nullable Property property = findPropertyByName(propNameFld);
         if (property == null) {
             result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, HDR_PROP_NAME, propNameFld);
             return;
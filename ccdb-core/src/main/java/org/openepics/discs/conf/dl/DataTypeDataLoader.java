@@ -19,7 +19,9 @@
  */
 package org.openepics.discs.conf.dl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 import javax.ejb.Stateless;
 import javax.inject.Inject;
@@ -64,6 +66,20 @@ public class DataTypeDataLoader extends AbstractDataLoader implements DataLoader
 
     @Inject private DataTypeEJB dataTypeEJB;
 
+    /** The data types referenced by the import data by their names. Only prefetched in batch mode. */
+    private Map<String, DataType> dataTypeByName;
+
+    @Override
+    protected void init() {
+        super.init();
+        dataTypeByName = new HashMap<>();
+    }
+
+    @Override
+    protected void prefetchReferencedEntities() {
+        dataTypeByName = findReferencedEntities(dataTypeEJB, COL_INDEX_NAME, dataType -> true);
+    }
+
     @Override
     public int getDataWidth() {
         return 4;
@@ -97,7 +113,7 @@ public class DataTypeDataLoader extends AbstractDataLoader implements DataLoader
         checkRequired();
         if (result.isRowError()) return;
 
-        final DataType modifiedEnum = dataTypeEJB.findByName(nameFld);
+        final DataType modifiedEnum = findByName(dataTypeByName, nameFld, dataTypeEJB::findByName);
         final List<String> enumValues = parseEnumDefinitions();
 
         if (isEnumModificationSafe(enumValues, modifiedEnum) && !result.isRowError()) {
@@ -110,7 +126,7 @@ public class DataTypeDataLoader extends AbstractDataLoader implements DataLoader
 
     @Override
     protected void handleDelete(String actualCommand) {
-        final DataType enumToDelete = dataTypeEJB.findByName(nameFld);
+        final DataType enumToDelete = findByName(dataTypeByName, nameFld, dataTypeEJB::findByName);
         if (enumToDelete == null) {
             result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, HDR_NAME, nameFld);
         } else {
@@ -118,6 +134,7 @@ public class DataTypeDataLoader extends AbstractDataLoader implements DataLoader
                 result.addRowMessage(ErrorMessage.DELETE_IN_USE, HDR_NAME, nameFld);
             } else {
                 dataTypeEJB.delete(enumToDelete);
+                dataTypeByName.remove(nameFld);
             }
         }
     }
@@ -127,7 +144,7 @@ public class DataTypeDataLoader extends AbstractDataLoader implements DataLoader
         checkRequired();
         if (result.isRowError()) return;
 
-        if (dataTypeEJB.findByName(nameFld) != null) {
+        if (findByName(dataTypeByName, nameFld, dataTypeEJB::findByName) != null) {
             result.addRowMessage(ErrorMessage.NAME_ALREADY_EXISTS, HDR_NAME, nameFld);
         }
         final List<String> newDefs = parseEnumDefinitions();
@@ -19,6 +19,8 @@
  */
 package org.openepics.discs.conf.dl;
 
+import java.util.HashMap;
+import java.util.Map;
 import java.util.logging.Logger;
 
 import javax.annotation.Nullable;
@@ -72,6 +74,20 @@ public class DevicesDataLoader extends AbstractEntityWithPropertiesDataLoader<De
     @Inject private ComptypeEJB comptypeEJB;
     @Inject private DeviceEJB deviceEJB;
 
+    private Map<String, ComponentType> componentTypeByName;
+
+    @Override
+    protected void init() {
+        super.init();
+        componentTypeByName = new HashMap<>();
+    }
+
+    @Override
+    protected void prefetchReferencedEntities() {
+        componentTypeByName = findReferencedEntities(comptypeEJB, COL_INDEX_CTYPE, componentType -> true);
+        propertyByName = findReferencedEntities(propertyEJB, COL_INDEX_PROP_NAME, property -> true);
+    }
+
     @Override
     protected @Nullable Integer getUniqueColumnIndex() {
         return COL_INDEX_SERIAL;
@@ -96,7 +112,8 @@ public class DevicesDataLoader extends AbstractEntityWithPropertiesDataLoader<De
                         return;
                     }
 
-                    final @Nullable ComponentType compType = comptypeEJB.findByName(componentTypeFld);
+                    final @Nullable ComponentType compType = findByName(componentTypeByName, componentTypeFld,
+                                                                                    comptypeEJB::findByName);
                     if (compType == null) {
                         result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, HDR_CTYPE, componentTypeFld);
                     } else {
@@ -128,7 +145,8 @@ public class DevicesDataLoader extends AbstractEntityWithPropertiesDataLoader<De
 
         final Device deviceToUpdate = deviceEJB.findDeviceBySerialNumber(serialFld);
         if (deviceToUpdate == null) {
-            final @Nullable ComponentType compType = comptypeEJB.findByName(componentTypeFld);
+            final @Nullable ComponentType compType = findByName(componentTypeByName, componentTypeFld,
+                                                                                    comptypeEJB::findByName);
             if (compType == null) {
                 result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, HDR_CTYPE, componentTypeFld);
             } else {
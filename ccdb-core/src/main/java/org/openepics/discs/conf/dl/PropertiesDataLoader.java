@@ -78,24 +78,38 @@ public class PropertiesDataLoader extends AbstractDataLoader implements DataLoad
      * Cached properties
      */
     private Map<String, Property> propertyByName;
+    private Map<String, Unit> unitByName;
+    private Map<String, DataType> dataTypeByName;
 
     // Row data for individual cells within a row
     private String nameFld, unitFld, dataTypeFld, descFld;
     private PropertyValueUniqueness uniqueFld;
 
     /**
-     * Local cache of all properties by their names to speed up operations.
+     * Local cache of all properties by their names to speed up operations. In batch mode only the properties
+     * referenced by the import data are cached, see {@link #prefetchReferencedEntities()}.
      */
     @Override
     protected void init() {
         super.init();
 
         propertyByName = new HashMap<>();
-        for (Property property : propertyEJB.findAll()) {
-            propertyByName.put(property.getName(), property);
+        unitByName = new HashMap<>();
+        dataTypeByName = new HashMap<>();
+        if (!isBatchMode()) {
+            for (Property property : propertyEJB.findAll()) {
+                propertyByName.put(property.getName(), property);
+            }
         }
     }
 
+    @Override
+    protected void prefetchReferencedEntities() {
+        propertyByName = findReferencedEntities(propertyEJB, COL_INDEX_NAME, property -> true);
+        unitByName = findReferencedEntities(unitEJB, COL_INDEX_UNIT, unit -> true);
+        dataTypeByName = findReferencedEntities(dataTypeEJB, COL_INDEX_DATATYPE, dataType -> true);
+    }
+
     @Override
     protected @Nullable Integer getUniqueColumnIndex() {
         return COL_INDEX_NAME;
@@ -175,7 +189,7 @@ public class PropertiesDataLoader extends AbstractDataLoader implements DataLoad
 
     private void setPropertyUnit(Property property, @Nullable String unit, final boolean inUse) {
         if (unit != null) {
-            final Unit newUnit = unitEJB.findByName(unit);
+            final Unit newUnit = findByName(unitByName, unit, unitEJB::findByName);
             if (newUnit != null) {
                 // is modification allowed
                 if (inUse && !newUnit.equals(property.getUnit())) {
@@ -196,7 +210,7 @@ public class PropertiesDataLoader extends AbstractDataLoader implements DataLoad
     }
 
     private void setPropertyDataType(Property property, String dataType, final boolean inUse) {
-        final DataType newDataType = dataTypeEJB.findByName(dataType);
+        final DataType newDataType = findByName(dataTypeByName, dataType, dataTypeEJB::findByName);
         if (newDataType != null) {
             if (inUse && !newDataType.equals(property.getDataType())) {
                 result.addRowMessage(ErrorMessage.MODIFY_IN_USE, HDR_DATATYPE, dataType);
@@ -19,7 +19,9 @@
  */
 package org.openepics.discs.conf.dl;
 
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -73,6 +75,20 @@ public class SignalsDataLoader extends AbstractDataLoader implements DataLoader
     private String deviceFld, nameFld, descFld;
     private int numberFld;
 
+    /** The installation slots referenced by the import data by their names. Only prefetched in batch mode. */
+    private Map<String, Slot> installationSlotByName;
+
+    @Override
+    protected void init() {
+        super.init();
+        installationSlotByName = new HashMap<>();
+    }
+
+    @Override
+    protected void prefetchReferencedEntities() {
+        installationSlotByName = findReferencedEntities(slotEJB, COL_INDEX_DEVICE, Slot::isHostingSlot);
+    }
+
     @Override
     public int getDataWidth() {
         return 5;
@@ -97,7 +113,7 @@ public class SignalsDataLoader extends AbstractDataLoader implements DataLoader
         if (result.isRowError()) return;
 
         try {
-            Slot installationSlot = slotEJB.findByName(deviceFld);
+            Slot installationSlot = findByName(installationSlotByName, deviceFld, slotEJB::findByName);
             if (!isSlotOK(installationSlot)) {
                 return;
             }
@@ -123,7 +139,7 @@ public class SignalsDataLoader extends AbstractDataLoader implements DataLoader
         checkRequired();
         if (result.isRowError()) return;
 
-        Slot installationSlot = slotEJB.findByName(deviceFld);
+        Slot installationSlot = findByName(installationSlotByName, deviceFld, slotEJB::findByName);
         if (!isSlotOK(installationSlot)) {
             return;
         }
@@ -145,7 +161,7 @@ public class SignalsDataLoader extends AbstractDataLoader implements DataLoader
         if (result.isRowError()) return;
 
         try {
-            Slot installationSlot = slotEJB.findByName(deviceFld);
+            Slot installationSlot = findByName(installationSlotByName, deviceFld, slotEJB::findByName);
             if (!isSlotOK(installationSlot)) {
                 return;
             }
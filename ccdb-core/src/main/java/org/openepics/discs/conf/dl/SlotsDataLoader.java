@@ -21,8 +21,10 @@ package org.openepics.discs.conf.dl;
 
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.stream.Collectors;
@@ -109,6 +111,9 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
 
     private List<Slot> newSlots;
 
+    private Map<String, ComponentType> componentTypeByName;
+    private Map<String, Slot> installationSlotByName;
+
     @Inject private SlotEJB slotEJB;
     @Inject private ComptypeEJB comptypeEJB;
     @Inject private PropertyEJB propertyEJB;
@@ -121,10 +126,19 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
     protected void init() {
         super.init();
         newSlots = new ArrayList<>();
+        componentTypeByName = new HashMap<>();
+        installationSlotByName = new HashMap<>();
 
         result.getContextualData().put(DataLoaderResult.CTX_NEW_SLOTS, newSlots);
     }
 
+    @Override
+    protected void prefetchReferencedEntities() {
+        componentTypeByName = findReferencedEntities(comptypeEJB, COL_INDEX_ENTITY_DEVICE_TYPE, type -> true);
+        installationSlotByName = findReferencedEntities(slotEJB, COL_INDEX_ENTITY_NAME, Slot::isHostingSlot);
+        propertyByName = findReferencedEntities(propertyEJB, COL_INDEX_PROP_NAME, property -> true);
+    }
+
     @Override
     protected @Nullable Integer getUniqueColumnIndex() {
         return COL_INDEX_ENTITY_NAME;
@@ -362,7 +376,7 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
                 return;
             } else {
                 try {
-                    final Property property = propertyEJB.findByName(propNameFld);
+                    final Property property = findPropertyByName(propNameFld);
                     if (property == null) {
                         result.addRowMessage(ErrorMessage.PROPERTY_NOT_FOUND, HDR_PROP_NAME, propNameFld);
                         return;
@@ -478,7 +492,7 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
 
     private ComponentType checkSlotType() {
         final String deviceTypeName = entityDeviceTypeFld.trim();
-        final ComponentType deviceType = comptypeEJB.findByName(deviceTypeName);
+        final ComponentType deviceType = findByName(componentTypeByName, deviceTypeName, comptypeEJB::findByName);
         if (deviceType == null) {
             result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, HDR_ENTITY_DEVICE_TYPE, entityDeviceTypeFld);
         }
@@ -517,7 +531,8 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
         }
 
         final Slot newContainer = new Slot(entityNameFld.trim(), false);
-        newContainer.setComponentType(comptypeEJB.findByName(SlotEJB.GRP_COMPONENT_TYPE));
+        newContainer.setComponentType(findByName(componentTypeByName, SlotEJB.GRP_COMPONENT_TYPE,
+                                                                                    comptypeEJB::findByName));
         newContainer.setDescription(entityDescriptionFld);
 
         if (!slotEJB.isContainerNameUnique(newContainer.getName(), parent, newContainer)) {
@@ -588,7 +603,7 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
         isHostingSlot = isHostingSlot();
         if (isHostingSlot) {
             // installation slot must be found by its unique name
-            final Slot slot = slotEJB.findByName(entityNameFld);
+            final Slot slot = findByName(installationSlotByName, entityNameFld, slotEJB::findByName);
             if (slot == null) {
                 result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, HDR_ENTITY_NAME, entityNameFld);
             } else if (slot.isHostingSlot() != isHostingSlot) {
@@ -656,6 +671,7 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
             slotPairEJB.delete(pair);
         }
 
+        installationSlotByName.remove(workingSlot.getName());
         slotEJB.delete(workingSlot);
     }
 
@@ -665,6 +681,8 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
             return;
         }
 
+        // the deleted children are not known here, the installation slots are looked up again when needed
+        installationSlotByName.clear();
         slotEJB.deleteWithChildren(workingSlot);
     }
 
@@ -830,7 +848,7 @@ public class SlotsDataLoader extends AbstractEntityWithPropertiesDataLoader<Slot
         Preconditions.checkNotNull(propNameHeader);
         final List<PropertyValue> propertyList = entity.getEntityPropertyList();
 
-        final @Nullable Property property = propertyEJB.findByName(propertyName);
+        final @Nullable Property property = findPropertyByName(propertyName);
         if (property == null) {
             result.addRowMessage(ErrorMessage.ENTITY_NOT_FOUND, propNameHeader, propertyName);
             return null;
@@ -77,8 +77,15 @@ public class UnitsDataLoader extends AbstractDataLoader implements DataLoader {
     protected void init() {
         super.init();
 
-        // Reload unit-cache
-        unitByName = unitEJB.findAll().stream().collect(Collectors.toMap(Unit::getName, Function.identity()));
+        // Reload unit-cache. In batch mode only the units referenced by the import data are cached.
+        if (!isBatchMode()) {
+            unitByName = unitEJB.findAll().stream().collect(Collectors.toMap(Unit::getName, Function.identity()));
+        }
+    }
+
+    @Override
+    protected void prefetchReferencedEntities() {
+        unitByName = findReferencedEntities(unitEJB, COL_INDEX_NAME, unit -> true);
     }
 
     @Override
@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.auditlog;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.ComponentType;
+import org.openepics.discs.ccdb.model.ComptypeArtifact;
+import org.openepics.discs.ccdb.model.ComptypePropertyValue;
+import org.openepics.discs.ccdb.model.Device;
+import org.openepics.discs.ccdb.model.DeviceArtifact;
+import org.openepics.discs.ccdb.model.DevicePropertyValue;
+import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
+import org.openepics.discs.ccdb.model.Property;
+import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotPair;
+import org.openepics.discs.ccdb.model.SlotPropertyValue;
+import org.openepics.discs.ccdb.model.SlotRelation;
+import org.openepics.discs.ccdb.model.SlotRelationName;
+import org.openepics.discs.ccdb.model.values.IntValue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import com.google.common.collect.ArrayListMultimap;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.Multimap;
+
+/**
+ * Measures writing the audit log entry of a container slot with the streaming {@link AuditLogUtil}, with the children
+ * listed and with the children summary, against the entry built as before, by converting the entity to a Jackson
+ * tree with {@link TreeAuditLogUtil}. The {@link DeviceAndComponentType} benchmarks compare the two paths for
+ * {@link DeviceEntityLogger} and {@link ComponentTypeEntityLogger}. Run with the main method from the test classpath;
+ * the GC profiler shows the memory allocated per entry.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SlotEntityLoggerBenchmark {
+    private static final int PROPERTIES = 20;
+    private static final int ARTIFACTS = 5;
+
+    @Param({"10", "1000", "10000"})
+    private int children;
+
+    private Slot slot;
+    private final SlotEntityLogger childrenLogger = new SlotEntityLogger(false);
+    private final SlotEntityLogger summaryLogger = new SlotEntityLogger(true);
+
+    @Setup
+    public void createSlot() {
+        final ComponentType componentType = new ComponentType("benchmarkType");
+        final SlotRelation contains = new SlotRelation(SlotRelationName.CONTAINS);
+
+        slot = new Slot("Container", false);
+        slot.setComponentType(componentType);
+        slot.setDescription("The container slot of the benchmark");
+        for (int i = 0; i < PROPERTIES; i++) {
+            final SlotPropertyValue propertyValue = new SlotPropertyValue(false);
+            propertyValue.setProperty(new Property("PROPERTY" + i, "Property " + i));
+            propertyValue.setPropValue(new IntValue(i));
+            slot.getSlotPropertyList().add(propertyValue);
+        }
+        for (int i = 0; i < children; i++) {
+            final Slot child = new Slot("Child" + i, i % 2 == 0);
+            child.setComponentType(componentType);
+            final SlotPair pair = new SlotPair(child, slot, contains);
+            child.getPairsInWhichThisSlotIsAChildList().add(pair);
+            slot.getPairsInWhichThisSlotIsAParentList().add(pair);
+        }
+    }
+
+    @Benchmark
+    public List<AuditRecord> listChildren() {
+        return childrenLogger.auditEntries(slot, EntityTypeOperation.UPDATE);
+    }
+
+    @Benchmark
+    public List<AuditRecord> summarizeChildren() {
+        return summaryLogger.auditEntries(slot, EntityTypeOperation.UPDATE);
+    }
+
+    /** The {@link SlotEntityLogger} of an updated slot before the audit log entries were streamed. */
+    @Benchmark
+    public List<AuditRecord> listChildrenInTree() {
+        final Map<String, String> propertiesMap = new TreeMap<>();
+        for (SlotPropertyValue propValue : slot.getSlotPropertyList()) {
+            propertiesMap.put(propValue.getProperty().getName(), propValue.getPropValue().auditLogString(100, 50));
+        }
+
+        final Multimap<String, String> childrenMap = ArrayListMultimap.create();
+        for (SlotPair slotPair : slot.getPairsInWhichThisSlotIsAParentList()) {
+            childrenMap.put(slotPair.getChildSlot().getName(), slotPair.getSlotRelation().getName().toString());
+        }
+
+        final Multimap<String, String> parentsMap = ArrayListMultimap.create();
+        for (SlotPair slotPair : slot.getPairsInWhichThisSlotIsAChildList()) {
+            parentsMap.put(slotPair.getParentSlot().getName(), slotPair.getSlotRelation().getIname());
+        }
+
+        return ImmutableList.of(new TreeAuditLogUtil(slot)
+                        .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy", "version",
+                                "name", "componentType"))
+                        .addStringProperty("componentType", slot.getComponentType().getName())
+                        .addArrayOfMappedProperties("slotPropertyList", propertiesMap)
+                        .addArrayOfMappedProperties("slotArtifactList", new TreeMap<String, String>())
+                        .addArrayOfMappedProperties("childrenSlots", childrenMap.asMap())
+                        .addArrayOfMappedProperties("parentSlots", parentsMap.asMap())
+                        .addArrayOfMappedProperties("installation", new TreeMap<String, String>())
+                        .addArrayOfProperties("tagsList", EntityLoggerUtil.getTagNamesFromTagsSet(slot.getTags()))
+                        .auditEntry(EntityTypeOperation.UPDATE, EntityType.SLOT, slot.getName(), slot.getId()));
+    }
+
+    /**
+     * Compares the streaming {@link DeviceEntityLogger} and {@link ComponentTypeEntityLogger} against the entries
+     * built as Jackson trees, for a device and a component type with properties and artifacts.
+     */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    @Warmup(iterations = 5)
+    @Measurement(iterations = 10)
+    @Fork(1)
+    public static class DeviceAndComponentType {
+        private Device device;
+        private ComponentType componentType;
+        private final DeviceEntityLogger deviceLogger = new DeviceEntityLogger();
+        private final ComponentTypeEntityLogger componentTypeLogger = new ComponentTypeEntityLogger();
+
+        @Setup
+        public void createEntities() {
+            componentType = new ComponentType("benchmarkType");
+            componentType.setDescription("The component type of the benchmark");
+            device = new Device("SN-0001");
+            device.setComponentType(componentType);
+            for (int i = 0; i < PROPERTIES; i++) {
+                final Property property = new Property("PROPERTY" + i, "Property " + i);
+                final ComptypePropertyValue typePropertyValue = new ComptypePropertyValue(false);
+                typePropertyValue.setProperty(property);
+                typePropertyValue.setPropValue(new IntValue(i));
+                componentType.getComptypePropertyList().add(typePropertyValue);
+                final DevicePropertyValue devicePropertyValue = new DevicePropertyValue(false);
+                devicePropertyValue.setProperty(property);
+                devicePropertyValue.setPropValue(new IntValue(i));
+                device.getDevicePropertyList().add(devicePropertyValue);
+            }
+            for (int i = 0; i < ARTIFACTS; i++) {
+                componentType.getComptypeArtifactList().add(new ComptypeArtifact("Artifact" + i, false,
+                        "Artifact " + i, "http://example.com/artifact" + i));
+                device.getDeviceArtifactList().add(new DeviceArtifact("Artifact" + i, false, "Artifact " + i,
+                        "http://example.com/artifact" + i));
+            }
+        }
+
+        @Benchmark
+        public List<AuditRecord> device() {
+            return deviceLogger.auditEntries(device, EntityTypeOperation.UPDATE);
+        }
+
+        /** The {@link DeviceEntityLogger} of a device that is not installed, before the entries were streamed. */
+        @Benchmark
+        public List<AuditRecord> deviceInTree() {
+            final Map<String, String> propertiesMap = new TreeMap<>();
+            for (DevicePropertyValue propValue : device.getDevicePropertyList()) {
+                propertiesMap.put(propValue.getProperty().getName(), propValue.getPropValue().auditLogString(100, 50));
+            }
+            final Map<String, String> artifactsMap = new TreeMap<>();
+            for (DeviceArtifact artifact : device.getDeviceArtifactList()) {
+                artifactsMap.put(artifact.getName(), artifact.getUri());
+            }
+
+            return ImmutableList.of(new TreeAuditLogUtil(device)
+                        .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy",
+                                "version", "serialNumber", "componentType", "name"))
+                        .addStringProperty("componentType", device.getComponentType().getName())
+                        .addArrayOfMappedProperties("installation", new TreeMap<String, String>())
+                        .addArrayOfMappedProperties("devicePropertyList", propertiesMap)
+                        .addArrayOfMappedProperties("deviceArtifactList", artifactsMap)
+                        .addArrayOfProperties("tagsList", EntityLoggerUtil.getTagNamesFromTagsSet(device.getTags()))
+                        .auditEntry(EntityTypeOperation.UPDATE, EntityType.DEVICE, device.getSerialNumber(),
+                                device.getId()));
+        }
+
+        @Benchmark
+        public List<AuditRecord> componentType() {
+            return componentTypeLogger.auditEntries(componentType, EntityTypeOperation.UPDATE);
+        }
+
+        /** The {@link ComponentTypeEntityLogger} before the entries were streamed. */
+        @Benchmark
+        public List<AuditRecord> componentTypeInTree() {
+            final Map<String, String> propertiesMap = new TreeMap<>();
+            for (ComptypePropertyValue propValue : componentType.getComptypePropertyList()) {
+                propertiesMap.put(propValue.getProperty().getName(), propValue.getPropValue().auditLogString(100, 50));
+            }
+            final Map<String, String> artifactsMap = new TreeMap<>();
+            for (ComptypeArtifact artifact : componentType.getComptypeArtifactList()) {
+                artifactsMap.put(artifact.getName(), artifact.getUri());
+            }
+
+            return ImmutableList.of(new TreeAuditLogUtil(componentType)
+                        .removeTopProperties(Arrays.asList("id", "modifiedAt", "modifiedBy", "version", "name"))
+                        .addArrayOfMappedProperties("comptypePropertyList", propertiesMap)
+                        .addArrayOfMappedProperties("comptypeArtifactList", artifactsMap)
+                        .addArrayOfProperties("tagsList",
+                                EntityLoggerUtil.getTagNamesFromTagsSet(componentType.getTags()))
+                        .auditEntry(EntityTypeOperation.UPDATE, EntityType.COMPONENT_TYPE, componentType.getName(),
+                                componentType.getId()));
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SlotEntityLoggerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
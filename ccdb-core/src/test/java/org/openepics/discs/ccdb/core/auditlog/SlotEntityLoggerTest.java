@@ -102,4 +102,13 @@ public class SlotEntityLoggerTest {
 
         assertEquals(RESULT, sel.auditEntries(slot, EntityTypeOperation.CREATE).get(0).getEntry());
     }
+
+    @Test
+    public void testSerializeChildrenSummary() {
+        final String entry = new SlotEntityLogger(true).auditEntries(slot, EntityTypeOperation.CREATE).get(0)
+                .getEntry();
+
+        assertTrue(entry.matches(".*\\],\"childrenCount\":1,\"childrenHash\":\"[0-9a-f]{32}\","
+                + "\"parentSlots\":\\[\\{\"parentSlot\":\"\\[Contained in\\]\"\\}\\]\\}"));
+    }
 }
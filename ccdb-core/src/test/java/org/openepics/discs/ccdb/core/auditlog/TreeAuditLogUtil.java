@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.auditlog;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+
+import org.openepics.discs.ccdb.core.util.CCDBRuntimeException;
+import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+
+/**
+ * The {@link AuditLogUtil} as it was before the audit log entries were streamed: the entity is converted to a
+ * Jackson tree with {@link ObjectMapper#valueToTree(Object)}, the unwanted properties are removed from the tree and
+ * the tree is serialized. Used as the baseline of {@link SlotEntityLoggerBenchmark}.
+ */
+class TreeAuditLogUtil {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    static {
+        MAPPER.setSerializationInclusion(Include.NON_EMPTY);
+        MAPPER.configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true);
+        MAPPER.configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false);
+    }
+
+    private final ObjectNode node;
+
+    TreeAuditLogUtil(Object entity) {
+        node = MAPPER.valueToTree(entity);
+    }
+
+    TreeAuditLogUtil removeTopProperties(final Collection<String> fieldNames) {
+        node.remove(fieldNames);
+        return this;
+    }
+
+    TreeAuditLogUtil addStringProperty(String key, String value) {
+        if (value != null) {
+            node.put(key, value);
+        }
+        return this;
+    }
+
+    TreeAuditLogUtil addArrayOfMappedProperties(String key, Map<String, ?> keyValuePairs) {
+        if (keyValuePairs.isEmpty()) {
+            return this;
+        }
+
+        final ArrayNode arrayNode = MAPPER.createArrayNode();
+        for (Entry<String, ?> entry : keyValuePairs.entrySet()) {
+            final ObjectNode arrayObjectNode = MAPPER.createObjectNode();
+            arrayObjectNode.put(entry.getKey(), entry.getValue() != null ? entry.getValue().toString() : null);
+            arrayNode.add(arrayObjectNode);
+        }
+        node.set(key, arrayNode);
+        return this;
+    }
+
+    TreeAuditLogUtil addArrayOfProperties(String key, List<String> arrayValues) {
+        if (arrayValues.isEmpty()) {
+            return this;
+        }
+
+        final ArrayNode arrayNode = MAPPER.createArrayNode();
+        for (String value : arrayValues) {
+            arrayNode.add(value);
+        }
+        node.set(key, arrayNode);
+        return this;
+    }
+
+    AuditRecord auditEntry(EntityTypeOperation oper, EntityType entityType, String key, Long id) {
+        final String serialized;
+        try {
+            serialized = MAPPER.writeValueAsString(node);
+        } catch (Exception e) {
+            throw new CCDBRuntimeException("AuditLogUtil serialization to JSon failed", e);
+        }
+        final AuditRecord arec = new AuditRecord(oper, serialized, id);
+        arec.setEntityType(entityType);
+        arec.setEntityKey(key);
+        return arec;
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.dl.common;
+
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.openepics.discs.ccdb.core.util.ExcelCell;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures reading an import workbook with the event model of the {@link ExcelImportFileReader}, both when the rows
+ * are pushed to the loader one by one and when they are collected first, against building the whole
+ * {@link XSSFWorkbook} as the import did before. The whole workbook of a million rows does not fit into the heap, so
+ * that size is only read with the event model, in {@link EventModelOnly}. Run with the main method from the test
+ * classpath; the GC profiler shows the memory allocated per read.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+public class ExcelImportFileReaderBenchmark {
+    private static final int DATA_START_INDEX = 9;
+    private static final int DATA_ROW_LENGTH = 12;
+
+    @Param({"10000", "100000"})
+    private int rows;
+
+    private Path workbookFile;
+
+    @Setup(Level.Trial)
+    public void writeWorkbook() throws IOException {
+        workbookFile = writeWorkbook(rows);
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteWorkbook() throws IOException {
+        Files.delete(workbookFile);
+    }
+
+    @Benchmark
+    public void readRows(Blackhole blackhole) throws IOException {
+        readRows(workbookFile, blackhole);
+    }
+
+    @Benchmark
+    public Object collectRows() throws IOException {
+        try (final InputStream input = Files.newInputStream(workbookFile)) {
+            return ExcelImportFileReader.importExcelFile(input, DATA_START_INDEX, DATA_ROW_LENGTH);
+        }
+    }
+
+    @Benchmark
+    public Object collectRowsFromWorkbook() throws IOException {
+        try (final InputStream input = Files.newInputStream(workbookFile)) {
+            final XSSFWorkbook workbook = new XSSFWorkbook(input);
+            final List<List<String>> result = new ArrayList<>();
+            for (final Row row : workbook.getSheetAt(0)) {
+                if (row.getRowNum() < DATA_START_INDEX) {
+                    continue;
+                }
+                final List<String> cells = new ArrayList<>(DATA_ROW_LENGTH);
+                for (int column = 0; column < DATA_ROW_LENGTH; ++column) {
+                    cells.add(ExcelCell.asStringOrNull(row.getCell(column), workbook));
+                }
+                result.add(cells);
+            }
+            return result;
+        }
+    }
+
+    /** Reads the workbook of a million rows with the event model, pushing the rows to the loader one by one. */
+    @State(Scope.Benchmark)
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 1)
+    @Measurement(iterations = 3)
+    @Fork(value = 1, jvmArgsAppend = "-Xmx2g")
+    public static class EventModelOnly {
+        @Param({"1000000"})
+        private int rows;
+
+        private Path workbookFile;
+
+        @Setup(Level.Trial)
+        public void writeWorkbook() throws IOException {
+            workbookFile = ExcelImportFileReaderBenchmark.writeWorkbook(rows);
+        }
+
+        @TearDown(Level.Trial)
+        public void deleteWorkbook() throws IOException {
+            Files.delete(workbookFile);
+        }
+
+        @Benchmark
+        public void readRows(Blackhole blackhole) throws IOException {
+            ExcelImportFileReaderBenchmark.readRows(workbookFile, blackhole);
+        }
+    }
+
+    private static Path writeWorkbook(int rows) throws IOException {
+        final Path workbookFile = Files.createTempFile("ccdb-import-benchmark", ".xlsx");
+        final SXSSFWorkbook workbook = new SXSSFWorkbook();
+        try (final OutputStream output = new FileOutputStream(workbookFile.toFile())) {
+            final Sheet sheet = workbook.createSheet("Import");
+            for (int rowIndex = 0; rowIndex < rows; ++rowIndex) {
+                final Row row = sheet.createRow(DATA_START_INDEX + rowIndex);
+                row.createCell(0).setCellValue(DataLoader.CMD_UPDATE);
+                row.createCell(1).setCellValue("Slot" + rowIndex);
+                row.createCell(2).setCellValue("Description of the slot " + rowIndex);
+                row.createCell(3).setCellValue(rowIndex);
+                row.createCell(4).setCellValue(rowIndex / 7.0);
+                row.createCell(5).setCellValue(rowIndex % 2 == 0);
+            }
+            sheet.createRow(DATA_START_INDEX + rows).createCell(0).setCellValue(DataLoader.CMD_END);
+            workbook.write(output);
+        } finally {
+            workbook.dispose();
+        }
+        return workbookFile;
+    }
+
+    private static void readRows(Path workbookFile, Blackhole blackhole) throws IOException {
+        try (final InputStream input = Files.newInputStream(workbookFile)) {
+            ExcelImportFileReader.readExcelFile(input, DATA_START_INDEX, DATA_ROW_LENGTH, blackhole::consume);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ExcelImportFileReaderBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
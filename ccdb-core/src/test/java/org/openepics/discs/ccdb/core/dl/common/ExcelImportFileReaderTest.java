@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.dl.common;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.lang3.tuple.Pair;
+import org.apache.poi.ss.usermodel.Row;
+import org.apache.poi.xssf.usermodel.XSSFSheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ExcelImportFileReaderTest {
+
+    private byte[] workbookData;
+
+    @Before
+    public void createWorkbook() throws IOException {
+        final XSSFWorkbook workbook = new XSSFWorkbook();
+        final XSSFSheet sheet = workbook.createSheet("Import");
+        // header, not part of the import data
+        sheet.createRow(0).createCell(0).setCellValue("OPERATION");
+
+        final Row create = sheet.createRow(2);
+        create.createCell(0).setCellValue(DataLoader.CMD_CREATE);
+        create.createCell(1).setCellValue("meter");
+        create.createCell(3).setCellValue(42);
+        create.createCell(4).setCellValue(1.5);
+        create.createCell(5).setCellValue(true);
+
+        // the first cell is empty, the row is skipped
+        sheet.createRow(3).createCell(1).setCellValue("ignored");
+
+        final Row formula = sheet.createRow(4);
+        formula.createCell(0).setCellValue(DataLoader.CMD_UPDATE);
+        formula.createCell(1).setCellFormula("2+3");
+        formula.createCell(7).setCellValue("wide");
+
+        sheet.createRow(5).createCell(0).setCellValue(DataLoader.CMD_END);
+
+        workbook.getCreationHelper().createFormulaEvaluator().evaluateAll();
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        workbook.write(output);
+        workbookData = output.toByteArray();
+    }
+
+    @Test
+    public void importExcelFile() throws IOException {
+        final List<Pair<Integer, List<String>>> rows;
+        try (final InputStream input = new ByteArrayInputStream(workbookData)) {
+            rows = ExcelImportFileReader.importExcelFile(input, 1, 6);
+        }
+
+        assertEquals(3, rows.size());
+
+        assertEquals(Integer.valueOf(3), rows.get(0).getLeft());
+        assertEquals(Arrays.asList(DataLoader.CMD_CREATE, "meter", null, "42", "1.5", "true"),
+                rows.get(0).getRight());
+
+        // the row is longer than the template, the formula result is used
+        assertEquals(Integer.valueOf(5), rows.get(1).getLeft());
+        assertEquals(Arrays.asList(DataLoader.CMD_UPDATE, "5.0", null, null, null, null, null, "wide"),
+                rows.get(1).getRight());
+
+        assertEquals(Integer.valueOf(6), rows.get(2).getLeft());
+        assertEquals(Arrays.asList(DataLoader.CMD_END, null, null, null, null, null), rows.get(2).getRight());
+    }
+
+    @Test
+    public void readExcelFileFromDataStartIndex() throws IOException {
+        final List<Integer> rowNumbers = new ArrayList<>();
+        try (final InputStream input = new ByteArrayInputStream(workbookData)) {
+            ExcelImportFileReader.readExcelFile(input, 4, 6, row -> rowNumbers.add(row.getLeft()));
+        }
+
+        assertEquals(Arrays.asList(5, 6), rowNumbers);
+    }
+}
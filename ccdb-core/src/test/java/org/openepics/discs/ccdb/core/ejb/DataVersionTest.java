@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+
+import java.util.Arrays;
+import java.util.Date;
+
+import org.junit.Test;
+import org.openepics.discs.ccdb.model.ConfigurationEntity;
+
+public class DataVersionTest {
+
+    @Test
+    public void lastModifiedTruncatedToSeconds() {
+        assertEquals(new Date(1456000000000L), new DataVersion(new Date(1456000000789L), 1, 1).getLastModified());
+        assertEquals(new Date(0L), new DataVersion(null, 0, 0).getLastModified());
+    }
+
+    @Test
+    public void tagChangesWithVersionAndVariant() {
+        final DataVersion version = new DataVersion(new Date(1456000000000L), 10, 20);
+
+        assertEquals(version.getTag("/slot"), new DataVersion(new Date(1456000000500L), 10, 20).getTag("/slot"));
+        assertNotEquals(version.getTag("/slot"), version.getTag("/slot?limit=10"));
+        assertNotEquals(version.getTag("/slot"), new DataVersion(new Date(1456000000000L), 9, 20).getTag("/slot"));
+        assertNotEquals(version.getTag("/slot"), new DataVersion(new Date(1456000000000L), 10, 21).getTag("/slot"));
+        assertNotEquals(version.getTag("/slot"), new DataVersion(new Date(1456000001000L), 10, 20).getTag("/slot"));
+    }
+
+    @Test
+    public void builtFromEntities() {
+        final ConfigurationEntity first = entity(1L, 3L, 1456000000000L);
+        final ConfigurationEntity second = entity(2L, 0L, 1456000005000L);
+        final DataVersion version = new DataVersion.Builder().add(first).add(second).build();
+
+        assertEquals(new Date(1456000005000L), version.getLastModified());
+        assertEquals(2, version.getCount());
+        assertEquals(version.getTag("/slot"),
+                new DataVersion.Builder().addAll(Arrays.asList(second, first)).build().getTag("/slot"));
+        assertNotEquals(version.getTag("/slot"), new DataVersion.Builder().add(first).add(
+                entity(2L, 1L, 1456000005000L)).build().getTag("/slot"));
+        assertNotEquals(version.getTag("/slot"), new DataVersion.Builder().add(first).add(
+                entity(4L, 0L, 1456000005000L)).build().getTag("/slot"));
+        assertEquals(new Date(0L), new DataVersion.Builder().build().getLastModified());
+    }
+
+    private static ConfigurationEntity entity(long entityId, long entityVersion, long entityModifiedAt) {
+        return new ConfigurationEntity() {
+            private static final long serialVersionUID = 1L;
+            {
+                id = entityId;
+                version = entityVersion;
+                modifiedAt = new Date(entityModifiedAt);
+            }
+        };
+    }
+}
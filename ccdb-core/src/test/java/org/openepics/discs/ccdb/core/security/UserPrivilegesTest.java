@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.core.security;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
+import org.openepics.discs.ccdb.model.PrivilegeChangeListener;
+
+public class UserPrivilegesTest {
+
+    private static final long TTL = 60000;
+
+    private UserPrivileges userPrivileges;
+    private final Map<EntityType, EnumSet<EntityTypeOperation>> privileges = new EnumMap<>(EntityType.class);
+
+    @Before
+    public void setUp() {
+        userPrivileges = new UserPrivileges();
+        privileges.put(EntityType.SLOT, EnumSet.of(EntityTypeOperation.CREATE, EntityTypeOperation.UPDATE));
+        privileges.put(EntityType.UNIT, EnumSet.allOf(EntityTypeOperation.class));
+    }
+
+    @Test
+    public void hasPermission() {
+        userPrivileges.update("user", privileges, PrivilegeChangeListener.getModificationCount(), TTL);
+
+        assertTrue(userPrivileges.isValidFor("user"));
+        assertTrue(userPrivileges.hasPermission(EntityType.SLOT, EntityTypeOperation.CREATE));
+        assertFalse(userPrivileges.hasPermission(EntityType.SLOT, EntityTypeOperation.DELETE));
+        assertTrue(userPrivileges.hasPermission(EntityType.UNIT, EntityTypeOperation.RENAME));
+        assertFalse(userPrivileges.hasPermission(EntityType.DEVICE, EntityTypeOperation.CREATE));
+    }
+
+    @Test
+    public void notValidForOtherUser() {
+        userPrivileges.update("user", privileges, PrivilegeChangeListener.getModificationCount(), TTL);
+
+        assertFalse(userPrivileges.isValidFor("other"));
+    }
+
+    @Test
+    public void notValidAfterExpiration() {
+        userPrivileges.update("user", privileges, PrivilegeChangeListener.getModificationCount(), -1);
+
+        assertFalse(userPrivileges.isValidFor("user"));
+    }
+
+    @Test
+    public void notValidAfterPrivilegeModification() {
+        userPrivileges.update("user", privileges, PrivilegeChangeListener.getModificationCount(), TTL);
+        new PrivilegeChangeListener().privilegesModified(new Object());
+
+        assertFalse(userPrivileges.isValidFor("user"));
+    }
+
+    @Test
+    public void notValidAfterCommittedPrivilegeModification() {
+        final TransactionRegistryStub transaction = new TransactionRegistryStub();
+        userPrivileges.update("user", privileges, PrivilegeChangeListener.getModificationCount(), TTL);
+        transaction.listener.privilegesModified(new Object());
+        transaction.listener.privilegesModified(new Object());
+
+        assertTrue(userPrivileges.isValidFor("user"));
+        assertEquals(1, transaction.synchronizations.size());
+
+        transaction.complete(Status.STATUS_COMMITTED);
+        assertFalse(userPrivileges.isValidFor("user"));
+    }
+
+    @Test
+    public void validAfterRolledBackPrivilegeModification() {
+        final TransactionRegistryStub transaction = new TransactionRegistryStub();
+        userPrivileges.update("user", privileges, PrivilegeChangeListener.getModificationCount(), TTL);
+        transaction.listener.privilegesModified(new Object());
+        transaction.complete(Status.STATUS_ROLLEDBACK);
+
+        assertTrue(userPrivileges.isValidFor("user"));
+    }
+
+    @Test
+    public void notValidAfterInvalidate() {
+        userPrivileges.update("user", privileges, PrivilegeChangeListener.getModificationCount(), TTL);
+        userPrivileges.invalidate();
+
+        assertFalse(userPrivileges.isValidFor("user"));
+        assertFalse(userPrivileges.hasPermission(EntityType.SLOT, EntityTypeOperation.CREATE));
+    }
+
+    /** A single running transaction and a {@link PrivilegeChangeListener} taking part in it */
+    private static class TransactionRegistryStub implements TransactionSynchronizationRegistry {
+        private final Object transactionKey = new Object();
+        private final Map<Object, Object> resources = new HashMap<>();
+        private final List<Synchronization> synchronizations = new ArrayList<>();
+        private final PrivilegeChangeListener listener = new PrivilegeChangeListener() {
+            @Override
+            protected TransactionSynchronizationRegistry getTransactionRegistry() {
+                return TransactionRegistryStub.this;
+            }
+        };
+
+        private void complete(int status) {
+            for (final Synchronization synchronization : synchronizations) {
+                synchronization.afterCompletion(status);
+            }
+        }
+
+        @Override
+        public Object getTransactionKey() {
+            return transactionKey;
+        }
+
+        @Override
+        public void putResource(Object key, Object value) {
+            resources.put(key, value);
+        }
+
+        @Override
+        public Object getResource(Object key) {
+            return resources.get(key);
+        }
+
+        @Override
+        public void registerInterposedSynchronization(Synchronization sync) {
+            synchronizations.add(sync);
+        }
+
+        @Override
+        public int getTransactionStatus() {
+            return Status.STATUS_ACTIVE;
+        }
+
+        @Override
+        public void setRollbackOnly() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public boolean getRollbackOnly() {
+            return false;
+        }
+    }
+}
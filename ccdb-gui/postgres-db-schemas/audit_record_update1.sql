@@ -0,0 +1,5 @@
+CREATE INDEX audit_record_user_idx ON audit_record (ccdb_user, id);
+CREATE INDEX audit_record_type_idx ON audit_record (entity_type, id);
+CREATE INDEX audit_record_type_oper_idx ON audit_record (entity_type, oper, id);
+CREATE INDEX audit_record_oper_idx ON audit_record (oper, id);
+CREATE INDEX audit_record_log_time_idx ON audit_record (log_time, id);
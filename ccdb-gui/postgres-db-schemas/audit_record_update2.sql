@@ -0,0 +1,2 @@
+ALTER TABLE audit_record ADD COLUMN tx_id BIGINT NOT NULL DEFAULT txid_current();
+CREATE INDEX audit_record_tx_idx ON audit_record (tx_id, id);
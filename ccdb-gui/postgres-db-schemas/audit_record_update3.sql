@@ -0,0 +1,13 @@
+CREATE TABLE audit_record_quarantine (
+    id bigint NOT NULL,
+    log_time timestamp without time zone,
+    oper character varying(255),
+    ccdb_user text,
+    entity_type character varying(255),
+    entity_key text,
+    entity_id bigint,
+    entry text,
+    error text,
+    quarantined_at timestamp without time zone,
+    CONSTRAINT audit_record_quarantine_pkey PRIMARY KEY (id)
+);
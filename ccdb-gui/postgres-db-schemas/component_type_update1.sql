@@ -0,0 +1 @@
+CREATE INDEX component_type_modified_at_idx ON component_type (modified_at);
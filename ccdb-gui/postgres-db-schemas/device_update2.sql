@@ -0,0 +1 @@
+CREATE INDEX device_modified_at_idx ON device (modified_at);
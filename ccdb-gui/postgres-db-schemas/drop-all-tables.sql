@@ -3,6 +3,7 @@ DROP TABLE "alignment_property_value";
 DROP TABLE "alignment_tag";
 DROP TABLE "artifacts";
 DROP TABLE "audit_record";
+DROP TABLE "audit_record_quarantine";
 DROP TABLE "comptype_artifact";
 DROP TABLE "comptype_asm";
 DROP TABLE "comptype_property_value";
@@ -17,6 +18,7 @@ DROP TABLE "installation_record";
 DROP TABLE "privilege";
 DROP TABLE "report_action";
 DROP TABLE "slot_artifact";
+DROP TABLE "slot_closure";
 DROP TABLE "slot_pair";
 DROP TABLE "slot_property_value";
 DROP TABLE "slot_relation";
@@ -0,0 +1 @@
+CREATE INDEX installation_record_modified_at_idx ON installation_record (modified_at);
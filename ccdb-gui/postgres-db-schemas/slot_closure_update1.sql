@@ -0,0 +1,20 @@
+CREATE TABLE slot_closure (
+    ancestor bigint NOT NULL,
+    descendant bigint NOT NULL,
+    path_count bigint NOT NULL,
+    CONSTRAINT slot_closure_pkey PRIMARY KEY (ancestor, descendant)
+);
+CREATE INDEX slot_closure_descendant_idx ON slot_closure (descendant, ancestor);
+
+INSERT INTO slot_closure (ancestor, descendant, path_count)
+WITH RECURSIVE contains_pair (parent_slot, child_slot) AS (
+    SELECT p.parent_slot, p.child_slot FROM slot_pair p
+        JOIN slot_relation r ON p.slot_relation = r.id
+        WHERE r.name = 'CONTAINS'
+), contains_path (ancestor, descendant) AS (
+    SELECT parent_slot, child_slot FROM contains_pair
+    UNION ALL
+    SELECT path.ancestor, pair.child_slot FROM contains_path path
+        JOIN contains_pair pair ON pair.parent_slot = path.descendant
+)
+SELECT ancestor, descendant, COUNT(*) FROM contains_path GROUP BY ancestor, descendant;
@@ -0,0 +1 @@
+CREATE INDEX slot_modified_at_idx ON slot (modified_at);
@@ -0,0 +1,2 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE INDEX slot_upper_name_trgm_idx ON slot USING gin (upper(name) gin_trgm_ops);
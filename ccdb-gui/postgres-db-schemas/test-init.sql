@@ -9,6 +9,7 @@ truncate
 	"alignment_tag", 
 	"artifacts",
 	"audit_record",
+	"audit_record_quarantine",
 	"ccdb_user",
 	"component_type",
 	"comptype_artifact", 
@@ -31,6 +32,7 @@ truncate
 	"role",
 	"slot",
 	"slot_artifact",
+	"slot_closure",
 	"slot_pair",
 	"slot_property_value",
 	"slot_relation",
@@ -49,6 +51,7 @@ vacuum full "alignment_record";
 vacuum full "alignment_tag";
 vacuum full "artifacts";
 vacuum full "audit_record";
+vacuum full "audit_record_quarantine";
 vacuum full "ccdb_user";
 vacuum full "component_type";
 vacuum full "comptype_artifact";
@@ -71,6 +74,7 @@ vacuum full "report_action";
 vacuum full "role";
 vacuum full "slot";
 vacuum full "slot_artifact";
+vacuum full "slot_closure";
 vacuum full "slot_pair";
 vacuum full "slot_property_value";
 vacuum full "slot_relation";
@@ -322,6 +326,141 @@ INSERT INTO slot_pair VALUES (295, 2, 0, 294, 225, 42);
 INSERT INTO slot_pair VALUES (298, 3, 0, 297, 225, 42);
 INSERT INTO slot_pair VALUES (301, 4, 0, 300, 225, 42);
 
+INSERT INTO slot_closure VALUES (47, 181, 1);
+INSERT INTO slot_closure VALUES (47, 184, 1);
+INSERT INTO slot_closure VALUES (47, 193, 1);
+INSERT INTO slot_closure VALUES (47, 198, 1);
+INSERT INTO slot_closure VALUES (47, 201, 1);
+INSERT INTO slot_closure VALUES (47, 204, 1);
+INSERT INTO slot_closure VALUES (47, 207, 1);
+INSERT INTO slot_closure VALUES (47, 210, 1);
+INSERT INTO slot_closure VALUES (47, 213, 1);
+INSERT INTO slot_closure VALUES (47, 216, 1);
+INSERT INTO slot_closure VALUES (47, 219, 1);
+INSERT INTO slot_closure VALUES (47, 222, 1);
+INSERT INTO slot_closure VALUES (47, 225, 1);
+INSERT INTO slot_closure VALUES (47, 228, 1);
+INSERT INTO slot_closure VALUES (47, 231, 1);
+INSERT INTO slot_closure VALUES (47, 234, 1);
+INSERT INTO slot_closure VALUES (47, 237, 1);
+INSERT INTO slot_closure VALUES (47, 240, 1);
+INSERT INTO slot_closure VALUES (47, 243, 1);
+INSERT INTO slot_closure VALUES (47, 246, 1);
+INSERT INTO slot_closure VALUES (47, 249, 1);
+INSERT INTO slot_closure VALUES (47, 252, 1);
+INSERT INTO slot_closure VALUES (47, 255, 1);
+INSERT INTO slot_closure VALUES (47, 258, 1);
+INSERT INTO slot_closure VALUES (47, 261, 1);
+INSERT INTO slot_closure VALUES (47, 264, 1);
+INSERT INTO slot_closure VALUES (47, 267, 1);
+INSERT INTO slot_closure VALUES (47, 270, 1);
+INSERT INTO slot_closure VALUES (47, 273, 1);
+INSERT INTO slot_closure VALUES (47, 276, 1);
+INSERT INTO slot_closure VALUES (47, 279, 1);
+INSERT INTO slot_closure VALUES (47, 282, 1);
+INSERT INTO slot_closure VALUES (47, 285, 1);
+INSERT INTO slot_closure VALUES (47, 288, 1);
+INSERT INTO slot_closure VALUES (47, 291, 1);
+INSERT INTO slot_closure VALUES (47, 294, 1);
+INSERT INTO slot_closure VALUES (47, 297, 1);
+INSERT INTO slot_closure VALUES (47, 300, 1);
+INSERT INTO slot_closure VALUES (181, 184, 1);
+INSERT INTO slot_closure VALUES (181, 193, 1);
+INSERT INTO slot_closure VALUES (181, 198, 1);
+INSERT INTO slot_closure VALUES (181, 201, 1);
+INSERT INTO slot_closure VALUES (181, 204, 1);
+INSERT INTO slot_closure VALUES (181, 207, 1);
+INSERT INTO slot_closure VALUES (181, 210, 1);
+INSERT INTO slot_closure VALUES (181, 213, 1);
+INSERT INTO slot_closure VALUES (181, 216, 1);
+INSERT INTO slot_closure VALUES (181, 219, 1);
+INSERT INTO slot_closure VALUES (181, 222, 1);
+INSERT INTO slot_closure VALUES (181, 225, 1);
+INSERT INTO slot_closure VALUES (181, 228, 1);
+INSERT INTO slot_closure VALUES (181, 231, 1);
+INSERT INTO slot_closure VALUES (181, 234, 1);
+INSERT INTO slot_closure VALUES (181, 237, 1);
+INSERT INTO slot_closure VALUES (181, 240, 1);
+INSERT INTO slot_closure VALUES (181, 243, 1);
+INSERT INTO slot_closure VALUES (181, 246, 1);
+INSERT INTO slot_closure VALUES (181, 249, 1);
+INSERT INTO slot_closure VALUES (181, 252, 1);
+INSERT INTO slot_closure VALUES (181, 255, 1);
+INSERT INTO slot_closure VALUES (181, 258, 1);
+INSERT INTO slot_closure VALUES (181, 261, 1);
+INSERT INTO slot_closure VALUES (181, 264, 1);
+INSERT INTO slot_closure VALUES (181, 267, 1);
+INSERT INTO slot_closure VALUES (181, 270, 1);
+INSERT INTO slot_closure VALUES (181, 273, 1);
+INSERT INTO slot_closure VALUES (181, 276, 1);
+INSERT INTO slot_closure VALUES (181, 279, 1);
+INSERT INTO slot_closure VALUES (181, 282, 1);
+INSERT INTO slot_closure VALUES (181, 285, 1);
+INSERT INTO slot_closure VALUES (181, 288, 1);
+INSERT INTO slot_closure VALUES (181, 291, 1);
+INSERT INTO slot_closure VALUES (181, 294, 1);
+INSERT INTO slot_closure VALUES (181, 297, 1);
+INSERT INTO slot_closure VALUES (181, 300, 1);
+INSERT INTO slot_closure VALUES (184, 201, 1);
+INSERT INTO slot_closure VALUES (184, 204, 1);
+INSERT INTO slot_closure VALUES (184, 228, 1);
+INSERT INTO slot_closure VALUES (184, 231, 1);
+INSERT INTO slot_closure VALUES (184, 234, 1);
+INSERT INTO slot_closure VALUES (184, 237, 1);
+INSERT INTO slot_closure VALUES (193, 207, 1);
+INSERT INTO slot_closure VALUES (193, 210, 1);
+INSERT INTO slot_closure VALUES (193, 213, 1);
+INSERT INTO slot_closure VALUES (193, 240, 1);
+INSERT INTO slot_closure VALUES (193, 243, 1);
+INSERT INTO slot_closure VALUES (193, 246, 1);
+INSERT INTO slot_closure VALUES (193, 249, 1);
+INSERT INTO slot_closure VALUES (193, 252, 1);
+INSERT INTO slot_closure VALUES (193, 255, 1);
+INSERT INTO slot_closure VALUES (193, 258, 1);
+INSERT INTO slot_closure VALUES (193, 261, 1);
+INSERT INTO slot_closure VALUES (198, 216, 1);
+INSERT INTO slot_closure VALUES (198, 219, 1);
+INSERT INTO slot_closure VALUES (198, 222, 1);
+INSERT INTO slot_closure VALUES (198, 225, 1);
+INSERT INTO slot_closure VALUES (198, 264, 1);
+INSERT INTO slot_closure VALUES (198, 267, 1);
+INSERT INTO slot_closure VALUES (198, 270, 1);
+INSERT INTO slot_closure VALUES (198, 273, 1);
+INSERT INTO slot_closure VALUES (198, 276, 1);
+INSERT INTO slot_closure VALUES (198, 279, 1);
+INSERT INTO slot_closure VALUES (198, 282, 1);
+INSERT INTO slot_closure VALUES (198, 285, 1);
+INSERT INTO slot_closure VALUES (198, 288, 1);
+INSERT INTO slot_closure VALUES (198, 291, 1);
+INSERT INTO slot_closure VALUES (198, 294, 1);
+INSERT INTO slot_closure VALUES (198, 297, 1);
+INSERT INTO slot_closure VALUES (198, 300, 1);
+INSERT INTO slot_closure VALUES (201, 228, 1);
+INSERT INTO slot_closure VALUES (201, 231, 1);
+INSERT INTO slot_closure VALUES (204, 234, 1);
+INSERT INTO slot_closure VALUES (204, 237, 1);
+INSERT INTO slot_closure VALUES (207, 240, 1);
+INSERT INTO slot_closure VALUES (207, 243, 1);
+INSERT INTO slot_closure VALUES (210, 246, 1);
+INSERT INTO slot_closure VALUES (210, 249, 1);
+INSERT INTO slot_closure VALUES (213, 252, 1);
+INSERT INTO slot_closure VALUES (213, 255, 1);
+INSERT INTO slot_closure VALUES (213, 258, 1);
+INSERT INTO slot_closure VALUES (213, 261, 1);
+INSERT INTO slot_closure VALUES (216, 264, 1);
+INSERT INTO slot_closure VALUES (216, 267, 1);
+INSERT INTO slot_closure VALUES (216, 270, 1);
+INSERT INTO slot_closure VALUES (219, 273, 1);
+INSERT INTO slot_closure VALUES (219, 276, 1);
+INSERT INTO slot_closure VALUES (219, 279, 1);
+INSERT INTO slot_closure VALUES (222, 282, 1);
+INSERT INTO slot_closure VALUES (222, 285, 1);
+INSERT INTO slot_closure VALUES (222, 288, 1);
+INSERT INTO slot_closure VALUES (225, 291, 1);
+INSERT INTO slot_closure VALUES (225, 294, 1);
+INSERT INTO slot_closure VALUES (225, 297, 1);
+INSERT INTO slot_closure VALUES (225, 300, 1);
+
 INSERT INTO device VALUES (601, '2014-12-22 11:39:24.896', 'admin', 3, NULL, NULL, 'Device 001', NULL, NULL, NULL, NULL, NULL, '001', 'READY', NULL, 173);
 INSERT INTO device VALUES (604, '2014-12-19 13:13:19.165', 'admin', 1, NULL, NULL, 'Device 002', NULL, NULL, NULL, NULL, NULL, '002', 'DEFINED', NULL, 173);
 
@@ -359,6 +498,7 @@ vacuum full "alignment_record";
 vacuum full "alignment_tag";
 vacuum full "artifacts";
 vacuum full "audit_record";
+vacuum full "audit_record_quarantine";
 vacuum full "ccdb_user";
 vacuum full "component_type";
 vacuum full "comptype_artifact";
@@ -381,6 +521,7 @@ vacuum full "report_action";
 vacuum full "role";
 vacuum full "slot";
 vacuum full "slot_artifact";
+vacuum full "slot_closure";
 vacuum full "slot_pair";
 vacuum full "slot_property_value";
 vacuum full "slot_relation";
@@ -19,22 +19,25 @@
  */
 package org.openepics.discs.ccdb.gui.export;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
 import java.text.SimpleDateFormat;
 import java.util.Calendar;
 import java.util.Date;
-import java.util.List;
 
 import org.openepics.discs.ccdb.core.util.Conversion;
 import org.openepics.discs.ccdb.core.util.DeleteOnCloseFileInputStream;
 
-import com.google.common.collect.Lists;
-
 /**
+ * The class implements exporting a single table into a CSV file. The rows are written to a temporary file as they
+ * are added, so the memory used does not depend on the size of the table.
+ *
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  */
 public class CSVExportTable implements ExportTable {
@@ -42,52 +45,99 @@ public class CSVExportTable implements ExportTable {
     private static final String SEPARATOR = ",";
     private static final String NEWLINE = "\r\n";
 
-    private boolean headerAdded;
-    final private List<String> fileLines;
+    /** The header row is kept until the first data row is added, so that it can still be replaced */
+    private String headerLine;
+    private boolean dataAdded;
+    private File temporaryFile;
+    private Writer writer;
     final SimpleDateFormat timestampFormatter;
 
     /** Constructs a CSV file exporter. */
     public CSVExportTable() {
-        headerAdded = false;
         timestampFormatter = new SimpleDateFormat(Conversion.DATE_TIME_FORMAT);
-        fileLines = Lists.newArrayList();
     }
 
     @Override
     public void createTable(String title) {
-        fileLines.clear();
+        try {
+            discardTable();
+            headerLine = null;
+            dataAdded = false;
+            temporaryFile = File.createTempFile("ccdb_table_exp", "csv");
+            writer = new BufferedWriter(new OutputStreamWriter(new FileOutputStream(temporaryFile),
+                                                                                        StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            discardTable();
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
     public void addHeaderRow(String... titles) {
-        if (!headerAdded) {
-            headerAdded = true;
-            fileLines.add(0, dataToString(titles));
-        } else {
-            fileLines.set(0, dataToString(titles));
+        if (dataAdded) {
+            throw new CannotAddHeaderRowException("addHeaderRow must be called before data is added to the table.");
         }
+        headerLine = dataToString(titles);
     }
 
     @Override
     public void addDataRow(Object... data) {
-        fileLines.add(dataToString(data));
+        try {
+            writeHeaderLine();
+            dataAdded = true;
+            writer.write(dataToString(data));
+        } catch (IOException e) {
+            discardTable();
+            throw new RuntimeException(e);
+        }
     }
 
     @Override
     public InputStream exportTable() {
         try {
-            final File temporaryFile = File.createTempFile("ccdb_table_exp", "csv");
-            final FileOutputStream outputStream = new FileOutputStream(temporaryFile);
-            for (String line : fileLines) {
-                outputStream.write(line.getBytes(StandardCharsets.UTF_8));
-            }
-            outputStream.close();
-            return new DeleteOnCloseFileInputStream(temporaryFile);
+            writeHeaderLine();
+            closeWriter();
+            final InputStream exportedTable = new DeleteOnCloseFileInputStream(temporaryFile);
+            // the stream deletes the file once it is downloaded
+            temporaryFile = null;
+            return exportedTable;
         } catch (IOException e) {
+            discardTable();
             throw new RuntimeException(e);
         }
     }
 
+    @Override
+    public void discardTable() {
+        try {
+            closeWriter();
+        } catch (IOException e) {
+            // the file is deleted regardless
+        } finally {
+            if (temporaryFile != null) {
+                temporaryFile.delete();
+                temporaryFile = null;
+            }
+        }
+    }
+
+    private void writeHeaderLine() throws IOException {
+        if (headerLine != null) {
+            writer.write(headerLine);
+            headerLine = null;
+        }
+    }
+
+    private void closeWriter() throws IOException {
+        if (writer != null) {
+            try {
+                writer.close();
+            } finally {
+                writer = null;
+            }
+        }
+    }
+
     private String dataToString(Object... entries) {
         final StringBuilder line = new StringBuilder();
         boolean first = true;
@@ -38,6 +38,8 @@ import org.apache.poi.ss.usermodel.IndexedColors;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
 import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.ss.util.WorkbookUtil;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.apache.poi.xssf.usermodel.XSSFWorkbook;
 import org.openepics.discs.ccdb.model.values.DblValue;
 import org.openepics.discs.ccdb.model.values.IntValue;
@@ -48,15 +50,32 @@ import org.openepics.discs.ccdb.core.util.DeleteOnCloseFileInputStream;
 
 /**
  * The class implements exporting the a single table into an Excel file.
+ * <p>
+ * When no template is used, the table is written with the streaming SXSSF workbook. Only the last
+ * {@link SXSSFWorkbook#DEFAULT_WINDOW_SIZE} rows are kept in memory, the rest are flushed to a temporary file, so
+ * the memory used does not depend on the size of the table. The rows of a template can be filled in, so a table
+ * with a template is built in memory.
+ * </p>
+ * <p>
+ * A sheet holds at most {@value #MAX_ROWS_PER_SHEET} rows. The rows of a larger table continue on the next sheet,
+ * named after the title and the number of the sheet, and the header row is repeated at the top of each sheet.
+ * </p>
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  */
 public class ExcelExportTable implements ExportTable {
+    /** The number of rows of an Excel 2007 sheet */
+    static final int MAX_ROWS_PER_SHEET = 1048576;
+    private static final int MAX_SHEET_NAME_LENGTH = 31;
 
     private Workbook wb;
     private Sheet sheet;
+    private String title;
+    private String[] headerTitles;
+    private int sheetNumber;
     private CellStyle headerStyle;
     private CellStyle timestampStyle;
     private int rowNumber;
+    private final int maxRowsPerSheet;
     private final String templateName;
     final ServletContext servletContext;
 
@@ -68,14 +87,22 @@ public class ExcelExportTable implements ExportTable {
      * @param startRow the 0 based index of the row to start the export at.
      */
     public ExcelExportTable(final String templateName, final int startRow) {
-        servletContext = ((HttpServletRequest)FacesContext.getCurrentInstance().getExternalContext().getRequest()).
-                                                                                    getServletContext();
+        this(((HttpServletRequest)FacesContext.getCurrentInstance().getExternalContext().getRequest()).
+                                                getServletContext(), templateName, startRow, MAX_ROWS_PER_SHEET);
+    }
+
+    ExcelExportTable(final ServletContext servletContext, final String templateName, final int startRow,
+            final int maxRowsPerSheet) {
+        this.servletContext = servletContext;
         rowNumber = startRow;
+        this.maxRowsPerSheet = maxRowsPerSheet;
         this.templateName = templateName;
     }
 
     @Override
     public void createTable(String title) {
+        this.title = title;
+        sheetNumber = 1;
         if (templateName != null) {
             try (final InputStream template = servletContext.getResourceAsStream(templateName)) {
                 wb = new XSSFWorkbook(template);
@@ -84,7 +111,9 @@ public class ExcelExportTable implements ExportTable {
                 throw new CannotOpenTemplateException(e);
             }
         } else {
-            wb = new XSSFWorkbook();
+            final SXSSFWorkbook streamingWorkbook = new SXSSFWorkbook(SXSSFWorkbook.DEFAULT_WINDOW_SIZE);
+            streamingWorkbook.setCompressTempFiles(true);
+            wb = streamingWorkbook;
             sheet = wb.createSheet(title);
         }
         initHeaderStyle();
@@ -98,6 +127,11 @@ public class ExcelExportTable implements ExportTable {
         if (rowNumber != 0) {
             throw new CannotAddHeaderRowException("addHeaderRow must be called before data is added to the table.");
         }
+        headerTitles = titles;
+        writeHeaderRow(titles);
+    }
+
+    private void writeHeaderRow(String... titles) {
         final Row headerRow = sheet.createRow(rowNumber);
         ++rowNumber;
         int column = 0;
@@ -111,6 +145,9 @@ public class ExcelExportTable implements ExportTable {
 
     @Override
     public void addDataRow(Object... data) {
+        if (rowNumber >= maxRowsPerSheet) {
+            startNextSheet();
+        }
         Row row = sheet.getRow(rowNumber);
 
         if (row == null) {
@@ -126,6 +163,20 @@ public class ExcelExportTable implements ExportTable {
         }
     }
 
+    /** Continues the table on a new sheet, after the current one is full. */
+    private void startNextSheet() {
+        ++sheetNumber;
+        final String suffix = " (" + sheetNumber + ")";
+        final String name = title.length() + suffix.length() > MAX_SHEET_NAME_LENGTH
+                                ? title.substring(0, MAX_SHEET_NAME_LENGTH - suffix.length()) + suffix
+                                : title + suffix;
+        sheet = wb.createSheet(WorkbookUtil.createSafeSheetName(name));
+        rowNumber = 0;
+        if (headerTitles != null) {
+            writeHeaderRow(headerTitles);
+        }
+    }
+
     private void setCellValue(final Cell cell, final Object value) {
         if (value == null) {
             cell.setCellType(Cell.CELL_TYPE_BLANK);
@@ -168,7 +219,18 @@ public class ExcelExportTable implements ExportTable {
             outputStream.close();
             return new DeleteOnCloseFileInputStream(temporaryFile);
         } catch (IOException e) {
+            temporaryFile.delete();
             throw new RuntimeException(e);
+        } finally {
+            discardTable();
+        }
+    }
+
+    @Override
+    public void discardTable() {
+        if (wb instanceof SXSSFWorkbook) {
+            // removes the temporary files holding the flushed rows
+            ((SXSSFWorkbook) wb).dispose();
         }
     }
 
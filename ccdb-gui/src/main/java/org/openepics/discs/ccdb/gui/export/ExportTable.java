@@ -65,4 +65,10 @@ public interface ExportTable {
      * @return the {@link InputStream} that can be used for download.
      */
     public InputStream exportTable();
+
+    /**
+     * This method releases a table that will not be exported, because filling it failed. The temporary files holding
+     * the data added so far are deleted.
+     */
+    public void discardTable();
 }
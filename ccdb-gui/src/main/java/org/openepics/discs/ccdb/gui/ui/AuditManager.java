@@ -21,7 +21,11 @@ package org.openepics.discs.ccdb.gui.ui;
 
 import java.io.IOException;
 import java.io.Serializable;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -32,6 +36,7 @@ import javax.inject.Inject;
 import javax.inject.Named;
 
 import org.openepics.discs.ccdb.core.ejb.AuditRecordEJB;
+import org.openepics.discs.ccdb.core.ejb.AuditRecordFilter;
 import org.openepics.discs.ccdb.model.AuditRecord;
 import org.openepics.discs.ccdb.model.ConfigurationEntity;
 import org.openepics.discs.ccdb.model.EntityType;
@@ -39,13 +44,16 @@ import org.openepics.discs.ccdb.model.EntityTypeOperation;
 import org.openepics.discs.ccdb.gui.export.ExportTable;
 import org.openepics.discs.ccdb.gui.ui.export.ExportSimpleTableDialog;
 import org.openepics.discs.ccdb.gui.ui.export.SimpleTableExporter;
-import org.openepics.discs.ccdb.core.util.Utility;
+import org.primefaces.model.LazyDataModel;
+import org.primefaces.model.SortOrder;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableList.Builder;
 
 /**
+ * The audit log view. The audit records are loaded lazily, one page at a time, by the {@link AuditRecordLazyModel}.
+ *
  * @author vuppala
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  */
@@ -60,8 +68,9 @@ public class AuditManager implements Serializable, SimpleTableExporter {
 
     private List<AuditRecord> auditRecordsForEntity;
     private AuditRecord displayRecord;
-    private List<AuditRecord> auditRecords;
-    private List<AuditRecord> filteredAuditRecords;
+    private AuditRecordLazyModel auditRecords;
+    private Date logFrom;
+    private Date logTo;
     private List<SelectItem> auditOperations;
     private List<SelectItem> entityTypes;
     private String formattedDetails;
@@ -87,13 +96,10 @@ public class AuditManager implements Serializable, SimpleTableExporter {
 
         @Override
         protected void addData(ExportTable exportTable) {
-            final List<AuditRecord> exportData = Utility.isNullOrEmpty(filteredAuditRecords) ? auditRecords
-                    : filteredAuditRecords;
-            for (final AuditRecord record : exportData) {
-                exportTable.addDataRow(record.getLogTime(), record.getUser(), record.getOper().toString(),
-                        record.getEntityKey(), record.getEntityType().getLabel(), record.getEntityId(),
-                        record.getEntry());
-            }
+            // the records are written to the table as they are read, the exported log is never held in memory
+            auditRecordEJB.forEach(auditRecords.getFilter(), record -> exportTable.addDataRow(record.getLogTime(),
+                    record.getUser(), record.getOper().toString(), record.getEntityKey(),
+                    record.getEntityType().getLabel(), record.getEntityId(), record.getEntry()));
         }
 
         @Override
@@ -109,6 +115,91 @@ public class AuditManager implements Serializable, SimpleTableExporter {
         }
     }
 
+    /**
+     * Loads the audit records matching the table filters and the selected time range, the newest first. The id of
+     * the last record of each loaded page is remembered, so that the following page is queried by its id instead of
+     * by its offset. The total number of the records is never counted: while full pages are returned, the table is
+     * told that there is at least one more record to load.
+     */
+    private class AuditRecordLazyModel extends LazyDataModel<AuditRecord> {
+        private static final long serialVersionUID = -2740136328870474566L;
+
+        /** The id of the last record before the offset, by the offset */
+        private final TreeMap<Integer, Long> pageBoundaries = new TreeMap<>();
+        private AuditRecordFilter filter = new AuditRecordFilter();
+        private List<AuditRecord> page;
+
+        @Override
+        public List<AuditRecord> load(int first, int pageSize, String sortField, SortOrder sortOrder,
+                Map<String, Object> filters) {
+            final AuditRecordFilter newFilter = createFilter(filters);
+            if (!newFilter.equals(filter)) {
+                filter = newFilter;
+                pageBoundaries.clear();
+            }
+
+            final Entry<Integer, Long> boundary = first > 0 ? pageBoundaries.floorEntry(first) : null;
+            page = boundary == null ? auditRecordEJB.findPage(filter, null, first, pageSize)
+                                : auditRecordEJB.findPage(filter, boundary.getValue(), first - boundary.getKey(),
+                                                                                                        pageSize);
+            if (!page.isEmpty()) {
+                pageBoundaries.put(first + page.size(), page.get(page.size() - 1).getId());
+            }
+            setRowCount(page.size() < pageSize ? first + page.size() : first + pageSize + 1);
+            return page;
+        }
+
+        private AuditRecordFilter createFilter(Map<String, Object> filters) {
+            final AuditRecordFilter newFilter = new AuditRecordFilter();
+            newFilter.setUser(filterValue(filters, "user"));
+            newFilter.setEntityKey(filterValue(filters, "entityKey"));
+            final String oper = filterValue(filters, "oper");
+            newFilter.setOper(oper == null ? null : EntityTypeOperation.valueOf(oper));
+            final String entityType = filterValue(filters, "entityType");
+            newFilter.setEntityType(entityType == null ? null : EntityType.valueOf(entityType));
+            final String entityId = filterValue(filters, "entityId");
+            if (entityId != null) {
+                try {
+                    newFilter.setEntityId(Long.valueOf(entityId));
+                } catch (NumberFormatException e) {
+                    // not a database id, no record can match
+                    newFilter.setEntityId(-1L);
+                }
+            }
+            newFilter.setFrom(logFrom);
+            newFilter.setTo(logTo);
+            return newFilter;
+        }
+
+        private String filterValue(Map<String, Object> filters, String field) {
+            final Object value = filters == null ? null : filters.get(field);
+            return value == null || value.toString().trim().isEmpty() ? null : value.toString().trim();
+        }
+
+        @Override
+        public Object getRowKey(AuditRecord record) {
+            return record.getId();
+        }
+
+        @Override
+        public AuditRecord getRowData(String rowKey) {
+            final Long id = Long.valueOf(rowKey);
+            if (page != null) {
+                for (final AuditRecord record : page) {
+                    if (id.equals(record.getId())) {
+                        return record;
+                    }
+                }
+            }
+            return auditRecordEJB.findById(id);
+        }
+
+        /** @return the filter of the last loaded page */
+        private AuditRecordFilter getFilter() {
+            return filter;
+        }
+    }
+
 
     /**
      * Creates a new instance of AuditManager
@@ -121,7 +212,7 @@ public class AuditManager implements Serializable, SimpleTableExporter {
      */
     @PostConstruct
     public void init() {
-        auditRecords = auditRecordEJB.findAllOrdered();
+        auditRecords = new AuditRecordLazyModel();
         simpleTableExporterDialog = new ExportSimpleAuditTableDialog();
         prepareAuditOperations();
         prepareEntityTypes();
@@ -196,23 +287,25 @@ public class AuditManager implements Serializable, SimpleTableExporter {
         return auditRecordsForEntity;
     }
 
-    /** @return the auditRecords */
-    public List<AuditRecord> getAuditRecords() {
+    /** @return the lazily loaded audit records */
+    public LazyDataModel<AuditRecord> getAuditRecords() {
         return auditRecords;
     }
 
-    /**
-     * @return the filteredAuditRecords
-     */
-    public List<AuditRecord> getFilteredAuditRecords() {
-        return filteredAuditRecords;
+    /** @return the earliest time of the shown audit records, <code>null</code> for no limit */
+    public Date getLogFrom() {
+        return logFrom;
+    }
+    public void setLogFrom(Date logFrom) {
+        this.logFrom = logFrom;
     }
 
-    /**
-     * @param filteredAuditRecords the filteredAuditRecords to set
-     */
-    public void setFilteredAuditRecords(List<AuditRecord> filteredAuditRecords) {
-        this.filteredAuditRecords = filteredAuditRecords;
+    /** @return the time before which the shown audit records were created, <code>null</code> for no limit */
+    public Date getLogTo() {
+        return logTo;
+    }
+    public void setLogTo(Date logTo) {
+        this.logTo = logTo;
     }
 
     private void prepareAuditOperations() {
@@ -54,6 +54,7 @@ import org.openepics.discs.ccdb.core.dl.annotations.SignalsLoader;
 import org.openepics.discs.ccdb.core.dl.annotations.SlotsLoader;
 import org.openepics.discs.ccdb.core.dl.common.DataLoader;
 import org.openepics.discs.ccdb.core.ejb.ComptypeEJB;
+import org.openepics.discs.ccdb.core.ejb.HierarchySnapshot;
 import org.openepics.discs.ccdb.core.ejb.InstallationEJB;
 import org.openepics.discs.ccdb.core.ejb.SlotEJB;
 import org.openepics.discs.ccdb.core.ejb.SlotPairEJB;
@@ -114,6 +115,7 @@ public class HierarchiesController extends AbstractExcelSingleFileImportUI imple
     private static final String     CABLEDB_DEVICE_PAGE = "index.xhtml?cableNumber=";
 
     @Inject private SlotEJB slotEJB;
+    @Inject private HierarchySnapshot hierarchySnapshot;
     @Inject private SlotPairEJB slotPairEJB;
     @Inject private InstallationEJB installationEJB;
     @Inject private ComptypeEJB comptypeEJB;
@@ -255,6 +257,11 @@ public class HierarchiesController extends AbstractExcelSingleFileImportUI imple
         if (selectedSlot != null) {
             selectedSlot = freshSlot;
         }
+        for (final FilteredTreeNode<SlotView> node : selectedTree.getSelectedNodes()) {
+            if (node.getData().getId().equals(slot.getId())) {
+                node.getData().refreshSlot();
+            }
+        }
     }
 
     protected void refreshTrees(HashSet<Long> ids) {
@@ -386,10 +393,11 @@ public class HierarchiesController extends AbstractExcelSingleFileImportUI imple
 
     /* Add attributes, relationships and installation information for slots that are missing */
     private void addRelatedInformationForNewSlots() {
-        for (final Long selectedId : selectedNodeIds) {
+        for (final FilteredTreeNode<SlotView> node : selectedTree.getSelectedNodes()) {
+            final Long selectedId = node.getData().getId();
             if (!displayedAttributeNodeIds.contains(selectedId)) {
                 // this slot doesn't have information in the related tables yet
-                final Slot slotToAdd = slotEJB.findById(selectedId);
+                final Slot slotToAdd = node.getData().getSlot();
                 slotAttributeController.clearRelatedAttributeInformation();
                 slotAttributeController.populateAttributesList();
                 relationshipController.initRelationshipList(slotToAdd, false);
@@ -676,13 +684,13 @@ public class HierarchiesController extends AbstractExcelSingleFileImportUI imple
     private void initHierarchies() {
     	SlotView rootView = new SlotView(slotEJB.getRootNode(), null, 1, slotEJB);
 
-    	containsTree = new SlotRelationshipTree(SlotRelationName.CONTAINS, slotEJB, installationEJB);
+    	containsTree = new SlotRelationshipTree(SlotRelationName.CONTAINS, slotEJB, hierarchySnapshot);
     	containsTree.setRootNode(new FilteredTreeNode<SlotView>(rootView, null, containsTree));
 
-    	controlsTree = new SlotRelationshipTree(SlotRelationName.CONTROLS, slotEJB, installationEJB);
+    	controlsTree = new SlotRelationshipTree(SlotRelationName.CONTROLS, slotEJB, hierarchySnapshot);
     	controlsTree.setRootNode(new RootNodeWithChildren(rootView, controlsTree));
 
-    	powersTree = new SlotRelationshipTree(SlotRelationName.POWERS, slotEJB, installationEJB);
+    	powersTree = new SlotRelationshipTree(SlotRelationName.POWERS, slotEJB, hierarchySnapshot);
     	powersTree.setRootNode(new RootNodeWithChildren(rootView, powersTree));
 
     	connectsTree = new ConnectsTree(slotEJB, connectsManager);
@@ -38,7 +38,7 @@ import javax.faces.view.ViewScoped;
 import javax.inject.Inject;
 import javax.inject.Named;
 
-import org.openepics.discs.ccdb.core.ejb.InstallationEJB;
+import org.openepics.discs.ccdb.core.ejb.HierarchySnapshot;
 import org.openepics.discs.ccdb.core.ejb.SlotEJB;
 import org.openepics.discs.ccdb.core.ejb.SlotPairEJB;
 import org.openepics.discs.ccdb.core.ejb.SlotRelationEJB;
@@ -68,7 +68,7 @@ public class RelationshipController implements Serializable {
     private static final long serialVersionUID = 1L;
 
     @Inject private SlotEJB slotEJB;
-    @Inject private InstallationEJB installationEJB;
+    @Inject private HierarchySnapshot hierarchySnapshot;
     @Inject private SlotRelationEJB slotRelationEJB;
     @Inject private SlotPairEJB slotPairEJB;
     @Inject private ConnectsManager connectsManager;
@@ -94,7 +94,7 @@ public class RelationshipController implements Serializable {
         relationshipTypes = buildRelationshipTypeList();
 
     	SlotView rootView = new SlotView(slotEJB.getRootNode(), null, 1, slotEJB);
-    	containsTree = new SlotRelationshipTree(SlotRelationName.CONTAINS, slotEJB, installationEJB);
+    	containsTree = new SlotRelationshipTree(SlotRelationName.CONTAINS, slotEJB, hierarchySnapshot);
     	containsTree.setRootNode(new FilteredTreeNode<SlotView>(rootView, null, containsTree));
     }
 
@@ -20,17 +20,23 @@
 package org.openepics.discs.ccdb.gui.ui.common;
 
 import java.io.InputStream;
-import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 import javax.annotation.PostConstruct;
 import javax.annotation.Resource;
 import javax.ejb.EJBContext;
 import javax.ejb.Stateless;
+import javax.inject.Inject;
 
-import org.apache.commons.lang3.tuple.Pair;
+import org.apache.commons.lang3.mutable.MutableBoolean;
 import org.openepics.discs.ccdb.core.dl.common.DataLoader;
 import org.openepics.discs.ccdb.core.dl.common.DataLoaderResult;
 import org.openepics.discs.ccdb.core.dl.common.ExcelImportFileReader;
+import org.openepics.discs.ccdb.core.util.AppProperties;
+
+import com.google.common.collect.ImmutableMap;
 
 /**
  * Common data loader handler for loading of all data.
@@ -40,8 +46,10 @@ import org.openepics.discs.ccdb.core.dl.common.ExcelImportFileReader;
  */
 @Stateless
 public class DataLoaderHandler {
+    private static final Logger LOGGER = Logger.getLogger(DataLoaderHandler.class.getCanonicalName());
 
     @Resource private EJBContext context;
+    @Inject private AppProperties properties;
     private DataLoaderResult loaderResult;
 
     /**
@@ -53,7 +61,7 @@ public class DataLoaderHandler {
     }
 
     /**
-     * Loads data from import file to {@link List} and calls method on certain data loader
+     * Parses the import file and passes its rows to the certain data loader as they are parsed,
      * to save the data in the database. If the result of save is {@link DataLoaderResult#isError()}
      * then the transaction is rolled back. In any case, the notification is shown to the user.
      *
@@ -63,15 +71,37 @@ public class DataLoaderHandler {
      * @return a {@link DataLoaderResult} containing information about the operation completion status
      */
     public DataLoaderResult loadData(InputStream inputStream, DataLoader dataLoader) {
-        final List<Pair<Integer, List<String>>> inputRows = ExcelImportFileReader.importExcelFile(inputStream,
-                                            dataLoader.getImportDataStartIndex(), dataLoader.getDataWidth());
+        final MutableBoolean hasRows = new MutableBoolean(false);
+        final DataLoaderResult result = dataLoader.loadDataToDatabase(rowHandler ->
+                ExcelImportFileReader.readExcelFile(inputStream, dataLoader.getImportDataStartIndex(),
+                        dataLoader.getDataWidth(), row -> {
+                            hasRows.setTrue();
+                            rowHandler.accept(row);
+                        }), getContextualData());
 
-        if (inputRows != null && !inputRows.isEmpty()) {
-            loaderResult = dataLoader.loadDataToDatabase(inputRows, null);
+        if (hasRows.isTrue()) {
+            loaderResult = result;
             if (loaderResult.isError()) {
                 context.setRollbackOnly();
             }
         }
         return loaderResult;
     }
+
+    /**
+     * @return the contextual data enabling the batch mode of the data loaders if the
+     * {@link AppProperties#IMPORT_BATCH_SIZE} is set, <code>null</code> otherwise
+     */
+    private Map<String, Object> getContextualData() {
+        final String batchSize = properties.getProperty(AppProperties.IMPORT_BATCH_SIZE);
+        if (batchSize == null || batchSize.trim().isEmpty()) {
+            return null;
+        }
+        try {
+            return ImmutableMap.of(DataLoader.CTX_BATCH_SIZE, Integer.valueOf(batchSize.trim()));
+        } catch (NumberFormatException e) {
+            LOGGER.log(Level.WARNING, AppProperties.IMPORT_BATCH_SIZE + " is not a number: " + batchSize);
+            return null;
+        }
+    }
 }
@@ -79,14 +79,19 @@ public abstract class ExportSimpleTableDialog {
             fileName = getFileName() + ".csv";
         }
 
-        exportTable.createTable(getTableName());
-        if (includeHeaderRow) {
-            addHeaderRow(exportTable);
+        try {
+            exportTable.createTable(getTableName());
+            if (includeHeaderRow) {
+                addHeaderRow(exportTable);
+            }
+
+            addData(exportTable);
+
+            return new DefaultStreamedContent(exportTable.exportTable(), mimeType, fileName);
+        } catch (RuntimeException e) {
+            exportTable.discardTable();
+            throw e;
         }
-
-        addData(exportTable);
-
-        return new DefaultStreamedContent(exportTable.exportTable(), mimeType, fileName);
     }
 
     /** @return the name of the table to be used when creating. This name may be used by the {@link ExportTable}
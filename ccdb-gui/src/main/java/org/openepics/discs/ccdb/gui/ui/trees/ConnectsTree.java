@@ -59,6 +59,15 @@ public class ConnectsTree extends Tree<SlotView> {
 		return !slotView.isHostingSlot() || slotView.getName().toUpperCase().contains(getAppliedFilter());
 	}
 
+	/**
+	 * The connections of the slot have changed, so the slot entity kept by the view is loaded again.
+	 * @param node the node
+	 */
+	@Override
+	public void refreshNodeData(BasicTreeNode<SlotView> node) {
+		node.getData().refreshSlot();
+	}
+
 	/**
 	 * Returns "cable" children of current tree node. Takes care of cycles.
 	 * Takes care of cable numbers.
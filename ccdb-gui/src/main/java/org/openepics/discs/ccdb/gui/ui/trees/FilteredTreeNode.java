@@ -66,7 +66,7 @@ public class FilteredTreeNode<D> extends TreeNodeWithTree<D> {
 				for (FilteredTreeNode<D> node : bufferedAllChildren) {
 					if (getTree().isNodeInFilter(node)) {
 						bufferedFilteredChildren.add(node);
-					} else if (!node.isLeaf()) {
+					} else if (!getTree().isFilterIncludingDescendants() && !node.isLeaf()) {
 					    // isLeaf actually calls getFilteredChildren
 						bufferedFilteredChildren.add(node);
 					}
@@ -74,10 +74,12 @@ public class FilteredTreeNode<D> extends TreeNodeWithTree<D> {
 				}
 			}
 			updateRowKeys(bufferedFilteredChildren);
-			// do a forceful load and buffering after certain level
+			// do a forceful load and buffering after certain level, unless the tree knows the child count
 			if (getLevel() >= LOAD_AFTER_LEVEL) {
 				for (FilteredTreeNode<D> node : bufferedFilteredChildren) {
-				    node.getFilteredChildren();
+					if (getTree().getChildCount(node) < 0) {
+						node.getFilteredChildren();
+					}
 				}
 			}
 		}
@@ -104,6 +106,24 @@ public class FilteredTreeNode<D> extends TreeNodeWithTree<D> {
 		return bufferedAllChildren;
 	}
 
+	/**
+	 * Uses the child count known to the tree to decide if the node is a leaf, so the children are not loaded.
+	 * They are loaded only if the count is not known, or if a filter is applied and the node has children.
+	 */
+	@Override
+	public boolean isLeaf() {
+		if (bufferedAllChildren == null) {
+			final long childCount = getTree().getChildCount(this);
+			if (childCount == 0) {
+				return true;
+			}
+			if (childCount > 0 && "".equals(getTree().getAppliedFilter())) {
+				return false;
+			}
+		}
+		return super.isLeaf();
+	}
+
     /** Cleans the cache, so the next time data are reloaded from source. */
 	public void cleanCache() {
 		bufferedAllChildren = null;
@@ -125,8 +145,14 @@ public class FilteredTreeNode<D> extends TreeNodeWithTree<D> {
 	 */
 	@SuppressWarnings("unchecked")
 	public void refreshCache() {
+		getTree().refreshNodeData(this);
 		List<FilteredTreeNode<D>> oldBuffer = bufferedAllChildren;
-		if (oldBuffer == null) return;
+		if (oldBuffer == null) {
+			// the child count the node was created with is no longer valid, so the children are loaded now
+			bufferedAllChildren = (List<FilteredTreeNode<D>>)getAllChildren();
+			bufferedFilteredChildren = null;
+			return;
+		}
 		ArrayList<FilteredTreeNode<D>> newBuffer = (ArrayList<FilteredTreeNode<D>>)getAllChildren();
 		for (int i = 0; i < newBuffer.size(); ++i) {
 			for (FilteredTreeNode<D> oldNode : oldBuffer) {
@@ -22,17 +22,16 @@ package org.openepics.discs.ccdb.gui.ui.trees;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.ListIterator;
+import java.util.Set;
 
-import org.openepics.discs.ccdb.core.ejb.InstallationEJB;
+import org.openepics.discs.ccdb.core.ejb.HierarchySnapshot;
 import org.openepics.discs.ccdb.core.ejb.SlotEJB;
-import org.openepics.discs.ccdb.model.InstallationRecord;
+import org.openepics.discs.ccdb.core.ejb.SlotSummary;
 import org.openepics.discs.ccdb.model.Slot;
-import org.openepics.discs.ccdb.model.SlotPair;
 import org.openepics.discs.ccdb.model.SlotRelationName;
 import org.openepics.discs.ccdb.gui.views.SlotView;
 
 import com.google.common.base.Preconditions;
-import com.google.common.collect.Lists;
 
 /**
  * Implements extrinsic method, that return's tree node's children based on given relationship name.
@@ -41,35 +40,78 @@ import com.google.common.collect.Lists;
  */
 public class SlotRelationshipTree extends Tree<SlotView> {
 	protected SlotRelationName relationship;
-	protected InstallationEJB installationEJB;
+	protected HierarchySnapshot hierarchySnapshot;
+	/** The ids of the slots displayed by the applied filter, <code>null</code> if they are not known */
+	private Set<Long> filteredSlotIds;
 
 	/**
 	 * Initializes the tree.
 	 * Relationship determines the type of hierarchy.
-	 * SlotEJB and installationEJB are needed to generate the children.
+	 * The children are taken from the hierarchy snapshot shared by all the views.
 	 * @param relationship the type of hierarchy
 	 * @param slotEJB slotEJB
-	 * @param installationEJB installationEJB
+	 * @param hierarchySnapshot hierarchySnapshot
 	 */
-	public SlotRelationshipTree(SlotRelationName relationship, SlotEJB slotEJB, InstallationEJB installationEJB) {
+	public SlotRelationshipTree(SlotRelationName relationship, SlotEJB slotEJB, HierarchySnapshot hierarchySnapshot) {
 		super(slotEJB);
 		this.relationship = relationship;
-		this.installationEJB = installationEJB;
+		this.hierarchySnapshot = hierarchySnapshot;
+	}
+
+	/**
+	 * Applies the filter. In the "contains" hierarchy the matching installation slots and their ancestors are found
+	 * in the database, so the hierarchy does not have to be loaded to find the matches.
+	 */
+	@Override
+	public void applyFilter() {
+		super.applyFilter();
+		filteredSlotIds = relationship == SlotRelationName.CONTAINS && !getAppliedFilter().isEmpty()
+								? slotEJB.findFilteredSlotIds(getAppliedFilter()) : null;
 	}
 
 	/**
 	 * Containers and nodes containing the filter string are present.
+	 * If the matches were found in the database, only the matching nodes and their ancestors are present.
 	 * @param node the node
 	 * @return should the node be displayed
 	 */
 	@Override
 	public boolean isNodeInFilter(BasicTreeNode<SlotView> node) {
 		final SlotView slotView = node.getData();
+		if (filteredSlotIds != null) {
+			return filteredSlotIds.contains(slotView.getId());
+		}
 		return !slotView.isHostingSlot() || slotView.getName().toUpperCase().contains(getAppliedFilter());
 	}
 
+	@Override
+	public boolean isFilterIncludingDescendants() {
+		return filteredSlotIds != null;
+	}
+
+	/**
+	 * The child count is loaded together with the node, so the children do not have to be loaded to get it.
+	 * @param node the node
+	 * @return the number of children, or {@link SlotView#UNKNOWN_CHILD_COUNT} for the nodes not created from a
+	 * summary
+	 */
+	@Override
+	public long getChildCount(BasicTreeNode<SlotView> node) {
+		return node.getData().getChildCount();
+	}
+
+	/**
+	 * The relationships of the slot have changed, so the slot entity kept by the view is loaded again.
+	 * @param node the node
+	 */
+	@Override
+	public void refreshNodeData(BasicTreeNode<SlotView> node) {
+		node.getData().refreshSlot();
+	}
+
 	/**
 	 * Returns all children. Takes care of correct order and initialization of them.
+	 * The children are created from their summaries in the shared snapshot, the slot entities are not loaded.
 	 * @param parent the parent node
 	 */
 	@Override
@@ -77,17 +119,10 @@ public class SlotRelationshipTree extends Tree<SlotView> {
 		final SlotView slotView = parent.getData();
 		final List<BasicTreeNode<SlotView>> allChildren = new ArrayList<>();
 
-		final List<SlotPair> slotChildren = slotView.getSlot().getPairsInWhichThisSlotIsAParentList();
-
-		for (SlotPair pair : slotChildren) {
-	    	if (pair.getSlotRelation().getName() == relationship) {
-	    		final Slot childSlot = pair.getChildSlot();
-	            final SlotView childSlotView = new SlotView(childSlot, slotView, pair.getSlotOrder(), slotEJB);
-
-	            assignInstalledDeviceToView(childSlotView);
-	            allChildren.add(new FilteredTreeNode<SlotView>(childSlotView, parent, this));
-	    	}
-	    }
+		for (SlotSummary childSummary : hierarchySnapshot.getChildSummaries(slotView.getId(), relationship)) {
+			final SlotView childSlotView = new SlotView(childSummary, slotView, slotEJB);
+			allChildren.add(new FilteredTreeNode<SlotView>(childSlotView, parent, this));
+		}
 		if (!allChildren.isEmpty()) {
 			allChildren.sort((o1, o2) -> {return o1.getData().getOrder() - o2.getData().getOrder();});
 			allChildren.get(0).getData().setFirst(true);
@@ -96,15 +131,6 @@ public class SlotRelationshipTree extends Tree<SlotView> {
 		return allChildren;
 	}
 
-	private void assignInstalledDeviceToView(final SlotView slotView) {
-        if (slotView.isHostingSlot() && installationEJB != null) {
-            final InstallationRecord record = installationEJB.getActiveInstallationRecordForSlot(slotView.getSlot());
-            if (record != null) {
-                slotView.setInstalledDevice(record.getDevice());
-            }
-        }
-	}
-
 	/**
 	 * Finds a one instance of the slot in the tree. Only works for "contains" tree, but it could work for any entity
 	 * based trees.
@@ -117,7 +143,7 @@ public class SlotRelationshipTree extends Tree<SlotView> {
         Preconditions.checkNotNull(slot);
 
         FilteredTreeNode<SlotView> node = getRootNode();
-        final List<Slot> pathToRoot = getPathToRoot(slot);
+        final List<Slot> pathToRoot = slotEJB.getPathToRoot(slot);
         final ListIterator<Slot> pathIterator = pathToRoot.listIterator(pathToRoot.size());
         // we're not interested in the root node. Skip it.
         pathIterator.previous();
@@ -144,37 +170,4 @@ public class SlotRelationshipTree extends Tree<SlotView> {
         }
         return node;
     }
-
-
-    /**
-     * The method generates the path from the requested node to the root of the contains hierarchy. If an element has
-     * multiple parents, this method always chooses the first parent it encounters.
-     *
-     * @param slotOnPath the slot to find the path for
-     * @return the path from requested node (first element) to the root of the hierarchy (last element).
-     */
-    private List<Slot> getPathToRoot(Slot slot) {
-        final List<Slot> path = Lists.newArrayList();
-        final Slot rootSlot = slotEJB.getRootNode();
-        Slot slotOnPath = slot;
-
-        path.add(slotOnPath);
-
-        while (!rootSlot.equals(slotOnPath)) {
-            final List<SlotPair> parents = slotOnPath.getPairsInWhichThisSlotIsAChildList();
-            boolean containsParentFound = false;
-            for (final SlotPair pair : parents) {
-                if (pair.getSlotRelation().getName() == SlotRelationName.CONTAINS) {
-                    containsParentFound = true;
-                    slotOnPath = pair.getParentSlot();
-                    path.add(slotOnPath);
-                    break;
-                }
-            }
-            if (!containsParentFound) {
-                throw new IllegalStateException("Slot " + slotOnPath.getName() + " does not have a CONTAINS parent.");
-            }
-        }
-        return path;
-    }
 }
@@ -167,6 +167,36 @@ public abstract class Tree<D> {
 	 */
     public abstract boolean isNodeInFilter(BasicTreeNode<D> node);
 
+    /**
+     * Returns whether {@link #isNodeInFilter(BasicTreeNode)} already accounts for the descendants of the node. If it
+     * does, the descendants do not have to be loaded to decide if the node is displayed.
+     *
+     * @return <code>true</code> if the filter result includes the descendants
+     */
+    public boolean isFilterIncludingDescendants() {
+        return false;
+    }
+
+    /**
+     * Returns the number of children of the node, if it is known without loading them.
+     * The default implementation does not know it.
+     *
+     * @param node the node
+     * @return the number of children, or a negative number if it is not known
+     */
+    public long getChildCount(BasicTreeNode<D> node) {
+        return -1;
+    }
+
+    /**
+     * Called by {@link FilteredTreeNode#refreshCache()} before the children of the node are loaded again, so the
+     * data of the node can drop what it keeps about its relationships. The default implementation does nothing.
+     *
+     * @param node the node
+     */
+    public void refreshNodeData(BasicTreeNode<D> node) {
+    }
+
     /**
      * Refreshes nodes which contain slot with the given IDs.
      *
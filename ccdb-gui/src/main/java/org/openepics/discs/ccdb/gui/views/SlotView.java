@@ -23,6 +23,7 @@ import java.io.Serializable;
 import java.util.Objects;
 
 import org.openepics.discs.ccdb.core.ejb.SlotEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotSummary;
 import org.openepics.discs.ccdb.model.Device;
 import org.openepics.discs.ccdb.model.Slot;
 import org.openepics.discs.ccdb.model.SlotPair;
@@ -32,12 +33,18 @@ import org.openepics.discs.ccdb.core.util.CCDBRuntimeException;
 /**
  * View of container used to compose and manipulate with container presentation in tree view
  *
+ * The view only holds the data needed to display the node. The {@link Slot} entity is loaded on the first call to
+ * {@link #getSlot()} and then kept until it is refreshed.
+ *
  * @author <a href="mailto:andraz.pozar@cosylab.com">Andraž Požar</a>
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  */
 public class SlotView implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    /** The child count of a view that was created from a {@link Slot} entity */
+    public static final long UNKNOWN_CHILD_COUNT = -1;
+
     private final Long id;
     private String name;
     private String description;
@@ -50,6 +57,8 @@ public class SlotView implements Serializable {
     private boolean isLast;
     private final SlotEJB slotEJB;
     private String cableNumber;
+    private final long childCount;
+    private transient Slot slot;
 
     /** Simpler constructor, used in the new Hierarchy builder.
      * @param slot the {@link Slot} to create the UI view object for
@@ -66,6 +75,27 @@ public class SlotView implements Serializable {
         this.deviceTypeName = slot.getComponentType().getName();
         this.order = order;
         this.slotEJB = slotEJB;
+        this.childCount = UNKNOWN_CHILD_COUNT;
+    }
+
+    /**
+     * Constructs the view from the summary of a child slot, without loading the {@link Slot} entity.
+     *
+     * @param summary the {@link SlotSummary} of the slot, loaded together with the other children of the parent
+     * @param parentNode a reference to the SlotView object of a parent in the hierarchy tree
+     * @param slotEJB the {@link Slot} Enterprise bean
+     */
+    public SlotView(SlotSummary summary, SlotView parentNode, SlotEJB slotEJB) {
+        this.name = summary.getName();
+        this.description = summary.getDescription();
+        this.id = summary.getId();
+        this.parentNode = parentNode;
+        this.isHostingSlot = summary.isHostingSlot();
+        this.deviceTypeName = summary.getComponentTypeName();
+        this.installedDevice = summary.getInstalledDevice();
+        this.order = summary.getOrder();
+        this.slotEJB = slotEJB;
+        this.childCount = summary.getChildCount();
     }
 
     public Long getId() {
@@ -84,17 +114,32 @@ public class SlotView implements Serializable {
         return parentNode;
     }
 
+    /**
+     * Loads the {@link Slot} on the first call and returns the same instance until the view is refreshed.
+     *
+     * @return the slot of this view
+     */
     public Slot getSlot() {
-        return slotEJB != null ? slotEJB.findById(id) : null;
+        if (slot == null && slotEJB != null) {
+            slot = slotEJB.findById(id);
+        }
+        return slot;
     }
 
     /** This method sets the name and description at the same time as the slot.
+     * The slot is loaded again on the next call to {@link #getSlot()}.
      * @param slot the slot
      */
     public void setSlot(Slot slot) {
         name = slot.getName();
         description = slot.getDescription();
         deviceTypeName = slot.getComponentType().getName();
+        this.slot = null;
+    }
+
+    /** Discards the loaded {@link Slot}, so that it is loaded again on the next call to {@link #getSlot()}. */
+    public void refreshSlot() {
+        slot = null;
     }
 
     public boolean isHostingSlot() {
@@ -117,6 +162,14 @@ public class SlotView implements Serializable {
         return order;
     }
 
+    /**
+     * @return the number of children of the slot in the hierarchy of the view, or {@link #UNKNOWN_CHILD_COUNT} if
+     * the view was not created from a {@link SlotSummary}
+     */
+    public long getChildCount() {
+        return childCount;
+    }
+
     public boolean isFirst() {
         return isFirst;
     }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.gui.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.persistence.ApplyScriptBefore;
+import org.jboss.arquillian.persistence.UsingDataSet;
+import org.jboss.arquillian.transaction.api.annotation.TransactionMode;
+import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openepics.discs.ccdb.core.auditlog.AuditLogWriter;
+import org.openepics.discs.ccdb.gui.testutil.TestUtility;
+import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
+import org.openepics.discs.ccdb.model.QuarantinedAuditRecord;
+
+/**
+ * Checks that an audit record that cannot be written does not block the audit records queued with it.
+ */
+@RunWith(Arquillian.class)
+public class AuditLogWriterEJBIT {
+    private static final String KEY_PREFIX = "AuditLogWriterEJBIT-";
+    private static final long TIMEOUT_MS = 10000;
+
+    @Inject private AuditLogWriter auditLogWriter;
+    @Inject private TestUtility testUtility;
+    @PersistenceContext private EntityManager em;
+
+    @Deployment()
+    public static WebArchive createDeployment() {
+        return TestUtility.createWebArchive();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        testUtility.loginForTests();
+    }
+
+    @Test
+    @Transactional(TransactionMode.DISABLED)
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void badRecordIsQuarantined() throws InterruptedException {
+        // the user is mandatory, the second record can not be written
+        auditLogWriter.enqueue(Arrays.asList(auditRecord("good1", "admin"), auditRecord("bad", null),
+                auditRecord("good2", "admin")));
+
+        // the timer may be flushing the queue at the same time
+        final long deadline = System.currentTimeMillis() + TIMEOUT_MS;
+        while ((writtenKeys().size() < 2 || quarantinedKeys().isEmpty())
+                && System.currentTimeMillis() < deadline) {
+            auditLogWriter.flush();
+            Thread.sleep(100);
+        }
+
+        assertEquals(Arrays.asList(KEY_PREFIX + "good1", KEY_PREFIX + "good2"), writtenKeys());
+        assertEquals(Arrays.asList(KEY_PREFIX + "bad"), quarantinedKeys());
+        assertEquals(0, auditLogWriter.getQueueDepth());
+
+        final QuarantinedAuditRecord quarantined = em.createQuery("SELECT q FROM QuarantinedAuditRecord q "
+                + "WHERE q.entityKey = :entityKey", QuarantinedAuditRecord.class)
+                .setParameter("entityKey", KEY_PREFIX + "bad").getSingleResult();
+        assertEquals(EntityTypeOperation.CREATE.name(), quarantined.getOper());
+        assertNull(quarantined.getUser());
+    }
+
+    private AuditRecord auditRecord(String key, String user) {
+        final AuditRecord auditRecord = new AuditRecord(EntityTypeOperation.CREATE, "{\"name\":\"" + key + "\"}",
+                                                            1L);
+        auditRecord.setLogTime(new Date());
+        auditRecord.setUser(user);
+        auditRecord.setEntityType(EntityType.SLOT);
+        auditRecord.setEntityKey(KEY_PREFIX + key);
+        return auditRecord;
+    }
+
+    private List<String> writtenKeys() {
+        return em.createQuery("SELECT a.entityKey FROM AuditRecord a WHERE a.entityKey LIKE :prefix "
+                + "ORDER BY a.entityKey", String.class).setParameter("prefix", KEY_PREFIX + "%").getResultList();
+    }
+
+    private List<String> quarantinedKeys() {
+        return em.createQuery("SELECT q.entityKey FROM QuarantinedAuditRecord q WHERE q.entityKey LIKE :prefix",
+                String.class).setParameter("prefix", KEY_PREFIX + "%").getResultList();
+    }
+}
@@ -20,19 +20,35 @@
 package org.openepics.discs.ccdb.gui.ejb;
 
 import org.openepics.discs.ccdb.core.ejb.AuditRecordEJB;
+import org.openepics.discs.ccdb.core.ejb.AuditRecordFilter;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
 
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
 import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
 
+import javax.annotation.Resource;
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import javax.transaction.Transaction;
+import javax.transaction.TransactionManager;
 
 import org.hamcrest.core.IsInstanceOf;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.persistence.ApplyScriptBefore;
 import org.jboss.arquillian.persistence.UsingDataSet;
+import org.jboss.arquillian.transaction.api.annotation.TransactionMode;
+import org.jboss.arquillian.transaction.api.annotation.Transactional;
 import org.jboss.shrinkwrap.api.spec.WebArchive;
 import org.junit.Before;
 import org.junit.Rule;
@@ -40,6 +56,8 @@ import org.junit.Test;
 import org.junit.rules.ExpectedException;
 import org.junit.runner.RunWith;
 import org.openepics.discs.ccdb.model.AuditRecord;
+import org.openepics.discs.ccdb.model.EntityType;
+import org.openepics.discs.ccdb.model.EntityTypeOperation;
 import org.openepics.discs.ccdb.gui.testutil.TestUtility;
 
 /**
@@ -49,8 +67,14 @@ import org.openepics.discs.ccdb.gui.testutil.TestUtility;
  */
 @RunWith(Arquillian.class)
 public class AuditRecordEJBIT {
+    private static final Comparator<AuditRecord> NEWEST_ID_FIRST = Comparator.comparing(AuditRecord::getId).reversed();
+    private static final Comparator<AuditRecord> NEWEST_LOG_TIME_FIRST = Comparator.comparing(
+            (AuditRecord record) -> record.getLogTime().getTime()).thenComparing(AuditRecord::getId).reversed();
+
     @Inject private AuditRecordEJB auditRecordService;
     @Inject private TestUtility testUtility;
+    @PersistenceContext private EntityManager em;
+    @Resource(lookup = "java:/TransactionManager") private TransactionManager transactionManager;
 
     @Rule
     public ExpectedException expectedException = ExpectedException.none();
@@ -106,4 +130,222 @@ public class AuditRecordEJBIT {
         assertNotNull(allAuditRecords);
         assertNotEquals(allAuditRecords.size(), 0);
     }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testForEach() {
+        final List<AuditRecord> records = new ArrayList<>();
+        auditRecordService.forEach(new AuditRecordFilter(), records::add);
+
+        assertEquals(auditRecordService.findPage(new AuditRecordFilter(), null, 0, Integer.MAX_VALUE), records);
+    }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testFindPageBeforeId() {
+        final List<AuditRecord> allRecords = auditRecordService.findPage(new AuditRecordFilter(), null, 0,
+                                                                            Integer.MAX_VALUE);
+        assertEquals(expectedPage(record -> true), allRecords);
+
+        final List<AuditRecord> pagedRecords = new ArrayList<>();
+        List<AuditRecord> page;
+        do {
+            final Long beforeId = pagedRecords.isEmpty() ? null : pagedRecords.get(pagedRecords.size() - 1).getId();
+            page = auditRecordService.findPage(new AuditRecordFilter(), beforeId, 0, 100);
+            pagedRecords.addAll(page);
+        } while (!page.isEmpty());
+        assertEquals(allRecords, pagedRecords);
+
+        // the offset is counted from the beforeId, the record with the beforeId is not included
+        assertEquals(allRecords.subList(15, 25),
+                auditRecordService.findPage(new AuditRecordFilter(), allRecords.get(9).getId(), 5, 10));
+    }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testFindPageFilters() {
+        final Long otherUserId = writeAuditRecord("other", "otherUserUnit");
+        final AuditRecordFilter userFilter = new AuditRecordFilter();
+        userFilter.setUser("other");
+        final List<AuditRecord> userPage = assertFilter(userFilter, record -> "other".equals(record.getUser()));
+        assertEquals(otherUserId, userPage.get(0).getId());
+
+        final AuditRecordFilter operFilter = new AuditRecordFilter();
+        operFilter.setOper(EntityTypeOperation.UPDATE);
+        assertFilter(operFilter, record -> record.getOper() == EntityTypeOperation.UPDATE);
+
+        final AuditRecordFilter entityTypeFilter = new AuditRecordFilter();
+        entityTypeFilter.setEntityType(EntityType.SLOT);
+        assertFilter(entityTypeFilter, record -> record.getEntityType() == EntityType.SLOT);
+
+        final AuditRecordFilter entityIdFilter = new AuditRecordFilter();
+        entityIdFilter.setEntityId(49L);
+        assertFilter(entityIdFilter, record -> Long.valueOf(49L).equals(record.getEntityId()));
+
+        // the entity name matches anywhere in the name and ignores the case
+        final AuditRecordFilter entityKeyFilter = new AuditRecordFilter();
+        entityKeyFilter.setEntityKey("mEtEr");
+        assertFilter(entityKeyFilter, record -> record.getEntityKey().toUpperCase().contains("METER"));
+
+        final AuditRecordFilter combinedFilter = new AuditRecordFilter();
+        combinedFilter.setOper(EntityTypeOperation.CREATE);
+        combinedFilter.setEntityType(EntityType.UNIT);
+        combinedFilter.setEntityKey("meter");
+        assertFilter(combinedFilter, record -> record.getOper() == EntityTypeOperation.CREATE
+                && record.getEntityType() == EntityType.UNIT && record.getEntityKey().toUpperCase().contains("METER"));
+    }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testFindPageEntityKeyEscaping() {
+        final Long literalId = writeAuditRecord("admin", "100%_a\\b");
+        writeAuditRecord("admin", "1000xa\\b");
+        writeAuditRecord("admin", "100%_ab");
+
+        // '%' and '_' match only themselves, and the backslash is not an escape character
+        final AuditRecordFilter filter = new AuditRecordFilter();
+        filter.setEntityKey("0%_A\\");
+        final List<AuditRecord> page = auditRecordService.findPage(filter, null, 0, Integer.MAX_VALUE);
+        assertEquals(1, page.size());
+        assertEquals(literalId, page.get(0).getId());
+    }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testFindPageLogTimeRange() {
+        final Timestamp from = Timestamp.valueOf("2014-11-14 10:19:45.515");
+        final Timestamp to = Timestamp.valueOf("2014-11-14 10:19:59.781");
+
+        // from is inclusive, to is exclusive
+        final AuditRecordFilter filter = new AuditRecordFilter();
+        filter.setFrom(from);
+        filter.setTo(to);
+        final List<AuditRecord> page = assertFilter(filter, record -> record.getLogTime().getTime() >= from.getTime()
+                && record.getLogTime().getTime() < to.getTime(), NEWEST_LOG_TIME_FIRST);
+        assertTrue(page.stream().anyMatch(record -> record.getLogTime().getTime() == from.getTime()));
+
+        final AuditRecordFilter fromFilter = new AuditRecordFilter();
+        fromFilter.setFrom(to);
+        assertFilter(fromFilter, record -> record.getLogTime().getTime() >= to.getTime(), NEWEST_LOG_TIME_FIRST);
+
+        final AuditRecordFilter toFilter = new AuditRecordFilter();
+        toFilter.setTo(from);
+        assertFilter(toFilter, record -> record.getLogTime().getTime() < from.getTime(), NEWEST_LOG_TIME_FIRST);
+    }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testFindPageLogTimeRangeBeforeId() {
+        // a record logged earlier than the dataset, but with a higher id
+        final Long lateId = writeAuditRecord("admin", "late");
+        final AuditRecord lateRecord = auditRecordService.findById(lateId);
+        lateRecord.setLogTime(Timestamp.valueOf("2014-11-14 10:18:24.873"));
+        em.flush();
+
+        final AuditRecordFilter filter = new AuditRecordFilter();
+        filter.setFrom(Timestamp.valueOf("2014-01-01 00:00:00"));
+        final List<AuditRecord> allRecords = assertFilter(filter, record -> true, NEWEST_LOG_TIME_FIRST);
+
+        // the pages of three records split the records logged at the same time
+        final List<AuditRecord> pagedRecords = new ArrayList<>();
+        List<AuditRecord> page;
+        do {
+            final Long beforeId = pagedRecords.isEmpty() ? null : pagedRecords.get(pagedRecords.size() - 1).getId();
+            page = auditRecordService.findPage(filter, beforeId, 0, 3);
+            pagedRecords.addAll(page);
+        } while (!page.isEmpty());
+        assertEquals(allRecords, pagedRecords);
+    }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testFindChangesAfter() {
+        final List<Long> allIds = auditRecordService.findAll().stream().map(AuditRecord::getId).sorted().
+                collect(Collectors.toList());
+
+        // the dataset is written by a single transaction, so its changes are ordered by the id
+        final List<Long> pagedIds = new ArrayList<>();
+        List<Long> page;
+        do {
+            page = changeIds(pagedIds.isEmpty() ? 0L : pagedIds.get(pagedIds.size() - 1), 100);
+            pagedIds.addAll(page);
+        } while (!page.isEmpty());
+        assertEquals(allIds, pagedIds);
+
+        final Long firstId = allIds.get(0);
+        assertEquals(allIds.subList(1, 11), changeIds(firstId, 10));
+    }
+
+    @Test
+    @UsingDataSet(value= {"audit_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    @Transactional(TransactionMode.DISABLED)
+    public void testFindChangesAfterHoldsBackYoungerTransactions() throws Exception {
+        final List<Long> datasetIds = changeIds(0L, Integer.MAX_VALUE);
+        final long cursor = datasetIds.get(datasetIds.size() - 1);
+
+        // the first transaction gets the lower id, but commits after the second one
+        transactionManager.begin();
+        final Long firstId = writeAuditRecord("admin", "first");
+        final Transaction first = transactionManager.suspend();
+
+        transactionManager.begin();
+        final Long secondId = writeAuditRecord("admin", "second");
+        transactionManager.commit();
+
+        final List<Long> heldBack = changeIds(cursor, Integer.MAX_VALUE);
+        assertFalse(heldBack.contains(secondId));
+
+        transactionManager.resume(first);
+        transactionManager.commit();
+
+        final List<Long> expected = new ArrayList<>();
+        expected.add(firstId);
+        expected.add(secondId);
+        assertEquals(expected, changeIds(cursor, Integer.MAX_VALUE));
+    }
+
+    private List<Long> changeIds(long lastId, int maxResults) {
+        return auditRecordService.findChangesAfter(lastId, maxResults).stream().
+                map(change -> ((Number) change[0]).longValue()).collect(Collectors.toList());
+    }
+
+    /** Checks that the filter returns a non-empty page with the records matching the condition, the newest first. */
+    private List<AuditRecord> assertFilter(AuditRecordFilter filter, Predicate<AuditRecord> condition) {
+        return assertFilter(filter, condition, NEWEST_ID_FIRST);
+    }
+
+    private List<AuditRecord> assertFilter(AuditRecordFilter filter, Predicate<AuditRecord> condition,
+            Comparator<AuditRecord> order) {
+        final List<AuditRecord> page = auditRecordService.findPage(filter, null, 0, Integer.MAX_VALUE);
+        assertFalse(page.isEmpty());
+        assertEquals(expectedPage(condition, order), page);
+        return page;
+    }
+
+    private List<AuditRecord> expectedPage(Predicate<AuditRecord> condition) {
+        return expectedPage(condition, NEWEST_ID_FIRST);
+    }
+
+    private List<AuditRecord> expectedPage(Predicate<AuditRecord> condition, Comparator<AuditRecord> order) {
+        return auditRecordService.findAll().stream().filter(condition).sorted(order).collect(Collectors.toList());
+    }
+
+    private Long writeAuditRecord(String user, String name) {
+        final AuditRecord auditRecord = new AuditRecord(EntityTypeOperation.CREATE, "{}", 1L);
+        auditRecord.setEntityType(EntityType.UNIT);
+        auditRecord.setEntityKey(name);
+        auditRecord.setUser(user);
+        auditRecord.setLogTime(new Date());
+        em.persist(auditRecord);
+        em.flush();
+        return auditRecord.getId();
+    }
 }
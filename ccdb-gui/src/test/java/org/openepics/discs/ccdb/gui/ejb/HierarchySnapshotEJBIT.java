@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.gui.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertSame;
+
+import java.util.List;
+
+import javax.annotation.Resource;
+import javax.inject.Inject;
+import javax.transaction.TransactionManager;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.persistence.ApplyScriptBefore;
+import org.jboss.arquillian.persistence.UsingDataSet;
+import org.jboss.arquillian.transaction.api.annotation.TransactionMode;
+import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openepics.discs.ccdb.core.ejb.ComptypeEJB;
+import org.openepics.discs.ccdb.core.ejb.HierarchySnapshot;
+import org.openepics.discs.ccdb.core.ejb.SlotEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotSummary;
+import org.openepics.discs.ccdb.gui.testutil.TestUtility;
+import org.openepics.discs.ccdb.model.ComponentType;
+import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotRelationName;
+
+/**
+ * Checks that the {@link HierarchySnapshot} shares the loaded levels and removes the levels affected by a
+ * modification only after the transaction commits. The tests manage their own transactions. In the datasets LS1
+ * contains FS1 and FE, and FE contains FE_LEBT and FE_BTS.
+ */
+@RunWith(Arquillian.class)
+@Transactional(TransactionMode.DISABLED)
+public class HierarchySnapshotEJBIT {
+    @Inject private HierarchySnapshot hierarchySnapshot;
+    @Inject private SlotEJB slotService;
+    @Inject private ComptypeEJB compTypeService;
+    @Inject private TestUtility testUtility;
+    @Resource(lookup = "java:/TransactionManager") private TransactionManager transactionManager;
+
+    @Deployment()
+    public static WebArchive createDeployment() {
+        return TestUtility.createWebArchive();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        testUtility.loginForTests();
+        hierarchySnapshot.clear();
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void levelsAreShared() {
+        final Long parentId = slotService.findByName("LS1").getId();
+
+        final List<SlotSummary> children = hierarchySnapshot.getChildSummaries(parentId, SlotRelationName.CONTAINS);
+        assertEquals(2, children.size());
+        assertSame(children, hierarchySnapshot.getChildSummaries(parentId, SlotRelationName.CONTAINS));
+        hierarchySnapshot.getChildSummaries(parentId, SlotRelationName.POWERS);
+
+        assertEquals(2, hierarchySnapshot.getSize());
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void invalidateAfterCommit() throws Exception {
+        loadLevels("LS1", "FE", "FS1");
+        final long version = hierarchySnapshot.getVersion();
+
+        transactionManager.begin();
+        modifySlot("FE_BTS");
+        // the levels are only removed when the modification is committed
+        assertEquals(3, hierarchySnapshot.getSize());
+        assertEquals(version, hierarchySnapshot.getVersion());
+        transactionManager.commit();
+
+        // FE_BTS is shown in the level of FE, and the child count of FE in the level of LS1
+        assertNotEquals(version, hierarchySnapshot.getVersion());
+        assertEquals(1, hierarchySnapshot.getSize());
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void keepAfterRollback() throws Exception {
+        loadLevels("LS1", "FE");
+        final long version = hierarchySnapshot.getVersion();
+
+        transactionManager.begin();
+        modifySlot("FE_BTS");
+        transactionManager.rollback();
+
+        assertEquals(version, hierarchySnapshot.getVersion());
+        assertEquals(2, hierarchySnapshot.getSize());
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void otherEntitiesClearAfterCommit() throws Exception {
+        loadLevels("LS1", "FE");
+
+        transactionManager.begin();
+        final ComponentType componentType = compTypeService.findByName("SYS");
+        componentType.setDescription("Modified system");
+        compTypeService.save(componentType);
+        assertEquals(2, hierarchySnapshot.getSize());
+        transactionManager.commit();
+
+        assertEquals(0, hierarchySnapshot.getSize());
+    }
+
+    private void loadLevels(String... parentNames) {
+        for (final String parentName : parentNames) {
+            hierarchySnapshot.getChildSummaries(slotService.findByName(parentName).getId(),
+                    SlotRelationName.CONTAINS);
+        }
+    }
+
+    private void modifySlot(String name) {
+        final Slot slot = slotService.findByName(name);
+        slot.setDescription("Modified " + name);
+        slotService.save(slot);
+    }
+}
@@ -21,7 +21,10 @@ package org.openepics.discs.ccdb.gui.ejb;
 
 import org.openepics.discs.ccdb.core.ejb.SlotEJB;
 import org.openepics.discs.ccdb.core.ejb.ComptypeEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotPairEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotRelationEJB;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertNotEquals;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertNull;
@@ -42,6 +45,8 @@ import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotPair;
+import org.openepics.discs.ccdb.model.SlotRelationName;
 import org.openepics.discs.ccdb.model.Tag;
 import org.openepics.discs.ccdb.gui.testutil.TestUtility;
 
@@ -54,6 +59,8 @@ import org.openepics.discs.ccdb.gui.testutil.TestUtility;
 public class SlotEJBIT {
     @Inject SlotEJB slotService;
     @Inject ComptypeEJB compTypeService;
+    @Inject SlotPairEJB slotPairService;
+    @Inject SlotRelationEJB slotRelationService;
 
 
     @Inject private TestUtility testUtility;
@@ -179,6 +186,27 @@ public class SlotEJBIT {
         assertNull( slotService.findByName("FS1_CSS") );
     }
 
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "comptype_property_value.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void testIsContainerNameUnique() {
+        final Slot parent = slotService.findByName("LS1");
+        final Slot child = slotService.findByName("FS1");
+        final Slot poweredSlot = slotService.findByName("LS2");
+
+        assertFalse(slotService.isContainerNameUnique("FS1", parent, null));
+        // renaming a slot to its own name
+        assertTrue(slotService.isContainerNameUnique("FS1", parent, child));
+        assertTrue(slotService.isContainerNameUnique("FS1", slotService.findByName("FE"), null));
+        assertTrue(slotService.isContainerNameUnique("A_NEW_CONTAINER", parent, null));
+
+        // only the CONTAINS children are siblings in the container hierarchy
+        slotPairService.add(new SlotPair(poweredSlot, parent,
+                slotRelationService.findBySlotRelationName(SlotRelationName.POWERS)));
+        assertTrue(slotService.isContainerNameUnique("LS2", parent, null));
+    }
+
     /* TODO add later
     @Test
     @UsingDataSet(value={"component_type.xml", "unit.xml", "property.xml", "comptype_property_value.xml", "slot.xml"})
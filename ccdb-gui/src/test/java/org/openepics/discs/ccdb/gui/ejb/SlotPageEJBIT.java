@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.gui.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.persistence.ApplyScriptBefore;
+import org.jboss.arquillian.persistence.UsingDataSet;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openepics.discs.ccdb.core.ejb.SlotEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotPage;
+import org.openepics.discs.ccdb.gui.testutil.TestUtility;
+import org.openepics.discs.ccdb.model.Property;
+import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotPair;
+
+/**
+ * Checks that {@link SlotEJB#fetchPage(List, boolean, boolean)} assembles the page from the database with the same
+ * number of statements for any page size, including the entities read while the installation slots of the page are
+ * converted for the web service response, and that the <code>after</code> cursor returned with each page of the
+ * installation slots leads through all of them.
+ */
+@RunWith(Arquillian.class)
+public class SlotPageEJBIT {
+    @Inject private SlotEJB slotService;
+    @Inject private TestUtility testUtility;
+    @PersistenceContext private EntityManager em;
+
+    private Statistics statistics;
+
+    @Deployment()
+    public static WebArchive createDeployment() {
+        return TestUtility.createWebArchive();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        testUtility.loginForTests();
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "comptype_property_value.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "device.xml",
+            "device_property_value.xml", "installation_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void constantQueryCount() {
+        final long hostingSlots = em.createQuery("SELECT COUNT(s) FROM Slot s WHERE s.isHostingSlot = TRUE",
+                Long.class).getSingleResult();
+        assertTrue(hostingSlots > 1);
+        // a page with the slot that has an installed device, so that all the queries of fetchPage are run
+        final Slot installationSlot = slotService.findByName("FE_BTS");
+
+        final long singleSlotStatements = statementsToAssemblePage(installationSlot.getId() - 1, 1);
+        final long singleSlotQueries = statistics.getQueryExecutionCount();
+        final long allSlotsStatements = statementsToAssemblePage(null, (int) hostingSlots);
+
+        // the page query and the five queries of fetchPage
+        assertEquals(6, singleSlotQueries);
+        assertEquals(singleSlotQueries, statistics.getQueryExecutionCount());
+        assertEquals(singleSlotStatements, allSlotsStatements);
+        assertEquals(0, statistics.getCollectionFetchCount());
+    }
+
+    /**
+     * Loads a page of the hosting slots into an empty persistence context and reads every entity that the web
+     * service reads when it converts the page into installation slots.
+     *
+     * @param after the database id after which the page starts, <code>null</code> to start at the beginning
+     * @param pageSize the number of slots in the page
+     * @return the number of JDBC statements prepared for the page
+     */
+    private long statementsToAssemblePage(final Long after, final int pageSize) {
+        em.clear();
+        em.getEntityManagerFactory().getCache().evictAll();
+        statistics.clear();
+
+        final SlotPage page = slotService.findHostingSlotsPage(null, after, 0, pageSize, true, true);
+        assertEquals(pageSize, page.getSlots().size());
+        for (final Slot slot : page.getSlots()) {
+            readInstallationSlot(slot, page);
+        }
+        return statistics.getPrepareStatementCount();
+    }
+
+    private static void readInstallationSlot(final Slot slot, final SlotPage page) {
+        final List<String> values = new ArrayList<>();
+        values.add(slot.getName());
+        values.add(slot.getDescription());
+        values.add(slot.getComponentType().getName());
+        values.add(slot.getComponentType().getDescription());
+        for (final SlotPair pair : page.getPairsAsChild(slot)) {
+            values.add(pair.getSlotRelation().getName().name());
+            values.add(pair.getParentSlot().isHostingSlot() ? pair.getParentSlot().getName() : null);
+        }
+        for (final SlotPair pair : page.getPairsAsParent(slot)) {
+            values.add(pair.getSlotRelation().getName().name());
+            values.add(pair.getChildSlot().isHostingSlot() ? pair.getChildSlot().getName() : null);
+        }
+        Stream.of(page.getSlotProperties(slot), page.getTypeProperties(slot), page.getDeviceProperties(slot)).
+                flatMap(List::stream).
+                forEach(propertyValue -> {
+                    final Property property = propertyValue.getProperty();
+                    values.add(property.getName());
+                    values.add(property.getDataType().getName());
+                    values.add(property.getUnit() != null ? property.getUnit().getName() : null);
+                    values.add(Objects.toString(propertyValue.getPropValue()));
+                });
+        assertTrue(values.size() >= 4);
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "comptype_property_value.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void pageThroughAllSlots() {
+        final List<Long> expectedIds = em.createQuery("SELECT s.id FROM Slot s WHERE s.isHostingSlot = TRUE "
+                + "ORDER BY s.id", Long.class).getResultList();
+        assertTrue(expectedIds.size() > 2);
+
+        // the cursor of the next page is the id of the last slot of the page, as in the X-Next-After header
+        final List<Long> pagedIds = new ArrayList<>();
+        Long after = null;
+        while (true) {
+            final List<Slot> slots = slotService.findHostingSlotsPage(null, after, 0, 2, true, true).getSlots();
+            pagedIds.addAll(slots.stream().map(Slot::getId).collect(Collectors.toList()));
+            if (slots.size() < 2) {
+                break;
+            }
+            after = slots.get(slots.size() - 1).getId();
+        }
+
+        assertEquals(expectedIds, pagedIds);
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "comptype_property_value.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void projectionSkipsQueries() {
+        final List<Slot> allSlots = slotService.findAll();
+
+        statistics.clear();
+        slotService.fetchPage(allSlots, false, false);
+        assertEquals(0, statistics.getQueryExecutionCount());
+
+        slotService.fetchPage(allSlots, true, false);
+        assertEquals(1, statistics.getQueryExecutionCount());
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "comptype_property_value.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "device.xml",
+            "device_property_value.xml", "installation_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void assemblePage() {
+        final Slot parent = slotService.findByName("LS1");
+        final Slot child = slotService.findByName("FS1");
+        final Slot installationSlot = slotService.findByName("FE_BTS");
+        final Slot uninstalledSlot = slotService.findByName("FE_LEBT");
+
+        final SlotPage page = slotService.fetchPage(Arrays.asList(parent, child, installationSlot, uninstalledSlot),
+                true, true);
+
+        assertEquals(2, page.getPairsAsParent(parent).size());
+        assertEquals(0, page.getPairsAsChild(parent).size());
+        assertEquals(parent.getId(), page.getPairsAsChild(child).get(0).getParentSlot().getId());
+
+        assertEquals(0, page.getSlotProperties(parent).size());
+        assertNull(page.getActiveInstallation(parent));
+        assertEquals(0, page.getDeviceProperties(parent).size());
+        // only the active installation record is used
+        assertNull(page.getActiveInstallation(uninstalledSlot));
+        assertEquals("BPM1-01", page.getActiveInstallation(installationSlot).getDevice().getSerialNumber());
+        assertEquals(1, page.getDeviceProperties(installationSlot).size());
+    }
+}
@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.gui.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import javax.ejb.EJBException;
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.persistence.ApplyScriptBefore;
+import org.jboss.arquillian.persistence.UsingDataSet;
+import org.jboss.arquillian.transaction.api.annotation.TransactionMode;
+import org.jboss.arquillian.transaction.api.annotation.Transactional;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openepics.discs.ccdb.core.ejb.SlotEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotPairEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotRelationEJB;
+import org.openepics.discs.ccdb.gui.testutil.TestUtility;
+import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.SlotClosure;
+import org.openepics.discs.ccdb.model.SlotPair;
+import org.openepics.discs.ccdb.model.SlotRelationName;
+
+/**
+ * Checks that the {@link SlotClosure} table stays equal to the closure computed from the <code>CONTAINS</code>
+ * {@link SlotPair}s when the relationships are added, deleted, changed and moved. In the datasets LS1 contains FS1
+ * and FE, and FE contains FE_LEBT and FE_BTS.
+ */
+@RunWith(Arquillian.class)
+public class SlotPairEJBIT {
+    @Inject private SlotPairEJB slotPairService;
+    @Inject private SlotEJB slotService;
+    @Inject private SlotRelationEJB slotRelationService;
+    @Inject private TestUtility testUtility;
+    @PersistenceContext private EntityManager em;
+
+    @Deployment()
+    public static WebArchive createDeployment() {
+        return TestUtility.createWebArchive();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        testUtility.loginForTests();
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "basic_slot.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void addPair() {
+        // FE_LEBT is now reachable from LS1 both through FS1 and through FE
+        slotPairService.add(containsPair("FS1", "FE_LEBT"));
+
+        assertClosureConsistent();
+        assertTrue(slotPairService.isAncestor(slot("FS1"), slot("FE_LEBT")));
+        assertEquals(2L, pathCount("LS1", "FE_LEBT"));
+        assertEquals(names("FE_LEBT"), names(slotPairService.findDescendants(slot("FS1"))));
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "basic_slot.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void deletePair() {
+        slotPairService.delete(storedPair("FE", "FE_LEBT"));
+
+        assertClosureConsistent();
+        assertFalse(slotPairService.isAncestor(slot("LS1"), slot("FE_LEBT")));
+        assertEquals(names("FS1", "FE", "FE_BTS"), names(slotPairService.findDescendants(slot("LS1"))));
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "basic_slot.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void deleteOneOfTwoPaths() {
+        slotPairService.add(containsPair("FS1", "FE_LEBT"));
+        slotPairService.delete(storedPair("FE", "FE_LEBT"));
+
+        assertClosureConsistent();
+        assertEquals(1L, pathCount("LS1", "FE_LEBT"));
+        assertFalse(slotPairService.isAncestor(slot("FE"), slot("FE_LEBT")));
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "basic_slot.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void savePair() {
+        final SlotPair pair = storedPair("FE", "FE_BTS");
+        pair.setParentSlot(slot("FS1"));
+        slotPairService.save(pair);
+
+        assertClosureConsistent();
+        assertFalse(slotPairService.isAncestor(slot("FE"), slot("FE_BTS")));
+        assertTrue(slotPairService.isAncestor(slot("FS1"), slot("FE_BTS")));
+        assertTrue(slotPairService.isAncestor(slot("LS1"), slot("FE_BTS")));
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "basic_slot.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void moveSlotsToNewParent() {
+        slotPairService.add(containsPair("_ROOT", "LS1"));
+        slotPairService.moveSlotsToNewParent(Collections.singletonList(storedPair("LS1", "FE")), slot("FS1"));
+
+        assertClosureConsistent();
+        assertEquals(names("FE", "FE_LEBT", "FE_BTS"), names(slotPairService.findDescendants(slot("FS1"))));
+        assertEquals(Arrays.asList("FE_BTS", "FE", "FS1", "LS1", "_ROOT"),
+                slotService.getPathToRoot(slot("FE_BTS")).stream().map(Slot::getName).collect(Collectors.toList()));
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "basic_slot.xml", "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    @Transactional(TransactionMode.DISABLED)
+    public void moveUnderDescendantRejected() {
+        final Map<String, Long> closureBefore = storedClosure();
+        final SlotPair pair = storedPair("LS1", "FE");
+        assertTrue(slotPairService.slotPairCreatesLoop(new SlotPair(pair.getChildSlot(), slot("FE_LEBT"),
+                pair.getSlotRelation()), pair.getChildSlot()));
+
+        try {
+            slotPairService.moveSlotsToNewParent(Collections.singletonList(pair), slot("FE_LEBT"));
+            fail("Moving a slot under its own descendant must be rejected.");
+        } catch (EJBException e) {
+            assertTrue(e.getCause() instanceof IllegalArgumentException);
+        }
+
+        // the move is rolled back as a whole
+        assertEquals(closureBefore, storedClosure());
+        assertClosureConsistent();
+        assertTrue(slotPairService.isAncestor(slot("LS1"), slot("FE_LEBT")));
+    }
+
+    /** Compares the stored closure with the number of <code>CONTAINS</code> paths between every pair of slots. */
+    private void assertClosureConsistent() {
+        final Map<Long, List<Long>> children = new HashMap<>();
+        for (final Object[] pair : em.createQuery("SELECT p.parentSlot.id, p.childSlot.id FROM SlotPair p "
+                    + "WHERE p.slotRelation.name = :relationName", Object[].class)
+                    .setParameter("relationName", SlotRelationName.CONTAINS).getResultList()) {
+            children.computeIfAbsent((Long) pair[0], k -> new ArrayList<>()).add((Long) pair[1]);
+        }
+
+        final Map<String, Long> expected = new HashMap<>();
+        for (final Long ancestor : children.keySet()) {
+            countPaths(ancestor, ancestor, children, expected);
+        }
+        assertEquals(expected, storedClosure());
+    }
+
+    private void countPaths(Long ancestor, Long slot, Map<Long, List<Long>> children, Map<String, Long> paths) {
+        for (final Long child : children.getOrDefault(slot, Collections.emptyList())) {
+            paths.merge(ancestor + "->" + child, 1L, Long::sum);
+            countPaths(ancestor, child, children, paths);
+        }
+    }
+
+    private Map<String, Long> storedClosure() {
+        final Map<String, Long> closure = new HashMap<>();
+        for (final SlotClosure path : em.createQuery("SELECT c FROM SlotClosure c", SlotClosure.class)
+                .getResultList()) {
+            closure.put(path.getAncestor() + "->" + path.getDescendant(), path.getPathCount());
+        }
+        return closure;
+    }
+
+    private long pathCount(String ancestorName, String descendantName) {
+        return storedClosure().get(slot(ancestorName).getId() + "->" + slot(descendantName).getId());
+    }
+
+    private SlotPair containsPair(String parentName, String childName) {
+        return new SlotPair(slot(childName), slot(parentName),
+                slotRelationService.findBySlotRelationName(SlotRelationName.CONTAINS));
+    }
+
+    private SlotPair storedPair(String parentName, String childName) {
+        return slotPairService.findSlotPairsByParentChildRelation(childName, parentName, SlotRelationName.CONTAINS)
+                .get(0);
+    }
+
+    private Slot slot(String name) {
+        return slotService.findByName(name);
+    }
+
+    private static Set<String> names(String... names) {
+        return new HashSet<>(Arrays.asList(names));
+    }
+
+    private static Set<String> names(List<Slot> slots) {
+        return slots.stream().map(Slot::getName).collect(Collectors.toSet());
+    }
+}
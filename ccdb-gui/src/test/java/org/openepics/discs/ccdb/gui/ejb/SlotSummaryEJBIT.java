@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.gui.ejb;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.List;
+
+import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.jboss.arquillian.container.test.api.Deployment;
+import org.jboss.arquillian.junit.Arquillian;
+import org.jboss.arquillian.persistence.ApplyScriptBefore;
+import org.jboss.arquillian.persistence.UsingDataSet;
+import org.jboss.shrinkwrap.api.spec.WebArchive;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.openepics.discs.ccdb.core.ejb.SlotEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotSummary;
+import org.openepics.discs.ccdb.gui.testutil.TestUtility;
+import org.openepics.discs.ccdb.model.SlotRelationName;
+
+/**
+ * Checks that {@link SlotEJB#findChildSummaries(Long, SlotRelationName)} assembles the summaries of the children
+ * from the database with its three projection queries.
+ */
+@RunWith(Arquillian.class)
+public class SlotSummaryEJBIT {
+    @Inject private SlotEJB slotService;
+    @Inject private TestUtility testUtility;
+    @PersistenceContext private EntityManager em;
+
+    private Statistics statistics;
+
+    @Deployment()
+    public static WebArchive createDeployment() {
+        return TestUtility.createWebArchive();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        testUtility.loginForTests();
+        statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+    }
+
+    @After
+    public void tearDown() {
+        statistics.setStatisticsEnabled(false);
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml", "device.xml",
+            "installation_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void assembleSummaries() {
+        final Long parentId = slotService.findByName("LS1").getId();
+
+        statistics.clear();
+        final List<SlotSummary> summaries = slotService.findChildSummaries(parentId, SlotRelationName.CONTAINS);
+        assertEquals(3, statistics.getQueryExecutionCount());
+        assertEquals(2, summaries.size());
+
+        final SlotSummary first = summaries.get(0);
+        assertEquals("FS1", first.getName());
+        assertEquals(1, first.getOrder());
+        assertEquals(0L, first.getChildCount());
+
+        final SlotSummary container = summaries.get(1);
+        assertEquals(slotService.findByName("FE").getId(), container.getId());
+        assertEquals("FE", container.getName());
+        assertEquals("Front End", container.getDescription());
+        assertFalse(container.isHostingSlot());
+        assertEquals("SYS", container.getComponentTypeName());
+        assertEquals(2, container.getOrder());
+        assertEquals(2L, container.getChildCount());
+        assertNull(container.getInstalledDevice());
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml", "device.xml",
+            "installation_record.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void installedDevices() {
+        final List<SlotSummary> summaries = slotService.findChildSummaries(slotService.findByName("FE").getId(),
+                SlotRelationName.CONTAINS);
+
+        assertEquals(2, summaries.size());
+        // the device was uninstalled from the slot
+        assertEquals("FE_LEBT", summaries.get(0).getName());
+        assertNull(summaries.get(0).getInstalledDevice());
+
+        final SlotSummary installationSlot = summaries.get(1);
+        assertEquals("FE_BTS", installationSlot.getName());
+        assertTrue(installationSlot.isHostingSlot());
+        assertEquals("SUBS", installationSlot.getComponentTypeName());
+        assertEquals("BPM1-01", installationSlot.getInstalledDevice().getSerialNumber());
+    }
+
+    @Test
+    @UsingDataSet(value= {"basic_component_types.xml", "component_type.xml", "unit.xml", "property.xml",
+            "slot.xml", "slot_relation.xml", "slot_pair.xml", "slot_hierarchy.xml"})
+    @ApplyScriptBefore(value= {"update_sequences.sql"})
+    public void noChildren() {
+        final Long leafId = slotService.findByName("FS1").getId();
+
+        statistics.clear();
+        assertTrue(slotService.findChildSummaries(leafId, SlotRelationName.CONTAINS).isEmpty());
+        assertEquals(1, statistics.getQueryExecutionCount());
+        // the children in the other hierarchies are not included
+        assertTrue(slotService.findChildSummaries(slotService.findByName("LS1").getId(),
+                SlotRelationName.POWERS).isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.gui.export;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.ss.usermodel.Workbook;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.Test;
+
+/**
+ * Checks that the rows of a table that do not fit on a sheet continue on the next one.
+ */
+public class ExcelExportTableTest {
+    private static final int LAST_ROW = ExcelExportTable.MAX_ROWS_PER_SHEET - 1;
+
+    @Test
+    public void lastRowOfSheet() throws IOException {
+        final ExcelExportTable table = new ExcelExportTable(null, null, LAST_ROW - 1,
+                                                                    ExcelExportTable.MAX_ROWS_PER_SHEET);
+        table.createTable("Audit log");
+        table.addDataRow("a", 1.0);
+        table.addDataRow("b", 2.0);
+        table.addDataRow("c", 3.0);
+
+        try (final InputStream input = table.exportTable()) {
+            final Workbook workbook = new XSSFWorkbook(input);
+            assertEquals(2, workbook.getNumberOfSheets());
+
+            final Sheet first = workbook.getSheetAt(0);
+            assertEquals("Audit log", first.getSheetName());
+            assertEquals(LAST_ROW, first.getLastRowNum());
+            assertEquals("b", first.getRow(LAST_ROW).getCell(0).getStringCellValue());
+
+            final Sheet second = workbook.getSheetAt(1);
+            assertEquals("Audit log (2)", second.getSheetName());
+            assertEquals(0, second.getLastRowNum());
+            assertEquals("c", second.getRow(0).getCell(0).getStringCellValue());
+            assertEquals(3.0, second.getRow(0).getCell(1).getNumericCellValue(), 0);
+        }
+    }
+
+    @Test
+    public void headerOnEachSheet() throws IOException {
+        final ExcelExportTable table = new ExcelExportTable(null, null, 0, 3);
+        table.createTable("Installation slots of the LEBT");
+        table.addHeaderRow("Name", "Value");
+        for (int i = 0; i < 5; i++) {
+            table.addDataRow("row" + i, (double) i);
+        }
+
+        try (final InputStream input = table.exportTable()) {
+            final Workbook workbook = new XSSFWorkbook(input);
+            assertEquals(3, workbook.getNumberOfSheets());
+            // the sheet names are at most 31 characters long and keep the number of the sheet
+            assertEquals("Installation slots of the L (3)", workbook.getSheetAt(2).getSheetName());
+
+            int expectedRow = 0;
+            for (int i = 0; i < workbook.getNumberOfSheets(); i++) {
+                final Sheet sheet = workbook.getSheetAt(i);
+                assertEquals("Name", sheet.getRow(0).getCell(0).getStringCellValue());
+                for (int r = 1; r <= sheet.getLastRowNum(); r++) {
+                    assertEquals("row" + expectedRow, sheet.getRow(r).getCell(0).getStringCellValue());
+                    ++expectedRow;
+                }
+            }
+            assertEquals(5, expectedRow);
+        }
+    }
+}
@@ -25,7 +25,12 @@ import java.util.ArrayList;
 import java.util.List;
 
 import javax.inject.Inject;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
 
+import org.apache.commons.lang3.tuple.Pair;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.jboss.arquillian.container.test.api.Deployment;
 import org.jboss.arquillian.junit.Arquillian;
 import org.jboss.arquillian.persistence.ApplyScriptAfter;
@@ -42,11 +47,14 @@ import org.openepics.discs.ccdb.core.dl.annotations.UnitsLoader;
 import org.openepics.discs.ccdb.core.dl.common.DataLoader;
 import org.openepics.discs.ccdb.core.dl.common.DataLoaderResult;
 import org.openepics.discs.ccdb.core.dl.common.ErrorMessage;
+import org.openepics.discs.ccdb.core.dl.common.ExcelImportFileReader;
 import org.openepics.discs.ccdb.core.dl.common.ValidationMessage;
 import org.openepics.discs.ccdb.core.ejb.UnitEJB;
 import org.openepics.discs.ccdb.gui.testutil.TestUtility;
 import org.openepics.discs.ccdb.gui.ui.common.DataLoaderHandler;
 
+import com.google.common.collect.ImmutableMap;
+
 /**
  * Integration tests for {@link UnitsDataLoader}
  *
@@ -62,6 +70,7 @@ public class UnitsDataLoaderIT {
     @Inject private DataLoaderHandler dataLoaderHandler;
     @Inject private TestUtility testUtility;
     @Inject private UnitEJB unitEJB;
+    @PersistenceContext private EntityManager em;
 
     @Deployment
     public static WebArchive createDeployment() {
@@ -119,6 +128,47 @@ public class UnitsDataLoaderIT {
         Assert.assertEquals(0, unitEJB.findAll().size());
     }
 
+    @Test
+    @UsingDataSet(value = { "unit.xml" })
+    @Transactional(TransactionMode.DISABLED)
+    public void unitsUpdateInBatchesSucess() throws IOException {
+        final DataLoaderResult loaderResult = loadDataInBatches("units-success-update.test.xlsx", 2);
+
+        Assert.assertFalse("Failed while importing: " + loaderResult.getMessages(), loaderResult.isError());
+        Assert.assertEquals("Imperial length", unitEJB.findByName("inch").getDescription());
+        Assert.assertEquals("3d", unitEJB.findByName("cubic-meter").getDescription());
+        Assert.assertEquals("2d", unitEJB.findByName("square-meter").getDescription());
+        Assert.assertEquals("1000ms", unitEJB.findByName("second").getSymbol());
+        Assert.assertEquals("100cm", unitEJB.findByName("meter").getSymbol());
+    }
+
+    @Test
+    @UsingDataSet(value = { "unit.xml" })
+    @Transactional(TransactionMode.DISABLED)
+    public void unitsUpdateInBatchesBoundedQueries() throws IOException {
+        final Statistics statistics = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        statistics.setStatisticsEnabled(true);
+        try {
+            statistics.clear();
+            loadDataInBatches("units-success-update.test.xlsx", Integer.MAX_VALUE);
+            final long singleBatchQueries = statistics.getQueryExecutionCount();
+            final long singleBatchLoads = statistics.getEntityLoadCount();
+
+            statistics.clear();
+            final DataLoaderResult loaderResult = loadDataInBatches("units-success-update.test.xlsx", 1);
+            final int batches = loaderResult.getImportFileStatistics().getDataRows();
+
+            Assert.assertFalse("Failed while importing: " + loaderResult.getMessages(), loaderResult.isError());
+            // each batch prefetches only its own units: one more query per batch, but no unit is loaded twice
+            Assert.assertTrue("Queries: " + statistics.getQueryExecutionCount(),
+                    statistics.getQueryExecutionCount() <= singleBatchQueries + batches - 1);
+            Assert.assertTrue("Loaded entities: " + statistics.getEntityLoadCount(),
+                    statistics.getEntityLoadCount() <= singleBatchLoads);
+        } finally {
+            statistics.setStatisticsEnabled(false);
+        }
+    }
+
     /////////////////
     // NEGATIVE TESTS
     /////////////////
@@ -217,4 +267,35 @@ public class UnitsDataLoaderIT {
         Assert.assertEquals("Error:\n" + loaderResult.toString(), expectedValidationMessages,
                                                                                         loaderResult.getMessages());
      }
+
+    @Test
+    @UsingDataSet(value = { "unit.xml", "data_types.xml", "property.xml" })
+    @Transactional(TransactionMode.DISABLED)
+    public void unitsUpdateInBatchesFail() throws IOException {
+        final List<ValidationMessage> expectedValidationMessages = new ArrayList<>();
+        // the same messages with the same row numbers as without the batches
+        expectedValidationMessages.add(new ValidationMessage(ErrorMessage.ENTITY_NOT_FOUND, 10,
+                                                                            UnitsDataLoader.HDR_NAME, "horse-power"));
+        expectedValidationMessages.add(new ValidationMessage(ErrorMessage.ENTITY_NOT_FOUND, 11,
+                                                                            UnitsDataLoader.HDR_NAME, "nanometer"));
+        expectedValidationMessages.add(new ValidationMessage(ErrorMessage.MODIFY_IN_USE, 12,
+                                                                            UnitsDataLoader.HDR_SYMBOL, "100cm"));
+        expectedValidationMessages.add(new ValidationMessage(ErrorMessage.MODIFY_IN_USE, 13,
+                                                                            UnitsDataLoader.HDR_SYMBOL, "10000cm^2"));
+
+        final DataLoaderResult loaderResult = loadDataInBatches("units-fail-update.test.xlsx", 1);
+
+        Assert.assertEquals("Error:\n" + loaderResult.toString(), expectedValidationMessages,
+                                                                                        loaderResult.getMessages());
+    }
+
+    private DataLoaderResult loadDataInBatches(String fileName, int batchSize) throws IOException {
+        try (final InputStream testDataStream = this.getClass().getResourceAsStream(TestUtility.DATALOADERS_PATH
+                                                                                                    + fileName)) {
+            final List<Pair<Integer, List<String>>> inputRows = ExcelImportFileReader.importExcelFile(testDataStream,
+                                unitsDataLoader.getImportDataStartIndex(), unitsDataLoader.getDataWidth());
+            return unitsDataLoader.loadDataToDatabase(inputRows,
+                                ImmutableMap.<String, Object>of(DataLoader.CTX_BATCH_SIZE, batchSize));
+        }
+    }
 }
@@ -2,6 +2,7 @@ DELETE FROM installation_record;
 DELETE FROM device_property_value;
 DELETE FROM device;
 DELETE FROM slot_property_value;
+DELETE FROM slot_closure;
 DELETE FROM slot_pair;
 DELETE FROM slot;
 DELETE FROM comptype_property_value;
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.jaxb;
+
+import javax.xml.bind.annotation.XmlAccessType;
+import javax.xml.bind.annotation.XmlAccessorType;
+import javax.xml.bind.annotation.XmlRootElement;
+
+/**
+ * This is data transfer object representing a single change of a CCDB entity for JSON and XML serialization. The
+ * changes are read from the audit log, and the id of the audit record is used as the cursor of the change feed.
+ */
+@XmlRootElement(name = "change")
+@XmlAccessorType(XmlAccessType.FIELD)
+public class ChangeEvent {
+    private long auditId;
+    private String entityType;
+    private Long entityId;
+    private String name;
+    private String operation;
+
+    public ChangeEvent() { }
+
+    public long getAuditId() { return auditId; }
+    public void setAuditId(long auditId) { this.auditId = auditId; }
+
+    /** @return the type of the changed entity, e.g. <code>SLOT</code>, <code>DEVICE</code>, or
+     * <code>COMPONENT_TYPE</code> */
+    public String getEntityType() { return entityType; }
+    public void setEntityType(String entityType) { this.entityType = entityType; }
+
+    public Long getEntityId() { return entityId; }
+    public void setEntityId(Long entityId) { this.entityId = entityId; }
+
+    /** @return the name of the entity after the change */
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    /** @return the operation, one of <code>CREATE</code>, <code>UPDATE</code>, <code>RENAME</code> and
+     * <code>DELETE</code> */
+    public String getOperation() { return operation; }
+    public void setOperation(String operation) { this.operation = operation; }
+}
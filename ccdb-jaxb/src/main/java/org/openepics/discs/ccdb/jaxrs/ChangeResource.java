@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.jaxrs;
+
+import java.util.List;
+
+import javax.ws.rs.DefaultValue;
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.MediaType;
+
+import org.openepics.discs.ccdb.jaxb.ChangeEvent;
+
+/**
+ * This resource provides the feed of the changes of the CCDB entities, used to keep a copy of the data up to date
+ * without reading all of it again.
+ */
+@Path("changes")
+public interface ChangeResource {
+    /**
+     * Returns the changes that happened after the given cursor, in the order they happened. The cursor for the next
+     * request is the audit id of the last change returned. An empty list means there are no further changes yet.
+     *
+     * @param since the cursor, the audit id of the last change already known, <code>0</code> for all the changes
+     * @param limit the maximum number of changes to return
+     * @return the list of changes
+     */
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    public List<ChangeEvent> getChanges(@DefaultValue("0") @QueryParam("since") long since,
+            @DefaultValue("1000") @QueryParam("limit") int limit);
+}
@@ -18,29 +18,92 @@
 package org.openepics.discs.ccdb.jaxrs;
 
 import java.util.List;
-import javax.ws.rs.DefaultValue;
 
+import javax.ws.rs.DefaultValue;
 import javax.ws.rs.GET;
 import javax.ws.rs.Path;
 import javax.ws.rs.PathParam;
 import javax.ws.rs.Produces;
 import javax.ws.rs.QueryParam;
+import javax.ws.rs.core.GenericType;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 
 import org.openepics.discs.ccdb.jaxb.InstallationSlot;
 
 /**
  * This resource provides bulk and specific installation slot data.
+ * <p>
+ * The bulk methods accept the <code>fields</code> parameter, a comma separated list of the installation slot
+ * fields to return: <code>description</code>, <code>deviceType</code>, <code>parents</code>,
+ * <code>children</code>, <code>powers</code>, <code>poweredBy</code>, <code>controls</code>,
+ * <code>controlledBy</code> and <code>properties</code>. The value <code>relations</code> stands for all six
+ * relationship lists. The name is always returned. If the parameter is not set, all the fields are returned.
+ * </p>
  *
  * @author <a href="mailto:sunil.sah@cosylab.com">Sunil Sah</a>
  */
 @Path("slot")
 public interface InstallationSlotResource {
+    /** The response header with the <code>after</code> cursor of the next page */
+    public static final String NEXT_AFTER_HEADER = "X-Next-After";
+
+    /**
+     * Returns a page of the installation slots, ordered by their database id. The page can be selected either by
+     * the <code>offset</code> or by the <code>after</code> cursor, which is the id of the last slot of the previous
+     * page. The cursor is more efficient for deep pages.
+     * <p>
+     * If the <code>limit</code> is set and the page is full, the response carries the cursor of the next page: the
+     * {@value #NEXT_AFTER_HEADER} header holds the id of the last slot of the page, and the <code>Link</code> header
+     * with the <code>next</code> relation holds the URI of the next page. The last page has neither header.
+     * </p>
+     *
+     * @param deviceType the name of the device type to retrieve slots for, all hosting slots if <code>undefined</code>
+     * @param after the id of the last slot of the previous page, <code>null</code> to start at the beginning
+     * @param offset the number of slots to skip
+     * @param limit the maximum number of slots to return, <code>0</code> for all
+     * @param fields the comma separated list of fields to return, <code>null</code> for all
+     * @return the response with the list of InstallationSlot
+     */
+    @GET
+    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
+    public Response getInstallationSlots(@DefaultValue("undefined")
+        @QueryParam("deviceType") String deviceType,
+        @QueryParam("after") Long after,
+        @DefaultValue("0") @QueryParam("offset") int offset,
+        @DefaultValue("0") @QueryParam("limit") int limit,
+        @QueryParam("fields") String fields);
+
+    /**
+     * Returns either all installation slots, or the slots of a device type, with all their fields.
+     *
+     * @param deviceType the name of the device type to retrieve slots for, all hosting slots if <code>undefined</code>
+     * @return list of InstallationSlot
+     */
+    public default List<InstallationSlot> getInstallationSlots(String deviceType) {
+        final Response response = getInstallationSlots(deviceType, null, 0, 0, null);
+        try {
+            return response.readEntity(new GenericType<List<InstallationSlot>>() {});
+        } finally {
+            response.close();
+        }
+    }
+
+    /**
+     * Returns all the installation slots as a JSON array that is written while the slots are read from the
+     * database, so neither the server nor a client reading the response incrementally needs to hold all the slots
+     * in memory.
+     *
+     * @param deviceType the name of the device type to retrieve slots for, all hosting slots if <code>undefined</code>
+     * @param fields the comma separated list of fields to return, <code>null</code> for all
+     * @return the response streaming a JSON array of installation slots
+     */
     @GET
-    @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML}) 
-    public List<InstallationSlot> getInstallationSlots(@DefaultValue("undefined") 
-        @QueryParam("deviceType") String deviceType);    
-    
+    @Path("stream")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response streamInstallationSlots(@DefaultValue("undefined") @QueryParam("deviceType") String deviceType,
+        @QueryParam("fields") String fields);
+
     /**
      * Returns a specific installation slot
      *
@@ -51,11 +114,4 @@ public interface InstallationSlotResource {
     @Path("{name}")
     @Produces({MediaType.APPLICATION_JSON, MediaType.APPLICATION_XML})
     public InstallationSlot getInstallationSlot(@PathParam("name") String name);
-    
-    /**
-     * Retrieves a list of slots of a given device type
-     * 
-     * @param deviceType the name of the device type to retrieve slots for
-     * @return list of slots of given device 
-     */    
 }
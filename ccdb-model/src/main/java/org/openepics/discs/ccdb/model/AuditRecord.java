@@ -51,10 +51,15 @@ import javax.xml.bind.annotation.XmlRootElement;
  * @author vuppala
  */
 @Entity
-@Table(name = "audit_record", indexes = { @Index(columnList = "entity_id, entity_type") })
+@Table(name = "audit_record", indexes = { @Index(columnList = "entity_id, entity_type"),
+        @Index(name = "audit_record_user_idx", columnList = "ccdb_user, id"),
+        @Index(name = "audit_record_type_idx", columnList = "entity_type, id"),
+        @Index(name = "audit_record_type_oper_idx", columnList = "entity_type, oper, id"),
+        @Index(name = "audit_record_oper_idx", columnList = "oper, id"),
+        @Index(name = "audit_record_log_time_idx", columnList = "log_time, id"),
+        @Index(name = "audit_record_tx_idx", columnList = "tx_id, id") })
 @XmlRootElement
 @NamedQueries({
-    @NamedQuery(name = "AuditRecord.findAll", query = "SELECT a FROM AuditRecord a ORDER BY a.id DESC"),
     @NamedQuery(name = "AuditRecord.findByEntityIdAndType", query = "SELECT a FROM AuditRecord a "
             + "WHERE a.entityId = :entityId AND a.entityType = :entityType ORDER BY a.logTime DESC")
 })
@@ -99,6 +104,11 @@ public class AuditRecord implements Serializable {
     @Column(name = "entry", columnDefinition="TEXT")
     private String entry;
 
+    /** The id of the database transaction that wrote the record, assigned by the database */
+    @Column(name = "tx_id", insertable = false, updatable = false,
+            columnDefinition = "BIGINT NOT NULL DEFAULT txid_current()")
+    private Long txId;
+
     @Version
     private Long version;
 
@@ -122,13 +132,13 @@ public class AuditRecord implements Serializable {
         return id;
     }
 
-    /** @return a copy of the log entry timestamp */
+    /** @return a copy of the log entry timestamp, <code>null</code> if it is not set */
     public Date getLogTime() {
-        return new Date(logTime.getTime());
+        return logTime != null ? new Date(logTime.getTime()) : null;
     }
 
     public void setLogTime(Date logTime) {
-        this.logTime = new Date(logTime.getTime());
+        this.logTime = logTime != null ? new Date(logTime.getTime()) : null;
     }
 
     /** @return a string representation of the audit log entry timestamp */
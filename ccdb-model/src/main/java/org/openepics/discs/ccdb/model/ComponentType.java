@@ -25,6 +25,7 @@ import java.util.List;
 import java.util.Set;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.CascadeType;
 import javax.persistence.Column;
 import javax.persistence.Entity;
@@ -35,6 +36,7 @@ import javax.persistence.ManyToMany;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.OneToMany;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
@@ -50,13 +52,16 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * @author vuppala
  */
 @Entity
-@Table(name = "component_type", indexes = { @Index(columnList = "super_component_type") })
+@Cacheable
+@Table(name = "component_type", indexes = { @Index(columnList = "super_component_type"),
+        @Index(name = "component_type_modified_at_idx", columnList = "modified_at") })
 @XmlRootElement
 @NamedQueries({
     @NamedQuery(name = "ComponentType.findAll", query = "SELECT c FROM ComponentType c"),
     @NamedQuery(name = "ComponentType.findUserTypesOnly", query = "SELECT c FROM ComponentType c "
             + "WHERE c.name <> :internalType1 AND c.name <> :internalType2 ORDER BY c.name"),
-    @NamedQuery(name = "ComponentType.findByName", query = "SELECT c FROM ComponentType c WHERE c.name = :name"),
+    @NamedQuery(name = "ComponentType.findByName", query = "SELECT c FROM ComponentType c WHERE c.name = :name",
+            hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
     @NamedQuery(name = "ComponentType.findAllOrdered", query = "SELECT c FROM ComponentType c ORDER BY c.name"),
     @NamedQuery(name = "ComponentType.findByModifiedBy", query = "SELECT c FROM ComponentType c "
             + "WHERE c.modifiedBy = :modifiedBy")
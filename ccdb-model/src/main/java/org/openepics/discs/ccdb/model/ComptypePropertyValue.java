@@ -54,8 +54,10 @@ import javax.xml.bind.annotation.XmlRootElement;
             + "WHERE c.modifiedBy = :modifiedBy"),
     @NamedQuery(name = "ComptypePropertyValue.findByDataType", query = "SELECT c FROM ComptypePropertyValue c "
             + "WHERE c.property.dataType = :dataType"),
-    @NamedQuery(name = "ComptypePropertyValue.findSamePropertyValue", query = "SELECT c FROM ComptypePropertyValue c "
-            + "WHERE c.property = :property AND c.propValue = :propValue")
+    @NamedQuery(name = "ComptypePropertyValue.findValuesByComponentTypes", query = "SELECT c "
+            + "FROM ComptypePropertyValue c JOIN FETCH c.property p JOIN FETCH p.dataType LEFT JOIN FETCH p.unit "
+            + "LEFT JOIN FETCH c.unit "
+            + "WHERE c.componentType IN :componentTypes AND c.isPropertyDefinition = FALSE ORDER BY c.id")
 })
 public class ComptypePropertyValue extends PropertyValue {
     private static final long serialVersionUID = -5402331155307049268L;
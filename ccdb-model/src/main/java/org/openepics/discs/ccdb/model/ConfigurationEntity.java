@@ -84,6 +84,13 @@ public class ConfigurationEntity implements Serializable {
         this.modifiedAt = new Date(modifiedAt.getTime());
     }
 
+    /**
+     * @return The optimistic locking version of this database entity, incremented by every update
+     */
+    public Long getVersion() {
+        return version;
+    }
+
     /**
      * @return The user performing the last modification of the database entity
      */
@@ -49,7 +49,9 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  * @author vuppala
  */
 @Entity
-@Table(name = "device", indexes = { @Index(columnList = "serial_number", unique = true), @Index(columnList = "component_type") })
+@Table(name = "device", indexes = { @Index(columnList = "serial_number", unique = true),
+        @Index(columnList = "component_type"),
+        @Index(name = "device_modified_at_idx", columnList = "modified_at") })
 @XmlRootElement
 @NamedQueries({
     @NamedQuery(name = "Device.findAll", query = "SELECT d FROM Device d"),
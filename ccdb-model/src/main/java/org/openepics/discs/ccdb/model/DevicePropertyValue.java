@@ -45,10 +45,9 @@ import javax.xml.bind.annotation.XmlRootElement;
             + "WHERE d.modifiedBy = :modifiedBy"),
     @NamedQuery(name = "DevicePropertyValue.findByDataType", query = "SELECT d FROM DevicePropertyValue d "
             + "WHERE d.property.dataType = :dataType"),
-    @NamedQuery(name = "DevicePropertyValue.findSamePropertyValueByType", query = "SELECT d FROM DevicePropertyValue d "
-            + "WHERE d.device.componentType = :componentType AND d.property = :property AND d.propValue = :propValue"),
-    @NamedQuery(name = "DevicePropertyValue.findSamePropertyValue", query = "SELECT d FROM DevicePropertyValue d "
-            + "WHERE d.property = :property AND d.propValue = :propValue")
+    @NamedQuery(name = "DevicePropertyValue.findByDevices", query = "SELECT d FROM DevicePropertyValue d "
+            + "JOIN FETCH d.property p JOIN FETCH p.dataType LEFT JOIN FETCH p.unit "
+            + "LEFT JOIN FETCH d.unit WHERE d.device IN :devices ORDER BY d.id")
 
 })
 public class DevicePropertyValue extends PropertyValue {
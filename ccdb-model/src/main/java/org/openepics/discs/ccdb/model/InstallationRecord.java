@@ -52,7 +52,8 @@ import com.google.common.base.Preconditions;
 // when searching by device only, the composite index (device, uninstall_date) can be used as well
 @Entity
 @Table(name = "installation_record", indexes = { @Index(columnList = "slot"),
-        @Index(columnList = "device, uninstall_date") })
+        @Index(columnList = "device, uninstall_date"),
+        @Index(name = "installation_record_modified_at_idx", columnList = "modified_at") })
 @XmlRootElement
 @NamedQueries({
     @NamedQuery(name = "InstallationRecord.activeRecordForSlot", query = "SELECT i FROM InstallationRecord i "
@@ -62,7 +63,13 @@ import com.google.common.base.Preconditions;
     @NamedQuery(name = "InstallationRecord.lastRecordForSlot", query = "SELECT i FROM InstallationRecord i WHERE i.id = (SELECT MAX (ii.id) FROM InstallationRecord ii "
             + "WHERE ii.slot = :slot) "),
     @NamedQuery(name = "InstallationRecord.lastRecordForDevice", query = "SELECT i FROM InstallationRecord i WHERE i.id = (SELECT MAX (ii.id) FROM InstallationRecord ii "
-            + "WHERE ii.device = :device) ")
+            + "WHERE ii.device = :device) "),
+    @NamedQuery(name = "InstallationRecord.activeRecordsForSlots", query = "SELECT i FROM InstallationRecord i "
+            + "JOIN FETCH i.device d JOIN FETCH d.componentType WHERE i.slot IN :slots AND i.uninstallDate IS NULL"),
+    @NamedQuery(name = "InstallationRecord.activeDevicesForChildren", query = "SELECT i.slot.id, i.device "
+            + "FROM InstallationRecord i WHERE i.uninstallDate IS NULL AND i.slot.id IN "
+                + "(SELECT p.childSlot.id FROM SlotPair p "
+                + "WHERE p.parentSlot.id = :parentId AND p.slotRelation.name = :relationName)")
 })
 public class InstallationRecord extends ConfigurationEntity
     implements EntityWithArtifacts {
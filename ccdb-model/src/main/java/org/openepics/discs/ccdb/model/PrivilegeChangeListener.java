@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.naming.InitialContext;
+import javax.naming.NamingException;
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import javax.transaction.TransactionSynchronizationRegistry;
+
+/**
+ * Counts the modifications of the entities defining the user privileges ({@link Privilege}, {@link Role} and
+ * {@link UserRole}), so that the cached privileges can be discarded when any of them changes.
+ * <p>
+ * The entity callbacks run when the changes are flushed, before the transaction commits. The modification is
+ * therefore only counted once the transaction is committed: a rolled back transaction does not discard the cached
+ * privileges, and the privileges cached while the transaction was still running are discarded after the commit.
+ * </p>
+ */
+public class PrivilegeChangeListener {
+    private static final AtomicLong MODIFICATION_COUNT = new AtomicLong();
+
+    private static final String TRANSACTION_REGISTRY_NAME = "java:comp/TransactionSynchronizationRegistry";
+    /** The key of the transaction resource marking that the commit of the transaction is already awaited */
+    private static final String COMMIT_AWAITED_KEY = PrivilegeChangeListener.class.getName() + ".commitAwaited";
+
+    /**
+     * Called by the persistence provider after a privilege defining entity was created, modified or removed.
+     *
+     * @param entity the modified entity
+     */
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void privilegesModified(Object entity) {
+        final TransactionSynchronizationRegistry registry = getTransactionRegistry();
+        if (registry == null || registry.getTransactionKey() == null) {
+            MODIFICATION_COUNT.incrementAndGet();
+        } else if (registry.getResource(COMMIT_AWAITED_KEY) == null) {
+            registry.putResource(COMMIT_AWAITED_KEY, Boolean.TRUE);
+            registry.registerInterposedSynchronization(new Synchronization() {
+                @Override
+                public void beforeCompletion() {
+                    // the modifications are counted after the commit
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status == Status.STATUS_COMMITTED) {
+                        MODIFICATION_COUNT.incrementAndGet();
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * @return the transaction synchronization registry of the container, <code>null</code> if the listener does not
+     * run in a container
+     */
+    protected TransactionSynchronizationRegistry getTransactionRegistry() {
+        try {
+            return (TransactionSynchronizationRegistry) new InitialContext().lookup(TRANSACTION_REGISTRY_NAME);
+        } catch (NamingException e) {
+            return null;
+        }
+    }
+
+    /** @return the number of privilege modifications since the application was started */
+    public static long getModificationCount() {
+        return MODIFICATION_COUNT.get();
+    }
+}
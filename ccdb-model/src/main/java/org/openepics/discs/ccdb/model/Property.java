@@ -20,6 +20,7 @@
 package org.openepics.discs.ccdb.model;
 
 import javax.persistence.Basic;
+import javax.persistence.Cacheable;
 import javax.persistence.Column;
 import javax.persistence.Entity;
 import javax.persistence.EnumType;
@@ -28,6 +29,7 @@ import javax.persistence.JoinColumn;
 import javax.persistence.ManyToOne;
 import javax.persistence.NamedQueries;
 import javax.persistence.NamedQuery;
+import javax.persistence.QueryHint;
 import javax.persistence.Table;
 import javax.validation.constraints.NotNull;
 import javax.validation.constraints.Size;
@@ -40,13 +42,15 @@ import javax.xml.bind.annotation.XmlRootElement;
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  */
 @Entity
+@Cacheable
 @Table(name = "property")
 @XmlRootElement
 @NamedQueries({
     @NamedQuery(name = "Property.findAll", query = "SELECT p FROM Property p"),
     @NamedQuery(name = "Property.findAllOrderedByName", query = "SELECT p FROM Property p ORDER BY p.name"),
     @NamedQuery(name = "Property.findByPropertyId", query = "SELECT p FROM Property p WHERE p.id = :id"),
-    @NamedQuery(name = "Property.findByName", query = "SELECT p FROM Property p WHERE p.name = :name"),
+    @NamedQuery(name = "Property.findByName", query = "SELECT p FROM Property p WHERE p.name = :name",
+            hints = @QueryHint(name = "org.hibernate.cacheable", value = "true")),
     @NamedQuery(name = "Property.findByUnit", query = "SELECT p from Property p WHERE p.unit = :unit"),
     @NamedQuery(name = "Property.findByDataType", query = "SELECT p FROM Property p WHERE p.dataType = :dataType"),
     @NamedQuery(name = "Property.findByModifiedBy", query = "SELECT p FROM Property p "
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model;
+
+import java.io.Serializable;
+import java.util.Date;
+
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.GeneratedValue;
+import javax.persistence.GenerationType;
+import javax.persistence.Id;
+import javax.persistence.Table;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+
+/**
+ * An {@link AuditRecord} that could not be written to the audit log, kept together with the reason. The columns have
+ * no constraints, so that a record rejected by the <code>audit_record</code> table can still be stored.
+ */
+@Entity
+@Table(name = "audit_record_quarantine")
+public class QuarantinedAuditRecord implements Serializable {
+    private static final long serialVersionUID = -2817300125616391047L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO)
+    @Column(name = "id")
+    private Long id;
+
+    @Column(name = "log_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date logTime;
+
+    @Column(name = "oper")
+    private String oper;
+
+    @Column(name = "ccdb_user", columnDefinition = "TEXT")
+    private String user;
+
+    @Column(name = "entity_type")
+    private String entityType;
+
+    @Column(name = "entity_key", columnDefinition = "TEXT")
+    private String entityKey;
+
+    @Column(name = "entity_id")
+    private Long entityId;
+
+    @Column(name = "entry", columnDefinition = "TEXT")
+    private String entry;
+
+    @Column(name = "error", columnDefinition = "TEXT")
+    private String error;
+
+    @Column(name = "quarantined_at")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date quarantinedAt;
+
+    protected QuarantinedAuditRecord() {
+    }
+
+    /**
+     * Constructs a quarantined copy of an audit record.
+     *
+     * @param auditRecord the {@link AuditRecord} that could not be written
+     * @param error the description of the error that prevented the writing
+     */
+    public QuarantinedAuditRecord(AuditRecord auditRecord, String error) {
+        this.logTime = auditRecord.getLogTime();
+        this.oper = auditRecord.getOper() != null ? auditRecord.getOper().name() : null;
+        this.user = auditRecord.getUser();
+        this.entityType = auditRecord.getEntityType() != null ? auditRecord.getEntityType().name() : null;
+        this.entityKey = auditRecord.getEntityKey();
+        this.entityId = auditRecord.getEntityId();
+        this.entry = auditRecord.getEntry();
+        this.error = error;
+        this.quarantinedAt = new Date();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    /** @return the log time of the audit record, <code>null</code> if it was not set */
+    public Date getLogTime() {
+        return logTime != null ? new Date(logTime.getTime()) : null;
+    }
+
+    public String getOper() {
+        return oper;
+    }
+
+    public String getUser() {
+        return user;
+    }
+
+    public String getEntityType() {
+        return entityType;
+    }
+
+    public String getEntityKey() {
+        return entityKey;
+    }
+
+    public Long getEntityId() {
+        return entityId;
+    }
+
+    public String getEntry() {
+        return entry;
+    }
+
+    /** @return the description of the error that prevented writing the audit record */
+    public String getError() {
+        return error;
+    }
+
+    /** @return the time the audit record was moved to the quarantine */
+    public Date getQuarantinedAt() {
+        return new Date(quarantinedAt.getTime());
+    }
+
+    @Override
+    public int hashCode() {
+        return id != null ? id.hashCode() : 0;
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof QuarantinedAuditRecord)) {
+            return false;
+        }
+        final QuarantinedAuditRecord other = (QuarantinedAuditRecord) object;
+        return id != null ? id.equals(other.id) : this == object;
+    }
+
+    @Override
+    public String toString() {
+        return "QuarantinedAuditRecord[ id=" + id + " ]";
+    }
+}
@@ -51,7 +51,8 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
  */
 @Entity
 @Table(name = "slot", indexes = { @Index(columnList = "name") , @Index(columnList = "component_type"),
-        @Index(columnList = "is_hosting_slot") })
+        @Index(columnList = "is_hosting_slot"),
+        @Index(name = "slot_modified_at_idx", columnList = "modified_at") })
 @XmlRootElement
 @NamedQueries({
     @NamedQuery(name = "Slot.findAll", query = "SELECT s FROM Slot s"),
@@ -63,7 +64,13 @@ import com.fasterxml.jackson.annotation.JsonIgnore;
             + "WHERE s.isHostingSlot = :isHostingSlot"),
     @NamedQuery(name = "Slot.findByModifiedBy", query = "SELECT s FROM Slot s WHERE s.modifiedBy = :modifiedBy"),
     @NamedQuery(name = "Slot.findByComponentType", query = "SELECT s FROM Slot s "
-            + "WHERE s.componentType = :componentType")
+            + "WHERE s.componentType = :componentType"),
+    @NamedQuery(name = "Slot.findHostingAfterId", query = "SELECT s FROM Slot s "
+            + "JOIN FETCH s.componentType WHERE s.isHostingSlot = TRUE AND s.id > :lastId ORDER BY s.id"),
+    @NamedQuery(name = "Slot.findByComponentTypeAfterId", query = "SELECT s FROM Slot s "
+            + "WHERE s.componentType = :componentType AND s.id > :lastId ORDER BY s.id"),
+    @NamedQuery(name = "Slot.findHostingIdsByName", query = "SELECT s.id FROM Slot s "
+            + "WHERE s.isHostingSlot = TRUE AND UPPER(s.name) LIKE :namePart ESCAPE '\\'")
 })
 public class Slot extends ConfigurationEntity implements EntityWithProperties, EntityWithArtifacts, NamedEntity,
                                                             EntityWithTags {
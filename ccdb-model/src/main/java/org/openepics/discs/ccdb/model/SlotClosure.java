@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+import javax.persistence.Basic;
+import javax.persistence.Column;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.IdClass;
+import javax.persistence.Index;
+import javax.persistence.NamedQueries;
+import javax.persistence.NamedQuery;
+import javax.persistence.Table;
+
+/**
+ * A row of the materialized transitive closure of the {@link SlotRelationName#CONTAINS} hierarchy. For every
+ * ancestor-descendant pair of {@link Slot}s there is exactly one row, holding the number of distinct
+ * <code>CONTAINS</code> paths leading from the ancestor to the descendant. A slot is not its own ancestor.
+ * <p>
+ * Counting the paths is necessary, because a slot can be contained in more than one parent. When a
+ * relationship is removed only the paths that went through it are subtracted, and the row is removed once the
+ * count drops to zero.
+ * </p>
+ * The closure is maintained by the {@link SlotPair} DAO and must never be modified directly.
+ */
+@Entity
+@IdClass(SlotClosure.SlotClosureId.class)
+@Table(name = "slot_closure", indexes = { @Index(columnList = "descendant, ancestor") })
+@NamedQueries({
+    @NamedQuery(name = "SlotClosure.findAncestorPaths", query = "SELECT c.ancestor, c.pathCount "
+            + "FROM SlotClosure c WHERE c.descendant = :slotId"),
+    @NamedQuery(name = "SlotClosure.findDescendantPaths", query = "SELECT c.descendant, c.pathCount "
+            + "FROM SlotClosure c WHERE c.ancestor = :slotId"),
+    @NamedQuery(name = "SlotClosure.findPathsThroughRelation", query = "SELECT c FROM SlotClosure c "
+            + "WHERE (c.ancestor = :parentId "
+                + "OR c.ancestor IN (SELECT a.ancestor FROM SlotClosure a WHERE a.descendant = :parentId)) "
+            + "AND (c.descendant = :childId "
+                + "OR c.descendant IN (SELECT d.descendant FROM SlotClosure d WHERE d.ancestor = :childId))"),
+    @NamedQuery(name = "SlotClosure.countPaths", query = "SELECT COUNT(c) FROM SlotClosure c "
+            + "WHERE c.ancestor = :ancestorId AND c.descendant = :descendantId"),
+    @NamedQuery(name = "SlotClosure.findDescendants", query = "SELECT s FROM Slot s "
+            + "WHERE s.id IN (SELECT c.descendant FROM SlotClosure c WHERE c.ancestor = :slotId)"),
+    @NamedQuery(name = "SlotClosure.findAncestorsOfHostingByName", query = "SELECT DISTINCT c.ancestor "
+            + "FROM SlotClosure c WHERE c.descendant IN (SELECT s.id FROM Slot s "
+                + "WHERE s.isHostingSlot = TRUE AND UPPER(s.name) LIKE :namePart ESCAPE '\\')")
+})
+public class SlotClosure implements Serializable {
+    private static final long serialVersionUID = 3961094867296785914L;
+
+    @Id
+    @Column(name = "ancestor")
+    private Long ancestor;
+
+    @Id
+    @Column(name = "descendant")
+    private Long descendant;
+
+    @Basic(optional = false)
+    @Column(name = "path_count")
+    private long pathCount;
+
+    protected SlotClosure() {
+    }
+
+    /**
+     * Constructs a new closure row.
+     *
+     * @param ancestor the database id of the ancestor {@link Slot}
+     * @param descendant the database id of the descendant {@link Slot}
+     * @param pathCount the number of <code>CONTAINS</code> paths from the ancestor to the descendant
+     */
+    public SlotClosure(Long ancestor, Long descendant, long pathCount) {
+        this.ancestor = ancestor;
+        this.descendant = descendant;
+        this.pathCount = pathCount;
+    }
+
+    /** @return the database id of the ancestor {@link Slot} */
+    public Long getAncestor() {
+        return ancestor;
+    }
+
+    /** @return the database id of the descendant {@link Slot} */
+    public Long getDescendant() {
+        return descendant;
+    }
+
+    /** @return the number of <code>CONTAINS</code> paths from the ancestor to the descendant */
+    public long getPathCount() {
+        return pathCount;
+    }
+    public void setPathCount(long pathCount) {
+        this.pathCount = pathCount;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ancestor, descendant);
+    }
+
+    @Override
+    public boolean equals(Object object) {
+        if (!(object instanceof SlotClosure)) {
+            return false;
+        }
+        final SlotClosure other = (SlotClosure) object;
+        return Objects.equals(ancestor, other.ancestor) && Objects.equals(descendant, other.descendant);
+    }
+
+    @Override
+    public String toString() {
+        return "SlotClosure[ ancestor=" + ancestor + ", descendant=" + descendant + " ]";
+    }
+
+    /** The composite primary key of the {@link SlotClosure} entity. */
+    public static class SlotClosureId implements Serializable {
+        private static final long serialVersionUID = -5317407725467040232L;
+
+        private Long ancestor;
+        private Long descendant;
+
+        public SlotClosureId() {
+        }
+
+        /**
+         * @param ancestor the database id of the ancestor {@link Slot}
+         * @param descendant the database id of the descendant {@link Slot}
+         */
+        public SlotClosureId(Long ancestor, Long descendant) {
+            this.ancestor = ancestor;
+            this.descendant = descendant;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(ancestor, descendant);
+        }
+
+        @Override
+        public boolean equals(Object object) {
+            if (!(object instanceof SlotClosureId)) {
+                return false;
+            }
+            final SlotClosureId other = (SlotClosureId) object;
+            return Objects.equals(ancestor, other.ancestor) && Objects.equals(descendant, other.descendant);
+        }
+    }
+}
@@ -54,12 +54,22 @@ import javax.xml.bind.annotation.XmlRootElement;
     @NamedQuery(name = "SlotPair.findByParentChildRelation", query = "SELECT s FROM SlotPair s "
             + "WHERE s.childSlot.name LIKE :childName "
                 + "AND s.parentSlot.name = :parentName AND s.slotRelation.name = :relationName"),
+    @NamedQuery(name = "SlotPair.countChildrenByName", query = "SELECT COUNT(s) FROM SlotPair s "
+            + "WHERE s.childSlot.name = :childName AND s.parentSlot = :parentSlot "
+                + "AND s.slotRelation.name = :relationName AND s.childSlot.id <> :excludedSlotId"),
     @NamedQuery(name = "SlotPair.findMaxPairOrder", query = "SELECT MAX(s.slotOrder) FROM SlotPair s "
             + "WHERE s.parentSlot = :parentSlot"),
     @NamedQuery(name = "SlotPair.findSlotPairsByChildAndRelation", query = "SELECT s FROM SlotPair s "
             + "WHERE s.childSlot = :childSlot AND s.slotRelation.name = :relationName"),
     @NamedQuery(name = "SlotPair.findSlotRelations", query = "SELECT s from SlotPair s "
             + "WHERE s.childSlot = :slot OR s.parentSlot = :slot"),
+    @NamedQuery(name = "SlotPair.findSlotRelationsByRelation", query = "SELECT s from SlotPair s "
+            + "WHERE (s.childSlot = :slot OR s.parentSlot = :slot) AND s.slotRelation.name = :relationName"),
+    @NamedQuery(name = "SlotPair.findStoredRelation", query = "SELECT s.parentSlot, s.childSlot, "
+            + "s.slotRelation.name FROM SlotPair s WHERE s.id = :id"),
+    @NamedQuery(name = "SlotPair.findContainsPairsToRoot", query = "SELECT s FROM SlotPair s "
+            + "WHERE s.slotRelation.name = :relationName AND (s.childSlot = :slot OR s.childSlot.id IN "
+                + "(SELECT c.ancestor FROM SlotClosure c WHERE c.descendant = :slotId))"),
     @NamedQuery(name = "SlotPair.findRootSlotsForRelation", query = "SELECT p.parentSlot from SlotPair p "
             + "WHERE p.slotRelation = :relation AND "
                     + "(SELECT COUNT(p2) FROM SlotPair p2 WHERE "
@@ -69,7 +79,20 @@ import javax.xml.bind.annotation.XmlRootElement;
             + "ORDER BY s.slotOrder DESC"),
     @NamedQuery(name = "SlotPair.findSucceedingPairs", query = "SELECT s FROM SlotPair s "
             + "WHERE s.parentSlot = :parentSlot AND s.slotRelation = :slotRelation AND s.slotOrder > :order "
-            + "ORDER BY s.slotOrder ASC")
+            + "ORDER BY s.slotOrder ASC"),
+    @NamedQuery(name = "SlotPair.findPairsOfSlots", query = "SELECT s FROM SlotPair s "
+            + "JOIN FETCH s.slotRelation JOIN FETCH s.parentSlot JOIN FETCH s.childSlot "
+            + "WHERE s.parentSlot IN :slots OR s.childSlot IN :slots ORDER BY s.id"),
+    @NamedQuery(name = "SlotPair.findChildSummaries", query = "SELECT c.id, c.name, c.description, "
+            + "c.isHostingSlot, t.name, s.slotOrder FROM SlotPair s JOIN s.childSlot c JOIN c.componentType t "
+            + "WHERE s.parentSlot.id = :parentId AND s.slotRelation.name = :relationName ORDER BY s.slotOrder"),
+    @NamedQuery(name = "SlotPair.countGrandchildren", query = "SELECT s.parentSlot.id, COUNT(s) FROM SlotPair s "
+            + "WHERE s.slotRelation.name = :relationName AND s.parentSlot.id IN "
+                + "(SELECT p.childSlot.id FROM SlotPair p "
+                + "WHERE p.parentSlot.id = :parentId AND p.slotRelation.name = :relationName) "
+            + "GROUP BY s.parentSlot.id"),
+    @NamedQuery(name = "SlotPair.findParentIdsOfSlots", query = "SELECT DISTINCT s.parentSlot.id FROM SlotPair s "
+            + "WHERE s.childSlot.id IN :slotIds")
 })
 public class SlotPair implements Serializable {
     private static final long serialVersionUID = -1346609227484965749L;
@@ -44,10 +44,9 @@ import javax.xml.bind.annotation.XmlRootElement;
             + "WHERE s.modifiedBy = :modifiedBy"),
     @NamedQuery(name = "SlotPropertyValue.findByDataType", query = "SELECT s FROM SlotPropertyValue s "
             + "WHERE s.property.dataType = :dataType"),
-    @NamedQuery(name = "SlotPropertyValue.findSamePropertyValueByType", query = "SELECT s FROM SlotPropertyValue s "
-            + "WHERE s.slot.componentType = :componentType AND s.property = :property AND s.propValue = :propValue"),
-    @NamedQuery(name = "SlotPropertyValue.findSamePropertyValue", query = "SELECT s FROM SlotPropertyValue s "
-            + "WHERE s.property = :property AND s.propValue = :propValue")
+    @NamedQuery(name = "SlotPropertyValue.findBySlots", query = "SELECT s FROM SlotPropertyValue s "
+            + "JOIN FETCH s.property p JOIN FETCH p.dataType LEFT JOIN FETCH p.unit "
+            + "LEFT JOIN FETCH s.unit WHERE s.slot IN :slots ORDER BY s.id")
 })
 public class SlotPropertyValue extends PropertyValue {
     private static final long serialVersionUID = -6418859111076538082L;
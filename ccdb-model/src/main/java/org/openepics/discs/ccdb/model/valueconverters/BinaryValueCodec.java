@@ -0,0 +1,455 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model.valueconverters;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.epics.util.time.Timestamp;
+import org.openepics.discs.ccdb.model.values.DblTableValue;
+import org.openepics.discs.ccdb.model.values.DblValue;
+import org.openepics.discs.ccdb.model.values.DblVectorValue;
+import org.openepics.discs.ccdb.model.values.EnumValue;
+import org.openepics.discs.ccdb.model.values.IntValue;
+import org.openepics.discs.ccdb.model.values.IntVectorValue;
+import org.openepics.discs.ccdb.model.values.StrValue;
+import org.openepics.discs.ccdb.model.values.StrVectorValue;
+import org.openepics.discs.ccdb.model.values.TimestampValue;
+import org.openepics.discs.ccdb.model.values.Value;
+
+/**
+ * A compact binary storage format for the {@link Value}s, an alternative to the SEDS JSON.
+ * <p>
+ * The encoded value starts with a one byte type tag. The integers are stored as variable length integers, the
+ * vectors and the table columns as raw little-endian <code>int</code>s and <code>double</code>s, and the string
+ * vectors as a dictionary of the distinct strings followed by the indexes into it. The double precision string
+ * representations are only stored if they differ from the default representation of the number, or from the
+ * integer representation if all the numbers are integers.
+ * </p>
+ * <p>
+ * The integer vectors, and the double vectors and table columns whose numbers all have a short decimal expansion
+ * (e.g. <code>0.25</code> or <code>3</code>), are stored as variable length integers instead, the doubles
+ * multiplied by a power of ten. These have their own type tags, so the values encoded before are still read.
+ * </p>
+ * <p>
+ * The property values are stored in a text column, so the bytes are stored Base64 encoded, after the
+ * {@value #PREFIX} prefix. A SEDS encoded value always starts with <code>{</code>, so both formats can be read
+ * from the same column. The Base64 encoding makes some values longer than their SEDS text, so
+ * {@link #encodeShorter(Value, String)} keeps the SEDS text of those.
+ * </p>
+ */
+final class BinaryValueCodec {
+    /** The prefix of the binary encoded database data, including the version of the format */
+    static final String PREFIX = "~1";
+
+    private static final byte INT = 1;
+    private static final byte DBL = 2;
+    private static final byte STR = 3;
+    private static final byte ENUM = 4;
+    private static final byte TIMESTAMP = 5;
+    private static final byte INT_VECTOR = 6;
+    private static final byte DBL_VECTOR = 7;
+    private static final byte STR_VECTOR = 8;
+    private static final byte DBL_TABLE = 9;
+    private static final byte VARINT_INT_VECTOR = 10;
+    private static final byte SCALED_DBL_VECTOR = 11;
+    private static final byte SCALED_DBL_TABLE = 12;
+
+    /** The string representations of the numbers are the default ones and are not stored */
+    private static final byte DEFAULT_REPRESENTATIONS = 0;
+    private static final byte STORED_REPRESENTATIONS = 1;
+    /** The numbers are integers and their string representations are the integer ones, and are not stored */
+    private static final byte INTEGER_REPRESENTATIONS = 2;
+
+    /** The powers of ten the doubles with a short decimal expansion are multiplied by */
+    private static final double[] POWERS_OF_TEN = { 1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9 };
+    /** The largest magnitude of a scaled double, all the smaller integers are exact doubles */
+    private static final double MAX_SCALED = 1L << 53;
+
+    private BinaryValueCodec() {
+        // utility class
+    }
+
+    /**
+     * @param dbData the database data
+     * @return <code>true</code> if the data is stored in the binary format, <code>false</code> otherwise
+     */
+    static boolean isEncoded(String dbData) {
+        return dbData.startsWith(PREFIX);
+    }
+
+    /**
+     * @param value the value to encode
+     * @param sedsData the SEDS encoded value
+     * @return the binary encoded value, or the SEDS encoded value if that is shorter
+     */
+    static String encodeShorter(Value value, String sedsData) {
+        final String binaryData = encode(value);
+        return binaryData.length() < sedsData.length() ? binaryData : sedsData;
+    }
+
+    /**
+     * @param value the value to encode
+     * @return the binary encoded value, with the {@value #PREFIX} prefix
+     */
+    static String encode(Value value) {
+        final Output output = new Output();
+        if (value instanceof IntValue) {
+            output.writeByte(INT);
+            output.writeSignedVarLong(((IntValue) value).getIntValue());
+        } else if (value instanceof DblValue) {
+            output.writeByte(DBL);
+            final DblValue dblValue = (DblValue) value;
+            final double number = dblValue.getDblValue();
+            if (Double.toString(number).equals(dblValue.toString())) {
+                output.writeByte(DEFAULT_REPRESENTATIONS);
+                output.writeDouble(number);
+            } else {
+                output.writeByte(STORED_REPRESENTATIONS);
+                output.writeString(dblValue.toString());
+            }
+        } else if (value instanceof StrValue) {
+            output.writeByte(STR);
+            output.writeString(((StrValue) value).getStrValue());
+        } else if (value instanceof EnumValue) {
+            output.writeByte(ENUM);
+            output.writeString(((EnumValue) value).getEnumValue());
+        } else if (value instanceof TimestampValue) {
+            output.writeByte(TIMESTAMP);
+            final Timestamp timestamp = ((TimestampValue) value).getTimestampValue();
+            output.writeSignedVarLong(timestamp.getSec());
+            output.writeVarLong(timestamp.getNanoSec());
+        } else if (value instanceof IntVectorValue) {
+            output.writeByte(VARINT_INT_VECTOR);
+            final int[] numbers = ((IntVectorValue) value).toArray();
+            output.writeVarLong(numbers.length);
+            for (final int number : numbers) {
+                output.writeSignedVarLong(number);
+            }
+        } else if (value instanceof DblVectorValue) {
+            final DblVectorValue dblVector = (DblVectorValue) value;
+            final double[] numbers = dblVector.toArray();
+            final List<String> representations = dblVector.getRepresentations();
+            final byte representationsFlag = getRepresentationsFlag(numbers, representations);
+            final int scale = getDecimalScale(numbers);
+            output.writeByte(scale < 0 ? DBL_VECTOR : SCALED_DBL_VECTOR);
+            output.writeVarLong(numbers.length);
+            output.writeByte(representationsFlag);
+            if (scale < 0) {
+                output.writeDoubles(numbers);
+            } else {
+                output.writeScaledDoubles(numbers, scale);
+            }
+            if (representationsFlag == STORED_REPRESENTATIONS) {
+                output.writeStrings(representations);
+            }
+        } else if (value instanceof StrVectorValue) {
+            output.writeByte(STR_VECTOR);
+            output.writeStrings(((StrVectorValue) value).getStrVectorValue());
+        } else if (value instanceof DblTableValue) {
+            final DblTableValue table = (DblTableValue) value;
+            final double[][] columns = new double[table.getColumnCount()][];
+            final int[] scales = new int[columns.length];
+            boolean scaled = true;
+            for (int column = 0; column < columns.length; column++) {
+                columns[column] = table.getColumn(column);
+                scales[column] = getDecimalScale(columns[column]);
+                scaled &= scales[column] >= 0;
+            }
+            output.writeByte(scaled ? SCALED_DBL_TABLE : DBL_TABLE);
+            output.writeVarLong(columns.length);
+            for (int column = 0; column < columns.length; column++) {
+                output.writeVarLong(columns[column].length);
+                if (scaled) {
+                    output.writeScaledDoubles(columns[column], scales[column]);
+                } else {
+                    output.writeDoubles(columns[column]);
+                }
+            }
+        } else {
+            throw new InvalidDataTypeException("Data type not supported: " + value.getClass().getName());
+        }
+        return PREFIX + Base64.getEncoder().encodeToString(output.toByteArray());
+    }
+
+    /**
+     * @param dbData the binary encoded database data, with the {@value #PREFIX} prefix
+     * @return the decoded {@link Value}
+     */
+    static Value decode(String dbData) {
+        final byte[] bytes = Base64.getDecoder().decode(dbData.substring(PREFIX.length()));
+        final ByteBuffer input = ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        final byte tag = input.get();
+        switch (tag) {
+            case INT:
+                return new IntValue((int) readSignedVarLong(input));
+            case DBL:
+                return new DblValue(input.get() == DEFAULT_REPRESENTATIONS ? Double.toString(input.getDouble())
+                                                                            : readString(input));
+            case STR:
+                return new StrValue(readString(input));
+            case ENUM:
+                return new EnumValue(readString(input));
+            case TIMESTAMP:
+                final long seconds = readSignedVarLong(input);
+                return new TimestampValue(Timestamp.of(seconds, (int) readVarLong(input)));
+            case INT_VECTOR:
+                final int[] integers = new int[(int) readVarLong(input)];
+                input.asIntBuffer().get(integers);
+                return IntVectorValue.of(integers);
+            case VARINT_INT_VECTOR:
+                final int[] varIntegers = new int[(int) readVarLong(input)];
+                for (int i = 0; i < varIntegers.length; i++) {
+                    varIntegers[i] = (int) readSignedVarLong(input);
+                }
+                return IntVectorValue.of(varIntegers);
+            case DBL_VECTOR:
+            case SCALED_DBL_VECTOR:
+                final double[] numbers = new double[(int) readVarLong(input)];
+                final byte representationsFlag = input.get();
+                if (tag == DBL_VECTOR) {
+                    readDoubles(input, numbers);
+                } else {
+                    readScaledDoubles(input, numbers);
+                }
+                return DblVectorValue.of(numbers, readRepresentations(input, numbers, representationsFlag));
+            case STR_VECTOR:
+                return new StrVectorValue(Arrays.asList(readStrings(input)));
+            case DBL_TABLE:
+            case SCALED_DBL_TABLE:
+                final double[][] columns = new double[(int) readVarLong(input)][];
+                for (int column = 0; column < columns.length; column++) {
+                    columns[column] = new double[(int) readVarLong(input)];
+                    if (tag == DBL_TABLE) {
+                        readDoubles(input, columns[column]);
+                    } else {
+                        readScaledDoubles(input, columns[column]);
+                    }
+                }
+                return DblTableValue.of(columns);
+            default:
+                throw new IllegalArgumentException("Unknown binary value type " + tag + ". Found: " + dbData);
+        }
+    }
+
+    private static byte getRepresentationsFlag(double[] numbers, List<String> representations) {
+        if (numbers.length != representations.size()) {
+            return STORED_REPRESENTATIONS;
+        }
+        boolean defaultRepresentations = true;
+        boolean integerRepresentations = true;
+        for (int i = 0; i < numbers.length && (defaultRepresentations || integerRepresentations); i++) {
+            defaultRepresentations &= Double.toString(numbers[i]).equals(representations.get(i));
+            integerRepresentations &= isInteger(numbers[i])
+                                        && Long.toString((long) numbers[i]).equals(representations.get(i));
+        }
+        if (defaultRepresentations) {
+            return DEFAULT_REPRESENTATIONS;
+        }
+        return integerRepresentations ? INTEGER_REPRESENTATIONS : STORED_REPRESENTATIONS;
+    }
+
+    private static String[] readRepresentations(ByteBuffer input, double[] numbers, byte representationsFlag) {
+        if (representationsFlag == STORED_REPRESENTATIONS) {
+            return readStrings(input);
+        }
+        final String[] representations = new String[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            representations[i] = representationsFlag == INTEGER_REPRESENTATIONS ? Long.toString((long) numbers[i])
+                                                                                : Double.toString(numbers[i]);
+        }
+        return representations;
+    }
+
+    private static boolean isInteger(double number) {
+        return number == Math.rint(number) && Math.abs(number) < MAX_SCALED;
+    }
+
+    /**
+     * @param numbers the numbers
+     * @return the smallest power of ten that all the numbers can be multiplied by to get exact integers, which
+     *          divided by the same power of ten give back the numbers, or <code>-1</code> if there is none
+     */
+    private static int getDecimalScale(double[] numbers) {
+        scales:
+        for (int scale = 0; scale < POWERS_OF_TEN.length; scale++) {
+            for (final double number : numbers) {
+                final double scaled = number * POWERS_OF_TEN[scale];
+                if (!(Math.abs(scaled) < MAX_SCALED) || Double.doubleToLongBits(Math.round(scaled)
+                        / POWERS_OF_TEN[scale]) != Double.doubleToLongBits(number)) {
+                    continue scales;
+                }
+            }
+            return scale;
+        }
+        return -1;
+    }
+
+    private static long readVarLong(ByteBuffer input) {
+        long value = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = input.get();
+            value |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while ((b & 0x80) != 0);
+        return value;
+    }
+
+    private static long readSignedVarLong(ByteBuffer input) {
+        final long zigZag = readVarLong(input);
+        return (zigZag >>> 1) ^ -(zigZag & 1);
+    }
+
+    private static void readDoubles(ByteBuffer input, double[] numbers) {
+        input.asDoubleBuffer().get(numbers);
+        input.position(input.position() + numbers.length * Double.BYTES);
+    }
+
+    private static void readScaledDoubles(ByteBuffer input, double[] numbers) {
+        final double power = POWERS_OF_TEN[input.get()];
+        for (int i = 0; i < numbers.length; i++) {
+            numbers[i] = readSignedVarLong(input) / power;
+        }
+    }
+
+    private static String readString(ByteBuffer input) {
+        final int length = (int) readVarLong(input);
+        final String string = new String(input.array(), input.position(), length, StandardCharsets.UTF_8);
+        input.position(input.position() + length);
+        return string;
+    }
+
+    /** Reads a dictionary encoded string array. The index 0 stands for a <code>null</code> element. */
+    private static String[] readStrings(ByteBuffer input) {
+        final String[] dictionary = new String[(int) readVarLong(input) + 1];
+        for (int i = 1; i < dictionary.length; i++) {
+            dictionary[i] = readString(input);
+        }
+        final String[] strings = new String[(int) readVarLong(input)];
+        for (int i = 0; i < strings.length; i++) {
+            strings[i] = dictionary[(int) readVarLong(input)];
+        }
+        return strings;
+    }
+
+    /** A growing little-endian byte buffer */
+    private static class Output {
+        private ByteBuffer buffer = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+
+        private void ensureCapacity(int bytes) {
+            if (buffer.remaining() < bytes) {
+                final int capacity = Math.max(buffer.capacity() * 2, buffer.position() + bytes);
+                final ByteBuffer larger = ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+                buffer.flip();
+                larger.put(buffer);
+                buffer = larger;
+            }
+        }
+
+        private void writeByte(byte value) {
+            ensureCapacity(1);
+            buffer.put(value);
+        }
+
+        private void writeVarLong(long value) {
+            ensureCapacity(10);
+            long remaining = value;
+            while ((remaining & ~0x7FL) != 0) {
+                buffer.put((byte) ((remaining & 0x7F) | 0x80));
+                remaining >>>= 7;
+            }
+            buffer.put((byte) remaining);
+        }
+
+        private void writeSignedVarLong(long value) {
+            writeVarLong((value << 1) ^ (value >> 63));
+        }
+
+        private void writeInt(int value) {
+            ensureCapacity(Integer.BYTES);
+            buffer.putInt(value);
+        }
+
+        private void writeDouble(double value) {
+            ensureCapacity(Double.BYTES);
+            buffer.putDouble(value);
+        }
+
+        private void writeDoubles(double[] values) {
+            ensureCapacity(values.length * Double.BYTES);
+            buffer.asDoubleBuffer().put(values);
+            buffer.position(buffer.position() + values.length * Double.BYTES);
+        }
+
+        private void writeScaledDoubles(double[] values, int scale) {
+            writeByte((byte) scale);
+            for (final double value : values) {
+                writeSignedVarLong(Math.round(value * POWERS_OF_TEN[scale]));
+            }
+        }
+
+        private void writeString(String value) {
+            final byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+            writeVarLong(bytes.length);
+            ensureCapacity(bytes.length);
+            buffer.put(bytes);
+        }
+
+        private void writeStrings(List<String> values) {
+            final Map<String, Integer> dictionary = new HashMap<>();
+            final int[] indexes = new int[values.size()];
+            final String[] entries = new String[values.size()];
+            int index = 0;
+            for (final String value : values) {
+                if (value != null) {
+                    Integer entry = dictionary.get(value);
+                    if (entry == null) {
+                        entry = dictionary.size() + 1;
+                        dictionary.put(value, entry);
+                        entries[entry - 1] = value;
+                    }
+                    indexes[index] = entry;
+                }
+                index++;
+            }
+
+            writeVarLong(dictionary.size());
+            for (int i = 0; i < dictionary.size(); i++) {
+                writeString(entries[i]);
+            }
+            writeVarLong(indexes.length);
+            for (final int entry : indexes) {
+                writeVarLong(entry);
+            }
+        }
+
+        private byte[] toByteArray() {
+            return Arrays.copyOf(buffer.array(), buffer.position());
+        }
+    }
+}
@@ -19,6 +19,9 @@
  */
 package org.openepics.discs.ccdb.model.valueconverters;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.logging.Level;
@@ -71,12 +74,35 @@ public class SedsConverters {
     }
 
     /** The method converts a {@link Value} instance into a serialized string representation which can be stored
-     * into the database.
+     * into the database. The value is serialized in the {@link ValueConverter#getStorageFormat()} format, except that
+     * in the {@link ValueConverter.StorageFormat#BINARY} format the values whose SEDS serialization is shorter are
+     * still stored as SEDS.
      * @param <T> specific {@link Value} type
      * @param attribute a {@link Value} instance
      * @return a String containing a serialized {@link Value}
      */
     public static <T extends Value> String convertToDatabaseColumn(T attribute) {
+        if (ValueConverter.getStorageFormat() == ValueConverter.StorageFormat.BINARY) {
+            return BinaryValueCodec.encodeShorter(attribute, convertToSeds(attribute));
+        }
+        return convertToSeds(attribute);
+    }
+
+    /** The method serializes a {@link Value} instance in all the formats it can be found in the database. While the
+     * {@link ValueConverter.StorageFormat#BINARY} format is used, the rows not yet rewritten are still stored as
+     * SEDS, so queries comparing the stored values must match both.
+     * @param <T> specific {@link Value} type
+     * @param attribute a {@link Value} instance
+     * @return the SEDS serialization of the {@link Value}, followed by the binary one if that format is used
+     */
+    public static <T extends Value> List<String> convertToDatabaseColumns(T attribute) {
+        if (ValueConverter.getStorageFormat() == ValueConverter.StorageFormat.BINARY) {
+            return Arrays.asList(convertToSeds(attribute), BinaryValueCodec.encode(attribute));
+        }
+        return Collections.singletonList(convertToSeds(attribute));
+    }
+
+    private static <T extends Value> String convertToSeds(T attribute) {
         @SuppressWarnings("unchecked")
         ValueConverter<T> converter = (ValueConverter<T>) CONVERTERS.get(attribute.getClass());
         if (converter == null) {
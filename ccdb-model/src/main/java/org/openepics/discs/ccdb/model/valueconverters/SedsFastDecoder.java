@@ -0,0 +1,335 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model.valueconverters;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+
+import javax.json.Json;
+import javax.json.stream.JsonParser;
+import javax.json.stream.JsonParser.Event;
+import javax.json.stream.JsonParserFactory;
+
+import org.epics.util.time.Timestamp;
+import org.openepics.discs.ccdb.model.values.DblValue;
+import org.openepics.discs.ccdb.model.values.DblVectorValue;
+import org.openepics.discs.ccdb.model.values.EnumValue;
+import org.openepics.discs.ccdb.model.values.IntValue;
+import org.openepics.discs.ccdb.model.values.IntVectorValue;
+import org.openepics.discs.ccdb.model.values.StrValue;
+import org.openepics.discs.ccdb.model.values.StrVectorValue;
+import org.openepics.discs.ccdb.model.values.TimestampValue;
+import org.openepics.discs.ccdb.model.values.Value;
+
+/**
+ * Decodes the most common SEDS shapes stored in the database directly from the JSON token stream, without building
+ * the JSON object model and the SEDS object tree. Supported are the scalars, the scalar arrays, the time and the enum
+ * without any alarm, control, display or time meta-data, which is all the CCDB ever writes for these types.
+ * <p>
+ * For any other input (a table, an unexpected key, a <code>null</code> where a value is expected...) the decoder
+ * gives up and returns <code>null</code>, so that the caller can fall back to the full SEDS deserialization.
+ * This includes the integral values of the SEDS numbers (e.g. <code>5</code> instead of <code>5.0</code>), for which
+ * the SEDS library decides whether they are an integer or a double, so that both paths always return the same type.
+ * The CCDB always writes the doubles with a fraction, so this does not happen for the values it stores.
+ * </p>
+ */
+final class SedsFastDecoder {
+    private static final JsonParserFactory PARSER_FACTORY = Json.createParserFactory(null);
+
+    private static final String SCALAR_INTEGER = "SedsScalar_Integer";
+    private static final String SCALAR_NUMBER = "SedsScalar_Number";
+    private static final String SCALAR_STRING = "SedsScalar_String";
+    private static final String ARRAY_INTEGER = "SedsScalarArray_Integer";
+    private static final String ARRAY_NUMBER = "SedsScalarArray_Number";
+    private static final String ARRAY_STRING = "SedsScalarArray_String";
+    private static final String TIME = "SedsTime";
+    private static final String ENUM = "SedsEnum";
+
+    private SedsFastDecoder() {
+        // utility class
+    }
+
+    /**
+     * @param dbData the SEDS encoded database data
+     * @return the decoded {@link Value} or <code>null</code> if the data is not in one of the supported shapes
+     */
+    static Value decode(String dbData) {
+        try (final JsonParser parser = PARSER_FACTORY.createParser(new StringReader(dbData))) {
+            return decode(parser);
+        } catch (RuntimeException e) {
+            // malformed or unexpected input, let the SEDS library deal with it and report the error
+            return null;
+        }
+    }
+
+    private static Value decode(JsonParser parser) {
+        if (parser.next() != Event.START_OBJECT) {
+            return null;
+        }
+
+        String type = null;
+        Value value = null;
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            switch (parser.getString()) {
+                case "meta":
+                    if (type != null) {
+                        return null;
+                    }
+                    type = readMetaType(parser);
+                    if (type == null) {
+                        return null;
+                    }
+                    break;
+                case "data":
+                    if (type == null || value != null) {
+                        return null;
+                    }
+                    value = readData(parser, type);
+                    if (value == null) {
+                        return null;
+                    }
+                    break;
+                case "type":
+                    // only the enum is supported and the list of its elements is not part of the value
+                    if (!ENUM.equals(type) || !skipObject(parser)) {
+                        return null;
+                    }
+                    break;
+                default:
+                    return null;
+            }
+        }
+        return event == Event.END_OBJECT && !parser.hasNext() ? value : null;
+    }
+
+    private static String readMetaType(JsonParser parser) {
+        if (parser.next() != Event.START_OBJECT) {
+            return null;
+        }
+
+        String type = null;
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            final String key = parser.getString();
+            if (parser.next() != Event.VALUE_STRING) {
+                return null;
+            }
+            if ("type".equals(key)) {
+                type = parser.getString();
+            } else if (!"protocol".equals(key) && !"version".equals(key)) {
+                return null;
+            }
+        }
+        return event == Event.END_OBJECT ? type : null;
+    }
+
+    private static Value readData(JsonParser parser, String type) {
+        if (parser.next() != Event.START_OBJECT) {
+            return null;
+        }
+
+        switch (type) {
+            case SCALAR_INTEGER:
+            case SCALAR_NUMBER:
+            case SCALAR_STRING:
+                return readScalar(parser, type);
+            case ARRAY_INTEGER:
+            case ARRAY_NUMBER:
+            case ARRAY_STRING:
+                return readScalarArray(parser, type);
+            case TIME:
+                return readTime(parser);
+            case ENUM:
+                return readEnum(parser);
+            default:
+                return null;
+        }
+    }
+
+    private static Value readScalar(JsonParser parser, String type) {
+        Event valueEvent = null;
+        String value = null;
+        String representation = null;
+        boolean integral = false;
+
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            final String key = parser.getString();
+            final Event current = parser.next();
+            if ("value".equals(key)) {
+                valueEvent = current;
+                if (current == Event.VALUE_NUMBER) {
+                    integral = parser.isIntegralNumber();
+                    value = parser.getString();
+                } else if (current == Event.VALUE_STRING) {
+                    value = parser.getString();
+                } else {
+                    return null;
+                }
+            } else if ("representation".equals(key) && current == Event.VALUE_STRING) {
+                representation = parser.getString();
+            } else if (!"representation".equals(key) || current != Event.VALUE_NULL) {
+                return null;
+            }
+        }
+        if (event != Event.END_OBJECT || value == null) {
+            return null;
+        }
+
+        switch (type) {
+            case SCALAR_INTEGER:
+                return valueEvent == Event.VALUE_NUMBER && integral ? new IntValue(Integer.valueOf(value)) : null;
+            case SCALAR_NUMBER:
+                if (valueEvent != Event.VALUE_NUMBER || integral) {
+                    return null;
+                }
+                return new DblValue(representation != null ? representation
+                                                           : Double.toString(Double.parseDouble(value)));
+            case SCALAR_STRING:
+                return valueEvent == Event.VALUE_STRING ? new StrValue(value) : null;
+            default:
+                return null;
+        }
+    }
+
+    private static Value readScalarArray(JsonParser parser, String type) {
+        List<String> values = null;
+        List<String> representations = null;
+
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            final String key = parser.getString();
+            if (parser.next() != Event.START_ARRAY) {
+                return null;
+            }
+            if ("valueArray".equals(key) && values == null) {
+                values = readArray(parser, ARRAY_STRING.equals(type) ? Event.VALUE_STRING : Event.VALUE_NUMBER,
+                                ARRAY_NUMBER.equals(type));
+                if (values == null) {
+                    return null;
+                }
+            } else if ("representationArray".equals(key) && representations == null) {
+                representations = readArray(parser, Event.VALUE_STRING, false);
+                if (representations == null) {
+                    return null;
+                }
+            } else {
+                return null;
+            }
+        }
+        if (event != Event.END_OBJECT || values == null) {
+            return null;
+        }
+
+        switch (type) {
+            case ARRAY_INTEGER:
+                final int[] intValues = new int[values.size()];
+                for (int i = 0; i < intValues.length; i++) {
+                    intValues[i] = Integer.parseInt(values.get(i));
+                }
+                return IntVectorValue.of(intValues);
+            case ARRAY_NUMBER:
+                if (representations == null || representations.size() != values.size()) {
+                    return null;
+                }
+                final double[] dblValues = new double[values.size()];
+                for (int i = 0; i < dblValues.length; i++) {
+                    dblValues[i] = Double.parseDouble(values.get(i));
+                }
+                return DblVectorValue.of(dblValues, representations.toArray(new String[representations.size()]));
+            case ARRAY_STRING:
+                return new StrVectorValue(values);
+            default:
+                return null;
+        }
+    }
+
+    /**
+     * Reads the elements of an array after its start, all elements must be of the <code>elementType</code>. If
+     * <code>fractional</code> is set, all the numbers must also have a fraction.
+     */
+    private static List<String> readArray(JsonParser parser, Event elementType, boolean fractional) {
+        final List<String> elements = new ArrayList<>();
+        Event event;
+        while ((event = parser.next()) == elementType) {
+            if (fractional && parser.isIntegralNumber()) {
+                return null;
+            }
+            elements.add(parser.getString());
+        }
+        return event == Event.END_ARRAY ? elements : null;
+    }
+
+    private static Value readTime(JsonParser parser) {
+        Long unixSec = null;
+        Integer nanoSec = null;
+
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            final String key = parser.getString();
+            if (parser.next() != Event.VALUE_NUMBER || !parser.isIntegralNumber()) {
+                return null;
+            }
+            if ("unixSec".equals(key)) {
+                unixSec = parser.getLong();
+            } else if ("nanoSec".equals(key)) {
+                nanoSec = parser.getInt();
+            } else {
+                return null;
+            }
+        }
+        if (event != Event.END_OBJECT || unixSec == null || nanoSec == null) {
+            return null;
+        }
+        return new TimestampValue(Timestamp.of(unixSec, nanoSec));
+    }
+
+    private static Value readEnum(JsonParser parser) {
+        String selected = null;
+
+        Event event;
+        while ((event = parser.next()) == Event.KEY_NAME) {
+            if (!"selected".equals(parser.getString()) || parser.next() != Event.VALUE_STRING) {
+                return null;
+            }
+            selected = parser.getString();
+        }
+        return event == Event.END_OBJECT && selected != null ? new EnumValue(selected) : null;
+    }
+
+    /** Skips an object value, returns <code>false</code> if the value is not an object. */
+    private static boolean skipObject(JsonParser parser) {
+        if (parser.next() != Event.START_OBJECT) {
+            return false;
+        }
+        int depth = 1;
+        while (depth > 0) {
+            final Event event = parser.next();
+            if (event == Event.START_OBJECT || event == Event.START_ARRAY) {
+                depth++;
+            } else if (event == Event.END_OBJECT || event == Event.END_ARRAY) {
+                depth--;
+            }
+        }
+        return true;
+    }
+}
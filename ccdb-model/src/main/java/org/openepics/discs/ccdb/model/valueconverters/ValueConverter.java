@@ -26,6 +26,7 @@ import java.util.List;
 
 import javax.json.Json;
 import javax.json.JsonReader;
+import javax.json.JsonReaderFactory;
 
 import org.epics.util.time.Timestamp;
 import org.openepics.discs.ccdb.model.values.DblTableValue;
@@ -50,7 +51,22 @@ import org.openepics.seds.core.datatypes.ImmutableSedsFactory;
 import org.openepics.seds.core.datatypes.SimpleSedsFactory;
 import org.openepics.seds.util.ScalarType;
 
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
 /**
+ * The base class of all {@link Value} converters, which also contains the decoding of the values from the database.
+ * <p>
+ * The decoding first tries a fast-path decoder for the common value shapes, and only falls back to the full SEDS
+ * deserialization if that fails. The decoded values, except for the string vectors, are immutable and the small ones
+ * can be shared between entities through an optional bounded cache. The cache is enabled by setting the
+ * {@value #VALUE_CACHE_SIZE} system property to the maximum number of cached values.
+ * </p>
+ * <p>
+ * The values are stored as SEDS JSON, or in the compact binary format if the {@value #VALUE_STORAGE_FORMAT} system
+ * property is set to <code>BINARY</code>. The values in both formats can always be read.
+ * </p>
+ *
  * @param <T> the actual Value type this converter is for.
  *
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
@@ -62,6 +78,25 @@ public abstract class ValueConverter<T extends Value> {
     protected static final DBConverter SEDS_DB_CONVERTER = Seds.newDBConverter();
     protected static final ImmutableSedsFactory I_SEDS_FACTORY = new ImmutableSedsFactory();
 
+    /** The name of the system property holding the size of the decoded value cache. 0 disables the cache. */
+    public static final String VALUE_CACHE_SIZE = "org.openepics.discs.conf.props.valueCacheSize";
+    /** The name of the system property holding the {@link StorageFormat} used to store the values. */
+    public static final String VALUE_STORAGE_FORMAT = "org.openepics.discs.conf.props.valueStorageFormat";
+
+    /** The formats the values can be stored in */
+    public enum StorageFormat {
+        /** SEDS JSON, the default */
+        SEDS,
+        /** The compact binary format, see {@link BinaryValueCodec} */
+        BINARY
+    }
+
+    private static final int MAX_CACHED_LENGTH = 4096;
+    private static final JsonReaderFactory JSON_READER_FACTORY = Json.createReaderFactory(null);
+    private static final Cache<String, Value> VALUE_CACHE = createValueCache(Integer.getInteger(VALUE_CACHE_SIZE, 0));
+    private static final StorageFormat STORAGE_FORMAT =
+                    StorageFormat.valueOf(System.getProperty(VALUE_STORAGE_FORMAT, StorageFormat.SEDS.name()).trim());
+
     /**
      * @return the class of the {@link Value} used in this converter.
      */
@@ -74,7 +109,12 @@ public abstract class ValueConverter<T extends Value> {
      */
     public abstract String convertToDatabaseColumn(T attribute);
 
-    /** Converts the DB data (SEDS encoded) into a CCDB {@link Value}
+    /** @return the format new values are stored in */
+    public static StorageFormat getStorageFormat() {
+        return STORAGE_FORMAT;
+    }
+
+    /** Converts the DB data (SEDS or binary encoded) into a CCDB {@link Value}
      * @param dbData the database data
      * @return the {@link Value} the is decoded from database
      */
@@ -83,13 +123,66 @@ public abstract class ValueConverter<T extends Value> {
             return null;
         }
 
-        if (!dbData.startsWith("{")) {
+        final boolean isBinary = BinaryValueCodec.isEncoded(dbData);
+        if (!isBinary && !dbData.startsWith("{")) {
             throw new IllegalArgumentException("SEDS data expected. Found: " + dbData);
         }
 
-        JsonReader reader = Json.createReader(new StringReader(dbData));
-        final SedsType seds = Seds.newDBConverter().deserialize(reader.readObject());
+        if (VALUE_CACHE != null) {
+            final Value cachedValue = VALUE_CACHE.getIfPresent(dbData);
+            if (cachedValue != null) {
+                return cachedValue;
+            }
+        }
+
+        Value convertedValue;
+        if (isBinary) {
+            convertedValue = BinaryValueCodec.decode(dbData);
+        } else {
+            convertedValue = SedsFastDecoder.decode(dbData);
+            if (convertedValue == null) {
+                convertedValue = convertFromSeds(dbData);
+            }
+        }
+
+        if (VALUE_CACHE != null && isCacheable(dbData, convertedValue)) {
+            VALUE_CACHE.put(dbData, convertedValue);
+        }
+        return convertedValue;
+    }
+
+    private static Cache<String, Value> createValueCache(int size) {
+        return size > 0 ? CacheBuilder.newBuilder().maximumSize(size).<String, Value>build() : null;
+    }
+
+    /**
+     * The string vector exposes its list, so it must not be shared between entities. Large vectors and tables are
+     * not cached either, since the cache is only bounded by the number of entries.
+     */
+    private static boolean isCacheable(String dbData, Value value) {
+        return dbData.length() <= MAX_CACHED_LENGTH && !(value instanceof StrVectorValue);
+    }
+
+    /**
+     * Decodes the SEDS data through the SEDS library, without the fast-path decoder.
+     * @param dbData the SEDS encoded database data
+     * @return the decoded {@link Value}
+     */
+    static Value convertFromSeds(String dbData) {
+        final SedsType seds;
+        try (final JsonReader reader = JSON_READER_FACTORY.createReader(new StringReader(dbData))) {
+            seds = SEDS_DB_CONVERTER.deserialize(reader.readObject());
+        }
+        return convertFromSeds(seds, dbData);
+    }
 
+    /**
+     * Converts the deserialized SEDS data to a {@link Value}.
+     * @param seds the SEDS data deserialized from the database data
+     * @param dbData the SEDS encoded database data
+     * @return the converted {@link Value}
+     */
+    static Value convertFromSeds(SedsType seds, String dbData) {
         final Value convertedValue;
 
         if (seds instanceof SedsScalar<?>) {
@@ -146,25 +239,17 @@ public abstract class ValueConverter<T extends Value> {
     }
 
     private static Value convertFromSedsScalarArray(SedsScalarArray<?> sedsScalarArray, String dbData) {
-        final IntVectorValue intVectorValue;
-        final List<Integer> iValues;
-
         switch (sedsScalarArray.getType()) {
             case INTEGER:
-                iValues = new ArrayList<Integer>(Arrays.asList((Integer[])sedsScalarArray.getValueArray()));
-                intVectorValue = new IntVectorValue(iValues);
-                return intVectorValue;
-            case NUMBER:
-                final Number[] numbers = (Number[]) sedsScalarArray.getValueArray();
-                final List<Double> dblValues = new ArrayList<>(numbers.length);
-                for (Number element : numbers) {
-                    if (element instanceof Double) {
-                        dblValues.add((Double)element);
-                    } else {
-                        throw new InvalidDataTypeException("Data type for table not Double.");
-                    }
+                final Integer[] integers = (Integer[]) sedsScalarArray.getValueArray();
+                final int[] iValues = new int[integers.length];
+                for (int i = 0; i < integers.length; i++) {
+                    iValues[i] = integers[i];
                 }
-                return new DblVectorValue(dblValues, Arrays.asList(sedsScalarArray.getRepresentationArray()));
+                return IntVectorValue.of(iValues);
+            case NUMBER:
+                return DblVectorValue.of(toDoubleArray((Number[]) sedsScalarArray.getValueArray()),
+                                                                        sedsScalarArray.getRepresentationArray());
             case STRING:
                 final List<String> sValues = new ArrayList<String>(
                                                             Arrays.asList((String[])sedsScalarArray.getValueArray()));
@@ -176,25 +261,31 @@ public abstract class ValueConverter<T extends Value> {
     }
 
     private static Value convertFromSedsTable(SedsTable sedsTable) {
-        List<List<Double>> tableValues = new ArrayList<List<Double>>();
-        if (sedsTable.getNumColumns() > 0) {
-            for (SedsScalarArray<?> col : sedsTable.getValues()) {
-                if (col.getType() != ScalarType.NUMBER) {
-                    throw new InvalidDataTypeException("Data type not supported for table: " + col.getType().name());
-                }
-                final Number[] colValues = (Number[]) col.getValueArray();
-                final List<Double> dblColValues = new ArrayList<>(colValues.length);
-                for (Number element : colValues) {
-                    if (element instanceof Double) {
-                        dblColValues.add((Double)element);
-                    } else {
-                        throw new InvalidDataTypeException("Data type for table not Double.");
-                    }
-                }
-                tableValues.add(dblColValues);
+        if (sedsTable.getNumColumns() <= 0) {
+            return DblTableValue.of(new double[0][]);
+        }
+
+        final SedsScalarArray<?>[] columns = sedsTable.getValues();
+        final double[][] tableValues = new double[columns.length][];
+        for (int colIndex = 0; colIndex < columns.length; colIndex++) {
+            final SedsScalarArray<?> col = columns[colIndex];
+            if (col.getType() != ScalarType.NUMBER) {
+                throw new InvalidDataTypeException("Data type not supported for table: " + col.getType().name());
+            }
+            tableValues[colIndex] = toDoubleArray((Number[]) col.getValueArray());
+        }
+        return DblTableValue.of(tableValues);
+    }
+
+    private static double[] toDoubleArray(Number[] numbers) {
+        final double[] values = new double[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            if (!(numbers[i] instanceof Double)) {
+                throw new InvalidDataTypeException("Data type for table not Double.");
             }
+            values[i] = numbers[i].doubleValue();
         }
-        return new DblTableValue(tableValues);
+        return values;
     }
 
     private static Value convertFromSedsEnum(SedsEnum sedsEnum) {
@@ -13,33 +13,79 @@
  */
 package org.openepics.discs.ccdb.model.values;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Doubles;
 
 /**
  * A table is a collection columns containing double precision values. All columns must contain the same number of
  * elements. This restriction is enforced implicitly by the SEDS serialization and is checked in the UI layer.
+ * <p>
+ * Each column is stored in a primitive array, the {@link List} returned by {@link #getDblTableValue()} is an
+ * unmodifiable view of the columns.
+ * </p>
  *
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  *
  */
 public class DblTableValue implements Value {
 
-    private final List<List<Double>> dblTableValue;
+    private final double[][] dblTableValue;
 
     /** Constructs a new table of double precision values
      * @param dblTableValue a {@link List} of {@link List}s of {@link Double} values
      */
     public DblTableValue(List<List<Double>> dblTableValue) {
+        this(toColumns(Preconditions.checkNotNull(dblTableValue)));
+    }
+
+    private DblTableValue(double[][] dblTableValue) {
         this.dblTableValue = Preconditions.checkNotNull(dblTableValue);
     }
 
+    /** Constructs a new table of double precision values without boxing them
+     * @param dblTableValue the columns of the table. The arrays are not copied and must not be modified afterwards.
+     * @return the new table
+     */
+    public static DblTableValue of(double[][] dblTableValue) {
+        return new DblTableValue(dblTableValue);
+    }
+
+    private static double[][] toColumns(List<List<Double>> table) {
+        final double[][] columns = new double[table.size()][];
+        int colIndex = 0;
+        for (List<Double> column : table) {
+            columns[colIndex++] = Doubles.toArray(column);
+        }
+        return columns;
+    }
+
     /**
      * @return the table
      */
     public List<List<Double>> getDblTableValue() {
-        return dblTableValue;
+        final List<List<Double>> columns = new ArrayList<>(dblTableValue.length);
+        for (double[] column : dblTableValue) {
+            columns.add(Collections.unmodifiableList(Doubles.asList(column)));
+        }
+        return Collections.unmodifiableList(columns);
+    }
+
+    /** @return the number of columns in the table */
+    public int getColumnCount() {
+        return dblTableValue.length;
+    }
+
+    /**
+     * @param column the index of the column
+     * @return a copy of the values in the column
+     */
+    public double[] getColumn(int column) {
+        return dblTableValue[column].clone();
     }
 
     @Override
@@ -58,11 +104,11 @@ public class DblTableValue implements Value {
 
         final StringBuilder retStr = new StringBuilder();
         // number of columns in the table
-        final int columnsSize = dblTableValue.size();
+        final int columnsSize = dblTableValue.length;
         int colIndex = 0;
         retStr.append('[');
 
-        for (List<Double> column : dblTableValue) {
+        for (double[] column : dblTableValue) {
             appendSingleColumn(column, retStr, rows);
             colIndex++;
             if (colIndex < columnsSize) {
@@ -71,7 +117,7 @@ public class DblTableValue implements Value {
             if ((columnsSize > cols) && (colIndex >= cols - 1)) {
                 retStr.append("..., ");
                 // append last column
-                appendSingleColumn(dblTableValue.get(columnsSize - 1), retStr, rows);
+                appendSingleColumn(dblTableValue[columnsSize - 1], retStr, rows);
                 break;
             }
         }
@@ -80,13 +126,13 @@ public class DblTableValue implements Value {
         return retStr.toString();
     }
 
-    private void appendSingleColumn(List<Double> column, StringBuilder retStr, final int rows) {
+    private void appendSingleColumn(double[] column, StringBuilder retStr, final int rows) {
         // number of rows in a column
-        final int rowsSize = column.size();
+        final int rowsSize = column.length;
         int rowIndex = 0;
         retStr.append('[');
 
-        for (Double item : column) {
+        for (double item : column) {
             retStr.append(item);
             rowIndex++;
             if (rowIndex < rowsSize) {
@@ -94,7 +140,7 @@ public class DblTableValue implements Value {
             }
             if ((rowsSize > rows) && (rowIndex >= rows - 1)) {
                 // append last row
-                retStr.append("..., ").append(column.get(rowsSize - 1));
+                retStr.append("..., ").append(column[rowsSize - 1]);
                 break;
             }
         }
@@ -105,7 +151,7 @@ public class DblTableValue implements Value {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((dblTableValue == null) ? 0 : dblTableValue.hashCode());
+        result = prime * result + Arrays.deepHashCode(dblTableValue);
         return result;
     }
 
@@ -118,10 +164,7 @@ public class DblTableValue implements Value {
             return false;
         }
         DblTableValue other = (DblTableValue) obj;
-        if (dblTableValue == null) {
-            return other.dblTableValue == null;
-        }
 
-        return dblTableValue.equals(other.dblTableValue);
+        return Arrays.deepEquals(dblTableValue, other.dblTableValue);
     }
 }
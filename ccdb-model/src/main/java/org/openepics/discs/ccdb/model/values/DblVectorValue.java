@@ -13,39 +13,63 @@
  */
 package org.openepics.discs.ccdb.model.values;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Doubles;
 
 /**
- * 1-D vector of double precision values.
+ * 1-D vector of double precision values. The values are stored in a primitive array, the {@link List}s returned
+ * by the getters are unmodifiable views of the stored arrays.
  *
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  *
  */
 public class DblVectorValue implements Value {
 
-    private final List<Double> dblVectorValue;
-    private final List<String> representations;
+    private final double[] dblVectorValue;
+    private final String[] representations;
 
     /** Constructs a new vector of double precision values
      * @param dblVectorValue a {@link List} of {@link Double} values
      * @param representations a {@link List} of double precision numbers in string representation
      */
     public DblVectorValue(List<Double> dblVectorValue, List<String> representations) {
+        this(Doubles.toArray(Preconditions.checkNotNull(dblVectorValue)),
+                Preconditions.checkNotNull(representations).toArray(new String[representations.size()]));
+    }
+
+    private DblVectorValue(double[] dblVectorValue, String[] representations) {
         this.dblVectorValue = Preconditions.checkNotNull(dblVectorValue);
         this.representations = Preconditions.checkNotNull(representations);
     }
 
+    /** Constructs a new vector of double precision values without boxing them
+     * @param dblVectorValue the values. The array is not copied and must not be modified afterwards.
+     * @param representations the string representations of the values. The array is not copied and must not be
+     * modified afterwards.
+     * @return the new vector
+     */
+    public static DblVectorValue of(double[] dblVectorValue, String[] representations) {
+        return new DblVectorValue(dblVectorValue, representations);
+    }
+
     /**
      * @return the dblVectorValue
      */
     public List<Double> getDblVectorValue() {
-        return dblVectorValue;
+        return Collections.unmodifiableList(Doubles.asList(dblVectorValue));
     }
 
     public List<String> getRepresentations() {
-        return representations;
+        return Collections.unmodifiableList(Arrays.asList(representations));
+    }
+
+    /** @return a copy of the values */
+    public double[] toArray() {
+        return dblVectorValue.clone();
     }
 
     @Override
@@ -61,18 +85,18 @@ public class DblVectorValue implements Value {
 
         final int maxElements = dimensions[0];
         final StringBuilder retStr = new StringBuilder();
-        final int vectorSize = dblVectorValue.size();
+        final int vectorSize = dblVectorValue.length;
         int rowIndex = 0;
         retStr.append('[');
 
-        for (Double item : dblVectorValue) {
+        for (double item : dblVectorValue) {
             retStr.append(item);
             rowIndex++;
             if (rowIndex < vectorSize) {
                 retStr.append(", ");
             }
             if ((vectorSize > maxElements) && (rowIndex >= maxElements - 1)) {
-                retStr.append("..., ").append(dblVectorValue.get(vectorSize - 1));
+                retStr.append("..., ").append(dblVectorValue[vectorSize - 1]);
                 break;
             }
         }
@@ -84,7 +108,7 @@ public class DblVectorValue implements Value {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((dblVectorValue == null) ? 0 : dblVectorValue.hashCode());
+        result = prime * result + Arrays.hashCode(dblVectorValue);
         return result;
     }
 
@@ -97,8 +121,7 @@ public class DblVectorValue implements Value {
             return false;
         }
         DblVectorValue other = (DblVectorValue) obj;
-        // this.dblVectorValue cannot be null
 
-        return dblVectorValue.equals(other.dblVectorValue);
+        return Arrays.equals(dblVectorValue, other.dblVectorValue);
     }
 }
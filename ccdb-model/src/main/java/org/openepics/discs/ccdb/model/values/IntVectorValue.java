@@ -13,32 +13,53 @@
  */
 package org.openepics.discs.ccdb.model.values;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 import com.google.common.base.Preconditions;
+import com.google.common.primitives.Ints;
 
 /**
- * 1-D vector if integer numbers.
+ * 1-D vector if integer numbers. The values are stored in a primitive array, the {@link List} returned by
+ * {@link #getIntVectorValue()} is an unmodifiable view of it.
  *
  * @author <a href="mailto:miha.vitorovic@cosylab.com">Miha Vitorovič</a>
  *
  */
 public class IntVectorValue implements Value {
 
-    private final List<Integer> intVectorValue;
+    private final int[] intVectorValue;
 
     /** Constructs a new vector of integer values
      * @param intVectorValue a {@link List} of {@link Integer} values
      */
     public IntVectorValue(List<Integer> intVectorValue) {
+        this(Ints.toArray(Preconditions.checkNotNull(intVectorValue)));
+    }
+
+    private IntVectorValue(int[] intVectorValue) {
         this.intVectorValue = Preconditions.checkNotNull(intVectorValue);
     }
 
+    /** Constructs a new vector of integer values without boxing them
+     * @param intVectorValue the values. The array is not copied and must not be modified afterwards.
+     * @return the new vector
+     */
+    public static IntVectorValue of(int[] intVectorValue) {
+        return new IntVectorValue(intVectorValue);
+    }
+
     /**
      * @return the intVectorValue
      */
     public List<Integer> getIntVectorValue() {
-        return intVectorValue;
+        return Collections.unmodifiableList(Ints.asList(intVectorValue));
+    }
+
+    /** @return a copy of the values */
+    public int[] toArray() {
+        return intVectorValue.clone();
     }
 
     @Override
@@ -54,18 +75,18 @@ public class IntVectorValue implements Value {
 
         final int maxElements = dimensions[0];
         final StringBuilder retStr = new StringBuilder();
-        final int vectorSize = intVectorValue.size();
+        final int vectorSize = intVectorValue.length;
         int rowIndex = 0;
         retStr.append('[');
 
-        for (Integer item : intVectorValue) {
+        for (int item : intVectorValue) {
             retStr.append(item);
             rowIndex++;
             if (rowIndex < vectorSize) {
                 retStr.append(", ");
             }
             if ((vectorSize > maxElements) && (rowIndex >= maxElements - 1)) {
-                retStr.append("..., ").append(intVectorValue.get(vectorSize - 1));
+                retStr.append("..., ").append(intVectorValue[vectorSize - 1]);
                 break;
             }
         }
@@ -77,7 +98,7 @@ public class IntVectorValue implements Value {
     public int hashCode() {
         final int prime = 31;
         int result = 1;
-        result = prime * result + ((intVectorValue == null) ? 0 : intVectorValue.hashCode());
+        result = prime * result + Arrays.hashCode(intVectorValue);
         return result;
     }
 
@@ -90,10 +111,7 @@ public class IntVectorValue implements Value {
             return false;
         }
         IntVectorValue other = (IntVectorValue) obj;
-        if (intVectorValue == null) {
-            return other.intVectorValue == null;
-        }
 
-        return intVectorValue.equals(other.intVectorValue);
+        return Arrays.equals(intVectorValue, other.intVectorValue);
     }
 }
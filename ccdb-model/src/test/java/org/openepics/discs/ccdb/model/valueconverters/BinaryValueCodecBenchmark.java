@@ -0,0 +1,145 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model.valueconverters;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openepics.discs.ccdb.model.values.DblTableValue;
+import org.openepics.discs.ccdb.model.values.DblVectorValue;
+import org.openepics.discs.ccdb.model.values.IntVectorValue;
+import org.openepics.discs.ccdb.model.values.StrVectorValue;
+import org.openepics.discs.ccdb.model.values.Value;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Compares the {@link BinaryValueCodec} format with SEDS for the vector and table values, the shapes the binary format
+ * is meant for. The SEDS data is decoded the way the CCDB reads it, through the {@link SedsFastDecoder} with the
+ * fallback to the SEDS library for the tables. The sizes of both encodings are printed in the setup of every
+ * trial. Run with the main method from the test classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class BinaryValueCodecBenchmark {
+    private static final int TABLE_COLUMNS = 4;
+
+    @Param({"INT_VECTOR", "DBL_VECTOR", "STR_VECTOR", "DBL_TABLE"})
+    private String shape;
+
+    @Param({"10", "1000"})
+    private int size;
+
+    private Value value;
+    private String sedsData;
+    private String binaryData;
+
+    @Setup
+    public void encodeValue() {
+        switch (shape) {
+            case "INT_VECTOR":
+                final int[] ints = new int[size];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = i * 31;
+                }
+                final IntVectorValue intVector = IntVectorValue.of(ints);
+                sedsData = new IntVectorValueConverter().convertToDatabaseColumn(intVector);
+                value = intVector;
+                break;
+            case "DBL_VECTOR":
+                final double[] doubles = new double[size];
+                final String[] representations = new String[size];
+                for (int i = 0; i < doubles.length; i++) {
+                    doubles[i] = i / 7.0;
+                    representations[i] = Double.toString(doubles[i]);
+                }
+                final DblVectorValue dblVector = DblVectorValue.of(doubles, representations);
+                sedsData = new DblVectorValueConverter().convertToDatabaseColumn(dblVector);
+                value = dblVector;
+                break;
+            case "STR_VECTOR":
+                final List<String> strings = new ArrayList<>(size);
+                for (int i = 0; i < size; i++) {
+                    strings.add("Element " + i % 16);
+                }
+                final StrVectorValue strVector = new StrVectorValue(strings);
+                sedsData = new StrVectorValueConverter().convertToDatabaseColumn(strVector);
+                value = strVector;
+                break;
+            case "DBL_TABLE":
+                final double[][] columns = new double[TABLE_COLUMNS][size];
+                for (int col = 0; col < TABLE_COLUMNS; col++) {
+                    for (int row = 0; row < size; row++) {
+                        columns[col][row] = row * 0.25 + col;
+                    }
+                }
+                final DblTableValue table = DblTableValue.of(columns);
+                sedsData = new DblTableValueConverter().convertToDatabaseColumn(table);
+                value = table;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        binaryData = BinaryValueCodec.encode(value);
+        System.out.println(shape + "[" + size + "]: SEDS " + sedsData.length() + " chars, binary "
+                                + binaryData.length() + " chars");
+    }
+
+    @Benchmark
+    public Value decodeSeds() {
+        return ValueConverter.convertToEntityAttribute(sedsData);
+    }
+
+    @Benchmark
+    public Value decodeBinary() {
+        return BinaryValueCodec.decode(binaryData);
+    }
+
+    @Benchmark
+    public String encodeBinary() {
+        return BinaryValueCodec.encode(value);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(BinaryValueCodecBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
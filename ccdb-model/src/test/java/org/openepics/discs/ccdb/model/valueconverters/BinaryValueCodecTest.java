@@ -0,0 +1,170 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model.valueconverters;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.epics.util.time.Timestamp;
+import org.junit.Test;
+import org.openepics.discs.ccdb.model.values.DblTableValue;
+import org.openepics.discs.ccdb.model.values.DblValue;
+import org.openepics.discs.ccdb.model.values.DblVectorValue;
+import org.openepics.discs.ccdb.model.values.EnumValue;
+import org.openepics.discs.ccdb.model.values.IntValue;
+import org.openepics.discs.ccdb.model.values.IntVectorValue;
+import org.openepics.discs.ccdb.model.values.StrValue;
+import org.openepics.discs.ccdb.model.values.StrVectorValue;
+import org.openepics.discs.ccdb.model.values.TimestampValue;
+import org.openepics.discs.ccdb.model.values.Value;
+
+public class BinaryValueCodecTest {
+
+    private static void assertRoundTrip(Value value) {
+        final String encoded = BinaryValueCodec.encode(value);
+        assertTrue(BinaryValueCodec.isEncoded(encoded));
+        assertEquals(value, BinaryValueCodec.decode(encoded));
+        assertEquals(value, ValueConverter.convertToEntityAttribute(encoded));
+    }
+
+    @Test
+    public void scalars() {
+        assertRoundTrip(new IntValue(123));
+        assertRoundTrip(new IntValue(Integer.MIN_VALUE));
+        assertRoundTrip(new DblValue("123.456"));
+        assertRoundTrip(new StrValue("TEST2 ž"));
+        assertRoundTrip(new EnumValue("TEST2"));
+        assertRoundTrip(new TimestampValue(Timestamp.of(109432210, 123000000)));
+    }
+
+    @Test
+    public void representationsArePreserved() {
+        final DblValue dblValue = (DblValue) BinaryValueCodec.decode(BinaryValueCodec.encode(new DblValue("1e3")));
+        assertEquals("1e3", dblValue.toString());
+
+        final DblVectorValue vector = new DblVectorValue(Arrays.asList(1.0, 2.5), Arrays.asList("1", "2.50"));
+        final DblVectorValue decoded = (DblVectorValue) BinaryValueCodec.decode(BinaryValueCodec.encode(vector));
+        assertEquals(Arrays.asList("1", "2.50"), decoded.getRepresentations());
+    }
+
+    @Test
+    public void vectorsAndTables() {
+        assertRoundTrip(new IntVectorValue(Arrays.asList(1, -2, 3)));
+        assertRoundTrip(new DblVectorValue(Arrays.asList(1.0, 2.0, 3.0), Arrays.asList("1.0", "2.0", "3.0")));
+        assertRoundTrip(new StrVectorValue(Arrays.asList("TEST1", "TEST2", "TEST1", "")));
+        assertRoundTrip(new DblTableValue(Arrays.asList(Arrays.asList(0.1, 0.2, 0.3), Arrays.asList(1.1, 1.2),
+                                                                                Arrays.<Double>asList())));
+    }
+
+    @Test
+    public void compactNumbers() {
+        assertRoundTrip(IntVectorValue.of(new int[] {0, 1, -1, 1000, Integer.MAX_VALUE, Integer.MIN_VALUE}));
+        assertRoundTrip(dblVector(0.25, -3, 1e-9, 0.1, 123456.789));
+        // numbers without a short decimal expansion are stored as doubles
+        assertRoundTrip(dblVector(Math.PI, 0.1));
+        assertRoundTrip(dblVector(1, Double.NaN));
+        assertRoundTrip(dblVector(1, -0.0));
+        assertRoundTrip(dblVector(Double.POSITIVE_INFINITY));
+        assertRoundTrip(dblVector(1e300, 1e-300));
+        assertRoundTrip(DblTableValue.of(new double[][] {{0.5, 1.5}, {1, 2}}));
+        assertRoundTrip(DblTableValue.of(new double[][] {{0.5, 1.5}, {Math.E}}));
+    }
+
+    @Test
+    public void integerRepresentations() {
+        final DblVectorValue vector = DblVectorValue.of(new double[] {1, 2, -3}, new String[] {"1", "2", "-3"});
+        final DblVectorValue decoded = (DblVectorValue) BinaryValueCodec.decode(BinaryValueCodec.encode(vector));
+        assertEquals(Arrays.asList("1", "2", "-3"), decoded.getRepresentations());
+        assertEquals(vector, decoded);
+    }
+
+    @Test
+    public void storedSizeDoesNotRegress() {
+        final int[] integers = new int[1000];
+        final double[] integerValued = new double[1000];
+        final String[] integerRepresentations = new String[1000];
+        final double[] shortDecimals = new double[1000];
+        for (int i = 0; i < 1000; i++) {
+            integers[i] = i;
+            integerValued[i] = i;
+            integerRepresentations[i] = Integer.toString(i);
+            shortDecimals[i] = i * 0.25;
+        }
+        final double[][] columns = new double[5][100];
+        for (int column = 0; column < columns.length; column++) {
+            for (int row = 0; row < columns[column].length; row++) {
+                columns[column][row] = row * 0.25 + column;
+            }
+        }
+
+        final IntVectorValue intVector = IntVectorValue.of(integers);
+        assertShorter(intVector, new IntVectorValueConverter().convertToDatabaseColumn(intVector));
+        final DblVectorValue integerVector = DblVectorValue.of(integerValued, integerRepresentations);
+        assertShorter(integerVector, new DblVectorValueConverter().convertToDatabaseColumn(integerVector));
+        final DblVectorValue decimalVector = dblVector(shortDecimals);
+        assertShorter(decimalVector, new DblVectorValueConverter().convertToDatabaseColumn(decimalVector));
+        final DblTableValue table = DblTableValue.of(columns);
+        assertShorter(table, new DblTableValueConverter().convertToDatabaseColumn(table));
+    }
+
+    @Test
+    public void shorterSedsIsKept() {
+        final String sedsData = "{}";
+        assertEquals(sedsData, BinaryValueCodec.encodeShorter(new IntValue(1), sedsData));
+
+        final String longSedsData = new IntValueConverter().convertToDatabaseColumn(new IntValue(1));
+        assertTrue(BinaryValueCodec.isEncoded(BinaryValueCodec.encodeShorter(new IntValue(1), longSedsData)));
+    }
+
+    private static void assertShorter(Value value, String sedsData) {
+        final String encoded = BinaryValueCodec.encode(value);
+        assertTrue(encoded.length() + " >= " + sedsData.length(), encoded.length() < sedsData.length());
+        assertEquals(value, BinaryValueCodec.decode(encoded));
+    }
+
+    private static DblVectorValue dblVector(double... numbers) {
+        final String[] representations = new String[numbers.length];
+        for (int i = 0; i < numbers.length; i++) {
+            representations[i] = Double.toString(numbers[i]);
+        }
+        return DblVectorValue.of(numbers, representations);
+    }
+
+    @Test
+    public void binaryIsSmallerThanSeds() {
+        final List<Double> numbers = new ArrayList<>();
+        final List<String> representations = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            numbers.add(i * 0.001);
+            representations.add(Double.toString(i * 0.001));
+        }
+        final DblVectorValue vector = new DblVectorValue(numbers, representations);
+        final DblTableValue table = new DblTableValue(Arrays.asList(numbers, numbers, numbers));
+
+        assertTrue(BinaryValueCodec.encode(vector).length()
+                            < new DblVectorValueConverter().convertToDatabaseColumn(vector).length());
+        assertTrue(BinaryValueCodec.encode(table).length()
+                            < new DblTableValueConverter().convertToDatabaseColumn(table).length());
+    }
+}
@@ -21,6 +21,7 @@
 package org.openepics.discs.ccdb.model.valueconverters;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 
 import java.util.Arrays;
 import java.util.HashMap;
@@ -198,4 +199,46 @@ public class SedsConverterTest {
     public void timestampValueFromSeds() {
         assertEquals(VAL_TIMESTAMP, sedsConverter.convertToEntityAttribute(SEDS_TIMESTAMP));
     }
+
+    @Test
+    public void fastPathDecoding() {
+        assertEquals(VAL_DBL_VECTOR, SedsFastDecoder.decode(SEDS_DBL_VECTOR));
+        assertEquals(VAL_DBL, SedsFastDecoder.decode(SEDS_DBL));
+        assertEquals(VAL_ENUM, SedsFastDecoder.decode(SEDS_ENUM));
+        assertEquals(VAL_INT, SedsFastDecoder.decode(SEDS_INT));
+        assertEquals(VAL_INT_VECTOR, SedsFastDecoder.decode(SEDS_INT_VECTOR));
+        assertEquals(VAL_STR, SedsFastDecoder.decode(SEDS_STR));
+        assertEquals(VAL_STR_VECTOR, SedsFastDecoder.decode(SEDS_STR_VECTOR));
+        assertEquals(VAL_TIMESTAMP, SedsFastDecoder.decode(SEDS_TIMESTAMP));
+    }
+
+    @Test
+    public void fastPathFallback() {
+        assertNull(SedsFastDecoder.decode(SEDS_DBL_TABLE));
+        assertNull(SedsFastDecoder.decode(SEDS_INT.replace("}}", ",\"alarm\":{\"severity\":\"NONE\"}}}")));
+        assertNull(SedsFastDecoder.decode(SEDS_INT.replace("123,", "12.5,")));
+        assertNull(SedsFastDecoder.decode(SEDS_STR.substring(1)));
+    }
+
+    @Test
+    public void fastPathIntegralNumbers() {
+        final String integralDbl = SEDS_DBL.replace("123.456,\"representation\":\"123.456\"", "123");
+        final String integralDblVector = SEDS_DBL_VECTOR.replace("[1.0,2.0,3.0]", "[1,2.0,3]");
+
+        assertNull(SedsFastDecoder.decode(integralDbl));
+        assertNull(SedsFastDecoder.decode(integralDblVector));
+        assertEquals(ValueConverter.convertFromSeds(integralDbl).getClass(),
+                        sedsConverter.convertToEntityAttribute(integralDbl).getClass());
+    }
+
+    @Test
+    public void fastPathMatchesSeds() {
+        for (final String dbData : Arrays.asList(SEDS_DBL, SEDS_DBL_VECTOR, SEDS_ENUM, SEDS_INT, SEDS_INT_VECTOR,
+                                                    SEDS_STR, SEDS_STR_VECTOR, SEDS_TIMESTAMP)) {
+            final Value fastValue = SedsFastDecoder.decode(dbData);
+            final Value sedsValue = ValueConverter.convertFromSeds(dbData);
+            assertEquals(dbData, sedsValue.getClass(), fastValue.getClass());
+            assertEquals(dbData, sedsValue, fastValue);
+        }
+    }
 }
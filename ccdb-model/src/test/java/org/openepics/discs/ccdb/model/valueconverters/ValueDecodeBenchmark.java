@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.ccdb.model.valueconverters;
+
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.json.Json;
+import javax.json.JsonReader;
+
+import org.epics.util.time.Timestamp;
+import org.openepics.discs.ccdb.model.values.DblValue;
+import org.openepics.discs.ccdb.model.values.DblVectorValue;
+import org.openepics.discs.ccdb.model.values.EnumValue;
+import org.openepics.discs.ccdb.model.values.IntValue;
+import org.openepics.discs.ccdb.model.values.IntVectorValue;
+import org.openepics.discs.ccdb.model.values.StrValue;
+import org.openepics.discs.ccdb.model.values.StrVectorValue;
+import org.openepics.discs.ccdb.model.values.TimestampValue;
+import org.openepics.discs.ccdb.model.values.Value;
+import org.openepics.seds.core.Seds;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures decoding the SEDS database data of the property values with the {@link SedsFastDecoder} against the full
+ * SEDS deserialization, with the shared JSON reader factory and DB converter and with both created on every call as
+ * the converters did before. The data is encoded with the value converters, so it has the same shape as the data the CCDB
+ * stores. Run with the main method from the test classpath; the GC profiler shows the memory allocated per decode.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class ValueDecodeBenchmark {
+    private static final int VECTOR_SIZE = 100;
+
+    @Param({"INT", "DBL", "STR", "ENUM", "TIMESTAMP", "INT_VECTOR", "DBL_VECTOR", "STR_VECTOR"})
+    private String shape;
+
+    private String dbData;
+
+    @Setup
+    public void encodeValue() {
+        switch (shape) {
+            case "INT":
+                dbData = new IntValueConverter().convertToDatabaseColumn(new IntValue(123456));
+                break;
+            case "DBL":
+                dbData = new DblValueConverter().convertToDatabaseColumn(new DblValue("123.456"));
+                break;
+            case "STR":
+                dbData = new StrValueConverter().convertToDatabaseColumn(new StrValue("Some property value"));
+                break;
+            case "ENUM":
+                dbData = new EnumValueConverter().convertToDatabaseColumn(new EnumValue("ENABLED"));
+                break;
+            case "TIMESTAMP":
+                dbData = new TimestampValueConverter().convertToDatabaseColumn(
+                                                                new TimestampValue(Timestamp.of(1451606400, 5000)));
+                break;
+            case "INT_VECTOR":
+                final int[] ints = new int[VECTOR_SIZE];
+                for (int i = 0; i < ints.length; i++) {
+                    ints[i] = i * 31;
+                }
+                dbData = new IntVectorValueConverter().convertToDatabaseColumn(IntVectorValue.of(ints));
+                break;
+            case "DBL_VECTOR":
+                final double[] doubles = new double[VECTOR_SIZE];
+                final String[] representations = new String[VECTOR_SIZE];
+                for (int i = 0; i < doubles.length; i++) {
+                    doubles[i] = i / 7.0;
+                    representations[i] = Double.toString(doubles[i]);
+                }
+                dbData = new DblVectorValueConverter().convertToDatabaseColumn(
+                                                                DblVectorValue.of(doubles, representations));
+                break;
+            case "STR_VECTOR":
+                final List<String> strings = new ArrayList<>(VECTOR_SIZE);
+                for (int i = 0; i < VECTOR_SIZE; i++) {
+                    strings.add("Element " + i);
+                }
+                dbData = new StrVectorValueConverter().convertToDatabaseColumn(new StrVectorValue(strings));
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown shape: " + shape);
+        }
+        if (SedsFastDecoder.decode(dbData) == null) {
+            throw new IllegalStateException("The fast path does not decode the shape " + shape);
+        }
+    }
+
+    @Benchmark
+    public Value fastPath() {
+        return SedsFastDecoder.decode(dbData);
+    }
+
+    @Benchmark
+    public Value sedsPath() {
+        return ValueConverter.convertFromSeds(dbData);
+    }
+
+    @Benchmark
+    public Value sedsPathPerCall() {
+        final JsonReader reader = Json.createReader(new StringReader(dbData));
+        return ValueConverter.convertFromSeds(Seds.newDBConverter().deserialize(reader.readObject()), dbData);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ValueDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build()
+        ).run();
+    }
+}
@@ -46,6 +46,12 @@ import org.openepics.seds.util.ValidationUtil;
  * parses {@link SedsMetadata} to determine the {@code SedsType} to parse the
  * {@code JsonObject} as. All other parse methods do NOT read the metadata.
  *
+ * <p>
+ * <b>Trusted JSON object to deserialize:</b>
+ * A deserializer built without schema validation only checks the values of the
+ * metadata. It is meant for JSON data that was produced by a SEDS serializer
+ * and is only read back, for example from the database.
+ *
  * @author Aaron Barber
  */
 class BaseDeserializer implements SedsDeserializer {
@@ -54,14 +60,20 @@ class BaseDeserializer implements SedsDeserializer {
     //-------------------------------------------------------------------------- 
     private final SedsValidator validator;
     private final JsonMapper mapper;
+    private final boolean schemaValidation;
 
     //Constructor
     //-------------------------------------------------------------------------- 
     BaseDeserializer(SedsValidator validator, JsonMapper mapper) {
+        this(validator, mapper, true);
+    }
+
+    BaseDeserializer(SedsValidator validator, JsonMapper mapper, boolean schemaValidation) {
         assertNotNull(validator, SedsValidator.class, "Validator for the Deserializer");
 
         this.validator = validator;
         this.mapper = mapper;
+        this.schemaValidation = schemaValidation;
     }
     //-------------------------------------------------------------------------- 
 
@@ -74,11 +86,13 @@ class BaseDeserializer implements SedsDeserializer {
         }
 
         //Validation
-        ValidationUtil.assertValid(
-                validator,
-                ValidationUtil.DataType.SEDS_TYPE,
-                value
-        );
+        if (schemaValidation) {
+            ValidationUtil.assertValid(
+                    validator,
+                    ValidationUtil.DataType.SEDS_TYPE,
+                    value
+            );
+        }
 
         //Parse Data and Metadata
         //----------------------------------------------------------------------
@@ -92,13 +106,14 @@ class BaseDeserializer implements SedsDeserializer {
 
     @Override
     public SedsMetadata deserializeMeta(JsonObject value) throws SedsException {
-        SedsMetadata meta = mapper.toSedsMetadata(
-                ValidationUtil.assertValid(
-                        validator,
-                        ValidationUtil.DataType.SEDS_META,
-                        value
-                )
-        );
+        if (schemaValidation) {
+            ValidationUtil.assertValid(
+                    validator,
+                    ValidationUtil.DataType.SEDS_META,
+                    value
+            );
+        }
+        SedsMetadata meta = mapper.toSedsMetadata(value);
         validator.validateMetadataValues(meta);
         return meta;
     }
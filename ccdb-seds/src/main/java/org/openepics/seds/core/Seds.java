@@ -87,6 +87,21 @@ public class Seds {
     public static SedsDeserializer newDeserializer() {
         return new BaseDeserializer(newValidator(), new JsonMapper(newFactory()));
     }
+
+    /**
+     * Builds a deserializer to deserialize JSON data structures into SEDS data
+     * structures: validation using the JSON schema provided by SEDS protocol is
+     * NOT performed, only the metadata values are checked.
+     *
+     * <p>
+     * Use it only for JSON data that was produced by a SEDS serializer, such
+     * as the data read back from the database.
+     *
+     * @return converter for taking trusted JSON into SEDS
+     */
+    public static SedsDeserializer newTrustedDeserializer() {
+        return new BaseDeserializer(newValidator(), new JsonMapper(newFactory()), false);
+    }
     //--------------------------------------------------------------------------
 
     //Conversion
@@ -20,9 +20,8 @@ import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
-import org.epics.util.array.ListDouble;
+import java.util.regex.Pattern;
 import org.epics.util.text.CsvParser;
-import org.epics.util.text.CsvParserResult;
 import org.openepics.seds.api.datatypes.SedsDisplay;
 import org.openepics.seds.api.datatypes.SedsScalarArray;
 import org.openepics.seds.api.datatypes.SedsTable;
@@ -36,6 +35,11 @@ import static org.openepics.seds.util.SedsException.assertNotNull;
 /**
  * CSVConverter implementation.
  *
+ * <p>
+ * Tables are imported and exported one row at a time. The imported values are
+ * collected in column buffers and the exported values are written directly
+ * from the columns of the table, so no intermediate rows are kept in memory.
+ *
  * @author Aaron Barber
  */
 class BaseCSVConverter implements CSVConverter {
@@ -88,42 +92,15 @@ class BaseCSVConverter implements CSVConverter {
             return Seds.newFactory().newDisplay(null, null, 0, 0, null, null, null, units);
         }
 
-        static SedsScalarArray toScalarArray(
-                Class<?> type,
-                Object data,
-                String units
-        ) {
-            assertNotNull(type, Class.class, "Building a scalar array (parameter 'type'");
-            assertNotNull(data, Object.class, "Building a scalar array (parameter 'data'");
-            assertNotNull(units, String.class, "Building a scalar array (parameter 'units'");
-
-            //Pre-condition: data is a List
-            if (double.class.equals(type) && data instanceof ListDouble) {
-                return Seds.newFactory()
-                        .newScalarArray(ArrayUtil.AsBoxedArray.typeNumber((ListDouble) data), null, null, null, toDisplay(units), null);
-            } else if (String.class.equals(type) && data instanceof List) {
-                return Seds.newFactory()
-                        .newScalarArray(ArrayUtil.AsBoxedArray.typeString((List<String>) data), null, null, toDisplay(units), null);
-            } else {
-                throw SedsException.buildIAE(
-                        data,
-                        "Supported type..." + Arrays.deepToString(ScalarType.values()),
-                        "Building a scalar array"
-                );
-            }
-        }
-
         static SedsTable toTable(
                 List<String> colNames,
                 List<String> colUnits,
-                List<Class<?>> colTypes,
-                List<Object> colData,
+                ColumnBuffer[] colData,
                 int rowCount
         ) {
             assertNotNull(colNames, List.class, "Building a table (names list");
             assertNotNull(colUnits, List.class, "Building a table (units list");
-            assertNotNull(colTypes, List.class, "Building a table (column types list");
-            assertNotNull(colData, List.class, "Building a table (column data list");
+            assertNotNull(colData, ColumnBuffer[].class, "Building a table (column data");
 
             int numRows;
             int numColumns;
@@ -131,18 +108,121 @@ class BaseCSVConverter implements CSVConverter {
             SedsScalarArray[] columns;
 
             numRows = rowCount;
-            numColumns = colData.size();
+            numColumns = colData.length;
             names = new String[numColumns];
             columns = new SedsScalarArray[numColumns];
 
             for (int i = 0; i < numColumns; ++i) {
-                columns[i] = toScalarArray(colTypes.get(i), colData.get(i), colUnits.get(i));
+                columns[i] = colData[i].toScalarArray(toDisplay(colUnits.get(i)));
                 names[i] = colNames.get(i);
             }
 
             return Seds.newFactory().newTable(numRows, numColumns, names, columns);
         }
     }
+
+    /**
+     * The values of one imported column. The column is numeric until a value
+     * that is not a number is found, and the numbers are parsed into a double
+     * buffer as they are read. Empty cells of a numeric column are NaN.
+     *
+     * <p>
+     * The original text of a number is only kept if it differs from the
+     * canonical text of the parsed value (e.g. "007" or "1.50", but not "7" or
+     * "1.5"). When the first value that is not a number is found, the column
+     * is converted to text, so the values read so far keep the text they were
+     * written with.
+     */
+    private static class ColumnBuffer {
+
+        private static final Pattern NUMBER = Pattern.compile(
+                "[+-]?(\\d+\\.?\\d*|\\.\\d+)([eE][+-]?\\d+)?|[+-]?Infinity|NaN"
+        );
+        private static final int INITIAL_CAPACITY = 64;
+        /** The largest magnitude of the integers that are written without a fraction */
+        private static final double MAX_INTEGER = 1e15;
+
+        private double[] numbers = new double[INITIAL_CAPACITY];
+        //The positions and the original text of the numbers that are not canonical
+        private int[] originalIndexes = new int[INITIAL_CAPACITY];
+        private String[] originalTexts = new String[INITIAL_CAPACITY];
+        private int originalCount;
+        //The values of a text column, null while the column is numeric
+        private String[] texts;
+        private int size;
+
+        void add(String token) {
+            final String value = token == null ? "" : token;
+
+            if (texts == null) {
+                final String trimmed = value.trim();
+                if (trimmed.isEmpty()) {
+                    addNumber(Double.NaN, value);
+                    return;
+                }
+                if (NUMBER.matcher(trimmed).matches()) {
+                    addNumber(Double.parseDouble(trimmed), value);
+                    return;
+                }
+                toText();
+            }
+
+            if (size == texts.length) {
+                texts = Arrays.copyOf(texts, size + (size >> 1));
+            }
+            texts[size++] = value;
+        }
+
+        private void addNumber(double number, String text) {
+            if (size == numbers.length) {
+                numbers = Arrays.copyOf(numbers, size + (size >> 1));
+            }
+            if (!text.equals(canonical(number))) {
+                if (originalCount == originalIndexes.length) {
+                    originalIndexes = Arrays.copyOf(originalIndexes, originalCount + (originalCount >> 1));
+                    originalTexts = Arrays.copyOf(originalTexts, originalCount + (originalCount >> 1));
+                }
+                originalIndexes[originalCount] = size;
+                originalTexts[originalCount++] = text;
+            }
+            numbers[size++] = number;
+        }
+
+        private void toText() {
+            texts = new String[Math.max(numbers.length, INITIAL_CAPACITY)];
+            int original = 0;
+            for (int i = 0; i < size; ++i) {
+                if (original < originalCount && originalIndexes[original] == i) {
+                    texts[i] = originalTexts[original++];
+                } else {
+                    texts[i] = canonical(numbers[i]);
+                }
+            }
+            numbers = null;
+            originalIndexes = null;
+            originalTexts = null;
+        }
+
+        private static String canonical(double number) {
+            if (number == Math.rint(number) && Math.abs(number) < MAX_INTEGER) {
+                return Long.toString((long) number);
+            }
+            return Double.toString(number);
+        }
+
+        SedsScalarArray toScalarArray(SedsDisplay display) {
+            if (texts != null) {
+                return Seds.newFactory()
+                        .newScalarArray(Arrays.copyOf(texts, size), null, null, display, null);
+            }
+
+            Number[] values = new Number[size];
+            for (int i = 0; i < size; ++i) {
+                values[i] = numbers[i];
+            }
+            return Seds.newFactory().newScalarArray(values, null, null, null, display, null);
+        }
+    }
     //--------------------------------------------------------------------------
 
     //Constructor
@@ -237,34 +317,41 @@ class BaseCSVConverter implements CSVConverter {
             colUnits.add(data.toString());
         }
 
-        //Reads the table
-        CsvParserResult table;
-        try {
-            table = CsvParser.AUTOMATIC
-                    .withHeader(CsvParser.Header.NONE)
-                    .parse(reader);
+        //Asserts Sizes
+        if (colNames.size() != colUnits.size()) {
+            throw State.INVALID_COLSIZES.exception();
+        }
+
+        //Reads the table, one row at a time
+        ColumnBuffer[] columns = new ColumnBuffer[colNames.size()];
+        for (int i = 0; i < columns.length; ++i) {
+            columns[i] = new ColumnBuffer();
+        }
 
-            if (!table.isParsingSuccessful()) {
-                throw State.PARSE_ERROR.exception();
+        int rowCount = 0;
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.trim().isEmpty()) {
+                continue;
             }
-        } catch (IndexOutOfBoundsException e) {
-            throw State.NULL_TABLE.exception();
+
+            List<Object> row = CsvParser.parseCSVLine(line, separator);
+            if (row.size() != columns.length) {
+                throw State.INVALID_COLSIZES.exception();
+            }
+            for (int i = 0; i < columns.length; ++i) {
+                Object token = row.get(i);
+                columns[i].add(token == null ? null : token.toString());
+            }
+            ++rowCount;
         }
 
-        //Asserts Sizes
-        if (colUnits.size() != colUnits.size() || colNames.size() != table.getColumnTypes().size()) {
-            throw State.INVALID_COLSIZES.exception();
+        if (rowCount == 0) {
+            throw State.NULL_TABLE.exception();
         }
 
         //Converts to SEDS
-        return Factory.toTable(
-                colNames,
-                colUnits,
-                table.getColumnTypes(),
-                table.getColumnValues(),
-                table.getRowCount()
-        );
-
+        return Factory.toTable(colNames, colUnits, columns, rowCount);
     }
 
     /**
@@ -303,11 +390,8 @@ class BaseCSVConverter implements CSVConverter {
         assertNotNull(table, SedsTable.class, "Exporting a table");
         assertNotNull(writer, BufferedWriter.class, "Exporting a table");
 
-        List<List<Object>> rows = new ArrayList<>();
-
         //Names
-        List<Object> names = new ArrayList<>();
-        names.addAll(Arrays.asList(table.getNames()));
+        writeRow(Arrays.asList((Object[]) table.getNames()), writer);
 
         //Units
         List<Object> units = new ArrayList<>();
@@ -318,40 +402,41 @@ class BaseCSVConverter implements CSVConverter {
                 units.add("");
             }
         }
+        writeRow(units, writer);
 
-        //Updated container
-        rows.add(names);
-        rows.add(units);
+        //Values, read directly from the columns
+        Object[][] columns = new Object[table.getNumColumns()][];
+        for (int c = 0; c < columns.length; ++c) {
+            if (table.getValues() != null && table.getValues()[c] != null) {
+                columns[c] = table.getValues()[c].getValueArray();
+            }
+        }
 
-        //Values
         for (int r = 0; r < table.getNumRows(); ++r) {
-            List<Object> row = new ArrayList<>();
-            for (int c = 0; c < table.getNumColumns(); ++c) {
-                if (table.getValues() != null
-                        && table.getValues()[c] != null
-                        && table.getValues()[c].getValueArray() != null
-                        && table.getValues()[c].getValueArray()[r] != null) {
-
-                    row.add(table.getValues()[c].getValueArray()[r]);
-                } else {
-                    row.add("");
+            for (int c = 0; c < columns.length; ++c) {
+                if (c > 0) {
+                    writer.append(separator);
+                }
+                if (columns[c] != null && columns[c][r] != null) {
+                    writer.append(columns[c][r].toString());
                 }
             }
-            rows.add(row);
+            writer.newLine();
         }
+        writer.flush();
+    }
+    //--------------------------------------------------------------------------
 
-        for (List<Object> row : rows) {
-            for (int i = 0; i < row.size() - 1; ++i) {
-                writer.append(row.get(i).toString())
-                        .append(separator);
-            }
-            for (int i = row.size() - 1; i < row.size(); ++i) {
-                writer.append(row.get(i).toString());
+    //Helper
+    //--------------------------------------------------------------------------
+    private void writeRow(List<Object> row, BufferedWriter writer) throws IOException {
+        for (int i = 0; i < row.size(); ++i) {
+            if (i > 0) {
+                writer.append(separator);
             }
-
-            writer.newLine();
+            writer.append(row.get(i).toString());
         }
-        writer.flush();
+        writer.newLine();
     }
     //--------------------------------------------------------------------------
 }
@@ -17,11 +17,23 @@ package org.openepics.seds.util;
 import static org.openepics.seds.util.SedsException.assertNotNull;
 
 import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 
+import javax.json.JsonArray;
+import javax.json.JsonNumber;
 import javax.json.JsonObject;
+import javax.json.JsonString;
+import javax.json.JsonValue;
 
 import org.openepics.seds.api.SedsValidator;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.github.fge.jackson.JacksonUtils;
 import com.github.fge.jackson.JsonLoader;
 import com.github.fge.jsonschema.core.exceptions.ProcessingException;
 import com.github.fge.jsonschema.core.report.ProcessingReport;
@@ -31,10 +43,27 @@ import com.github.fge.jsonschema.main.JsonSchemaFactory;
 /**
  * Utility for validation of JSON schemas.
  *
+ * <p>
+ * Each schema is compiled only once and the compiled schema is shared between
+ * all threads. The validated JSON structure is converted directly into the
+ * tree used by the validator, without printing and parsing it again.
+ *
  * @author Aaron Barber
  */
 public class ValidationUtil {
 
+    //Compiled Schemas
+    //--------------------------------------------------------------------------
+    private static final JsonSchemaFactory SCHEMA_FACTORY = JsonSchemaFactory.byDefault();
+    private static final JsonNodeFactory NODE_FACTORY = JacksonUtils.nodeFactory();
+
+    /**
+     * The compiled schemas, by the schema content. A compiled schema is
+     * immutable and thread safe.
+     */
+    private static final ConcurrentMap<String, JsonSchema> SCHEMAS = new ConcurrentHashMap<>();
+    //--------------------------------------------------------------------------
+
     //Type of check
     //--------------------------------------------------------------------------
     /**
@@ -129,9 +158,7 @@ public class ValidationUtil {
         assertNotNull(instance, JsonObject.class, "JSON data being validated");
 
         try {
-            return schemaOf(schema).validate(
-                    JsonLoader.fromString(instance.toString())
-            );
+            return schemaOf(schema).validate(toJsonNode(instance));
         } catch (IOException | ProcessingException ex) {
             throw new SedsException("Error in reading/parsing the JSON Schema", ex)
                     .attachSchemaPath(schemaPath)
@@ -147,9 +174,59 @@ public class ValidationUtil {
     ) throws ProcessingException, IOException {
         assertNotNull(schema, String.class, "JSON schema");
 
-        return JsonSchemaFactory
-                .byDefault()
-                .getJsonSchema(JsonLoader.fromString(schema));
+        JsonSchema compiled = SCHEMAS.get(schema);
+        if (compiled == null) {
+            //Compiling the same schema twice is harmless, the first one is kept
+            compiled = SCHEMA_FACTORY.getJsonSchema(JsonLoader.fromString(schema));
+            final JsonSchema previous = SCHEMAS.putIfAbsent(schema, compiled);
+            if (previous != null) {
+                compiled = previous;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Converts the javax.json structure into the Jackson tree the validator
+     * works on. Numbers keep their precision, the same as when the structure
+     * is parsed from its text.
+     */
+    private static JsonNode toJsonNode(JsonValue value) {
+        switch (value.getValueType()) {
+            case OBJECT:
+                final ObjectNode object = NODE_FACTORY.objectNode();
+                for (Map.Entry<String, JsonValue> entry : ((JsonObject) value).entrySet()) {
+                    object.set(entry.getKey(), toJsonNode(entry.getValue()));
+                }
+                return object;
+            case ARRAY:
+                final ArrayNode array = NODE_FACTORY.arrayNode();
+                for (JsonValue element : (JsonArray) value) {
+                    array.add(toJsonNode(element));
+                }
+                return array;
+            case STRING:
+                return NODE_FACTORY.textNode(((JsonString) value).getString());
+            case NUMBER:
+                final JsonNumber number = (JsonNumber) value;
+                if (!number.isIntegral()) {
+                    return NODE_FACTORY.numberNode(number.bigDecimalValue());
+                }
+                final int bits = number.bigIntegerValue().bitLength();
+                if (bits < Integer.SIZE) {
+                    return NODE_FACTORY.numberNode(number.intValue());
+                } else if (bits < Long.SIZE) {
+                    return NODE_FACTORY.numberNode(number.longValue());
+                }
+                return NODE_FACTORY.numberNode(number.bigIntegerValue());
+            case TRUE:
+                return NODE_FACTORY.booleanNode(true);
+            case FALSE:
+                return NODE_FACTORY.booleanNode(false);
+            case NULL:
+            default:
+                return NODE_FACTORY.nullNode();
+        }
     }
     //--------------------------------------------------------------------------
 
@@ -0,0 +1,105 @@
+/*
+ * This software is Copyright by the Board of Trustees of Michigan
+ *  State University (c) Copyright 2013, 2014.
+ *
+ *  You may use this software under the terms of the GNU public license
+ *  (GPL). The terms of this license are described at:
+ *    http://www.gnu.org/licenses/gpl.txt
+ *
+ *  Contact Information:
+ *       Facility for Rare Isotope Beam
+ *       Michigan State University
+ *       East Lansing, MI 48824-1321
+ *        http://frib.msu.edu
+ */
+package org.openepics.seds.core;
+
+import java.util.concurrent.TimeUnit;
+import javax.json.JsonObject;
+import org.openepics.seds.api.SedsDeserializer;
+import org.openepics.seds.api.SedsSerializer;
+import org.openepics.seds.api.datatypes.SedsType;
+import org.openepics.seds.util.SampleSedsFactory;
+import org.openepics.seds.util.SedsException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the serialization and deserialization (including the schema
+ * validation) of the common SEDS types. Run with the main method from the test
+ * classpath.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5)
+@Measurement(iterations = 10)
+@Fork(1)
+public class SerializationBenchmark {
+
+    @Param({"scalar", "array", "table"})
+    private String type;
+
+    private SedsSerializer serializer;
+    private SedsDeserializer deserializer;
+    private SedsDeserializer trustedDeserializer;
+    private SedsType value;
+    private JsonObject json;
+
+    @Setup
+    public void setup() throws SedsException {
+        SampleSedsFactory samples = new SampleSedsFactory();
+        switch (type) {
+            case "scalar":
+                value = samples.sampleSedsScalarNumber();
+                break;
+            case "array":
+                value = samples.sampleSedsScalarArrayNumber();
+                break;
+            case "table":
+                value = samples.sampleSedsTable();
+                break;
+            default:
+                throw new IllegalArgumentException(type);
+        }
+
+        serializer = Seds.newSerializer();
+        deserializer = Seds.newDeserializer();
+        trustedDeserializer = Seds.newTrustedDeserializer();
+        json = serializer.serializeSEDS(value);
+    }
+
+    @Benchmark
+    public JsonObject serialize() throws SedsException {
+        return serializer.serializeSEDS(value);
+    }
+
+    @Benchmark
+    public SedsType deserialize() throws SedsException {
+        return deserializer.deserializeSEDS(json);
+    }
+
+    @Benchmark
+    public SedsType deserializeTrusted() throws SedsException {
+        return trustedDeserializer.deserializeSEDS(json);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(SerializationBenchmark.class.getSimpleName())
+                .build()
+        ).run();
+    }
+}
@@ -14,6 +14,8 @@
  */
 package org.openepics.seds.core.io;
 
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertTrue;
 
 import java.io.BufferedReader;
@@ -23,6 +25,7 @@ import java.io.FileOutputStream;
 import java.io.FileReader;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
+import java.io.StringReader;
 import java.nio.charset.StandardCharsets;
 
 import org.junit.Test;
@@ -84,6 +87,72 @@ public class CSVConverterTest {
         actual.delete();
     }
 
+    private SedsTable importString(String csv) throws IOException {
+        try (BufferedReader in = new BufferedReader(new StringReader(csv))) {
+            return Seds.newCSVConverter().importTable(in);
+        }
+    }
+
+    @Test
+    public void testImportMixedColumn() throws Exception {
+        SedsTable table = importString("id,value\nunitA,unitB\n007,1\n1.50,2\nA1,3\n");
+
+        //The numbers read before the text keep their original text
+        assertArrayEquals(new Object[]{"007", "1.50", "A1"}, table.getValues()[0].getValueArray());
+        assertArrayEquals(new Object[]{1.0, 2.0, 3.0}, table.getValues()[1].getValueArray());
+        assertEquals(3, table.getNumRows());
+    }
+
+    @Test
+    public void testImportLateTextColumn() throws Exception {
+        //More rows than the initial capacity of the column buffers before the first text value
+        String[] numbers = {"7", "007", "1.5", "1.50", "1e3", "-0", "", "-12", "NaN", "Infinity", "0.1"};
+        StringBuilder csv = new StringBuilder("id,value\n,\n");
+        String[] expected = new String[100 * numbers.length + 1];
+        for (int i = 0; i < expected.length - 1; ++i) {
+            expected[i] = numbers[i % numbers.length];
+            csv.append(expected[i]).append(',').append(i).append('\n');
+        }
+        expected[expected.length - 1] = "A1";
+        csv.append("A1,").append(expected.length - 1).append('\n');
+
+        SedsTable table = importString(csv.toString());
+
+        assertArrayEquals(expected, table.getValues()[0].getValueArray());
+        assertEquals(expected.length, table.getValues()[1].getValueArray().length);
+        assertEquals((double) (expected.length - 1), table.getValues()[1].getValueArray()[expected.length - 1]);
+    }
+
+    @Test
+    public void testImportNumericColumn() throws Exception {
+        SedsTable table = importString("a\nu\n7\n007\n1.50\n1e3\n-0\n 5\n");
+
+        assertArrayEquals(new Object[]{7.0, 7.0, 1.5, 1000.0, -0.0, 5.0}, table.getValues()[0].getValueArray());
+    }
+
+    @Test
+    public void testImportEmptyNumericCells() throws Exception {
+        SedsTable table = importString("a,b,c\n,,\n1,,x\n,2,\n");
+
+        assertArrayEquals(new Object[]{1.0, Double.NaN}, table.getValues()[0].getValueArray());
+        assertArrayEquals(new Object[]{Double.NaN, 2.0}, table.getValues()[1].getValueArray());
+        //Empty cells of a text column stay empty
+        assertArrayEquals(new Object[]{"x", ""}, table.getValues()[2].getValueArray());
+    }
+
+    @Test
+    public void testImportQuotedSeparators() throws Exception {
+        SedsTable table = importString("name,x\n,\n\"a,b\",1\n\"c\",2\n");
+
+        assertArrayEquals(new Object[]{"a,b", "c"}, table.getValues()[0].getValueArray());
+        assertArrayEquals(new Object[]{1.0, 2.0}, table.getValues()[1].getValueArray());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testImportRowSizeMismatch() throws Exception {
+        importString("a,b\n,\n1,2\n1,2,3\n");
+    }
+
     @Test
     public void testImportTable1() throws Exception {
         doImport("table1");
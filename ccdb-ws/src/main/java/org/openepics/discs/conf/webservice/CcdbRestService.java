@@ -37,7 +37,8 @@ public class CcdbRestService extends Application {
 
     private Set<Class<?>> getRestResourceClasses() {  // NOSONAR generic wildcard types part of the framework
         return new java.util.HashSet<Class<?>>(Arrays.asList(DeviceTypeResourceImpl.class,
-                InstallationSlotNameResourceImpl.class, InstallationSlotResourceImpl.class, DeviceResourceImpl.class));
+                InstallationSlotNameResourceImpl.class, InstallationSlotResourceImpl.class, DeviceResourceImpl.class,
+                ChangeResourceImpl.class));
     }
 
 }
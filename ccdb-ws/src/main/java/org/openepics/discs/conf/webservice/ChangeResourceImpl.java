@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.conf.webservice;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+
+import org.openepics.discs.ccdb.core.ejb.AuditRecordEJB;
+import org.openepics.discs.ccdb.jaxb.ChangeEvent;
+import org.openepics.discs.ccdb.jaxrs.ChangeResource;
+
+/**
+ * An implementation of the ChangeResource interface.
+ */
+public class ChangeResourceImpl implements ChangeResource {
+    /** The maximum number of changes returned by a single request */
+    private static final int MAX_LIMIT = 10000;
+
+    @Inject private AuditRecordEJB auditRecordEJB;
+
+    @Override
+    public List<ChangeEvent> getChanges(long since, int limit) {
+        if (limit <= 0) {
+            throw new BadRequestException("The limit must be positive.");
+        }
+        return auditRecordEJB.findChangesAfter(since, Math.min(limit, MAX_LIMIT)).stream().
+                map(change -> createChangeEvent(change)).
+                collect(Collectors.toList());
+    }
+
+    private ChangeEvent createChangeEvent(final Object[] change) {
+        final ChangeEvent changeEvent = new ChangeEvent();
+        changeEvent.setAuditId(((Number) change[0]).longValue());
+        changeEvent.setEntityType((String) change[1]);
+        changeEvent.setEntityId(change[2] != null ? ((Number) change[2]).longValue() : null);
+        changeEvent.setName((String) change[3]);
+        changeEvent.setOperation((String) change[4]);
+        return changeEvent;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.conf.webservice;
+
+import javax.inject.Inject;
+import javax.servlet.http.HttpServletResponse;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.core.CacheControl;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.EntityTag;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.Request;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+
+import org.openepics.discs.ccdb.core.ejb.DataVersion;
+import org.openepics.discs.ccdb.core.ejb.DataVersionEJB;
+
+/**
+ * The base of the REST resources that answer the conditional GET requests. Before the response is built, the
+ * resource checks the <code>If-None-Match</code> and <code>If-Modified-Since</code> headers against the current
+ * {@link DataVersion} of the data it returns, and answers with <code>304 Not Modified</code> if the client's copy
+ * is still valid.
+ */
+abstract class ConditionalResource {
+    private static final CacheControl CACHE_CONTROL = CacheControl.valueOf("no-cache");
+
+    @Inject private DataVersionEJB dataVersionEJB;
+
+    @Context private Request request;
+    @Context private UriInfo uriInfo;
+    @Context private HttpHeaders headers;
+    @Context private HttpServletResponse response;
+
+    /**
+     * Evaluates the preconditions of the current request against the version of whole tables. It is meant for the
+     * lists, a single item is validated with the version of its own entities instead, see
+     * {@link #checkNotModified(DataVersion)}.
+     *
+     * @param entityClasses the types of the entities the response is built from
+     * @throws WebApplicationException with the <code>304 Not Modified</code> response if the client's copy of the
+     *          response is still valid
+     */
+    protected void checkNotModified(Class<?>... entityClasses) {
+        checkNotModified(dataVersionEJB.getDataVersion(entityClasses));
+    }
+
+    /**
+     * Evaluates the preconditions of the current request against the version of the data. The validators of the
+     * data are added to the response, so the client can use them in the following requests.
+     *
+     * @param version the version of the data the response is built from
+     * @throws WebApplicationException with the <code>304 Not Modified</code> response if the client's copy of the
+     *          response is still valid
+     */
+    protected void checkNotModified(DataVersion version) {
+        // the same request produces different representations for different media types
+        final EntityTag entityTag = new EntityTag(version.getTag(uriInfo.getRequestUri().toString() + ' '
+                                                                    + headers.getHeaderString(HttpHeaders.ACCEPT)));
+        final Response.ResponseBuilder notModified = request.evaluatePreconditions(version.getLastModified(),
+                                                                                                        entityTag);
+        if (notModified != null) {
+            throw new WebApplicationException(notModified.cacheControl(CACHE_CONTROL).build());
+        }
+        response.setHeader(HttpHeaders.ETAG, entityTag.toString());
+        response.setDateHeader(HttpHeaders.LAST_MODIFIED, version.getLastModified().getTime());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, CACHE_CONTROL.toString());
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT);
+    }
+}
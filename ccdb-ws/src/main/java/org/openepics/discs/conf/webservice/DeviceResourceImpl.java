@@ -24,6 +24,7 @@ import java.util.stream.Collectors;
 import javax.inject.Inject;
 import org.apache.commons.lang3.StringUtils;
 import org.openepics.discs.ccdb.core.ejb.ComptypeEJB;
+import org.openepics.discs.ccdb.core.ejb.DataVersion;
 import org.openepics.discs.ccdb.core.ejb.DeviceEJB;
 import org.openepics.discs.ccdb.model.ComponentType;
 import org.openepics.discs.ccdb.model.Device;
@@ -35,7 +36,7 @@ import org.openepics.discs.ccdb.jaxrs.DeviceResource;
  *
  * @author <a href="mailto:sunil.sah@cosylab.com">Sunil Sah</a>
  */
-public class DeviceResourceImpl implements DeviceResource {
+public class DeviceResourceImpl extends ConditionalResource implements DeviceResource {
 
     @Inject
     private DeviceEJB deviceEJB;
@@ -44,6 +45,7 @@ public class DeviceResourceImpl implements DeviceResource {
 
     @Override
     public List<ResDevice> getAllDevices(String deviceType) {
+        checkNotModified(Device.class, ComponentType.class);
         if ("undefined".equals(deviceType)) {
             return deviceEJB.findAll().stream().
                     map(dev -> getDevice(dev)).
@@ -71,7 +73,11 @@ public class DeviceResourceImpl implements DeviceResource {
 
     @Override
     public ResDevice getDevice(String iid) {
-        return getDevice(deviceEJB.findDeviceBySerialNumber(iid));
+        final Device device = deviceEJB.findDeviceBySerialNumber(iid);
+        if (device != null) {
+            checkNotModified(new DataVersion.Builder().add(device).add(device.getComponentType()).build());
+        }
+        return getDevice(device);
     }
 
     /**
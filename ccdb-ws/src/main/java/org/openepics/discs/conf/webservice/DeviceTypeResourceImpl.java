@@ -23,6 +23,7 @@ import java.util.stream.Collectors;
 import javax.inject.Inject;
 
 import org.openepics.discs.ccdb.core.ejb.ComptypeEJB;
+import org.openepics.discs.ccdb.core.ejb.DataVersion;
 import org.openepics.discs.ccdb.model.ComponentType;
 import org.openepics.discs.ccdb.jaxb.DeviceType;
 import org.openepics.discs.ccdb.jaxrs.DeviceTypeResource;
@@ -32,12 +33,13 @@ import org.openepics.discs.ccdb.jaxrs.DeviceTypeResource;
  *
  * @author <a href="mailto:sunil.sah@cosylab.com">Sunil Sah</a>
  */
-public class DeviceTypeResourceImpl implements DeviceTypeResource {
+public class DeviceTypeResourceImpl extends ConditionalResource implements DeviceTypeResource {
 
     @Inject private ComptypeEJB comptypeEJB;
 
     @Override
     public List<DeviceType> getAllDeviceTypes() {
+        checkNotModified(ComponentType.class);
         return comptypeEJB.findAll().stream().
                 map(compType -> getDeviceType(compType)).
                 collect(Collectors.toList());
@@ -45,7 +47,11 @@ public class DeviceTypeResourceImpl implements DeviceTypeResource {
 
     @Override
     public DeviceType getDeviceType(String name) {
-        return getDeviceType(comptypeEJB.findByName(name));
+        final ComponentType componentType = comptypeEJB.findByName(name);
+        if (componentType != null) {
+            checkNotModified(new DataVersion.Builder().add(componentType).build());
+        }
+        return getDeviceType(componentType);
     }
 
     /** Transforms a CCDB database entity into a REST DTO object. Called from other web service classes as well.
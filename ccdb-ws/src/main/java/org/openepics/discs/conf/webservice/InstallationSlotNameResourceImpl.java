@@ -28,6 +28,7 @@ import org.openepics.discs.ccdb.jaxrs.InstallationSlotNameResource;
 import com.google.common.base.Strings;
 import java.util.stream.Collectors;
 import org.openepics.discs.ccdb.model.Slot;
+import org.openepics.discs.ccdb.model.ComponentType;
 import org.openepics.discs.ccdb.core.util.Utility;
 
 /**
@@ -35,12 +36,14 @@ import org.openepics.discs.ccdb.core.util.Utility;
  *
  * @author <a href="mailto:sunil.sah@cosylab.com">Sunil Sah</a>
  */
-public class InstallationSlotNameResourceImpl implements InstallationSlotNameResource {
+public class InstallationSlotNameResourceImpl extends ConditionalResource
+                                                implements InstallationSlotNameResource {
     @Inject private SlotEJB slotEJB;
     @Inject private ComptypeEJB comptypeEJB;
 
     @Override
     public InstallationSlotNames getAllInstallationSlotNames(String deviceTypeName) {
+        checkNotModified(Slot.class, ComponentType.class);
         return new InstallationSlotNames( Strings.isNullOrEmpty(deviceTypeName) ?
                 slotEJB.findAll().stream().
                     map(Slot::getName).
@@ -20,19 +20,32 @@
 package org.openepics.discs.conf.webservice;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
 import javax.inject.Inject;
+import javax.ws.rs.BadRequestException;
+import javax.ws.rs.core.Context;
+import javax.ws.rs.core.GenericEntity;
+import javax.ws.rs.core.HttpHeaders;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import javax.ws.rs.core.UriInfo;
+import javax.ws.rs.ext.Providers;
 
 import org.apache.commons.lang3.StringUtils;
 import org.openepics.discs.ccdb.core.ejb.ComptypeEJB;
-import org.openepics.discs.ccdb.core.ejb.InstallationEJB;
 import org.openepics.discs.ccdb.core.ejb.SlotEJB;
+import org.openepics.discs.ccdb.core.ejb.SlotPage;
 import org.openepics.discs.ccdb.model.ComponentType;
 import org.openepics.discs.ccdb.model.ComptypePropertyValue;
+import org.openepics.discs.ccdb.model.Device;
 import org.openepics.discs.ccdb.model.DevicePropertyValue;
 import org.openepics.discs.ccdb.model.InstallationRecord;
 import org.openepics.discs.ccdb.model.Property;
@@ -51,28 +64,110 @@ import org.openepics.discs.ccdb.core.util.UnhandledCaseException;
  *
  * @author <a href="mailto:sunil.sah@cosylab.com">Sunil Sah</a>
  */
-public class InstallationSlotResourceImpl implements InstallationSlotResource {
+public class InstallationSlotResourceImpl extends ConditionalResource
+                                            implements InstallationSlotResource {
+    /** The number of slots read from the database at once */
+    private static final int PAGE_SIZE = 500;
+
+    private static final String FIELD_DESCRIPTION = "description";
+    private static final String FIELD_DEVICE_TYPE = "deviceType";
+    private static final String FIELD_PARENTS = "parents";
+    private static final String FIELD_CHILDREN = "children";
+    private static final String FIELD_POWERS = "powers";
+    private static final String FIELD_POWERED_BY = "poweredBy";
+    private static final String FIELD_CONTROLS = "controls";
+    private static final String FIELD_CONTROLLED_BY = "controlledBy";
+    private static final String FIELD_PROPERTIES = "properties";
+    private static final String FIELD_RELATIONS = "relations";
+
+    private static final List<String> RELATION_FIELDS = Arrays.asList(FIELD_PARENTS, FIELD_CHILDREN, FIELD_POWERS,
+            FIELD_POWERED_BY, FIELD_CONTROLS, FIELD_CONTROLLED_BY);
+    private static final Set<String> ALL_FIELDS = Collections.unmodifiableSet(new HashSet<>(Arrays.asList(
+            FIELD_DESCRIPTION, FIELD_DEVICE_TYPE, FIELD_PARENTS, FIELD_CHILDREN, FIELD_POWERS, FIELD_POWERED_BY,
+            FIELD_CONTROLS, FIELD_CONTROLLED_BY, FIELD_PROPERTIES)));
+
+    /** The entities the lists of the installation slots are built from */
+    private static final Class<?>[] SLOT_DATA = { Slot.class, ComponentType.class, Device.class,
+            InstallationRecord.class };
+
     @Inject private SlotEJB slotEJB;
     @Inject private ComptypeEJB compTypeEJB;
-    @Inject private InstallationEJB installationEJB;
+
+    @Context private HttpHeaders requestHeaders;
+    @Context private UriInfo uriInfo;
+    @Context private Providers providers;
 
     @FunctionalInterface
     private interface RelatedSlotExtractor {
         public Slot getRelatedSlot(final SlotPair pair);
     }
 
+    /** Consumes the slots of a page */
+    @FunctionalInterface
+    private interface PageHandler {
+        public void handle(final SlotPage page);
+    }
+
+    /**
+     * {@inheritDoc}
+     * <p>
+     * A JSON request without a limit is answered with the streamed array of {@link #streamInstallationSlots(String,
+     * String)}, so the list of all the slots is never built.
+     * </p>
+     */
     @Override
-    public List<InstallationSlot> getInstallationSlots(String deviceType) {
-        // Get all slots
-        if ("undefined".equals(deviceType)) {
-            return slotEJB.findAll().stream().
-                filter(slot -> slot!=null && slot.isHostingSlot()).
-                map(slot -> createInstallationSlot(slot)).
-                collect(Collectors.toList());
-        } else {
-            // Get them filtered by deviceType
-            return getInstallationSlotsForType(deviceType);
+    public Response getInstallationSlots(String deviceType, Long after, int offset, int limit, String fields) {
+        if (offset < 0 || limit < 0) {
+            throw new BadRequestException("The offset and the limit must not be negative.");
+        }
+        checkNotModified(SLOT_DATA);
+        final Set<String> requestedFields = parseFields(fields);
+        if (limit == 0 && isJsonPreferred()) {
+            return createStreamResponse(deviceType, after, offset, requestedFields);
+        }
+        final List<InstallationSlot> installationSlots = new ArrayList<>();
+        final Long lastId = forEachPage(deviceType, after, offset, limit, requestedFields, page -> page.getSlots().
+                forEach(slot -> installationSlots.add(createInstallationSlot(slot, requestedFields, page))));
+
+        final Response.ResponseBuilder response = Response.ok(
+                                        new GenericEntity<List<InstallationSlot>>(installationSlots) {});
+        if (limit > 0 && installationSlots.size() == limit) {
+            // the page is full, the next one starts after its last slot
+            response.header(NEXT_AFTER_HEADER, lastId).link(uriInfo.getRequestUriBuilder().
+                    replaceQueryParam("offset").replaceQueryParam("after", lastId).build(), "next");
+        }
+        return response.build();
+    }
+
+    @Override
+    public Response streamInstallationSlots(String deviceType, String fields) {
+        checkNotModified(SLOT_DATA);
+        return createStreamResponse(deviceType, null, 0, parseFields(fields));
+    }
+
+    /** @return the response writing the JSON array of the slots page by page */
+    private Response createStreamResponse(final String deviceType, final Long after, final int offset,
+            final Set<String> fields) {
+        final JsonArrayOutput<InstallationSlot> output = new JsonArrayOutput<>(providers, InstallationSlot.class,
+                chunkHandler -> forEachPage(deviceType, after, offset, 0, fields, page -> {
+                    final List<InstallationSlot> installationSlots = new ArrayList<>(page.getSlots().size());
+                    page.getSlots().forEach(slot -> installationSlots.add(createInstallationSlot(slot, fields, page)));
+                    chunkHandler.accept(installationSlots);
+                }));
+        return Response.ok(output, MediaType.APPLICATION_JSON_TYPE).build();
+    }
+
+    /** @return <code>true</code> if the runtime would answer the request with JSON rather than XML */
+    private boolean isJsonPreferred() {
+        // the acceptable media types are sorted by preference, JSON is the first produced type
+        for (final MediaType mediaType : requestHeaders.getAcceptableMediaTypes()) {
+            if (mediaType.isCompatible(MediaType.APPLICATION_JSON_TYPE)) {
+                return true;
+            } else if (mediaType.isCompatible(MediaType.APPLICATION_XML_TYPE)) {
+                return false;
+            }
         }
+        return false;
     }
 
     @Override
@@ -81,62 +176,140 @@ public class InstallationSlotResourceImpl implements InstallationSlotResource {
         if (installationSlot == null || !installationSlot.isHostingSlot()) {
             return null;
         }
-        return createInstallationSlot(installationSlot);
+        final SlotPage page = slotEJB.fetchPage(Collections.singletonList(installationSlot), true, true);
+        checkNotModified(page.getDataVersion(installationSlot));
+        return createInstallationSlot(installationSlot, ALL_FIELDS, page);
     }
 
-    private List<InstallationSlot> getInstallationSlotsForType(String deviceType) {
-        if (StringUtils.isEmpty(deviceType)) {
-            return new ArrayList<>();
+    /**
+     * Reads the requested slots from the database page by page, so only the entities of a single page are
+     * referenced at any time. The relationships and property values of the slots are fetched for the whole page
+     * at once, and only if they are requested.
+     *
+     * @param deviceType the name of the device type, or <code>undefined</code> for all hosting slots
+     * @param after the id of the last slot of the previous page, <code>null</code> to start at the beginning
+     * @param offset the number of slots to skip
+     * @param limit the maximum number of slots to read, <code>0</code> for all
+     * @param fields the requested fields
+     * @param pageHandler called for each non-empty page
+     * @return the id of the last slot read, <code>after</code> if no slot was read
+     */
+    private Long forEachPage(final String deviceType, final Long after, final int offset, final int limit,
+            final Set<String> fields, final PageHandler pageHandler) {
+        final boolean withRelations = !Collections.disjoint(fields, RELATION_FIELDS);
+        final boolean withProperties = fields.contains(FIELD_PROPERTIES);
+
+        ComponentType componentType = null;
+        if (!"undefined".equals(deviceType)) {
+            // Get them filtered by deviceType
+            componentType = StringUtils.isEmpty(deviceType) ? null : compTypeEJB.findByName(deviceType);
+            if (componentType == null) {
+                return after;
+            }
         }
 
-        final ComponentType ct = compTypeEJB.findByName(deviceType);
-        if (ct == null) {
-            return new ArrayList<>();
+        Long lastId = after;
+        int skip = offset;
+        int remaining = limit > 0 ? limit : Integer.MAX_VALUE;
+        while (remaining > 0) {
+            final SlotPage page = slotEJB.findHostingSlotsPage(componentType, lastId, skip,
+                                                    Math.min(PAGE_SIZE, remaining), withRelations, withProperties);
+            final List<Slot> slots = page.getSlots();
+            if (slots.isEmpty()) {
+                return lastId;
+            }
+            pageHandler.handle(page);
+            lastId = slots.get(slots.size() - 1).getId();
+            skip = 0;
+            remaining -= slots.size();
         }
+        return lastId;
+    }
 
-        return slotEJB.findByComponentType(ct).stream().
-                map(slot -> createInstallationSlot(slot)).
-                collect(Collectors.toList());
+    private static Set<String> parseFields(final String fields) {
+        if (fields == null) {
+            return ALL_FIELDS;
+        }
+        final Set<String> requestedFields = new HashSet<>();
+        for (final String field : StringUtils.split(fields, ',')) {
+            final String fieldName = field.trim();
+            if (FIELD_RELATIONS.equals(fieldName)) {
+                requestedFields.addAll(RELATION_FIELDS);
+            } else if (ALL_FIELDS.contains(fieldName)) {
+                requestedFields.add(fieldName);
+            } else if (!fieldName.isEmpty() && !"name".equals(fieldName)) {
+                throw new BadRequestException("Unknown installation slot field: " + fieldName);
+            }
+        }
+        return requestedFields;
     }
 
-    private InstallationSlot createInstallationSlot(final Slot slot) {
+    private InstallationSlot createInstallationSlot(final Slot slot, final Set<String> fields, final SlotPage page) {
         if (slot == null) {
             return null;
         }
 
         final InstallationSlot installationSlot = new InstallationSlot();
         installationSlot.setName(slot.getName());
-        installationSlot.setDescription(slot.getDescription());
-        installationSlot.setDeviceType(DeviceTypeResourceImpl.getDeviceType(slot.getComponentType()));
-
-        installationSlot.setParents(
-                getRelatedSlots(slot.getPairsInWhichThisSlotIsAChildList().stream(),
-                        SlotRelationName.CONTAINS,
-                        pair -> pair.getParentSlot()));
-        installationSlot.setChildren(
-                getRelatedSlots(slot.getPairsInWhichThisSlotIsAParentList().stream(),
-                        SlotRelationName.CONTAINS,
-                        pair -> pair.getChildSlot()));
-
-        installationSlot.setPoweredBy(
-                getRelatedSlots(slot.getPairsInWhichThisSlotIsAChildList().stream(),
-                        SlotRelationName.POWERS,
-                        pair -> pair.getParentSlot()));
-        installationSlot.setPowers(
-                getRelatedSlots(slot.getPairsInWhichThisSlotIsAParentList().stream(),
-                        SlotRelationName.POWERS,
-                        pair -> pair.getChildSlot()));
-
-        installationSlot.setControlledBy(
-                getRelatedSlots(slot.getPairsInWhichThisSlotIsAChildList().stream(),
-                        SlotRelationName.CONTROLS,
-                        pair -> pair.getParentSlot()));
-        installationSlot.setControls(
-                getRelatedSlots(slot.getPairsInWhichThisSlotIsAParentList().stream(),
-                        SlotRelationName.CONTROLS,
-                        pair -> pair.getChildSlot()));
-
-        installationSlot.setProperties(getPropertyValues(slot));
+        if (fields.contains(FIELD_DESCRIPTION)) {
+            installationSlot.setDescription(slot.getDescription());
+        }
+        if (fields.contains(FIELD_DEVICE_TYPE)) {
+            installationSlot.setDeviceType(DeviceTypeResourceImpl.getDeviceType(slot.getComponentType()));
+        }
+
+        // the relationship lists that were not requested are left out of the response
+        installationSlot.setParents(null);
+        installationSlot.setChildren(null);
+        installationSlot.setPoweredBy(null);
+        installationSlot.setPowers(null);
+        installationSlot.setControlledBy(null);
+        installationSlot.setControls(null);
+        final List<SlotPair> pairsAsChild = page.getPairsAsChild(slot);
+        final List<SlotPair> pairsAsParent = page.getPairsAsParent(slot);
+
+        if (fields.contains(FIELD_PARENTS)) {
+            installationSlot.setParents(
+                    getRelatedSlots(pairsAsChild.stream(),
+                            SlotRelationName.CONTAINS,
+                            pair -> pair.getParentSlot()));
+        }
+        if (fields.contains(FIELD_CHILDREN)) {
+            installationSlot.setChildren(
+                    getRelatedSlots(pairsAsParent.stream(),
+                            SlotRelationName.CONTAINS,
+                            pair -> pair.getChildSlot()));
+        }
+
+        if (fields.contains(FIELD_POWERED_BY)) {
+            installationSlot.setPoweredBy(
+                    getRelatedSlots(pairsAsChild.stream(),
+                            SlotRelationName.POWERS,
+                            pair -> pair.getParentSlot()));
+        }
+        if (fields.contains(FIELD_POWERS)) {
+            installationSlot.setPowers(
+                    getRelatedSlots(pairsAsParent.stream(),
+                            SlotRelationName.POWERS,
+                            pair -> pair.getChildSlot()));
+        }
+
+        if (fields.contains(FIELD_CONTROLLED_BY)) {
+            installationSlot.setControlledBy(
+                    getRelatedSlots(pairsAsChild.stream(),
+                            SlotRelationName.CONTROLS,
+                            pair -> pair.getParentSlot()));
+        }
+        if (fields.contains(FIELD_CONTROLS)) {
+            installationSlot.setControls(
+                    getRelatedSlots(pairsAsParent.stream(),
+                            SlotRelationName.CONTROLS,
+                            pair -> pair.getChildSlot()));
+        }
+
+        if (fields.contains(FIELD_PROPERTIES)) {
+            installationSlot.setProperties(getPropertyValues(slot, page));
+        }
         return installationSlot;
     }
 
@@ -151,19 +324,11 @@ public class InstallationSlotResourceImpl implements InstallationSlotResource {
                 collect(Collectors.toList());
     }
 
-    private List<PropertyValue> getPropertyValues(final Slot slot) {
-        final InstallationRecord record = installationEJB.getActiveInstallationRecordForSlot(slot);
-
-        final Stream<? extends PropertyValue> externalProps = Stream.concat(
-                            slot.getComponentType().getComptypePropertyList().stream().
-                                filter(propValue -> !propValue.isPropertyDefinition()).
-                                map(propValue -> createPropertyValue(propValue)),
-                            record == null ? Stream.empty() :
-                                record.getDevice().getDevicePropertyList().stream().
-                                    map(propValue -> createPropertyValue(propValue)));
-
-        return Stream.concat(slot.getSlotPropertyList().stream().map(propValue -> createPropertyValue(propValue)),
-                                externalProps).
+    private List<PropertyValue> getPropertyValues(final Slot slot, final SlotPage page) {
+        return Stream.<List<? extends org.openepics.discs.ccdb.model.PropertyValue>>of(page.getSlotProperties(slot),
+                            page.getTypeProperties(slot), page.getDeviceProperties(slot)).
+                        flatMap(List::stream).
+                        map(propValue -> createPropertyValue(propValue)).
                         collect(Collectors.toList());
     }
 
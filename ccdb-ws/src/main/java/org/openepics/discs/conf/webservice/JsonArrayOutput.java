@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.conf.webservice;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.annotation.Annotation;
+import java.util.List;
+import java.util.function.Consumer;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedHashMap;
+import javax.ws.rs.core.StreamingOutput;
+import javax.ws.rs.ext.MessageBodyWriter;
+import javax.ws.rs.ext.Providers;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Writes a JSON array, while its elements are read in chunks. Each element is serialized by the JAX-RS provider of
+ * the element type, the same one that serializes the element lists of the resources, so the streamed array has the
+ * same representation as the list would have. The output is flushed after each chunk.
+ *
+ * @param <T> the type of the array elements
+ */
+final class JsonArrayOutput<T> implements StreamingOutput {
+    private static final Annotation[] NO_ANNOTATIONS = new Annotation[0];
+
+    /** Produces the elements of the array */
+    @FunctionalInterface
+    interface ChunkSource<T> {
+        /** @param chunkHandler called for each chunk of elements, in order */
+        void forEachChunk(Consumer<List<T>> chunkHandler);
+    }
+
+    private final MessageBodyWriter<T> elementWriter;
+    private final Class<T> elementType;
+    private final ChunkSource<T> source;
+    private int writtenElements;
+
+    /**
+     * @param providers the providers of the JAX-RS application
+     * @param elementType the type of the array elements
+     * @param source the source of the elements
+     */
+    JsonArrayOutput(Providers providers, Class<T> elementType, ChunkSource<T> source) {
+        this(providers.getMessageBodyWriter(elementType, elementType, NO_ANNOTATIONS,
+                MediaType.APPLICATION_JSON_TYPE), elementType, source);
+    }
+
+    /**
+     * @param elementWriter the writer of a single element
+     * @param elementType the type of the array elements
+     * @param source the source of the elements
+     */
+    JsonArrayOutput(MessageBodyWriter<T> elementWriter, Class<T> elementType, ChunkSource<T> source) {
+        Preconditions.checkState(elementWriter != null, "No JSON provider for " + elementType.getName());
+        this.elementWriter = elementWriter;
+        this.elementType = elementType;
+        this.source = source;
+    }
+
+    @Override
+    public void write(OutputStream output) throws IOException {
+        // the provider may close the stream it has written an element to
+        final OutputStream elementOutput = new FilterOutputStream(output) {
+            @Override
+            public void write(byte[] bytes, int offset, int length) throws IOException {
+                out.write(bytes, offset, length);
+            }
+
+            @Override
+            public void close() throws IOException {
+                flush();
+            }
+        };
+
+        output.write('[');
+        try {
+            source.forEachChunk(chunk -> {
+                try {
+                    writeChunk(chunk, elementOutput);
+                    output.flush();
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        output.write(']');
+        output.flush();
+    }
+
+    private void writeChunk(List<T> chunk, OutputStream elementOutput) throws IOException {
+        for (final T element : chunk) {
+            if (writtenElements++ > 0) {
+                elementOutput.write(',');
+            }
+            elementWriter.writeTo(element, elementType, elementType, NO_ANNOTATIONS, MediaType.APPLICATION_JSON_TYPE,
+                    new MultivaluedHashMap<String, Object>(), elementOutput);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2016 European Spallation Source
+ * Copyright (c) 2016 Cosylab d.d.
+ *
+ * This file is part of Controls Configuration Database.
+ *
+ * Controls Configuration Database is free software: you can redistribute it
+ * and/or modify it under the terms of the GNU General Public License as
+ * published by the Free Software Foundation, either version 2 of the License,
+ * or any newer version.
+ *
+ * This program is distributed in the hope that it will be useful, but WITHOUT
+ * ANY WARRANTY; without even the implied warranty of MERCHANTABILITY or
+ * FITNESS FOR A PARTICULAR PURPOSE. See the GNU General Public License for more
+ * details.
+ *
+ * You should have received a copy of the GNU General Public License along with
+ * this program. If not, see https://www.gnu.org/licenses/gpl-2.0.txt
+ */
+package org.openepics.discs.conf.webservice;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.annotation.Annotation;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.MultivaluedMap;
+import javax.ws.rs.ext.MessageBodyWriter;
+
+import org.junit.Test;
+import org.openepics.discs.ccdb.jaxb.DeviceType;
+import org.openepics.discs.ccdb.jaxb.InstallationSlot;
+import org.openepics.discs.ccdb.jaxb.PropertyKind;
+import org.openepics.discs.ccdb.jaxb.PropertyValue;
+
+import com.fasterxml.jackson.annotation.JsonInclude.Include;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Checks that the streamed array of <code>/slot/stream</code> has the same representation as the list of
+ * <code>/slot</code>, when both are serialized by the same JSON provider.
+ */
+public class JsonArrayOutputTest {
+    private static final ObjectMapper MAPPER = new ObjectMapper().setSerializationInclusion(Include.NON_NULL);
+
+    /** A JSON provider that closes the stream after writing the entity, as the Jackson default does */
+    private static final MessageBodyWriter<InstallationSlot> PROVIDER = new MessageBodyWriter<InstallationSlot>() {
+        @Override
+        public boolean isWriteable(Class<?> type, Type genericType, Annotation[] annotations, MediaType mediaType) {
+            return true;
+        }
+
+        @Override
+        public long getSize(InstallationSlot slot, Class<?> type, Type genericType, Annotation[] annotations,
+                MediaType mediaType) {
+            return -1;
+        }
+
+        @Override
+        public void writeTo(InstallationSlot slot, Class<?> type, Type genericType, Annotation[] annotations,
+                MediaType mediaType, MultivaluedMap<String, Object> httpHeaders, OutputStream entityStream)
+                throws IOException {
+            MAPPER.writeValue(entityStream, slot);
+        }
+    };
+
+    @Test
+    public void streamEqualsList() throws IOException {
+        final InstallationSlot first = createInstallationSlot("FE_SRC1");
+        final InstallationSlot second = createInstallationSlot("FE_SRC2");
+        second.setChildren(Arrays.asList("FE_SRC2_A", "FE_SRC2_B"));
+        final InstallationSlot third = createInstallationSlot("FE_LEBT");
+        third.setDeviceType(null);
+        third.setProperties(Collections.<PropertyValue>emptyList());
+
+        final String streamed = stream(Arrays.asList(first, second), Collections.singletonList(third));
+
+        assertEquals(MAPPER.readTree(MAPPER.writeValueAsString(Arrays.asList(first, second, third))),
+                MAPPER.readTree(streamed));
+    }
+
+    @Test
+    public void emptyStreamEqualsEmptyList() throws IOException {
+        assertEquals(MAPPER.writeValueAsString(Collections.emptyList()), stream());
+    }
+
+    @SafeVarargs
+    private static String stream(List<InstallationSlot>... chunks) throws IOException {
+        final ByteArrayOutputStream output = new ByteArrayOutputStream();
+        new JsonArrayOutput<>(PROVIDER, InstallationSlot.class,
+                chunkHandler -> Arrays.asList(chunks).forEach(chunkHandler)).write(output);
+        return output.toString("UTF-8");
+    }
+
+    private static InstallationSlot createInstallationSlot(String name) {
+        final DeviceType deviceType = new DeviceType();
+        deviceType.setName("SRC");
+        deviceType.setDescription("Ion source");
+
+        final PropertyValue propertyValue = new PropertyValue();
+        propertyValue.setName("CURRENT");
+        propertyValue.setValue("1.5");
+        propertyValue.setDataType("Double");
+        propertyValue.setUnit("A");
+        propertyValue.setPropertyKind(PropertyKind.SLOT);
+
+        final InstallationSlot installationSlot = new InstallationSlot();
+        installationSlot.setName(name);
+        installationSlot.setDescription("Description of " + name);
+        installationSlot.setDeviceType(deviceType);
+        installationSlot.setParents(Collections.singletonList("FE"));
+        installationSlot.setProperties(Collections.singletonList(propertyValue));
+        return installationSlot;
+    }
+}